@@ -5,6 +5,7 @@ import android.util.Log;
 
 import com.dferreira.commons.generic_resources.AudioEnum;
 import com.dferreira.commons.generic_resources.IAudioData;
+import com.dferreira.commons.generic_resources.IAudioStream;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ISubResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
@@ -15,7 +16,7 @@ import com.dferreira.commons.shapes.IExternalMaterial;
 import com.dferreira.commons.shapes.IShape;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.commons.waveFront.MtlLoader;
-import com.dferreira.commons.waveFront.OBJLoader;
+import com.dferreira.commons.waveFront.OBJStreamLoader;
 import com.dferreira.gameEngine.R;
 
 import java.io.IOException;
@@ -141,7 +142,7 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
             InputStream inputStream = null;
             try {
                 inputStream = context.getResources().openRawResource(resourceId);
-                shape = OBJLoader.loadObjModel(inputStream, this);
+                shape = OBJStreamLoader.loadObjModel(inputStream, this);
                 cache.put(cacheKey, shape);
             } catch (Exception e) {
                 Log.e(TAG, "Could not load file!", e);
@@ -227,6 +228,17 @@ public class AndroidResourceProvider implements IResourceProvider, ISubResourceP
         return null;
     }
 
+    /**
+     * Opens one audio to be decoded while it is played
+     *
+     * @param audioEnum The audio to open
+     * @return null because the audio is not streamed in android
+     */
+    @Override
+    public IAudioStream openAudioStream(AudioEnum audioEnum) {
+        return null;
+    }
+
     /**
      * Dispose the resources used by the resource provider
      */
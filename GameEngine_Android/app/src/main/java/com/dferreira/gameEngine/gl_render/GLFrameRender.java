@@ -7,6 +7,7 @@ import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
 import com.dferreira.commons.generic_render.RenderConstants;
 
@@ -194,9 +195,53 @@ class GLFrameRender implements IFrameRenderAPI {
     public void drawTrianglesIndexes(IRawModel model) {
         GLRawModel rawModel = (GLRawModel) model;
 
+        int indexType = (rawModel.getIndexType() == IndexTypeEnum.UNSIGNED_SHORT) ? GLES20.GL_UNSIGNED_SHORT
+                : GLES20.GL_UNSIGNED_INT;
+
         //Specify the indexes
         GLES20.glDrawElements(GLES20.GL_TRIANGLES, rawModel.getNumOfIndexes(),
-                GLES20.GL_UNSIGNED_INT, rawModel.getIndexBuffer());
+                indexType, rawModel.getIndexBuffer());
+    }
+
+    /**
+     * @return False because OpenGL ES 2.0 does not have draws with a base vertex
+     */
+    @Override
+    public boolean supportsDrawRange() {
+        return false;
+    }
+
+    /**
+     * Draw a range of the indexes of a model (Never called because supportsDrawRange is false, so draws nothing)
+     *
+     * @param model        The model to be drawn
+     * @param firstIndex   Position of the first index to draw
+     * @param indicesCount Number of indexes to draw
+     * @param baseVertex   Number added to each index before reading the vertex
+     */
+    @Override
+    public void drawTrianglesIndexesRange(IRawModel model, int firstIndex, int indicesCount, int baseVertex) {
+    }
+
+    /**
+     * @return False because OpenGL ES 2.0 does not have instanced draws
+     */
+    @Override
+    public boolean supportsInstancing() {
+        return false;
+    }
+
+    /**
+     * Draw several instances of a model (Never called because supportsInstancing is false, so draws nothing)
+     *
+     * @param model                   The model to be drawn
+     * @param transformationAttribute Attribute of the shader that receives the transformation of each instance
+     * @param transformations         Transformation matrices of the instances
+     * @param instancesCount          Number of instances to draw
+     */
+    @Override
+    public void drawTrianglesIndexesInstanced(IRawModel model, IEnum transformationAttribute, float[] transformations,
+                                              int instancesCount) {
     }
 
     /**
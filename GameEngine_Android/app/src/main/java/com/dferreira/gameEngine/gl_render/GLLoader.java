@@ -3,21 +3,30 @@ package com.dferreira.gameEngine.gl_render;
 import android.opengl.GLES20;
 
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.compression.CompressedTextureData;
+import com.dferreira.commons.compression.CompressedTextureFormatEnum;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.RenderConstants;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.memory.DirectBufferPool;
+import com.dferreira.commons.models.MipmapGenerator;
 import com.dferreira.commons.models.TextureData;
 import com.dferreira.commons.shapes.IShape;
 import com.dferreira.commons.utils.Utils;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.Buffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * Loader for parts that are specific to openGL
@@ -27,20 +36,53 @@ class GLLoader implements ILoaderRenderAPI {
     @SuppressWarnings("FieldCanBeLocal")
     private final int INT_IN_BYTES = 4;
 
+    @SuppressWarnings("FieldCanBeLocal")
+    private final int SHORT_IN_BYTES = 2;
+
     @SuppressWarnings("FieldCanBeLocal")
     private final int FLOAT_IN_BYTES = 4;
 
+    /**
+     * Internal formats of the compressed textures (Not defined in GLES20)
+     */
+    private final static int GL_COMPRESSED_RGB_S3TC_DXT1_EXT = 0x83F0;
+    private final static int GL_COMPRESSED_RGBA_S3TC_DXT5_EXT = 0x83F3;
+    private final static int GL_COMPRESSED_RGB8_ETC2 = 0x9274;
+    private final static int GL_COMPRESSED_RGBA8_ETC2_EAC = 0x9278;
+
+    /**
+     * Extension that has the S3TC formats
+     */
+    private final static String S3TC_EXTENSION = "GL_EXT_texture_compression_s3tc";
+
+    /**
+     * Prefix of the version of the contexts that have the ETC2 formats
+     */
+    private final static String ES3_VERSION_PREFIX = "OpenGL ES 3";
+
 
     /**
      * Provider of the resources (highly dependent from the architecture)
      */
     private final IResourceProvider resourceProvider;
 
+    /**
+     * Buffers of the pool used by the client side arrays of each model loaded
+     * (Released when the model is deleted or in the dispose)
+     */
+    private final HashMap<IRawModel, List<ByteBuffer>> clientBuffers;
+
+    /**
+     * Buffers of the pool used by the client side arrays of the model being loaded
+     */
+    private List<ByteBuffer> buffersOfModel;
+
     /**
      * Constructor of the loader GL
      */
     GLLoader(IResourceProvider resourceProvider) {
         this.resourceProvider = resourceProvider;
+        this.clientBuffers = new HashMap<>();
     }
 
 
@@ -49,11 +91,13 @@ class GLLoader implements ILoaderRenderAPI {
      *
      * @param target    The target of the filter
      * @param wrapParam Parameter used in the wrap filters
+     * @param mipmapped Indicates that the texture has the mip chain loaded (Uses trilinear filtering)
      */
-    private void defineTextureFunctionFilters(int target, int wrapParam) {
+    private void defineTextureFunctionFilters(int target, int wrapParam, boolean mipmapped) {
 
         //The texture minify function is used whenever the pixel being textured maps to an area greater than one texture element
-        GLES20.glTexParameteri(target, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(target, GLES20.GL_TEXTURE_MIN_FILTER,
+                mipmapped ? GLES20.GL_LINEAR_MIPMAP_LINEAR : GLES20.GL_LINEAR);
 
         //The texture magnification function is used when the pixel being textured maps to an area less than or equal to one texture element
         GLES20.glTexParameteri(target, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
@@ -87,11 +131,18 @@ class GLLoader implements ILoaderRenderAPI {
         GLES20.glGenTextures(1, textureId, 0);
         GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, textureId[0]);
 
-        GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
-                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, textureData.getBuffer());
+        //OpenGL ES 2.0 only allows the mip chain in textures with power of two sizes
+        boolean mipmapped = MipmapGenerator.isPowerOfTwo(textureData.getWidth())
+                && MipmapGenerator.isPowerOfTwo(textureData.getHeight());
 
+        CompressedTextureData compressed = textureData.getCompressed();
+        if ((compressed != null) && isCompressedFormatSupported(compressed.getFormat())) {
+            mipmapped = loadCompressedLevels(compressed, mipmapped);
+        } else {
+            loadLevels(textureData, mipmapped);
+        }
 
-        defineTextureFunctionFilters(GLES20.GL_TEXTURE_2D, getWrapFilters(repeat));
+        defineTextureFunctionFilters(GLES20.GL_TEXTURE_2D, getWrapFilters(repeat), mipmapped);
 
         GLTexture texture = new GLTexture();
         texture.setId(textureId[0]);
@@ -99,6 +150,106 @@ class GLLoader implements ILoaderRenderAPI {
         return texture;
     }
 
+    /**
+     * Loads the pixels of the texture bound and of its mip chain
+     *
+     * @param textureData The data of the texture to load
+     * @param mipmapped   Indicates if is to load the mip chain
+     */
+    private void loadLevels(TextureData textureData, boolean mipmapped) {
+        GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, 0, GLES20.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
+                GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, textureData.getBuffer());
+        if (mipmapped) {
+            if (!textureData.hasMipmaps()) {
+                MipmapGenerator.generate(textureData);
+            }
+            TextureData[] mipmaps = textureData.getMipmaps();
+            for (int level = 0; level < mipmaps.length; level++) {
+                GLES20.glTexImage2D(GLES20.GL_TEXTURE_2D, level + 1, GLES20.GL_RGBA, mipmaps[level].getWidth(),
+                        mipmaps[level].getHeight(), 0, GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE,
+                        mipmaps[level].getBuffer());
+            }
+        }
+    }
+
+    /**
+     * Loads the blocks of the texture bound and of its mip chain
+     *
+     * @param compressed The texture compressed
+     * @param mipmapped  Indicates if is to load the mip chain
+     * @return True if the mip chain was loaded
+     */
+    private boolean loadCompressedLevels(CompressedTextureData compressed, boolean mipmapped) {
+        int internalFormat = getGLFormat(compressed.getFormat());
+        GLES20.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, 0, internalFormat, compressed.getWidth(),
+                compressed.getHeight(), 0, compressed.getBuffer().limit(), compressed.getBuffer());
+        CompressedTextureData[] mipmaps = compressed.getMipmaps();
+        if ((!mipmapped) || (mipmaps == null)) {
+            return false;
+        }
+        for (int level = 0; level < mipmaps.length; level++) {
+            GLES20.glCompressedTexImage2D(GLES20.GL_TEXTURE_2D, level + 1, internalFormat, mipmaps[level].getWidth(),
+                    mipmaps[level].getHeight(), 0, mipmaps[level].getBuffer().limit(), mipmaps[level].getBuffer());
+        }
+        return true;
+    }
+
+    /**
+     * @param format Format of block compression
+     * @return The internal format of openGL that matches the format passed
+     */
+    private int getGLFormat(CompressedTextureFormatEnum format) {
+        switch (format) {
+            case BC1:
+                return GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+            case BC3:
+                return GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+            case ETC2_RGB8:
+                return GL_COMPRESSED_RGB8_ETC2;
+            case ETC2_RGBA8:
+                return GL_COMPRESSED_RGBA8_ETC2_EAC;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @param format Format of block compression
+     * @return True if the context can load textures compressed in the format passed
+     */
+    @Override
+    public boolean isCompressedFormatSupported(CompressedTextureFormatEnum format) {
+        switch (format) {
+            case BC1:
+            case BC3:
+                String extensions = GLES20.glGetString(GLES20.GL_EXTENSIONS);
+                return (extensions != null) && extensions.contains(S3TC_EXTENSION);
+            case ETC2_RGB8:
+            case ETC2_RGBA8:
+                String version = GLES20.glGetString(GLES20.GL_VERSION);
+                return (version != null) && version.startsWith(ES3_VERSION_PREFIX);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Load a texture already decoded
+     *
+     * @param textureData The data of the texture to load
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass
+     *                    the size of texture
+     * @return Id from the texture that was bounded in openGL (null if there is no data)
+     */
+    @Override
+    public ITexture loadTexture(TextureData textureData, boolean repeat) {
+        if (textureData == null) {
+            return null;
+        } else {
+            return pLoadTexture(textureData, repeat);
+        }
+    }
+
     /**
      * Load texture from resource
      *
@@ -109,7 +260,11 @@ class GLLoader implements ILoaderRenderAPI {
     @Override
     public ITexture loadTexture(TextureEnum textureEnum, boolean repeat) {
         TextureData textureData = this.resourceProvider.getResource(textureEnum);
-        return pLoadTexture(textureData, repeat);
+        ITexture texture = pLoadTexture(textureData, repeat);
+        if (textureData != null) {
+            textureData.release();
+        }
+        return texture;
     }
 
     /**
@@ -122,7 +277,24 @@ class GLLoader implements ILoaderRenderAPI {
     @Override
     public ITexture loadTexture(String textureFileName, boolean repeat) {
         TextureData textureData = this.resourceProvider.getTexture(textureFileName);
-        return pLoadTexture(textureData, repeat);
+        ITexture texture = pLoadTexture(textureData, repeat);
+        if (textureData != null) {
+            textureData.release();
+        }
+        return texture;
+    }
+
+    /**
+     * Deletes one texture loaded before
+     *
+     * @param texture The texture to delete
+     */
+    @Override
+    public void deleteTexture(ITexture texture) {
+        if (texture != null) {
+            int[] textureIds = new int[]{((GLTexture) texture).getId()};
+            GLES20.glDeleteTextures(1, textureIds, 0);
+        }
     }
 
     /**
@@ -168,9 +340,10 @@ class GLLoader implements ILoaderRenderAPI {
                     int target = cubicTextureTargets[i];
                     GLES20.glTexImage2D(target, 0, GLES20.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
                             GLES20.GL_RGBA, GLES20.GL_UNSIGNED_BYTE, textureData.getBuffer());
+                    textureData.release();
                 }
             }
-            defineTextureFunctionFilters(GLES20.GL_TEXTURE_CUBE_MAP, getWrapFilters(repeat));
+            defineTextureFunctionFilters(GLES20.GL_TEXTURE_CUBE_MAP, getWrapFilters(repeat), false);
 
             GLTexture texture = new GLTexture();
             texture.setId(textureId[0]);
@@ -189,17 +362,37 @@ class GLLoader implements ILoaderRenderAPI {
      */
     @Override
     public IRawModel loadToRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        this.buffersOfModel = new ArrayList<>();
         float[] positions = shape.getVertices();
         float[] textureCoordinates = shape.getTextureCoords();
         float[] normals = shape.getNormals();
         int[] indices = shape.getIndices();
 
         FloatBuffer vertexBuffer = storeDataInFloatBuffer(positions);
-        IntBuffer indexBuffer = storeDataInIntBuffer(indices);
+        IndexTypeEnum indexType = IndexTypeEnum.forVertexCount(positions.length / RenderConstants.VERTEX_SIZE);
+        Buffer indexBuffer = (indexType == IndexTypeEnum.UNSIGNED_SHORT) ? storeDataInShortBuffer(indices)
+                : storeDataInIntBuffer(indices);
         FloatBuffer normalBuffer = storeDataInFloatBuffer(normals);
         FloatBuffer texCoordinatesBuffer = storeDataInFloatBuffer(textureCoordinates);
 
-        return new GLRawModel(vertexBuffer, indexBuffer, indices.length, normalBuffer, texCoordinatesBuffer, attributes);
+        GLRawModel rawModel = new GLRawModel(vertexBuffer, indexBuffer, indexType, indices.length, normalBuffer,
+                texCoordinatesBuffer, attributes);
+        this.clientBuffers.put(rawModel, this.buffersOfModel);
+        this.buffersOfModel = null;
+        return rawModel;
+    }
+
+    /**
+     * Load from a shape to one equivalent IRawModel with the vertices in a compact format
+     * (The client side arrays are kept as floats)
+     *
+     * @param shape      The shape to load
+     * @param attributes List of attributes associated with the model
+     * @return A raw model with information loaded
+     */
+    @Override
+    public IRawModel loadToQuantizedRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        return loadToRawModel(shape, attributes);
     }
 
     /**
@@ -211,8 +404,12 @@ class GLLoader implements ILoaderRenderAPI {
      * @return A raw model with information loaded
      */
     private IRawModel loadPositionsToRawModel(float[] positions, int dimensions, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        this.buffersOfModel = new ArrayList<>();
         FloatBuffer vertexBuffer = storeDataInFloatBuffer(positions);
-        return new GLRawModel(vertexBuffer, positions.length / dimensions, attributes);
+        GLRawModel rawModel = new GLRawModel(vertexBuffer, positions.length / dimensions, attributes);
+        this.clientBuffers.put(rawModel, this.buffersOfModel);
+        this.buffersOfModel = null;
+        return rawModel;
     }
 
     /**
@@ -241,6 +438,22 @@ class GLLoader implements ILoaderRenderAPI {
         return loadPositionsToRawModel(positions, dimensions, attributes);
     }
 
+    /**
+     * Deletes one raw model loaded before
+     * (Returns the buffers of the pool of its client side arrays, the model can not be drawn after)
+     *
+     * @param model The raw model to delete
+     */
+    @Override
+    public void deleteRawModel(IRawModel model) {
+        List<ByteBuffer> buffers = this.clientBuffers.remove(model);
+        if (buffers != null) {
+            for (ByteBuffer buffer : buffers) {
+                DirectBufferPool.getInstance().release(buffer);
+            }
+        }
+    }
+
     /**
      * Convert on array of Integers in a buffer of Integers that can be used in
      * openGL
@@ -250,13 +463,28 @@ class GLLoader implements ILoaderRenderAPI {
      * @return The integer buffer created
      */
     private IntBuffer storeDataInIntBuffer(int[] data) {
-        IntBuffer sBuffer = ByteBuffer.allocateDirect(data.length * INT_IN_BYTES)
-                .order(ByteOrder.nativeOrder()).asIntBuffer();
+        IntBuffer sBuffer = acquireClientBuffer(data.length * INT_IN_BYTES).asIntBuffer();
         sBuffer.put(data).position(0);
         return sBuffer;
     }
 
 
+    /**
+     * Convert on array of Integers in a buffer of Shorts that can be used in
+     * openGL (The values should fit in 16 bits unsigned)
+     *
+     * @param data array with data to put in the Short Buffer
+     * @return The short buffer created
+     */
+    private ShortBuffer storeDataInShortBuffer(int[] data) {
+        ShortBuffer sBuffer = acquireClientBuffer(data.length * SHORT_IN_BYTES).asShortBuffer();
+        for (int value : data) {
+            sBuffer.put((short) value);
+        }
+        sBuffer.position(0);
+        return sBuffer;
+    }
+
     /**
      * Convert on array of Floats in a buffer of Floats that can be used in
      * openGL
@@ -267,13 +495,10 @@ class GLLoader implements ILoaderRenderAPI {
      */
     private FloatBuffer storeDataInFloatBuffer(float[] data) {
 
-        // Allocate a direct block of memory on the native heap,
+        // Acquire a direct block of memory of the pool in the native order,
         // size in bytes is equal to data.length * BYTES_PER_FLOAT.
         // BYTES_PER_FLOAT is equal to 4, since a float is 32-bits, or 4 bytes.
-        FloatBuffer fBuffer = ByteBuffer.allocateDirect(data.length * FLOAT_IN_BYTES)
-                // Floats can be in big-endian or little-endian order.
-                // We want the same as the native platform.
-                .order(ByteOrder.nativeOrder()).asFloatBuffer();
+        FloatBuffer fBuffer = acquireClientBuffer(data.length * FLOAT_IN_BYTES).asFloatBuffer();
         fBuffer
                 // Copy data from the Java heap to the native heap.
                 .put(data)
@@ -283,11 +508,30 @@ class GLLoader implements ILoaderRenderAPI {
         return fBuffer;
     }
 
+    /**
+     * Acquires a buffer of the pool for a client side array of the model being loaded
+     * (Kept until the model is deleted or the dispose of the loader)
+     *
+     * @param size Number of bytes of the array
+     * @return The buffer in the native order
+     */
+    private ByteBuffer acquireClientBuffer(int size) {
+        ByteBuffer buffer = DirectBufferPool.getInstance().acquire(size);
+        buffersOfModel.add(buffer);
+        return buffer;
+    }
+
     /**
      * Clean up the resources used by the loader
      */
     @Override
     public void dispose() {
-
+        // The client side arrays go back to the pool to be reused by the next scene
+        for (List<ByteBuffer> buffers : clientBuffers.values()) {
+            for (ByteBuffer buffer : buffers) {
+                DirectBufferPool.getInstance().release(buffer);
+            }
+        }
+        clientBuffers.clear();
     }
 }
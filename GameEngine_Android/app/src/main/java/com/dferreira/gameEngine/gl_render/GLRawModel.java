@@ -1,11 +1,13 @@
 package com.dferreira.gameEngine.gl_render;
 
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.shapes.VertexQuantization;
 
+import java.nio.Buffer;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import java.util.HashMap;
 
 /**
@@ -28,7 +30,12 @@ public class GLRawModel implements IRawModel {
     /**
      * Buffer that supports the indexes of the object
      */
-    private final IntBuffer indexBuffer;
+    private final Buffer indexBuffer;
+
+    /**
+     * Type of the indexes of the object (null if the object is not drawn with indexes)
+     */
+    private final IndexTypeEnum indexType;
 
     /**
      * Buffer that supports the coordinates of the textures of the object
@@ -55,15 +62,17 @@ public class GLRawModel implements IRawModel {
      *
      * @param vertexBuffer   Buffer that describes the position of the vertices
      * @param indexBuffer    Buffer that describes which vertices will be used
+     * @param indexType      Type of the indexes in the index buffer
      * @param normalBuffer   Buffer that describes which normal will be user
      * @param texCoordinates Coordinates of the textures in the model
      * @param attributes     List of attributes associated with the model
      */
-    public GLRawModel(FloatBuffer vertexBuffer, IntBuffer indexBuffer, int numOfIndexes, FloatBuffer normalBuffer, FloatBuffer texCoordinates, HashMap<RenderAttributeEnum, IEnum> attributes) {
+    public GLRawModel(FloatBuffer vertexBuffer, Buffer indexBuffer, IndexTypeEnum indexType, int numOfIndexes, FloatBuffer normalBuffer, FloatBuffer texCoordinates, HashMap<RenderAttributeEnum, IEnum> attributes) {
         super();
         this.vertexBuffer = vertexBuffer;
         this.vertexCount = 0;
         this.indexBuffer = indexBuffer;
+        this.indexType = indexType;
         this.texCoordinates = texCoordinates;
         this.normalBuffer = normalBuffer;
         this.numOfIndexes = numOfIndexes;
@@ -80,6 +89,7 @@ public class GLRawModel implements IRawModel {
         this.vertexBuffer = vertexBuffer;
         this.vertexCount = vertexCount;
         this.indexBuffer = null;
+        this.indexType = null;
         this.normalBuffer = null;
         this.texCoordinates = null;
         this.numOfIndexes = 0;
@@ -97,10 +107,18 @@ public class GLRawModel implements IRawModel {
      * @return The buffer that describes the vertices that are going to be used to render the
      * model
      */
-    public IntBuffer getIndexBuffer() {
+    public Buffer getIndexBuffer() {
         return indexBuffer;
     }
 
+    /**
+     * @return The type of the indexes of the object (null if the object is not drawn with indexes)
+     */
+    @Override
+    public IndexTypeEnum getIndexType() {
+        return indexType;
+    }
+
     /**
      * @return the number of indexes
      */
@@ -141,6 +159,14 @@ public class GLRawModel implements IRawModel {
         return this.attributes.get(renderAttribute);
     }
 
+    /**
+     * @return null because the vertices are always loaded as floats
+     */
+    @Override
+    public VertexQuantization getQuantization() {
+        return null;
+    }
+
     /**
      * Clean the memory used by the model
      */
@@ -0,0 +1,254 @@
+package com.dferreira.commons;
+
+/**
+ * Volume of the world seen by the camera, bounded by six planes
+ * (The planes are extracted from the projection times the view matrix and point to the inside of the volume)
+ */
+public class Frustum {
+
+    /**
+     * Number of planes of the frustum (Left, right, bottom, top, near and far)
+     */
+    private final static int PLANES_COUNT = 6;
+
+    /**
+     * Number of components of a side of the matrices
+     */
+    private final static int MATRIX_SIDE = 4;
+
+    /**
+     * Size of the matrices
+     */
+    private final static int MATRIX_SIZE = 16;
+
+    /**
+     * Number of spheres that the scratch margins have space for when created
+     */
+    private final static int INITIAL_CAPACITY = 256;
+
+    /**
+     * Components of the planes (Kept by component so the batch tests run over contiguous arrays)
+     */
+    private final float[] planeX;
+    private final float[] planeY;
+    private final float[] planeZ;
+    private final float[] planeD;
+
+    /**
+     * Scratch matrix with the projection times the view
+     * (In double because the far plane is the difference of two rows that are almost equal)
+     */
+    private final double[] clip;
+
+    /**
+     * Scratch margins of the spheres tested in batch (Smallest signed distance to the planes)
+     */
+    private float[] margins;
+
+    /**
+     * Constructor of the frustum (Contains nothing until extracted)
+     */
+    public Frustum() {
+        this.planeX = new float[PLANES_COUNT];
+        this.planeY = new float[PLANES_COUNT];
+        this.planeZ = new float[PLANES_COUNT];
+        this.planeD = new float[PLANES_COUNT];
+        this.clip = new double[MATRIX_SIZE];
+        this.margins = new float[INITIAL_CAPACITY];
+        // Planes that nothing is inside of
+        for (int i = 0; i < PLANES_COUNT; i++) {
+            this.planeD[i] = -1.0f;
+        }
+    }
+
+    /**
+     * Extracts the planes of the frustum seen by the camera
+     *
+     * @param projection The projection matrix
+     * @param view       The view matrix
+     */
+    public void extract(GLTransformation projection, GLTransformation view) {
+        float[] p = projection.get();
+        float[] v = view.get();
+        // The matrices are by column
+        for (int column = 0; column < MATRIX_SIDE; column++) {
+            for (int row = 0; row < MATRIX_SIDE; row++) {
+                double sum = 0.0;
+                for (int k = 0; k < MATRIX_SIDE; k++) {
+                    sum += (double) p[k * MATRIX_SIDE + row] * v[column * MATRIX_SIDE + k];
+                }
+                clip[column * MATRIX_SIDE + row] = sum;
+            }
+        }
+
+        // Each plane is the last row plus or minus one of the others
+        setPlane(0, 0, 1.0);
+        setPlane(1, 0, -1.0);
+        setPlane(2, 1, 1.0);
+        setPlane(3, 1, -1.0);
+        setPlane(4, 2, 1.0);
+        setPlane(5, 2, -1.0);
+    }
+
+    /**
+     * Sets one plane as the last row of the clip matrix plus one of the other rows and normalizes it
+     *
+     * @param plane Index of the plane
+     * @param row   Row of the clip matrix
+     * @param sign  Sign of the row in the sum
+     */
+    private void setPlane(int plane, int row, double sign) {
+        int w = MATRIX_SIDE - 1;
+        double x = clip[w] + sign * clip[row];
+        double y = clip[MATRIX_SIDE + w] + sign * clip[MATRIX_SIDE + row];
+        double z = clip[2 * MATRIX_SIDE + w] + sign * clip[2 * MATRIX_SIDE + row];
+        double d = clip[3 * MATRIX_SIDE + w] + sign * clip[3 * MATRIX_SIDE + row];
+        double length = Math.sqrt(x * x + y * y + z * z);
+        if (length > 0.0) {
+            x /= length;
+            y /= length;
+            z /= length;
+            d /= length;
+        }
+        planeX[plane] = (float) x;
+        planeY[plane] = (float) y;
+        planeZ[plane] = (float) z;
+        planeD[plane] = (float) d;
+    }
+
+    /**
+     * @param x      X of the center of the sphere
+     * @param y      Y of the center of the sphere
+     * @param z      Z of the center of the sphere
+     * @param radius Radius of the sphere
+     * @return False if the sphere is outside of the frustum, true if it may be inside
+     */
+    public boolean intersectsSphere(float x, float y, float z, float radius) {
+        for (int i = 0; i < PLANES_COUNT; i++) {
+            if (planeX[i] * x + planeY[i] * y + planeZ[i] * z + planeD[i] < -radius) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests a box aligned with the axes against the frustum
+     * (Only the corner of the box more inside of each plane is tested)
+     *
+     * @param minX Minimum of x of the box
+     * @param minY Minimum of y of the box
+     * @param minZ Minimum of z of the box
+     * @param maxX Maximum of x of the box
+     * @param maxY Maximum of y of the box
+     * @param maxZ Maximum of z of the box
+     * @return False if the box is outside of the frustum, true if it may be inside
+     */
+    public boolean intersectsBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < PLANES_COUNT; i++) {
+            float x = (planeX[i] >= 0.0f) ? maxX : minX;
+            float y = (planeY[i] >= 0.0f) ? maxY : minY;
+            float z = (planeZ[i] >= 0.0f) ? maxZ : minZ;
+            if (planeX[i] * x + planeY[i] * y + planeZ[i] * z + planeD[i] < 0.0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the box aligned with the axes that bounds the frustum from its eight corners
+     *
+     * @param bounds Where the box is written (Minimum x, y, z and maximum x, y, z)
+     * @return False if the frustum was not extracted or its planes do not meet in corners
+     */
+    public boolean computeBounds(float[] bounds) {
+        bounds[0] = bounds[1] = bounds[2] = Float.POSITIVE_INFINITY;
+        bounds[3] = bounds[4] = bounds[5] = Float.NEGATIVE_INFINITY;
+        // Each corner is where one of the side planes, one of the vertical planes and one of the depth planes meet
+        for (int a = 0; a < 2; a++) {
+            for (int b = 2; b < 4; b++) {
+                for (int c = 4; c < 6; c++) {
+                    if (!addCorner(a, b, c, bounds)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Includes the point where three planes meet in a box
+     *
+     * @param a      Index of the first plane
+     * @param b      Index of the second plane
+     * @param c      Index of the third plane
+     * @param bounds Box where the point is included
+     * @return False if the planes do not meet in one point
+     */
+    private boolean addCorner(int a, int b, int c, float[] bounds) {
+        // Cross products of the normals
+        double bcX = planeY[b] * planeZ[c] - planeZ[b] * planeY[c];
+        double bcY = planeZ[b] * planeX[c] - planeX[b] * planeZ[c];
+        double bcZ = planeX[b] * planeY[c] - planeY[b] * planeX[c];
+        double caX = planeY[c] * planeZ[a] - planeZ[c] * planeY[a];
+        double caY = planeZ[c] * planeX[a] - planeX[c] * planeZ[a];
+        double caZ = planeX[c] * planeY[a] - planeY[c] * planeX[a];
+        double abX = planeY[a] * planeZ[b] - planeZ[a] * planeY[b];
+        double abY = planeZ[a] * planeX[b] - planeX[a] * planeZ[b];
+        double abZ = planeX[a] * planeY[b] - planeY[a] * planeX[b];
+
+        double determinant = planeX[a] * bcX + planeY[a] * bcY + planeZ[a] * bcZ;
+        if (Math.abs(determinant) < 1.0e-12) {
+            return false;
+        }
+        float x = (float) (-(planeD[a] * bcX + planeD[b] * caX + planeD[c] * abX) / determinant);
+        float y = (float) (-(planeD[a] * bcY + planeD[b] * caY + planeD[c] * abY) / determinant);
+        float z = (float) (-(planeD[a] * bcZ + planeD[b] * caZ + planeD[c] * abZ) / determinant);
+        bounds[0] = Math.min(bounds[0], x);
+        bounds[1] = Math.min(bounds[1], y);
+        bounds[2] = Math.min(bounds[2], z);
+        bounds[3] = Math.max(bounds[3], x);
+        bounds[4] = Math.max(bounds[4], y);
+        bounds[5] = Math.max(bounds[5], z);
+        return true;
+    }
+
+    /**
+     * Tests a batch of spheres against the frustum
+     * (Each plane runs over all the spheres in a loop without branches that the JIT can vectorize,
+     * the visible ones are only gathered at the end)
+     *
+     * @param x       X of the centers of the spheres
+     * @param y       Y of the centers of the spheres
+     * @param z       Z of the centers of the spheres
+     * @param radius  Radii of the spheres
+     * @param count   Number of spheres to test
+     * @param visible Where the indexes of the spheres that may be inside are written (Space for count indexes)
+     * @return The number of indexes written in visible
+     */
+    public int cullSpheres(float[] x, float[] y, float[] z, float[] radius, int count, int[] visible) {
+        if (margins.length < count) {
+            margins = new float[Math.max(count, margins.length * 2)];
+        }
+        float[] margins = this.margins;
+        for (int i = 0; i < count; i++) {
+            margins[i] = Float.POSITIVE_INFINITY;
+        }
+        for (int plane = 0; plane < PLANES_COUNT; plane++) {
+            float a = planeX[plane], b = planeY[plane], c = planeZ[plane], d = planeD[plane];
+            for (int i = 0; i < count; i++) {
+                margins[i] = Math.min(margins[i], a * x[i] + b * y[i] + c * z[i] + d + radius[i]);
+            }
+        }
+
+        int visibleCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (margins[i] >= 0.0f) {
+                visible[visibleCount++] = i;
+            }
+        }
+        return visibleCount;
+    }
+}
@@ -1,7 +1,7 @@
 package com.dferreira.commons;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import com.dferreira.commons.memory.DirectBufferPool;
+
 import java.nio.FloatBuffer;
 
 /**
@@ -13,19 +13,29 @@ public class GLTransformation {
 	/* The size of a side of the matrix */
 	private final int MATRIX_SIDE = 4;
 
-	private final int FLOAT_SIZE = 4;
+	private static final int FLOAT_SIZE = 4;
 
 	/* The size of the matrix that is 4x4 */
-	private final int MATRIX_SIZE = 16;
-	private final FloatBuffer mMatrixFloatBuffer;
+	private static final int MATRIX_SIZE = 16;
+
+	/*
+	 * Direct buffer where the matrices are written to be passed to the render (One by thread because the
+	 * render reads it at once, so the matrices do not need a direct buffer each one)
+	 */
+	private static final ThreadLocal<FloatBuffer> matrixFloatBuffer = new ThreadLocal<FloatBuffer>() {
+		@Override
+		protected FloatBuffer initialValue() {
+			return DirectBufferPool.getInstance().acquire(MATRIX_SIZE * FLOAT_SIZE).asFloatBuffer();
+		}
+	};
+
     private float[] mMatrix = new float[MATRIX_SIZE];
 
 	/**
 	 * Simply allocates space for a matrix of [4x4] floats
 	 */
 	public GLTransformation() {
-		mMatrixFloatBuffer = ByteBuffer.allocateDirect(MATRIX_SIZE * FLOAT_SIZE).order(ByteOrder.nativeOrder())
-				.asFloatBuffer();
+		super();
 	}
 
 	/**
@@ -295,17 +305,20 @@ public class GLTransformation {
 	}
 
 	/**
-	 * @return current matrix in float buffer type
+	 * @return current matrix in float buffer type (The buffer is shared by the matrices of the thread, it is
+	 *         only valid until the next call)
 	 */
 	public FloatBuffer getAsFloatBuffer() {
-		mMatrixFloatBuffer.put(mMatrix).position(0);
-		return mMatrixFloatBuffer;
+		FloatBuffer buffer = matrixFloatBuffer.get();
+		buffer.clear();
+		buffer.put(mMatrix).flip();
+		return buffer;
 	}
 
 	/**
-	 * @return current matrix
+	 * @return current matrix (The array of the transformation, should only be read)
 	 */
-	private float[] get() {
+	public float[] get() {
 		return mMatrix;
 	}
 
@@ -1,11 +1,13 @@
 package com.dferreira.commons;
 
+import com.dferreira.commons.memory.DirectBufferPool;
 import com.dferreira.commons.models.TextureData;
 import com.dferreira.commons.utils.Utils;
 
 import org.newdawn.slick.opengl.PNGDecoder;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -25,6 +27,16 @@ public class LoadUtils {
      */
     private final static String RESOURCES_PATH_RELATIVE_TO_CLASSES = "../../resources/main/";
 
+    /**
+     * Protocol of the urls of resources that are in the file system
+     */
+    private final static String FILE_PROTOCOL = "file";
+
+    /**
+     * Size of the chunks used to read the text resources
+     */
+    private final static int BUFFER_SIZE = 8 * 1024;
+
     /**
      * Due to the differences how resources are saved during debug
      * phase and when they are inside jar a file can return null just because needs
@@ -62,6 +74,31 @@ public class LoadUtils {
         return inputStream;
     }
 
+    /**
+     * Gets the file of a resource if it is directly in the file system
+     * (Follows the same places that getInputStreamToResource looks for)
+     *
+     * @param fileName Name of the file of the resource
+     * @return The file of the resource or null if the resource is not a file (ex: inside a jar)
+     */
+    public static File getFileToResource(String fileName) {
+        File file = new File(fileName);
+        if (file.isFile()) {
+            return file;
+        }
+        URL url = LoadUtils.class.getClassLoader().getResource(fileName);
+        if (url == null) {
+            //Probably is working in the EDI
+            URL baseUrl = LoadUtils.class.getClassLoader().getResource(Utils.EMPTY_STRING);
+            if (baseUrl != null) {
+                file = new File(baseUrl.getPath() + RESOURCES_PATH_RELATIVE_TO_CLASSES + fileName);
+            }
+        } else if (FILE_PROTOCOL.equals(url.getProtocol())) {
+            file = new File(url.getPath());
+        }
+        return file.isFile() ? file : null;
+    }
+
     /**
      * Reads a string from a certain resource
      *
@@ -69,24 +106,39 @@ public class LoadUtils {
      * @return The text that exists in the resource
      */
     public static String readTextFromRawResource(String fileName) {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        String str = null;
+        InputStream inputStream = getInputStreamToResource(fileName);
+        if (inputStream == null) {
+            System.err.println("Could not find the resource: " + fileName);
+            return null;
+        }
+        return readText(inputStream);
+    }
 
-        int bytesRead;
+    /**
+     * Reads the text of a stream (Closes the stream at the end)
+     *
+     * @param inputStream Stream with the text
+     * @return The text read or null if was not possible to read
+     */
+    public static String readText(InputStream inputStream) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+        byte[] chunk = new byte[BUFFER_SIZE];
         try {
-            InputStream inputStream = getInputStreamToResource(fileName);
-            bytesRead = inputStream.read();
-            while (bytesRead != -1) {
-                byteArrayOutputStream.write(bytesRead);
-                bytesRead = inputStream.read();
+            int bytesRead;
+            while ((bytesRead = inputStream.read(chunk)) != -1) {
+                byteArrayOutputStream.write(chunk, 0, bytesRead);
             }
-            inputStream.close();
-            str = byteArrayOutputStream.toString();
-            byteArrayOutputStream.close();
+            return byteArrayOutputStream.toString();
         } catch (IOException e) {
             e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
-        return str;
     }
 
     /**
@@ -96,26 +148,43 @@ public class LoadUtils {
      * @return
      */
     public static TextureData loadTexture(String fileName) {
+        InputStream in = getInputStreamToResource(fileName);
+        if (in == null) {
+            System.err.println("Could not find the texture: " + fileName);
+            return null;
+        }
+        return loadTexture(in);
+    }
+
+    /**
+     * Load texture from a stream of a png image (Closes the stream at the end)
+     *
+     * @param in Stream of the image
+     * @return The texture decoded or null if was not possible to decode
+     */
+    public static TextureData loadTexture(InputStream in) {
         int width = 0;
         int height = 0;
 
         ByteBuffer buffer = null;
 
         try {
-            InputStream in = getInputStreamToResource(fileName);
             PNGDecoder decoder = new PNGDecoder(in);
             width = decoder.getWidth();
             height = decoder.getHeight();
-            buffer = ByteBuffer.allocateDirect(NUMBER_OF_COMPONENTS * width * height);
+            buffer = DirectBufferPool.getInstance().acquire(NUMBER_OF_COMPONENTS * width * height);
             decoder.decode(buffer, NUMBER_OF_COMPONENTS * width, PNGDecoder.RGBA);
             buffer.flip();
-            in.close();
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-            return null;
         } catch (IOException e) {
             e.printStackTrace();
+            DirectBufferPool.getInstance().release(buffer);
             return null;
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }
         return new TextureData(buffer, width, height);
     }
@@ -0,0 +1,181 @@
+package com.dferreira.commons.atlas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs rectangles in a bin with the MaxRects algorithm
+ * (Keeps the maximal free rectangles and puts each new rectangle where its shorter leftover side is the smallest)
+ */
+public class AtlasPacker {
+
+    /**
+     * One rectangle of the bin
+     */
+    private static class Rectangle {
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        /**
+         * @param x      Left of the rectangle
+         * @param y      Top of the rectangle
+         * @param width  Width of the rectangle
+         * @param height Height of the rectangle
+         */
+        private Rectangle(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * @param other Other rectangle
+         * @return True if this rectangle is inside of the other
+         */
+        private boolean isInside(Rectangle other) {
+            return (x >= other.x) && (y >= other.y) && (x + width <= other.x + other.width)
+                    && (y + height <= other.y + other.height);
+        }
+
+        /**
+         * @param other Other rectangle
+         * @return True if the rectangles overlap
+         */
+        private boolean intersects(Rectangle other) {
+            return (x < other.x + other.width) && (x + width > other.x) && (y < other.y + other.height)
+                    && (y + height > other.y);
+        }
+    }
+
+    /**
+     * Width of the bin
+     */
+    private final int width;
+
+    /**
+     * Height of the bin
+     */
+    private final int height;
+
+    /**
+     * Maximal rectangles that are still free
+     */
+    private final List<Rectangle> freeRectangles;
+
+    /**
+     * Area already used by the rectangles packed
+     */
+    private long usedArea;
+
+    /**
+     * Constructor of the packer
+     *
+     * @param width  Width of the bin
+     * @param height Height of the bin
+     */
+    public AtlasPacker(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.freeRectangles = new ArrayList<>();
+        this.freeRectangles.add(new Rectangle(0, 0, width, height));
+        this.usedArea = 0;
+    }
+
+    /**
+     * Packs one rectangle
+     *
+     * @param rectangleWidth  Width of the rectangle
+     * @param rectangleHeight Height of the rectangle
+     * @return The position (x, y) where the rectangle was put (null if it does not fit)
+     */
+    public int[] insert(int rectangleWidth, int rectangleHeight) {
+        Rectangle best = null;
+        int bestShortSide = Integer.MAX_VALUE;
+        int bestLongSide = Integer.MAX_VALUE;
+        for (Rectangle free : freeRectangles) {
+            if ((free.width >= rectangleWidth) && (free.height >= rectangleHeight)) {
+                int leftoverX = free.width - rectangleWidth;
+                int leftoverY = free.height - rectangleHeight;
+                int shortSide = Math.min(leftoverX, leftoverY);
+                int longSide = Math.max(leftoverX, leftoverY);
+                if ((shortSide < bestShortSide) || ((shortSide == bestShortSide) && (longSide < bestLongSide))) {
+                    best = new Rectangle(free.x, free.y, rectangleWidth, rectangleHeight);
+                    bestShortSide = shortSide;
+                    bestLongSide = longSide;
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        place(best);
+        usedArea += (long) rectangleWidth * rectangleHeight;
+        return new int[]{best.x, best.y};
+    }
+
+    /**
+     * Splits the free rectangles that overlap the rectangle placed and removes the ones contained by others
+     *
+     * @param placed Rectangle placed in the bin
+     */
+    private void place(Rectangle placed) {
+        List<Rectangle> splits = new ArrayList<>();
+        for (int i = freeRectangles.size() - 1; i >= 0; i--) {
+            Rectangle free = freeRectangles.get(i);
+            if (!free.intersects(placed)) {
+                continue;
+            }
+            freeRectangles.remove(i);
+            if (placed.x > free.x) {
+                splits.add(new Rectangle(free.x, free.y, placed.x - free.x, free.height));
+            }
+            if (placed.x + placed.width < free.x + free.width) {
+                splits.add(new Rectangle(placed.x + placed.width, free.y,
+                        free.x + free.width - placed.x - placed.width, free.height));
+            }
+            if (placed.y > free.y) {
+                splits.add(new Rectangle(free.x, free.y, free.width, placed.y - free.y));
+            }
+            if (placed.y + placed.height < free.y + free.height) {
+                splits.add(new Rectangle(free.x, placed.y + placed.height, free.width,
+                        free.y + free.height - placed.y - placed.height));
+            }
+        }
+        freeRectangles.addAll(splits);
+
+        // Removes the free rectangles inside of other free rectangles
+        for (int i = freeRectangles.size() - 1; i >= 0; i--) {
+            Rectangle candidate = freeRectangles.get(i);
+            for (int j = 0; j < freeRectangles.size(); j++) {
+                if ((i != j) && candidate.isInside(freeRectangles.get(j))) {
+                    freeRectangles.remove(i);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the width of the bin
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the bin
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the fraction of the bin used by the rectangles packed (between 0 and 1)
+     */
+    public float getOccupancy() {
+        return (float) usedArea / ((long) width * height);
+    }
+}
@@ -0,0 +1,137 @@
+package com.dferreira.commons.atlas;
+
+/**
+ * Region of one texture inside of an atlas
+ * (Converts the texture coordinates of the texture to the texture coordinates of the atlas)
+ */
+public class AtlasRegion {
+
+    /**
+     * Left of the texture in the atlas (in texels, without padding)
+     */
+    private final int x;
+
+    /**
+     * Top of the texture in the atlas (in texels, without padding)
+     */
+    private final int y;
+
+    /**
+     * Width of the texture
+     */
+    private final int width;
+
+    /**
+     * Height of the texture
+     */
+    private final int height;
+
+    /**
+     * Width of the atlas
+     */
+    private final int atlasWidth;
+
+    /**
+     * Height of the atlas
+     */
+    private final int atlasHeight;
+
+    /**
+     * Constructor of the region
+     *
+     * @param x           Left of the texture in the atlas
+     * @param y           Top of the texture in the atlas
+     * @param width       Width of the texture
+     * @param height      Height of the texture
+     * @param atlasWidth  Width of the atlas
+     * @param atlasHeight Height of the atlas
+     */
+    public AtlasRegion(int x, int y, int width, int height, int atlasWidth, int atlasHeight) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+        this.atlasWidth = atlasWidth;
+        this.atlasHeight = atlasHeight;
+    }
+
+    /**
+     * @return the left of the texture in the atlas (in texels)
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * @return the top of the texture in the atlas (in texels)
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * @return the width of the texture
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the texture
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the offset of the texture coordinate u in the atlas
+     */
+    public float getOffsetU() {
+        return (float) x / atlasWidth;
+    }
+
+    /**
+     * @return the offset of the texture coordinate v in the atlas
+     */
+    public float getOffsetV() {
+        return (float) y / atlasHeight;
+    }
+
+    /**
+     * @return the scale of the texture coordinate u in the atlas
+     */
+    public float getScaleU() {
+        return (float) width / atlasWidth;
+    }
+
+    /**
+     * @return the scale of the texture coordinate v in the atlas
+     */
+    public float getScaleV() {
+        return (float) height / atlasHeight;
+    }
+
+    /**
+     * @param u Texture coordinate u of the texture
+     * @return The texture coordinate u in the atlas
+     */
+    public float remapU(float u) {
+        return getOffsetU() + u * getScaleU();
+    }
+
+    /**
+     * @param v Texture coordinate v of the texture
+     * @return The texture coordinate v in the atlas
+     */
+    public float remapV(float v) {
+        return getOffsetV() + v * getScaleV();
+    }
+
+    /**
+     * @return Textual description of the region
+     */
+    @Override
+    public String toString() {
+        return width + "x" + height + "@" + x + "," + y;
+    }
+}
@@ -0,0 +1,273 @@
+package com.dferreira.commons.atlas;
+
+import com.dferreira.commons.memory.DirectBufferPool;
+import com.dferreira.commons.models.MipmapGenerator;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.WfObject;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Several small textures packed in one texture
+ * (The texels of the border of each texture are repeated in the padding so the filtering does not bleed)
+ */
+public class TextureAtlas {
+
+    /**
+     * Number of components of each texel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Number of texture coordinates by vertex
+     */
+    private final static int COORDINATES_BY_TEXTURE = 2;
+
+    /**
+     * Tolerance of the texture coordinates outside of [0, 1] that still are put in an atlas
+     */
+    private final static float UNIT_RANGE_TOLERANCE = 1e-3f;
+
+    /**
+     * Smallest side of an atlas
+     */
+    private final static int MIN_SIZE = 64;
+
+    /**
+     * The texels of the atlas
+     */
+    private final TextureData textureData;
+
+    /**
+     * Region of each texture packed by name
+     */
+    private final Map<String, AtlasRegion> regions;
+
+    /**
+     * Fraction of the atlas used by the textures (with padding)
+     */
+    private final float occupancy;
+
+    /**
+     * @param textureData The texels of the atlas
+     * @param regions     Region of each texture packed by name
+     * @param occupancy   Fraction of the atlas used by the textures
+     */
+    private TextureAtlas(TextureData textureData, Map<String, AtlasRegion> regions, float occupancy) {
+        this.textureData = textureData;
+        this.regions = Collections.unmodifiableMap(regions);
+        this.occupancy = occupancy;
+    }
+
+    /**
+     * Packs the textures in the smallest power of two atlas where all fit
+     * (When they do not fit in the max size, the ones that are left out keep their own texture)
+     *
+     * @param textures Textures to pack by name
+     * @param padding  Texels around each texture
+     * @param maxSize  Max width and height of the atlas
+     * @return The atlas with the mip chain built (null if no texture was packed)
+     */
+    public static TextureAtlas build(Map<String, TextureData> textures, int padding, int maxSize) {
+        List<Map.Entry<String, TextureData>> entries = new ArrayList<>(textures.entrySet());
+        // The biggest textures first leave less free space between them
+        Collections.sort(entries, new Comparator<Map.Entry<String, TextureData>>() {
+            @Override
+            public int compare(Map.Entry<String, TextureData> a, Map.Entry<String, TextureData> b) {
+                TextureData textureA = a.getValue();
+                TextureData textureB = b.getValue();
+                int sideA = Math.max(textureA.getWidth(), textureA.getHeight());
+                int sideB = Math.max(textureB.getWidth(), textureB.getHeight());
+                if (sideA != sideB) {
+                    return sideB - sideA;
+                }
+                return textureB.getWidth() * textureB.getHeight() - textureA.getWidth() * textureA.getHeight();
+            }
+        });
+
+        long area = 0;
+        for (Map.Entry<String, TextureData> entry : entries) {
+            area += (long) (entry.getValue().getWidth() + 2 * padding) * (entry.getValue().getHeight() + 2 * padding);
+        }
+        int width = MIN_SIZE;
+        int height = MIN_SIZE;
+        while ((long) width * height < area && (width < maxSize || height < maxSize)) {
+            if (width <= height) {
+                width = Math.min(maxSize, width * 2);
+            } else {
+                height = Math.min(maxSize, height * 2);
+            }
+        }
+
+        while (true) {
+            AtlasPacker packer = new AtlasPacker(width, height);
+            Map<String, AtlasRegion> regions = new LinkedHashMap<>();
+            for (Map.Entry<String, TextureData> entry : entries) {
+                TextureData texture = entry.getValue();
+                int[] position = packer.insert(texture.getWidth() + 2 * padding, texture.getHeight() + 2 * padding);
+                if (position != null) {
+                    regions.put(entry.getKey(), new AtlasRegion(position[0] + padding, position[1] + padding,
+                            texture.getWidth(), texture.getHeight(), width, height));
+                }
+            }
+            boolean atMaxSize = (width >= maxSize) && (height >= maxSize);
+            if ((regions.size() == entries.size()) || atMaxSize) {
+                if (regions.isEmpty()) {
+                    return null;
+                }
+                TextureData atlasData = copyTexels(textures, regions, padding, width, height);
+                MipmapGenerator.generate(atlasData);
+                trimMipmaps(atlasData, padding);
+                return new TextureAtlas(atlasData, regions, packer.getOccupancy());
+            }
+            if (width <= height) {
+                width = Math.min(maxSize, width * 2);
+            } else {
+                height = Math.min(maxSize, height * 2);
+            }
+        }
+    }
+
+    /**
+     * Copies the texels of the textures to the atlas
+     *
+     * @param textures Textures by name
+     * @param regions  Region of each texture packed
+     * @param padding  Texels around each texture
+     * @param width    Width of the atlas
+     * @param height   Height of the atlas
+     * @return The texels of the atlas
+     */
+    private static TextureData copyTexels(Map<String, TextureData> textures, Map<String, AtlasRegion> regions,
+                                          int padding, int width, int height) {
+        ByteBuffer atlas = DirectBufferPool.getInstance().acquire(width * height * COMPONENTS);
+        for (Map.Entry<String, AtlasRegion> entry : regions.entrySet()) {
+            TextureData texture = textures.get(entry.getKey());
+            AtlasRegion region = entry.getValue();
+            ByteBuffer source = texture.getBuffer();
+            for (int y = -padding; y < texture.getHeight() + padding; y++) {
+                int sourceY = Math.max(0, Math.min(texture.getHeight() - 1, y));
+                for (int x = -padding; x < texture.getWidth() + padding; x++) {
+                    int sourceX = Math.max(0, Math.min(texture.getWidth() - 1, x));
+                    int from = (sourceY * texture.getWidth() + sourceX) * COMPONENTS;
+                    int to = ((region.getY() + y) * width + region.getX() + x) * COMPONENTS;
+                    for (int c = 0; c < COMPONENTS; c++) {
+                        atlas.put(to + c, source.get(from + c));
+                    }
+                }
+            }
+        }
+        return new TextureData(atlas, width, height);
+    }
+
+    /**
+     * Drops the levels of the mip chain where the padding does not separate the textures anymore
+     * (Each level halves the padding, so the last level kept has at least one texel of padding)
+     *
+     * @param atlasData The texels of the atlas with the mip chain
+     * @param padding   Texels around each texture in the base level
+     */
+    private static void trimMipmaps(TextureData atlasData, int padding) {
+        TextureData[] mipmaps = atlasData.getMipmaps();
+        int levels = 0;
+        while ((padding >> (levels + 1)) > 0) {
+            levels++;
+        }
+        if ((mipmaps != null) && (levels < mipmaps.length)) {
+            atlasData.setMipmaps(Arrays.copyOf(mipmaps, levels));
+        }
+    }
+
+    /**
+     * @param shape Shape to check
+     * @return True if all the texture coordinates of the shape are in [0, 1] (So the shape can use an atlas)
+     */
+    public static boolean isInUnitRange(IShape shape) {
+        float[] textureCoords = shape.getTextureCoords();
+        if (textureCoords == null) {
+            return false;
+        }
+        for (float coordinate : textureCoords) {
+            if ((coordinate < -UNIT_RANGE_TOLERANCE) || (coordinate > 1.0f + UNIT_RANGE_TOLERANCE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param name Name of the texture
+     * @return True if the texture was packed in the atlas
+     */
+    public boolean contains(String name) {
+        return regions.containsKey(name);
+    }
+
+    /**
+     * Rewrites the texture coordinates of a shape to use the atlas
+     *
+     * @param shape Shape that uses one of the textures packed
+     * @param name  Name of the texture used by the shape
+     * @return The shape with the texture coordinates of the atlas (The same shape if the texture is not packed)
+     */
+    public IShape remap(IShape shape, String name) {
+        AtlasRegion region = regions.get(name);
+        if (region == null) {
+            return shape;
+        }
+        float[] textureCoords = shape.getTextureCoords();
+        float[] remapped = new float[textureCoords.length];
+        for (int i = 0; i < textureCoords.length; i += COORDINATES_BY_TEXTURE) {
+            remapped[i] = region.remapU(Math.max(0.0f, Math.min(1.0f, textureCoords[i])));
+            remapped[i + 1] = region.remapV(Math.max(0.0f, Math.min(1.0f, textureCoords[i + 1])));
+        }
+        return new WfObject(shape.getVertices(), remapped, shape.getNormals(), shape.getIndices(),
+                shape.getGroupName(), shape.getMaterial());
+    }
+
+    /**
+     * @return the texels of the atlas
+     */
+    public TextureData getTextureData() {
+        return textureData;
+    }
+
+    /**
+     * @param name Name of the texture
+     * @return the region of the texture in the atlas (null if it was not packed)
+     */
+    public AtlasRegion getRegion(String name) {
+        return regions.get(name);
+    }
+
+    /**
+     * @return the region of each texture packed by name (The table used to remap the texture coordinates)
+     */
+    public Map<String, AtlasRegion> getRegions() {
+        return regions;
+    }
+
+    /**
+     * @return the fraction of the atlas used by the textures (between 0 and 1)
+     */
+    public float getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * @return Textual description of the atlas
+     */
+    @Override
+    public String toString() {
+        return textureData.getWidth() + "x" + textureData.getHeight() + " textures=" + regions.size()
+                + " occupancy=" + occupancy + " regions=" + regions;
+    }
+}
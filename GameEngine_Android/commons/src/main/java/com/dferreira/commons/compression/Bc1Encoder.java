@@ -0,0 +1,288 @@
+package com.dferreira.commons.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the colors of one block in the BC1 format
+ * (Two RGB565 end points found by principal component analysis, refined by least squares)
+ */
+class Bc1Encoder {
+
+    /**
+     * Number of bytes of one color block
+     */
+    final static int BLOCK_BYTES = 8;
+
+    /**
+     * Number of texels of one block
+     */
+    private final static int TEXELS = 16;
+
+    /**
+     * Number of components of each texel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Number of color components (RGB)
+     */
+    private final static int COLORS = 3;
+
+    /**
+     * Iterations used to find the principal axis of the colors
+     */
+    private final static int POWER_ITERATIONS = 8;
+
+    /**
+     * Weight of the first end point in each entry of the palette
+     */
+    private final static float[] WEIGHTS = {1.0f, 0.0f, 2.0f / 3.0f, 1.0f / 3.0f};
+
+    /**
+     * Encodes the colors of one block (Always in the mode of four colors)
+     *
+     * @param block   The texels of the block (RGBA)
+     * @param out     Where to write the block
+     * @param offset  Position in the buffer where to write the block
+     * @param decoded Where to write the colors that the block decodes to
+     */
+    static void encode(int[] block, ByteBuffer out, int offset, int[] decoded) {
+        float[] mean = new float[COLORS];
+        for (int i = 0; i < TEXELS; i++) {
+            for (int c = 0; c < COLORS; c++) {
+                mean[c] += block[i * COMPONENTS + c];
+            }
+        }
+        for (int c = 0; c < COLORS; c++) {
+            mean[c] /= TEXELS;
+        }
+        float[] axis = principalAxis(block, mean);
+
+        // End points in the extremes of the projection over the principal axis
+        float minProjection = Float.MAX_VALUE;
+        float maxProjection = -Float.MAX_VALUE;
+        for (int i = 0; i < TEXELS; i++) {
+            float projection = 0.0f;
+            for (int c = 0; c < COLORS; c++) {
+                projection += (block[i * COMPONENTS + c] - mean[c]) * axis[c];
+            }
+            minProjection = Math.min(minProjection, projection);
+            maxProjection = Math.max(maxProjection, projection);
+        }
+        float[] start = new float[COLORS];
+        float[] end = new float[COLORS];
+        for (int c = 0; c < COLORS; c++) {
+            start[c] = mean[c] + axis[c] * maxProjection;
+            end[c] = mean[c] + axis[c] * minProjection;
+        }
+        int color0 = toRgb565(start);
+        int color1 = toRgb565(end);
+        int[] indices = new int[TEXELS];
+        int error = evaluate(block, color0, color1, indices);
+
+        // Refines the end points with the indices chosen
+        int[] refined = refine(block, indices);
+        if (refined != null) {
+            int[] refinedIndices = new int[TEXELS];
+            int refinedError = evaluate(block, refined[0], refined[1], refinedIndices);
+            if (refinedError < error) {
+                color0 = refined[0];
+                color1 = refined[1];
+            }
+        }
+        write(block, color0, color1, out, offset, decoded);
+    }
+
+    /**
+     * @param block The texels of the block
+     * @param mean  Mean of the colors
+     * @return The direction where the colors vary the most (unit vector)
+     */
+    private static float[] principalAxis(int[] block, float[] mean) {
+        float[] covariance = new float[COLORS * COLORS];
+        for (int i = 0; i < TEXELS; i++) {
+            for (int a = 0; a < COLORS; a++) {
+                float da = block[i * COMPONENTS + a] - mean[a];
+                for (int b = 0; b < COLORS; b++) {
+                    covariance[a * COLORS + b] += da * (block[i * COMPONENTS + b] - mean[b]);
+                }
+            }
+        }
+        float[] axis = {1.0f, 1.0f, 1.0f};
+        for (int iteration = 0; iteration < POWER_ITERATIONS; iteration++) {
+            float[] next = new float[COLORS];
+            float length = 0.0f;
+            for (int a = 0; a < COLORS; a++) {
+                for (int b = 0; b < COLORS; b++) {
+                    next[a] += covariance[a * COLORS + b] * axis[b];
+                }
+                length = Math.max(length, Math.abs(next[a]));
+            }
+            if (length == 0.0f) {
+                // All the colors are the same
+                return new float[]{0.0f, 0.0f, 0.0f};
+            }
+            for (int a = 0; a < COLORS; a++) {
+                axis[a] = next[a] / length;
+            }
+        }
+        float length = (float) Math.sqrt(axis[0] * axis[0] + axis[1] * axis[1] + axis[2] * axis[2]);
+        for (int a = 0; a < COLORS; a++) {
+            axis[a] /= length;
+        }
+        return axis;
+    }
+
+    /**
+     * Least squares fit of the end points for the indices chosen
+     *
+     * @param block   The texels of the block
+     * @param indices Entry of the palette of each texel
+     * @return The two end points in RGB565 (null if the system is singular)
+     */
+    private static int[] refine(int[] block, int[] indices) {
+        float aa = 0.0f;
+        float ab = 0.0f;
+        float bb = 0.0f;
+        float[] ax = new float[COLORS];
+        float[] bx = new float[COLORS];
+        for (int i = 0; i < TEXELS; i++) {
+            float a = WEIGHTS[indices[i]];
+            float b = 1.0f - a;
+            aa += a * a;
+            ab += a * b;
+            bb += b * b;
+            for (int c = 0; c < COLORS; c++) {
+                ax[c] += a * block[i * COMPONENTS + c];
+                bx[c] += b * block[i * COMPONENTS + c];
+            }
+        }
+        float determinant = aa * bb - ab * ab;
+        if (Math.abs(determinant) < 1e-6f) {
+            return null;
+        }
+        float[] start = new float[COLORS];
+        float[] end = new float[COLORS];
+        for (int c = 0; c < COLORS; c++) {
+            start[c] = (bb * ax[c] - ab * bx[c]) / determinant;
+            end[c] = (aa * bx[c] - ab * ax[c]) / determinant;
+        }
+        return new int[]{toRgb565(start), toRgb565(end)};
+    }
+
+    /**
+     * @param color Color with components in [0, 255]
+     * @return The color in RGB565
+     */
+    private static int toRgb565(float[] color) {
+        int r = Math.round(clamp(color[0]) * 31 / 255);
+        int g = Math.round(clamp(color[1]) * 63 / 255);
+        int b = Math.round(clamp(color[2]) * 31 / 255);
+        return (r << 11) | (g << 5) | b;
+    }
+
+    /**
+     * @param value Component of a color
+     * @return The component between 0 and 255
+     */
+    private static float clamp(float value) {
+        return Math.max(0.0f, Math.min(255.0f, value));
+    }
+
+    /**
+     * @param color0 First end point (RGB565)
+     * @param color1 Second end point (RGB565)
+     * @return The four colors of the palette (RGB of each entry)
+     */
+    private static int[] palette(int color0, int color1) {
+        int[] palette = new int[4 * COLORS];
+        expand(color0, palette, 0);
+        expand(color1, palette, COLORS);
+        for (int c = 0; c < COLORS; c++) {
+            palette[2 * COLORS + c] = (2 * palette[c] + palette[COLORS + c]) / 3;
+            palette[3 * COLORS + c] = (palette[c] + 2 * palette[COLORS + c]) / 3;
+        }
+        return palette;
+    }
+
+    /**
+     * @param color   Color in RGB565
+     * @param palette Where to put the color with 8 bits by component
+     * @param offset  Offset in the palette
+     */
+    private static void expand(int color, int[] palette, int offset) {
+        int r = (color >> 11) & 0x1F;
+        int g = (color >> 5) & 0x3F;
+        int b = color & 0x1F;
+        palette[offset] = (r << 3) | (r >> 2);
+        palette[offset + 1] = (g << 2) | (g >> 4);
+        palette[offset + 2] = (b << 3) | (b >> 2);
+    }
+
+    /**
+     * Chooses the entry of the palette of each texel
+     *
+     * @param block   The texels of the block
+     * @param color0  First end point (RGB565)
+     * @param color1  Second end point (RGB565)
+     * @param indices Where to put the entry of each texel
+     * @return The squared error of the block
+     */
+    private static int evaluate(int[] block, int color0, int color1, int[] indices) {
+        int[] palette = palette(color0, color1);
+        int error = 0;
+        for (int i = 0; i < TEXELS; i++) {
+            int best = Integer.MAX_VALUE;
+            for (int p = 0; p < 4; p++) {
+                int distance = 0;
+                for (int c = 0; c < COLORS; c++) {
+                    int d = block[i * COMPONENTS + c] - palette[p * COLORS + c];
+                    distance += d * d;
+                }
+                if (distance < best) {
+                    best = distance;
+                    indices[i] = p;
+                }
+            }
+            error += best;
+        }
+        return error;
+    }
+
+    /**
+     * Writes the block (The first end point has to be greater to use the mode of four colors)
+     *
+     * @param block   The texels of the block
+     * @param color0  First end point (RGB565)
+     * @param color1  Second end point (RGB565)
+     * @param out     Where to write the block
+     * @param offset  Position in the buffer where to write the block
+     * @param decoded Where to write the colors that the block decodes to
+     */
+    private static void write(int[] block, int color0, int color1, ByteBuffer out, int offset, int[] decoded) {
+        if (color0 < color1) {
+            int swap = color0;
+            color0 = color1;
+            color1 = swap;
+        }
+        int[] indices = new int[TEXELS];
+        evaluate(block, color0, color1, indices);
+        int[] palette = palette(color0, color1);
+        int bits = 0;
+        for (int i = 0; i < TEXELS; i++) {
+            // Equal end points select the mode of three colors where only the first entry is safe
+            int index = (color0 == color1) ? 0 : indices[i];
+            bits |= index << (2 * i);
+            for (int c = 0; c < COLORS; c++) {
+                decoded[i * COMPONENTS + c] = palette[index * COLORS + c];
+            }
+        }
+        out.put(offset, (byte) color0);
+        out.put(offset + 1, (byte) (color0 >> 8));
+        out.put(offset + 2, (byte) color1);
+        out.put(offset + 3, (byte) (color1 >> 8));
+        for (int i = 0; i < 4; i++) {
+            out.put(offset + 4 + i, (byte) (bits >> (8 * i)));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.dferreira.commons.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the alpha of one block in the format used by BC3
+ * (Two end points with eight interpolated values or six plus the extremes 0 and 255)
+ */
+class BcAlphaEncoder {
+
+    /**
+     * Number of bytes of one alpha block
+     */
+    final static int BLOCK_BYTES = 8;
+
+    /**
+     * Number of texels of one block
+     */
+    private final static int TEXELS = 16;
+
+    /**
+     * Number of components of each texel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Offset of the alpha component
+     */
+    private final static int A_POSITION = 3;
+
+    /**
+     * Max value of the alpha
+     */
+    private final static int MAX_ALPHA = 255;
+
+    /**
+     * Number of entries of the palette
+     */
+    private final static int PALETTE_SIZE = 8;
+
+    /**
+     * Encodes the alpha of one block
+     *
+     * @param block   The texels of the block (RGBA)
+     * @param out     Where to write the block
+     * @param offset  Position in the buffer where to write the block
+     * @param decoded Where to write the alpha that the block decodes to
+     */
+    static void encode(int[] block, ByteBuffer out, int offset, int[] decoded) {
+        int min = MAX_ALPHA;
+        int max = 0;
+        int innerMin = MAX_ALPHA;
+        int innerMax = 0;
+        for (int i = 0; i < TEXELS; i++) {
+            int alpha = block[i * COMPONENTS + A_POSITION];
+            min = Math.min(min, alpha);
+            max = Math.max(max, alpha);
+            if ((alpha != 0) && (alpha != MAX_ALPHA)) {
+                innerMin = Math.min(innerMin, alpha);
+                innerMax = Math.max(innerMax, alpha);
+            }
+        }
+
+        // Mode of eight values (alpha0 > alpha1)
+        int alpha0 = max;
+        int alpha1 = min;
+        int[] indices = new int[TEXELS];
+        int error = evaluate(block, alpha0, alpha1, indices);
+
+        // Mode of six values plus 0 and 255 (alpha0 <= alpha1)
+        if (innerMin <= innerMax) {
+            int[] otherIndices = new int[TEXELS];
+            int otherError = evaluate(block, innerMin, innerMax, otherIndices);
+            if (otherError < error) {
+                alpha0 = innerMin;
+                alpha1 = innerMax;
+                indices = otherIndices;
+            }
+        }
+
+        int[] palette = palette(alpha0, alpha1);
+        long bits = 0;
+        for (int i = 0; i < TEXELS; i++) {
+            bits |= ((long) indices[i]) << (3 * i);
+            decoded[i * COMPONENTS + A_POSITION] = palette[indices[i]];
+        }
+        out.put(offset, (byte) alpha0);
+        out.put(offset + 1, (byte) alpha1);
+        for (int i = 0; i < 6; i++) {
+            out.put(offset + 2 + i, (byte) (bits >> (8 * i)));
+        }
+    }
+
+    /**
+     * @param alpha0 First end point
+     * @param alpha1 Second end point
+     * @return The values of the palette
+     */
+    private static int[] palette(int alpha0, int alpha1) {
+        int[] palette = new int[PALETTE_SIZE];
+        palette[0] = alpha0;
+        palette[1] = alpha1;
+        if (alpha0 > alpha1) {
+            for (int i = 1; i < 7; i++) {
+                palette[i + 1] = ((7 - i) * alpha0 + i * alpha1) / 7;
+            }
+        } else {
+            for (int i = 1; i < 5; i++) {
+                palette[i + 1] = ((5 - i) * alpha0 + i * alpha1) / 5;
+            }
+            palette[6] = 0;
+            palette[7] = MAX_ALPHA;
+        }
+        return palette;
+    }
+
+    /**
+     * Chooses the entry of the palette of each texel
+     *
+     * @param block   The texels of the block
+     * @param alpha0  First end point
+     * @param alpha1  Second end point
+     * @param indices Where to put the entry of each texel
+     * @return The squared error of the block
+     */
+    private static int evaluate(int[] block, int alpha0, int alpha1, int[] indices) {
+        int[] palette = palette(alpha0, alpha1);
+        int error = 0;
+        for (int i = 0; i < TEXELS; i++) {
+            int alpha = block[i * COMPONENTS + A_POSITION];
+            int best = Integer.MAX_VALUE;
+            for (int p = 0; p < PALETTE_SIZE; p++) {
+                int distance = (alpha - palette[p]) * (alpha - palette[p]);
+                if (distance < best) {
+                    best = distance;
+                    indices[i] = p;
+                }
+            }
+            error += best;
+        }
+        return error;
+    }
+}
@@ -0,0 +1,200 @@
+package com.dferreira.commons.compression;
+
+import com.dferreira.commons.memory.DirectBufferPool;
+import com.dferreira.commons.models.TextureData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Cache in disk of the textures compressed (Each texture is one file named by the hash of its content)
+ */
+public class CompressedTextureCache {
+
+    /**
+     * Identifies the files of the cache
+     */
+    private final static int MAGIC = 0x47455443;
+
+    /**
+     * Extension of the files of the cache
+     */
+    private final static String EXTENSION = ".ctex";
+
+    /**
+     * Algorithm used to hash the content of the textures
+     */
+    private final static String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * Folder where the files are kept
+     */
+    private final File folder;
+
+    /**
+     * Constructor of the cache
+     *
+     * @param folder Folder where the files are kept (Created if does not exist)
+     */
+    public CompressedTextureCache(File folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * @param textureData The texture to compress
+     * @param format      Format of the blocks
+     * @return The key of the texture compressed (null if was not possible to hash)
+     */
+    public String getKey(TextureData textureData, CompressedTextureFormatEnum format) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            ByteBuffer pixels = textureData.getBuffer().duplicate();
+            pixels.rewind();
+            digest.update(pixels);
+            int levels = textureData.hasMipmaps() ? textureData.getMipmaps().length + 1 : 1;
+            return new BigInteger(1, digest.digest()).toString(16) + "_" + textureData.getWidth() + "x"
+                    + textureData.getHeight() + "_" + levels + "_" + format + "_v" + TextureCompressor.VERSION;
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param key Key of the texture compressed
+     * @return The texture compressed (null if the cache does not have it)
+     */
+    public CompressedTextureData get(String key) {
+        File file = new File(folder, key + EXTENSION);
+        if (!file.isFile()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC) {
+                return null;
+            }
+            CompressedTextureFormatEnum format = CompressedTextureFormatEnum.valueOf(in.readUTF());
+            double psnr = in.readDouble();
+            int levels = in.readInt();
+            CompressedTextureData texture = readLevel(in, format);
+            texture.setPsnr(psnr);
+            if (levels > 1) {
+                CompressedTextureData[] mipmaps = new CompressedTextureData[levels - 1];
+                for (int i = 0; i < mipmaps.length; i++) {
+                    mipmaps[i] = readLevel(in, format);
+                }
+                texture.setMipmaps(mipmaps);
+            }
+            return texture;
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps one texture compressed in the cache
+     * (Writes to a temporary file first so the other threads never read a file half written)
+     *
+     * @param key     Key of the texture compressed
+     * @param texture The texture compressed
+     */
+    public void put(String key, CompressedTextureData texture) {
+        if ((!folder.isDirectory()) && (!folder.mkdirs())) {
+            System.err.println("Could not create the folder of the cache: " + folder);
+            return;
+        }
+        File file = new File(folder, key + EXTENSION);
+        File temporary = new File(folder, key + "." + Thread.currentThread().getId() + ".tmp");
+        DataOutputStream out = null;
+        boolean written = false;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)));
+            CompressedTextureData[] mipmaps = texture.getMipmaps();
+            out.writeInt(MAGIC);
+            out.writeUTF(texture.getFormat().name());
+            out.writeDouble(texture.getPsnr());
+            out.writeInt((mipmaps == null) ? 1 : mipmaps.length + 1);
+            writeLevel(out, texture);
+            if (mipmaps != null) {
+                for (CompressedTextureData mipmap : mipmaps) {
+                    writeLevel(out, mipmap);
+                }
+            }
+            out.close();
+            out = null;
+            written = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        if (!written) {
+            temporary.delete();
+            return;
+        }
+        if ((!temporary.renameTo(file)) && (!file.isFile())) {
+            System.err.println("Could not write the file of the cache: " + file);
+        }
+        temporary.delete();
+    }
+
+    /**
+     * @param in     Stream of the file
+     * @param format Format of the blocks
+     * @return One level of the texture
+     * @throws IOException When the file is not well formed
+     */
+    private static CompressedTextureData readLevel(DataInputStream in, CompressedTextureFormatEnum format)
+            throws IOException {
+        int width = in.readInt();
+        int height = in.readInt();
+        byte[] blocks = new byte[format.getSize(width, height)];
+        in.readFully(blocks);
+        ByteBuffer buffer = DirectBufferPool.getInstance().acquire(blocks.length);
+        buffer.put(blocks);
+        buffer.flip();
+        return new CompressedTextureData(format, buffer, width, height);
+    }
+
+    /**
+     * @param out     Stream of the file
+     * @param texture One level of the texture
+     * @throws IOException When was not possible to write
+     */
+    private static void writeLevel(DataOutputStream out, CompressedTextureData texture) throws IOException {
+        out.writeInt(texture.getWidth());
+        out.writeInt(texture.getHeight());
+        byte[] blocks = new byte[texture.getBuffer().limit()];
+        ByteBuffer buffer = texture.getBuffer().duplicate();
+        buffer.rewind();
+        buffer.get(blocks);
+        out.write(blocks);
+    }
+}
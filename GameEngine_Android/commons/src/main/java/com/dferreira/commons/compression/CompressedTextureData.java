@@ -0,0 +1,137 @@
+package com.dferreira.commons.compression;
+
+import com.dferreira.commons.memory.DirectBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Holds the blocks of a texture compressed as well as the width and height
+ */
+public class CompressedTextureData {
+
+    /**
+     * Format of the blocks
+     */
+    private final CompressedTextureFormatEnum format;
+
+    /**
+     * Width of the texture
+     */
+    private final int width;
+
+    /**
+     * Height of the texture
+     */
+    private final int height;
+
+    /**
+     * The buffer with the blocks of the texture
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Levels of the mip chain after the base level (null if the texture does not have them)
+     */
+    private CompressedTextureData[] mipmaps;
+
+    /**
+     * Peak signal to noise ratio (in dB) of the base level compared with the original texture
+     */
+    private double psnr;
+
+    /**
+     * The constructor of the compressed texture data
+     *
+     * @param format Format of the blocks
+     * @param buffer The buffer with the blocks of the texture
+     * @param width  Width of the texture
+     * @param height Height of the texture
+     */
+    public CompressedTextureData(CompressedTextureFormatEnum format, ByteBuffer buffer, int width, int height) {
+        this.format = format;
+        this.buffer = buffer;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @return the format of the blocks
+     */
+    public CompressedTextureFormatEnum getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the buffer with the blocks of the texture
+     */
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the levels of the mip chain after the base level (null if the texture does not have them)
+     */
+    public CompressedTextureData[] getMipmaps() {
+        return mipmaps;
+    }
+
+    /**
+     * @param mipmaps the levels of the mip chain after the base level
+     */
+    public void setMipmaps(CompressedTextureData[] mipmaps) {
+        this.mipmaps = mipmaps;
+    }
+
+    /**
+     * @return the peak signal to noise ratio (in dB) of the base level (Infinity if there is no loss)
+     */
+    public double getPsnr() {
+        return psnr;
+    }
+
+    /**
+     * @param psnr the peak signal to noise ratio (in dB) of the base level
+     */
+    public void setPsnr(double psnr) {
+        this.psnr = psnr;
+    }
+
+    /**
+     * @return the number of bytes of the blocks of the texture (Including the mip chain)
+     */
+    public long getSizeInBytes() {
+        long size = buffer.limit();
+        if (mipmaps != null) {
+            for (CompressedTextureData mipmap : mipmaps) {
+                size += mipmap.getSizeInBytes();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the buffers of the blocks to the pool (The texture can not be used after)
+     */
+    public void release() {
+        DirectBufferPool.getInstance().release(buffer);
+        if (mipmaps != null) {
+            for (CompressedTextureData mipmap : mipmaps) {
+                mipmap.release();
+            }
+        }
+    }
+}
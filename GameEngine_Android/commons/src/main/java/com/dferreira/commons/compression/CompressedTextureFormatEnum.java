@@ -0,0 +1,72 @@
+package com.dferreira.commons.compression;
+
+/**
+ * Formats of block compression of the textures (Each block has 4x4 texels)
+ */
+public enum CompressedTextureFormatEnum {
+    /**
+     * S3TC / DXT1 without alpha
+     */
+    BC1(8, false),
+    /**
+     * S3TC / DXT5 with interpolated alpha
+     */
+    BC3(16, true),
+    /**
+     * ETC2 without alpha
+     */
+    ETC2_RGB8(8, false),
+    /**
+     * ETC2 with EAC alpha
+     */
+    ETC2_RGBA8(16, true);
+
+    /**
+     * Number of texels in each side of one block
+     */
+    public final static int BLOCK_SIDE = 4;
+
+    /**
+     * Number of bytes of one block
+     */
+    private final int blockSize;
+
+    /**
+     * Indicates if the format keeps the alpha component
+     */
+    private final boolean alpha;
+
+    /**
+     * @param blockSize Number of bytes of one block
+     * @param alpha     Indicates if the format keeps the alpha component
+     */
+    CompressedTextureFormatEnum(int blockSize, boolean alpha) {
+        this.blockSize = blockSize;
+        this.alpha = alpha;
+    }
+
+    /**
+     * @return the number of bytes of one block
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * @return True if the format keeps the alpha component
+     */
+    public boolean hasAlpha() {
+        return alpha;
+    }
+
+    /**
+     * @param width  Width of the image
+     * @param height Height of the image
+     * @return The number of bytes of the image compressed in this format
+     */
+    public int getSize(int width, int height) {
+        int blocksX = (width + BLOCK_SIDE - 1) / BLOCK_SIDE;
+        int blocksY = (height + BLOCK_SIDE - 1) / BLOCK_SIDE;
+        return blocksX * blocksY * blockSize;
+    }
+}
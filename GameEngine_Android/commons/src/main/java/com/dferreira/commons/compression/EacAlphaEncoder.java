@@ -0,0 +1,178 @@
+package com.dferreira.commons.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the alpha of one block in the EAC format used by ETC2 RGBA8
+ * (Base value plus a table of modifiers scaled by a multiplier)
+ */
+class EacAlphaEncoder {
+
+    /**
+     * Number of bytes of one alpha block
+     */
+    final static int BLOCK_BYTES = 8;
+
+    /**
+     * Number of texels of one block
+     */
+    private final static int TEXELS = 16;
+
+    /**
+     * Number of texels in each side of one block
+     */
+    private final static int SIDE = 4;
+
+    /**
+     * Number of components of each texel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Offset of the alpha component
+     */
+    private final static int A_POSITION = 3;
+
+    /**
+     * Max value of the alpha
+     */
+    private final static int MAX_ALPHA = 255;
+
+    /**
+     * Max value of the multiplier
+     */
+    private final static int MAX_MULTIPLIER = 15;
+
+    /**
+     * Table that has the modifier 0 (Used to encode blocks with only one value)
+     */
+    private final static int FLAT_TABLE = 13;
+    private final static int FLAT_INDEX = 4;
+
+    /**
+     * Modifiers of each table
+     */
+    private final static int[][] MODIFIERS = {
+            {-3, -6, -9, -15, 2, 5, 8, 14},
+            {-3, -7, -10, -13, 2, 6, 9, 12},
+            {-2, -5, -8, -13, 1, 4, 7, 12},
+            {-2, -4, -6, -13, 1, 3, 5, 12},
+            {-3, -6, -8, -12, 2, 5, 7, 11},
+            {-3, -7, -9, -11, 2, 6, 8, 10},
+            {-4, -7, -8, -11, 3, 6, 7, 10},
+            {-3, -5, -8, -11, 2, 4, 7, 10},
+            {-2, -6, -8, -10, 1, 5, 7, 9},
+            {-2, -5, -8, -10, 1, 4, 7, 9},
+            {-2, -4, -8, -10, 1, 3, 7, 9},
+            {-2, -5, -7, -10, 1, 4, 6, 9},
+            {-3, -4, -7, -10, 2, 3, 6, 9},
+            {-1, -2, -3, -10, 0, 1, 2, 9},
+            {-4, -6, -8, -9, 3, 5, 7, 8},
+            {-3, -5, -7, -9, 2, 4, 6, 8}
+    };
+
+    /**
+     * Encodes the alpha of one block
+     *
+     * @param block   The texels of the block (RGBA)
+     * @param out     Where to write the block
+     * @param offset  Position in the buffer where to write the block
+     * @param decoded Where to write the alpha that the block decodes to
+     */
+    static void encode(int[] block, ByteBuffer out, int offset, int[] decoded) {
+        int min = MAX_ALPHA;
+        int max = 0;
+        for (int i = 0; i < TEXELS; i++) {
+            min = Math.min(min, block[i * COMPONENTS + A_POSITION]);
+            max = Math.max(max, block[i * COMPONENTS + A_POSITION]);
+        }
+
+        int bestBase = min;
+        int bestMultiplier = 1;
+        int bestTable = FLAT_TABLE;
+        int bestError = (min == max) ? 0 : Integer.MAX_VALUE;
+        for (int table = 0; (table < MODIFIERS.length) && (bestError > 0); table++) {
+            int minModifier = MODIFIERS[table][3];
+            int maxModifier = MODIFIERS[table][7];
+            int span = maxModifier - minModifier;
+            // Only the multipliers near the one that covers the range of the block are tried
+            int multiplier = Math.round((float) (max - min) / span);
+            for (int m = multiplier - 1; m <= multiplier + 1; m++) {
+                if ((m < 1) || (m > MAX_MULTIPLIER)) {
+                    continue;
+                }
+                int center = Math.round((min + max) / 2.0f - (minModifier + maxModifier) * m / 2.0f);
+                for (int base = center - 1; base <= center + 1; base++) {
+                    if ((base < 0) || (base > MAX_ALPHA)) {
+                        continue;
+                    }
+                    int error = evaluate(block, base, m, table, null, bestError);
+                    if (error < bestError) {
+                        bestError = error;
+                        bestBase = base;
+                        bestMultiplier = m;
+                        bestTable = table;
+                    }
+                }
+            }
+        }
+
+        int[] indices = new int[TEXELS];
+        evaluate(block, bestBase, bestMultiplier, bestTable, indices, Integer.MAX_VALUE);
+        long bits = ((long) bestBase << 56) | ((long) bestMultiplier << 52) | ((long) bestTable << 48);
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                int texel = y * SIDE + x;
+                // The texels are numbered by columns, the first in the most significant bits
+                int position = x * SIDE + y;
+                bits |= ((long) indices[texel]) << (45 - 3 * position);
+                decoded[texel * COMPONENTS + A_POSITION] = decode(bestBase, bestMultiplier, bestTable, indices[texel]);
+            }
+        }
+        for (int i = 0; i < BLOCK_BYTES; i++) {
+            out.put(offset + i, (byte) (bits >>> (56 - 8 * i)));
+        }
+    }
+
+    /**
+     * @param base       Base value
+     * @param multiplier Multiplier of the modifiers
+     * @param table      Table of modifiers
+     * @param index      Index of the modifier
+     * @return The alpha decoded
+     */
+    private static int decode(int base, int multiplier, int table, int index) {
+        return Math.max(0, Math.min(MAX_ALPHA, base + MODIFIERS[table][index] * multiplier));
+    }
+
+    /**
+     * @param block      The texels of the block
+     * @param base       Base value
+     * @param multiplier Multiplier of the modifiers
+     * @param table      Table of modifiers
+     * @param indices    Where to put the index of each texel (can be null)
+     * @param limit      Error above which is not worth to continue
+     * @return The squared error of the block
+     */
+    private static int evaluate(int[] block, int base, int multiplier, int table, int[] indices, int limit) {
+        int error = 0;
+        for (int i = 0; i < TEXELS; i++) {
+            int alpha = block[i * COMPONENTS + A_POSITION];
+            int best = Integer.MAX_VALUE;
+            for (int index = 0; index < MODIFIERS[table].length; index++) {
+                int d = alpha - decode(base, multiplier, table, index);
+                if (d * d < best) {
+                    best = d * d;
+                    if (indices != null) {
+                        indices[i] = index;
+                    }
+                }
+            }
+            error += best;
+            if (error >= limit) {
+                return error;
+            }
+        }
+        return error;
+    }
+}
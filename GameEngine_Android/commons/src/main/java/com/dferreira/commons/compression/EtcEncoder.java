@@ -0,0 +1,284 @@
+package com.dferreira.commons.compression;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the colors of one block in the ETC2 RGB format
+ * (Uses the individual and differential modes, that ETC2 shares with ETC1)
+ */
+class EtcEncoder {
+
+    /**
+     * Number of bytes of one color block
+     */
+    final static int BLOCK_BYTES = 8;
+
+    /**
+     * Number of texels of one block
+     */
+    private final static int TEXELS = 16;
+
+    /**
+     * Number of texels in each side of one block
+     */
+    private final static int SIDE = 4;
+
+    /**
+     * Number of components of each texel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Number of color components (RGB)
+     */
+    private final static int COLORS = 3;
+
+    /**
+     * Limits of the difference between the colors of the sub blocks in the differential mode
+     */
+    private final static int MIN_DELTA = -4;
+    private final static int MAX_DELTA = 3;
+
+    /**
+     * Modifiers of the intensity of each table (The pixel indices select +a, +b, -a and -b)
+     */
+    private final static int[][] MODIFIERS = {
+            {2, 8, -2, -8},
+            {5, 17, -5, -17},
+            {9, 29, -9, -29},
+            {13, 42, -13, -42},
+            {18, 60, -18, -60},
+            {24, 80, -24, -80},
+            {33, 106, -33, -106},
+            {47, 183, -47, -183}
+    };
+
+    /**
+     * Best encoding found for one block
+     */
+    private static class Candidate {
+        private long bits;
+        private int error = Integer.MAX_VALUE;
+        private final int[] decoded = new int[TEXELS * COLORS];
+    }
+
+    /**
+     * Encodes the colors of one block
+     *
+     * @param block   The texels of the block (RGBA)
+     * @param out     Where to write the block
+     * @param offset  Position in the buffer where to write the block
+     * @param decoded Where to write the colors that the block decodes to
+     */
+    static void encode(int[] block, ByteBuffer out, int offset, int[] decoded) {
+        Candidate best = new Candidate();
+        Candidate current = new Candidate();
+        for (int flip = 0; flip <= 1; flip++) {
+            float[][] averages = {average(block, flip, 0), average(block, flip, 1)};
+            for (int differential = 0; differential <= 1; differential++) {
+                encodeMode(block, flip, differential == 1, averages, current);
+                if (current.error < best.error) {
+                    Candidate swap = best;
+                    best = current;
+                    current = swap;
+                }
+            }
+        }
+        for (int i = 0; i < 8; i++) {
+            out.put(offset + i, (byte) (best.bits >>> (56 - 8 * i)));
+        }
+        for (int i = 0; i < TEXELS; i++) {
+            for (int c = 0; c < COLORS; c++) {
+                decoded[i * COMPONENTS + c] = best.decoded[i * COLORS + c];
+            }
+        }
+    }
+
+    /**
+     * @param x    Column of the texel
+     * @param y    Row of the texel
+     * @param flip 0 when the sub blocks are side by side, 1 when they are one over the other
+     * @return The sub block of the texel
+     */
+    private static int subBlock(int x, int y, int flip) {
+        return (flip == 0) ? (x >> 1) : (y >> 1);
+    }
+
+    /**
+     * @param block    The texels of the block
+     * @param flip     Orientation of the sub blocks
+     * @param subBlock Index of the sub block
+     * @return The average color of the sub block
+     */
+    private static float[] average(int[] block, int flip, int subBlock) {
+        float[] average = new float[COLORS];
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                if (subBlock(x, y, flip) == subBlock) {
+                    for (int c = 0; c < COLORS; c++) {
+                        average[c] += block[(y * SIDE + x) * COMPONENTS + c];
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < COLORS; c++) {
+            average[c] /= TEXELS / 2;
+        }
+        return average;
+    }
+
+    /**
+     * @param value Value to quantize in [0, 255]
+     * @param max   Max value of the quantized value
+     * @return The value quantized
+     */
+    private static int quantize(float value, int max) {
+        return Math.max(0, Math.min(max, Math.round(value * max / 255.0f)));
+    }
+
+    /**
+     * Encodes the block in one mode
+     *
+     * @param block        The texels of the block
+     * @param flip         Orientation of the sub blocks
+     * @param differential Indicates if uses the differential mode (555 + 333) or the individual (444 + 444)
+     * @param averages     Average colors of the sub blocks
+     * @param candidate    Where to put the encoding
+     */
+    private static void encodeMode(int[] block, int flip, boolean differential, float[][] averages,
+                                   Candidate candidate) {
+        int[][] bases = new int[2][COLORS];
+        long bits = 0;
+        for (int c = 0; c < COLORS; c++) {
+            if (differential) {
+                int base0 = quantize(averages[0][c], 31);
+                int base1 = quantize(averages[1][c], 31);
+                int delta = Math.max(MIN_DELTA, Math.min(MAX_DELTA, base1 - base0));
+                // The second color has to stay in range (Otherwise it would be other mode of ETC2)
+                delta = Math.max(-base0, Math.min(31 - base0, delta));
+                base1 = base0 + delta;
+                bits |= ((long) base0) << (59 - 8 * c);
+                bits |= ((long) (delta & 0x7)) << (56 - 8 * c);
+                bases[0][c] = (base0 << 3) | (base0 >> 2);
+                bases[1][c] = (base1 << 3) | (base1 >> 2);
+            } else {
+                int base0 = quantize(averages[0][c], 15);
+                int base1 = quantize(averages[1][c], 15);
+                bits |= ((long) base0) << (60 - 8 * c);
+                bits |= ((long) base1) << (56 - 8 * c);
+                bases[0][c] = base0 * 17;
+                bases[1][c] = base1 * 17;
+            }
+        }
+        if (differential) {
+            bits |= 1L << 33;
+        }
+        bits |= ((long) flip) << 32;
+
+        candidate.error = 0;
+        for (int subBlock = 0; subBlock < 2; subBlock++) {
+            int bestTable = 0;
+            int bestError = Integer.MAX_VALUE;
+            for (int table = 0; table < MODIFIERS.length; table++) {
+                int error = subBlockError(block, flip, subBlock, bases[subBlock], table, bestError);
+                if (error < bestError) {
+                    bestError = error;
+                    bestTable = table;
+                }
+            }
+            candidate.error += bestError;
+            bits |= ((long) bestTable) << (37 - 3 * subBlock);
+            bits |= writeIndices(block, flip, subBlock, bases[subBlock], bestTable, candidate.decoded);
+        }
+        candidate.bits = bits;
+    }
+
+    /**
+     * @param base     Base color of the sub block
+     * @param modifier Modifier of the intensity
+     * @param c        Component
+     * @return The component decoded
+     */
+    private static int decode(int[] base, int modifier, int c) {
+        return Math.max(0, Math.min(255, base[c] + modifier));
+    }
+
+    /**
+     * @param block    The texels of the block
+     * @param flip     Orientation of the sub blocks
+     * @param subBlock Index of the sub block
+     * @param base     Base color of the sub block
+     * @param table    Table of modifiers
+     * @param limit    Error above which is not worth to continue
+     * @return The squared error of the sub block with the table passed
+     */
+    private static int subBlockError(int[] block, int flip, int subBlock, int[] base, int table, int limit) {
+        int error = 0;
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                if (subBlock(x, y, flip) != subBlock) {
+                    continue;
+                }
+                int texel = (y * SIDE + x) * COMPONENTS;
+                int best = Integer.MAX_VALUE;
+                for (int modifier : MODIFIERS[table]) {
+                    int distance = 0;
+                    for (int c = 0; c < COLORS; c++) {
+                        int d = block[texel + c] - decode(base, modifier, c);
+                        distance += d * d;
+                    }
+                    best = Math.min(best, distance);
+                }
+                error += best;
+                if (error >= limit) {
+                    return error;
+                }
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Chooses the modifier of each texel of the sub block
+     *
+     * @param block    The texels of the block
+     * @param flip     Orientation of the sub blocks
+     * @param subBlock Index of the sub block
+     * @param base     Base color of the sub block
+     * @param table    Table of modifiers
+     * @param decoded  Where to write the colors decoded
+     * @return The bits of the pixel indices of the sub block
+     */
+    private static long writeIndices(int[] block, int flip, int subBlock, int[] base, int table, int[] decoded) {
+        long bits = 0;
+        for (int y = 0; y < SIDE; y++) {
+            for (int x = 0; x < SIDE; x++) {
+                if (subBlock(x, y, flip) != subBlock) {
+                    continue;
+                }
+                int texel = y * SIDE + x;
+                int bestIndex = 0;
+                int best = Integer.MAX_VALUE;
+                for (int index = 0; index < MODIFIERS[table].length; index++) {
+                    int distance = 0;
+                    for (int c = 0; c < COLORS; c++) {
+                        int d = block[texel * COMPONENTS + c] - decode(base, MODIFIERS[table][index], c);
+                        distance += d * d;
+                    }
+                    if (distance < best) {
+                        best = distance;
+                        bestIndex = index;
+                    }
+                }
+                for (int c = 0; c < COLORS; c++) {
+                    decoded[texel * COLORS + c] = decode(base, MODIFIERS[table][bestIndex], c);
+                }
+                // The texels are numbered by columns, most significant bits first
+                int position = x * SIDE + y;
+                bits |= ((long) (bestIndex >> 1)) << (16 + position);
+                bits |= ((long) (bestIndex & 1)) << position;
+            }
+        }
+        return bits;
+    }
+}
@@ -0,0 +1,267 @@
+package com.dferreira.commons.compression;
+
+import com.dferreira.commons.memory.DirectBufferPool;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.utils.WorkerPool;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compresses the textures in blocks of 4x4 texels (The rows of blocks are compressed in parallel)
+ */
+public class TextureCompressor {
+
+    /**
+     * Version of the encoders (Changes when the output of the encoders changes)
+     */
+    public final static int VERSION = 1;
+
+    /**
+     * Number of components of each texel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Offset of the alpha component
+     */
+    private final static int A_POSITION = 3;
+
+    /**
+     * Max value of one component of a texel
+     */
+    private final static int MAX_COMPONENT = 255;
+
+    /**
+     * Number of rows of blocks below which one task does not split anymore
+     */
+    private final static int BLOCK_ROWS_BY_TASK = 4;
+
+    /**
+     * Side of one block
+     */
+    private final static int SIDE = CompressedTextureFormatEnum.BLOCK_SIDE;
+
+    /**
+     * @param textureData The texture to check
+     * @return True if some texel of the texture is not opaque
+     */
+    public static boolean hasTransparency(TextureData textureData) {
+        ByteBuffer pixels = textureData.getBuffer();
+        int size = textureData.getWidth() * textureData.getHeight() * COMPONENTS;
+        for (int i = A_POSITION; i < size; i += COMPONENTS) {
+            if ((pixels.get(i) & 0xFF) != MAX_COMPONENT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compresses a texture and the levels of its mip chain (Uses the cache when it has the texture)
+     *
+     * @param textureData The texture to compress
+     * @param format      Format of the blocks
+     * @param cache       Cache of the textures compressed before (can be null)
+     * @return The texture compressed (null if there is no texture)
+     */
+    public static CompressedTextureData compress(TextureData textureData, CompressedTextureFormatEnum format,
+                                                 CompressedTextureCache cache) {
+        if ((textureData == null) || (textureData.getBuffer() == null)) {
+            return null;
+        }
+        String key = (cache == null) ? null : cache.getKey(textureData, format);
+        CompressedTextureData compressed = (key == null) ? null : cache.get(key);
+        if (compressed == null) {
+            compressed = compress(textureData, format);
+            if (key != null) {
+                cache.put(key, compressed);
+            }
+        }
+        return compressed;
+    }
+
+    /**
+     * Compresses a texture and the levels of its mip chain
+     *
+     * @param textureData The texture to compress
+     * @param format      Format of the blocks
+     * @return The texture compressed with the PSNR of the base level
+     */
+    public static CompressedTextureData compress(TextureData textureData, CompressedTextureFormatEnum format) {
+        double[] squaredError = new double[1];
+        CompressedTextureData compressed = compressLevel(textureData, format, squaredError);
+        int channels = format.hasAlpha() ? COMPONENTS : COMPONENTS - 1;
+        double meanSquaredError = squaredError[0] / ((double) textureData.getWidth() * textureData.getHeight() * channels);
+        compressed.setPsnr((meanSquaredError == 0.0) ? Double.POSITIVE_INFINITY
+                : 10.0 * Math.log10(MAX_COMPONENT * MAX_COMPONENT / meanSquaredError));
+
+        TextureData[] mipmaps = textureData.getMipmaps();
+        if (mipmaps != null) {
+            CompressedTextureData[] compressedMipmaps = new CompressedTextureData[mipmaps.length];
+            for (int i = 0; i < mipmaps.length; i++) {
+                compressedMipmaps[i] = compressLevel(mipmaps[i], format, null);
+            }
+            compressed.setMipmaps(compressedMipmaps);
+        }
+        return compressed;
+    }
+
+    /**
+     * @param textureData  One level of the texture
+     * @param format       Format of the blocks
+     * @param squaredError Where to put the squared error of the level (can be null)
+     * @return The level compressed
+     */
+    private static CompressedTextureData compressLevel(TextureData textureData, CompressedTextureFormatEnum format,
+                                                       double[] squaredError) {
+        int width = textureData.getWidth();
+        int height = textureData.getHeight();
+        int blocksY = (height + SIDE - 1) / SIDE;
+        ByteBuffer out = DirectBufferPool.getInstance().acquire(format.getSize(width, height));
+        double[] rowErrors = new double[blocksY];
+        WorkerPool.getInstance().invoke(new CompressTask(textureData, format, out, rowErrors, 0, blocksY));
+        if (squaredError != null) {
+            for (double rowError : rowErrors) {
+                squaredError[0] += rowError;
+            }
+        }
+        return new CompressedTextureData(format, out, width, height);
+    }
+
+    /**
+     * Compresses one row of blocks
+     *
+     * @param textureData One level of the texture
+     * @param format      Format of the blocks
+     * @param out         Where to write the blocks
+     * @param blockRow    Index of the row of blocks
+     * @return The squared error of the row
+     */
+    private static double compressRow(TextureData textureData, CompressedTextureFormatEnum format, ByteBuffer out,
+                                      int blockRow) {
+        ByteBuffer pixels = textureData.getBuffer();
+        int width = textureData.getWidth();
+        int height = textureData.getHeight();
+        int blocksX = (width + SIDE - 1) / SIDE;
+        int channels = format.hasAlpha() ? COMPONENTS : COMPONENTS - 1;
+        int[] block = new int[SIDE * SIDE * COMPONENTS];
+        int[] decoded = new int[SIDE * SIDE * COMPONENTS];
+        double error = 0.0;
+        for (int blockColumn = 0; blockColumn < blocksX; blockColumn++) {
+            // The texels outside of the image repeat the ones of the border
+            for (int y = 0; y < SIDE; y++) {
+                int sourceY = Math.min(blockRow * SIDE + y, height - 1);
+                for (int x = 0; x < SIDE; x++) {
+                    int sourceX = Math.min(blockColumn * SIDE + x, width - 1);
+                    int source = (sourceY * width + sourceX) * COMPONENTS;
+                    for (int c = 0; c < COMPONENTS; c++) {
+                        block[(y * SIDE + x) * COMPONENTS + c] = pixels.get(source + c) & 0xFF;
+                    }
+                }
+            }
+
+            int offset = (blockRow * blocksX + blockColumn) * format.getBlockSize();
+            switch (format) {
+                case BC1:
+                    Bc1Encoder.encode(block, out, offset, decoded);
+                    break;
+                case BC3:
+                    BcAlphaEncoder.encode(block, out, offset, decoded);
+                    Bc1Encoder.encode(block, out, offset + BcAlphaEncoder.BLOCK_BYTES, decoded);
+                    break;
+                case ETC2_RGB8:
+                    EtcEncoder.encode(block, out, offset, decoded);
+                    break;
+                case ETC2_RGBA8:
+                    EacAlphaEncoder.encode(block, out, offset, decoded);
+                    EtcEncoder.encode(block, out, offset + EacAlphaEncoder.BLOCK_BYTES, decoded);
+                    break;
+            }
+
+            for (int y = 0; y < SIDE; y++) {
+                for (int x = 0; x < SIDE; x++) {
+                    if ((blockRow * SIDE + y < height) && (blockColumn * SIDE + x < width)) {
+                        for (int c = 0; c < channels; c++) {
+                            int d = block[(y * SIDE + x) * COMPONENTS + c] - decoded[(y * SIDE + x) * COMPONENTS + c];
+                            error += d * d;
+                        }
+                    }
+                }
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Compresses a range of rows of blocks (Splits the range until it is small enough)
+     */
+    private static class CompressTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 7184529361027754113L;
+
+        /**
+         * One level of the texture
+         */
+        private final TextureData textureData;
+
+        /**
+         * Format of the blocks
+         */
+        private final CompressedTextureFormatEnum format;
+
+        /**
+         * Where to write the blocks
+         */
+        private final ByteBuffer out;
+
+        /**
+         * Where to put the squared error of each row of blocks
+         */
+        private final double[] rowErrors;
+
+        /**
+         * First row of blocks to compress
+         */
+        private final int startRow;
+
+        /**
+         * Row after the last row of blocks to compress
+         */
+        private final int endRow;
+
+        /**
+         * @param textureData One level of the texture
+         * @param format      Format of the blocks
+         * @param out         Where to write the blocks
+         * @param rowErrors   Where to put the squared error of each row of blocks
+         * @param startRow    First row of blocks to compress
+         * @param endRow      Row after the last row of blocks to compress
+         */
+        private CompressTask(TextureData textureData, CompressedTextureFormatEnum format, ByteBuffer out,
+                             double[] rowErrors, int startRow, int endRow) {
+            this.textureData = textureData;
+            this.format = format;
+            this.out = out;
+            this.rowErrors = rowErrors;
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        /**
+         * Compresses the rows or splits them in two tasks
+         */
+        @Override
+        protected void compute() {
+            if (endRow - startRow <= BLOCK_ROWS_BY_TASK) {
+                for (int row = startRow; row < endRow; row++) {
+                    rowErrors[row] = compressRow(textureData, format, out, row);
+                }
+            } else {
+                int middle = (startRow + endRow) >>> 1;
+                invokeAll(new CompressTask(textureData, format, out, rowErrors, startRow, middle),
+                        new CompressTask(textureData, format, out, rowErrors, middle, endRow));
+            }
+        }
+    }
+}
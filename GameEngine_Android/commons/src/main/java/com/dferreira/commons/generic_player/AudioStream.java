@@ -0,0 +1,332 @@
+package com.dferreira.commons.generic_player;
+
+import com.dferreira.commons.generic_resources.IAudioStream;
+import com.dferreira.commons.memory.DirectBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Plays one audio in a source through a small ring of buffers
+ * (The buffers already played are taken from the queue of the source, filled with the next samples
+ * decoded and put back at the end of the queue)
+ */
+public class AudioStream {
+
+    /**
+     * Number of buffers in the ring by default
+     */
+    public final static int DEFAULT_BUFFERS_COUNT = 4;
+
+    /**
+     * Number of bytes of each buffer by default (About 0.2 seconds of stereo audio at 44.1kHz)
+     */
+    public final static int DEFAULT_BUFFER_SIZE = 32 * 1024;
+
+    /**
+     * Number of bytes of one sample of one channel
+     */
+    private final static int BYTES_BY_SAMPLE = 2;
+
+    /**
+     * Calls to the audio engine
+     */
+    private final IAudioQueue queue;
+
+    /**
+     * Description of the audio to play (Opens the decoder again when the audio loops)
+     */
+    private final StreamingAudioDescription description;
+
+    /**
+     * Identifier of the source that plays the audio
+     */
+    private final int sourceId;
+
+    /**
+     * Identifiers of the buffers of the ring
+     */
+    private final int[] bufferIds;
+
+    /**
+     * Buffers of the ring out of the queue because there were no samples to fill them
+     * (Filled and queued again if the audio starts looping after the end)
+     */
+    private final int[] idleBufferIds;
+
+    /**
+     * Number of buffers out of the queue
+     */
+    private int idleCount;
+
+    /**
+     * Number of bytes of each buffer
+     */
+    private final int bufferSize;
+
+    /**
+     * Decoder of the audio
+     */
+    private IAudioStream decoder;
+
+    /**
+     * Samples decoded before put in one buffer
+     */
+    private ByteBuffer pcm;
+
+    /**
+     * Number of channels of the audio
+     */
+    private int channels;
+
+    /**
+     * Sampling rate of the audio
+     */
+    private int rate;
+
+    /**
+     * Number of bytes decoded since the decoder was opened
+     */
+    private long bytesSinceOpen;
+
+    /**
+     * Number of buffers in the queue of the source
+     */
+    private int queuedCount;
+
+    /**
+     * Number of buffers filled since the start
+     */
+    private int buffersFilledCount;
+
+    /**
+     * Number of times that the source played every buffer before they were filled again
+     */
+    private int underrunsCount;
+
+    /**
+     * If the audio should start again when it ends
+     */
+    private boolean loop;
+
+    /**
+     * Flag that indicates that every sample was decoded
+     */
+    private boolean endOfStream;
+
+    /**
+     * Flag that indicates that the stream was stopped or played until the end
+     */
+    private boolean stopped;
+
+    /**
+     * @param queue        Calls to the audio engine
+     * @param description  Description of the audio to play
+     * @param sourceId     Identifier of the source that plays the audio
+     * @param buffersCount Number of buffers in the ring
+     * @param bufferSize   Number of bytes of each buffer
+     */
+    public AudioStream(IAudioQueue queue, StreamingAudioDescription description, int sourceId, int buffersCount,
+                       int bufferSize) {
+        this.queue = queue;
+        this.description = description;
+        this.sourceId = sourceId;
+        this.bufferIds = new int[buffersCount];
+        this.idleBufferIds = new int[buffersCount];
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Opens the decoder, fills the buffers of the ring and starts playing
+     *
+     * @return False if was not possible to start the stream
+     */
+    public synchronized boolean start() {
+        decoder = description.openStream();
+        if (decoder == null) {
+            System.err.println("Could not open the stream of the audio: " + description.getAudioEnum());
+            stopped = true;
+            return false;
+        }
+        channels = decoder.getChannels();
+        rate = decoder.getRate();
+        pcm = DirectBufferPool.getInstance().acquire(bufferSize);
+        for (int i = 0; i < bufferIds.length; i++) {
+            bufferIds[i] = queue.genBuffer();
+            if (bufferIds[i] < 0) {
+                System.err.println("Could not create the buffers to stream the audio: " + description.getAudioEnum());
+                stop();
+                return false;
+            }
+        }
+        for (int bufferId : bufferIds) {
+            if (fill(bufferId)) {
+                queue.queueBuffer(sourceId, bufferId);
+                queuedCount++;
+            } else {
+                idleBufferIds[idleCount++] = bufferId;
+            }
+        }
+        if (queuedCount == 0) {
+            stop();
+            return false;
+        }
+        queue.play(sourceId);
+        return true;
+    }
+
+    /**
+     * Puts the next samples of the audio in one buffer
+     *
+     * @param bufferId Identifier of the buffer to fill
+     * @return False if there were no more samples to put in the buffer
+     */
+    private boolean fill(int bufferId) {
+        if (endOfStream) {
+            return false;
+        }
+        int frameSize = channels * BYTES_BY_SAMPLE;
+        pcm.clear();
+        pcm.limit(bufferSize - (bufferSize % frameSize));
+        while (pcm.hasRemaining()) {
+            int read = decoder.read(pcm);
+            if (read > 0) {
+                bytesSinceOpen += read;
+            } else if ((read == 0) || (!loop) || (!reopen())) {
+                endOfStream = (read < 0);
+                break;
+            }
+        }
+        pcm.flip();
+        pcm.limit(pcm.limit() - (pcm.limit() % frameSize));
+        if (!pcm.hasRemaining()) {
+            return false;
+        }
+        queue.bufferData(bufferId, channels, rate, pcm);
+        buffersFilledCount++;
+        return true;
+    }
+
+    /**
+     * Opens the decoder again to go back to the start of the audio
+     *
+     * @return False if was not possible to open or the audio does not have samples
+     */
+    private boolean reopen() {
+        if (bytesSinceOpen == 0) {
+            // The audio is empty, looping would never end
+            return false;
+        }
+        decoder.close();
+        decoder = description.openStream();
+        bytesSinceOpen = 0;
+        if (decoder == null) {
+            System.err.println("Could not open again the stream of the audio: " + description.getAudioEnum());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fills again the buffers already played and puts them back in the queue
+     * (Called periodically by the audio streamer)
+     *
+     * @return False if the stream was stopped or played until the end
+     */
+    public synchronized boolean refill() {
+        if (stopped) {
+            return false;
+        }
+        int bufferId;
+        while ((bufferId = queue.unqueueProcessedBuffer(sourceId)) >= 0) {
+            queuedCount--;
+            if (fill(bufferId)) {
+                queue.queueBuffer(sourceId, bufferId);
+                queuedCount++;
+            } else {
+                idleBufferIds[idleCount++] = bufferId;
+            }
+        }
+        if (queuedCount == 0) {
+            stop();
+            return false;
+        }
+        if (queue.isStopped(sourceId)) {
+            // The source played every buffer before the refill, continues with the ones filled now
+            underrunsCount++;
+            queue.play(sourceId);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the source and releases the buffers and the decoder of the stream
+     */
+    public synchronized void stop() {
+        if ((stopped) && (pcm == null)) {
+            return;
+        }
+        stopped = true;
+        queue.stopAndClear(sourceId);
+        queuedCount = 0;
+        idleCount = 0;
+        for (int i = 0; i < bufferIds.length; i++) {
+            if (bufferIds[i] > 0) {
+                queue.deleteBuffer(bufferIds[i]);
+                bufferIds[i] = 0;
+            }
+        }
+        if (decoder != null) {
+            decoder.close();
+            decoder = null;
+        }
+        DirectBufferPool.getInstance().release(pcm);
+        pcm = null;
+    }
+
+    /**
+     * Sets if the audio loops (The audio already decoded until the end starts again, as long as the source still
+     * has buffers to play)
+     *
+     * @param loop If the audio should start again when it ends
+     */
+    public synchronized void setLoop(boolean loop) {
+        this.loop = loop;
+        if ((!loop) || (!endOfStream) || (stopped) || (!reopen())) {
+            return;
+        }
+        endOfStream = false;
+        while ((idleCount > 0) && fill(idleBufferIds[idleCount - 1])) {
+            idleCount--;
+            queue.queueBuffer(sourceId, idleBufferIds[idleCount]);
+            queuedCount++;
+        }
+    }
+
+    /**
+     * @return the description of the audio played
+     */
+    public StreamingAudioDescription getDescription() {
+        return description;
+    }
+
+    /**
+     * @return False if the stream was stopped or played until the end
+     */
+    public synchronized boolean isActive() {
+        return !stopped;
+    }
+
+    /**
+     * @return the number of buffers filled since the start
+     */
+    public synchronized int getBuffersFilledCount() {
+        return buffersFilledCount;
+    }
+
+    /**
+     * @return the number of times that the source played every buffer before they were filled again
+     */
+    public synchronized int getUnderrunsCount() {
+        return underrunsCount;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dferreira.commons.generic_player;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refills the buffers of the audio streams in a background thread
+ * (So the decode of the long sounds does not take time from the frames)
+ */
+public class AudioStreamer {
+
+    /**
+     * Period between two refills by default (Much shorter than the audio kept in the ring of buffers)
+     */
+    public final static long DEFAULT_REFILL_PERIOD_MILLIS = 20;
+
+    /**
+     * Streams playing
+     */
+    private final List<AudioStream> streams;
+
+    /**
+     * Period between two refills
+     */
+    private final long refillPeriodMillis;
+
+    /**
+     * Thread that refills the streams (Created when the first stream is added)
+     */
+    private ScheduledExecutorService refiller;
+
+    /**
+     * Constructor of the audio streamer
+     *
+     * @param refillPeriodMillis Period between two refills
+     */
+    public AudioStreamer(long refillPeriodMillis) {
+        this.streams = new CopyOnWriteArrayList<>();
+        this.refillPeriodMillis = refillPeriodMillis;
+    }
+
+    /**
+     * Starts refilling one stream already started
+     *
+     * @param stream The stream to refill
+     */
+    public synchronized void add(AudioStream stream) {
+        streams.add(stream);
+        if (refiller == null) {
+            refiller = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "audio-streamer");
+                    // The streamer should not keep the game alive
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            refiller.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    refillAll();
+                }
+            }, refillPeriodMillis, refillPeriodMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops refilling one stream (The stream is not stopped)
+     *
+     * @param stream The stream to remove
+     */
+    public void remove(AudioStream stream) {
+        streams.remove(stream);
+    }
+
+    /**
+     * Refills every stream and removes the ones that ended
+     * (Called by the background thread, public so it can also be called directly)
+     */
+    public void refillAll() {
+        for (AudioStream stream : streams) {
+            try {
+                if (!stream.refill()) {
+                    streams.remove(stream);
+                }
+            } catch (Exception e) {
+                // One stream failing should not stop the others
+                e.printStackTrace();
+                stream.stop();
+                streams.remove(stream);
+            }
+        }
+    }
+
+    /**
+     * @return the number of streams being refilled
+     */
+    public int getStreamsCount() {
+        return streams.size();
+    }
+
+    /**
+     * Stops the background thread and every stream
+     */
+    public synchronized void dispose() {
+        if (refiller != null) {
+            refiller.shutdownNow();
+            try {
+                refiller.awaitTermination(refillPeriodMillis * 10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            refiller = null;
+        }
+        for (AudioStream stream : streams) {
+            stream.stop();
+        }
+        streams.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package com.dferreira.commons.generic_player;
 
 import com.dferreira.commons.generic_resources.AudioEnum;
+import com.dferreira.commons.generic_resources.IAudioData;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 
 import java.util.List;
@@ -20,6 +21,23 @@ public interface IAudioLoader {
      */
     IAudioDescription loadAudio(AudioEnum audioEnum, IResourceProvider resourceProvider);
 
+    /**
+     * Load one audio already decoded in an audio descriptor
+     *
+     * @param audioData The audio decoded by the provider of resources
+     * @return The audio descriptor of the audio loaded (null if was not possible to load)
+     */
+    IAudioDescription loadAudio(IAudioData audioData);
+
+    /**
+     * Load one audio to be decoded while it is played (Used by the long sounds)
+     *
+     * @param audioEnum        Enumeration of the audio that is going to play
+     * @param resourceProvider The provider of resources that opens the streams of the audio
+     * @return The audio descriptor of the audio (null if the audio can not be streamed)
+     */
+    IAudioDescription loadStreamingAudio(AudioEnum audioEnum, IResourceProvider resourceProvider);
+
     /**
      * @param numberOfSources Number of audio sources to generate
      * @return A list of the audio sources generated
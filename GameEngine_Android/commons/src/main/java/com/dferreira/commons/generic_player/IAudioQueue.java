@@ -0,0 +1,66 @@
+package com.dferreira.commons.generic_player;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Calls to the audio engine used to stream one audio through a queue of buffers in a source
+ * (Implemented by the audio engine of each platform)
+ */
+public interface IAudioQueue {
+
+    /**
+     * @return The identifier of a new buffer or -1 if was not possible to create
+     */
+    int genBuffer();
+
+    /**
+     * Puts samples in a buffer
+     *
+     * @param bufferId Identifier of the buffer
+     * @param channels Number of channels of the samples
+     * @param rate     Sampling rate of the samples
+     * @param pcm      Samples of 16 bits in the native order (From the position until the limit)
+     */
+    void bufferData(int bufferId, int channels, int rate, ByteBuffer pcm);
+
+    /**
+     * Adds a buffer to the end of the queue of a source
+     *
+     * @param sourceId Identifier of the source
+     * @param bufferId Identifier of the buffer
+     */
+    void queueBuffer(int sourceId, int bufferId);
+
+    /**
+     * Removes from the queue of a source the first buffer already played
+     *
+     * @param sourceId Identifier of the source
+     * @return The identifier of the buffer removed or -1 if none was played yet
+     */
+    int unqueueProcessedBuffer(int sourceId);
+
+    /**
+     * Starts playing the queue of a source
+     *
+     * @param sourceId Identifier of the source
+     */
+    void play(int sourceId);
+
+    /**
+     * @param sourceId Identifier of the source
+     * @return True if the source stopped (Played every buffer of the queue or was stopped)
+     */
+    boolean isStopped(int sourceId);
+
+    /**
+     * Stops a source and removes every buffer from its queue
+     *
+     * @param sourceId Identifier of the source
+     */
+    void stopAndClear(int sourceId);
+
+    /**
+     * @param bufferId Identifier of the buffer to delete
+     */
+    void deleteBuffer(int bufferId);
+}
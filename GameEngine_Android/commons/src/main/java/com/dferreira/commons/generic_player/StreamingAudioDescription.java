@@ -0,0 +1,45 @@
+package com.dferreira.commons.generic_player;
+
+import com.dferreira.commons.generic_resources.AudioEnum;
+import com.dferreira.commons.generic_resources.IAudioStream;
+import com.dferreira.commons.generic_resources.IResourceProvider;
+
+/**
+ * Description of one audio that is decoded while it is played
+ * (Each source that plays it opens its own stream)
+ */
+public class StreamingAudioDescription implements IAudioDescription {
+
+    /**
+     * The audio to stream
+     */
+    private final AudioEnum audioEnum;
+
+    /**
+     * Provider that opens the streams of the audio
+     */
+    private final IResourceProvider resourceProvider;
+
+    /**
+     * @param audioEnum        The audio to stream
+     * @param resourceProvider Provider that opens the streams of the audio
+     */
+    public StreamingAudioDescription(AudioEnum audioEnum, IResourceProvider resourceProvider) {
+        this.audioEnum = audioEnum;
+        this.resourceProvider = resourceProvider;
+    }
+
+    /**
+     * @return the audio to stream
+     */
+    public AudioEnum getAudioEnum() {
+        return audioEnum;
+    }
+
+    /**
+     * @return A new stream positioned in the start of the audio or null if was not possible to open
+     */
+    public IAudioStream openStream() {
+        return resourceProvider.openAudioStream(audioEnum);
+    }
+}
@@ -1,5 +1,7 @@
 package com.dferreira.commons.generic_render;
 
+import com.dferreira.commons.IEnum;
+
 /**
  * Interface of the frame render API
  */
@@ -86,6 +88,50 @@ public interface IFrameRenderAPI {
 	 */
 	void drawTrianglesIndexes(IRawModel model);
 
+	/**
+	 * @return True if the render API can draw a range of the indexes of a model relative to a base vertex
+	 */
+	boolean supportsDrawRange();
+
+	/**
+	 * Draw a range of the indexes of a model, the indexes being relative to a
+	 * base vertex (Lets several meshes with the same layout share the indexes,
+	 * only called if supportsDrawRange)
+	 *
+	 * @param model
+	 *            The model to be drawn
+	 * @param firstIndex
+	 *            Position of the first index to draw
+	 * @param indicesCount
+	 *            Number of indexes to draw
+	 * @param baseVertex
+	 *            Number added to each index before reading the vertex
+	 */
+	void drawTrianglesIndexesRange(IRawModel model, int firstIndex, int indicesCount, int baseVertex);
+
+	/**
+	 * @return True if the render API can draw several instances of a model in one call
+	 */
+	boolean supportsInstancing();
+
+	/**
+	 * Draw several instances of a model using for that there indexes, each one
+	 * with its own transformation matrix (Only called if supportsInstancing)
+	 *
+	 * @param model
+	 *            The model to be drawn
+	 * @param transformationAttribute
+	 *            Attribute of the shader that receives the transformation of
+	 *            each instance (A matrix of 4x4 that takes 4 attributes)
+	 * @param transformations
+	 *            Transformation matrices of the instances packed one after the
+	 *            other (16 floats by instance in column major order)
+	 * @param instancesCount
+	 *            Number of instances to draw
+	 */
+	void drawTrianglesIndexesInstanced(IRawModel model, IEnum transformationAttribute, float[] transformations,
+			int instancesCount);
+
 	/**
 	 * Draw a set of triangles using for that there vertex
 	 *
@@ -1,6 +1,7 @@
 package com.dferreira.commons.generic_render;
 
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.compression.CompressedTextureFormatEnum;
 import com.dferreira.commons.generic_resources.TextureEnum;
 import com.dferreira.commons.models.TextureData;
 import com.dferreira.commons.shapes.IShape;
@@ -33,6 +34,29 @@ public interface ILoaderRenderAPI {
     @SuppressWarnings("SameParameterValue")
     ITexture loadTexture(String filename, boolean repeat);
 
+    /**
+     * Load a texture already decoded in the Render API
+     *
+     * @param textureData The data of the texture to load
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The identifier of the texture loaded (null if there is no data)
+     */
+    ITexture loadTexture(TextureData textureData, boolean repeat);
+
+    /**
+     * @param format Format of block compression
+     * @return True if the Render API can load textures compressed in the format passed
+     * (The compressed version of a texture is loaded instead of the pixels when it is supported)
+     */
+    boolean isCompressedFormatSupported(CompressedTextureFormatEnum format);
+
+    /**
+     * Deletes one texture loaded before from the Render API
+     *
+     * @param texture The texture to delete
+     */
+    void deleteTexture(ITexture texture);
+
     /**
      * Loads the data of a texture without bind
      *
@@ -60,6 +84,16 @@ public interface ILoaderRenderAPI {
      */
     IRawModel loadToRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes);
 
+    /**
+     * Load from a shape to one equivalent IRawModel with the vertices in a compact format
+     * (The render API can fall back to the format of loadToRawModel if does not support it)
+     *
+     * @param shape      The shape to load
+     * @param attributes List of attributes associated with the model
+     * @return The raw model loaded
+     */
+    IRawModel loadToQuantizedRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes);
+
     /**
      * Load a list of 2D positions to GLRawModel
      *
@@ -78,6 +112,14 @@ public interface ILoaderRenderAPI {
      */
     IRawModel load3DPositionsToRawModel(float[] positions, HashMap<RenderAttributeEnum, IEnum> attributes);
 
+    /**
+     * Deletes one raw model loaded before from the Render API
+     * (The vertices shared with other models stay until the last of them is deleted)
+     *
+     * @param model The raw model to delete
+     */
+    void deleteRawModel(IRawModel model);
+
     /**
      * Clean up the resources used by the loader
      */
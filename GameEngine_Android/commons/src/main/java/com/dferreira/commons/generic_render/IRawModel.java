@@ -1,5 +1,7 @@
 package com.dferreira.commons.generic_render;
 
+import com.dferreira.commons.shapes.VertexQuantization;
+
 /**
  * A raw model widely depends of the render API used so this is Interface completely lets open
  * the Way who to implement it
@@ -7,6 +9,16 @@ package com.dferreira.commons.generic_render;
 
 public interface IRawModel {
 
+    /**
+     * @return How to convert the vertices of the model to the original values (null if they are not quantized)
+     */
+    VertexQuantization getQuantization();
+
+    /**
+     * @return The type of the indices used to draw the model (null if the model is not drawn with indices)
+     */
+    IndexTypeEnum getIndexType();
+
     /**
      * Clean the memory used by the model
      */
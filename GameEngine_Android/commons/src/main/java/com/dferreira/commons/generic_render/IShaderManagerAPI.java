@@ -3,6 +3,7 @@ package com.dferreira.commons.generic_render;
 import com.dferreira.commons.ColorRGB;
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector2f;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_resources.TextEnum;
 
@@ -83,6 +84,16 @@ public interface IShaderManagerAPI {
 	 */
 	void loadVector(int location, Vector3f vector);
 
+	/**
+	 * Load a 2D vector to be used in the shader script
+	 *
+	 * @param location
+	 *            location of the shader variable in the script
+	 * @param vector
+	 *            The vector to load
+	 */
+	void loadVector(int location, Vector2f vector);
+
 	/**
 	 * Load a color RGB to be used in the shader script
 	 *
@@ -0,0 +1,48 @@
+package com.dferreira.commons.generic_render;
+
+/**
+ * Types of the indices of the vertices used to draw a model
+ */
+public enum IndexTypeEnum {
+    /**
+     * 16 bits unsigned integer (Only for models with up to 65536 vertices)
+     */
+    UNSIGNED_SHORT(2),
+
+    /**
+     * 32 bits unsigned integer
+     */
+    UNSIGNED_INT(4);
+
+    /**
+     * Number of vertices that can be indexed with 16 bits
+     */
+    private final static int SHORT_VERTICES_LIMIT = 1 << 16;
+
+    /**
+     * Number of bytes of one index
+     */
+    private final int size;
+
+    /**
+     * @param size Number of bytes of one index
+     */
+    IndexTypeEnum(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return the number of bytes of one index
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @param vertexCount Number of vertices of the model
+     * @return The smallest type of index able to index all the vertices
+     */
+    public static IndexTypeEnum forVertexCount(int vertexCount) {
+        return (vertexCount <= SHORT_VERTICES_LIMIT) ? UNSIGNED_SHORT : UNSIGNED_INT;
+    }
+}
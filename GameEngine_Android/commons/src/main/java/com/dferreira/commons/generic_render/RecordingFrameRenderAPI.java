@@ -0,0 +1,322 @@
+package com.dferreira.commons.generic_render;
+
+import com.dferreira.commons.IEnum;
+
+/**
+ * Frame render API that draws nothing and only records the calls it gets
+ * (Used to measure the work done by the renders in the CPU without a context of the render API)
+ */
+public class RecordingFrameRenderAPI implements IFrameRenderAPI {
+
+    /**
+     * If the API says that it can draw instances
+     */
+    private final boolean instancing;
+
+    /**
+     * Number of draw calls (Instanced or not)
+     */
+    private long drawCalls;
+
+    /**
+     * Number of instanced draw calls
+     */
+    private long instancedDrawCalls;
+
+    /**
+     * Number of instances drawn (One by each draw that is not instanced)
+     */
+    private long instancesDrawn;
+
+    /**
+     * Number of floats of the transformations of the instances received
+     */
+    private long transformationFloats;
+
+    /**
+     * Sum of the floats of the transformations received (Keeps the packing of the transformations from being
+     * optimized away)
+     */
+    private double transformationsChecksum;
+
+    /**
+     * Number of calls that change the state (Models, textures and capabilities)
+     */
+    private long stateCalls;
+
+    /**
+     * Number of frames prepared
+     */
+    private long frames;
+
+    /**
+     * Constructor of the recording frame render API
+     *
+     * @param instancing If the API should say that it can draw instances
+     */
+    public RecordingFrameRenderAPI(boolean instancing) {
+        this.instancing = instancing;
+    }
+
+    /**
+     * Forgets the calls recorded
+     */
+    public void reset() {
+        drawCalls = 0;
+        instancedDrawCalls = 0;
+        instancesDrawn = 0;
+        transformationFloats = 0;
+        transformationsChecksum = 0.0;
+        stateCalls = 0;
+        frames = 0;
+    }
+
+    /**
+     * Records one draw that is not instanced
+     */
+    private void recordDraw() {
+        drawCalls++;
+        instancesDrawn++;
+    }
+
+    /**
+     * Counts one frame
+     */
+    @Override
+    public void prepareFrame() {
+        frames++;
+    }
+
+    /**
+     * Counts the preparation of one model
+     */
+    @Override
+    public void prepareModel(IRawModel model) {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the preparation of one 2D model
+     */
+    @Override
+    public void prepare2DModel(IRawModel model) {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the preparation of one 3D model
+     */
+    @Override
+    public void prepare3DModel(IRawModel model) {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the release of one model
+     */
+    @Override
+    public void unPrepareModel(IRawModel model) {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the bind of one texture
+     */
+    @Override
+    public void activeAndBindTexture(ITexture texture) {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the bind of one cubic texture
+     */
+    @Override
+    public void activeAndBindCubeTexture(ITexture texture) {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the bind of a set of textures
+     */
+    @Override
+    public void activeAndBindTextures(ITexture texture1, ITexture texture2, ITexture texture3, ITexture texture4,
+                                      ITexture texture5) {
+        stateCalls++;
+    }
+
+    /**
+     * Counts one draw of the triangles of a model by indexes
+     */
+    @Override
+    public void drawTrianglesIndexes(IRawModel model) {
+        recordDraw();
+    }
+
+    /**
+     * @return Always true (The draws of ranges are only counted)
+     */
+    @Override
+    public boolean supportsDrawRange() {
+        return true;
+    }
+
+    /**
+     * Counts one draw of a range of the indexes of a model
+     */
+    @Override
+    public void drawTrianglesIndexesRange(IRawModel model, int firstIndex, int indicesCount, int baseVertex) {
+        recordDraw();
+    }
+
+    /**
+     * @return The instancing flag passed in the constructor
+     */
+    @Override
+    public boolean supportsInstancing() {
+        return instancing;
+    }
+
+    /**
+     * Counts one instanced draw and reads the transformations of the instances
+     */
+    @Override
+    public void drawTrianglesIndexesInstanced(IRawModel model, IEnum transformationAttribute, float[] transformations,
+                                              int instancesCount) {
+        drawCalls++;
+        instancedDrawCalls++;
+        instancesDrawn += instancesCount;
+        int floats = instancesCount * 16;
+        transformationFloats += floats;
+        for (int i = 0; i < floats; i++) {
+            transformationsChecksum += transformations[i];
+        }
+    }
+
+    /**
+     * Counts one draw of the triangles of a model by vertex
+     */
+    @Override
+    public void drawTrianglesVertex(IRawModel model) {
+        recordDraw();
+    }
+
+    /**
+     * Counts one draw of a quad
+     */
+    @Override
+    public void drawQuadVertex(IRawModel quad) {
+        recordDraw();
+    }
+
+    /**
+     * Counts the culling enabled
+     */
+    @Override
+    public void enableCulling() {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the culling disabled
+     */
+    @Override
+    public void disableCulling() {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the depth test enabled
+     */
+    @Override
+    public void enableDepthTest() {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the depth test disabled
+     */
+    @Override
+    public void disableDepthTest() {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the blend enabled
+     */
+    @Override
+    public void enableBlend() {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the blend disabled
+     */
+    @Override
+    public void disableBlend() {
+        stateCalls++;
+    }
+
+    /**
+     * Counts the change of the view port
+     */
+    @Override
+    public void setViewPort(int x, int y, int width, int height) {
+        stateCalls++;
+    }
+
+    /**
+     * Nothing to release
+     */
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * @return the number of draw calls (Instanced or not)
+     */
+    public long getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * @return the number of instanced draw calls
+     */
+    public long getInstancedDrawCalls() {
+        return instancedDrawCalls;
+    }
+
+    /**
+     * @return the number of instances drawn
+     */
+    public long getInstancesDrawn() {
+        return instancesDrawn;
+    }
+
+    /**
+     * @return the number of floats of the transformations of the instances received
+     */
+    public long getTransformationFloats() {
+        return transformationFloats;
+    }
+
+    /**
+     * @return the sum of the floats of the transformations received
+     */
+    public double getTransformationsChecksum() {
+        return transformationsChecksum;
+    }
+
+    /**
+     * @return the number of calls that change the state
+     */
+    public long getStateCalls() {
+        return stateCalls;
+    }
+
+    /**
+     * @return the number of frames prepared
+     */
+    public long getFrames() {
+        return frames;
+    }
+}
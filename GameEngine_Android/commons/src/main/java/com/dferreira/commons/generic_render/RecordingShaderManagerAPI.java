@@ -0,0 +1,162 @@
+package com.dferreira.commons.generic_render;
+
+import com.dferreira.commons.ColorRGB;
+import com.dferreira.commons.ColorRGBA;
+import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.generic_resources.TextEnum;
+
+/**
+ * Shader manager API that compiles nothing and only records the values loaded
+ * (Used with the RecordingFrameRenderAPI to run the renders without a context of the render API)
+ */
+public class RecordingShaderManagerAPI implements IShaderManagerAPI {
+
+    /**
+     * Number of programs created
+     */
+    private int programsCount;
+
+    /**
+     * Number of uniform locations given
+     */
+    private int locationsCount;
+
+    /**
+     * Number of uniform values loaded
+     */
+    private long uploads;
+
+    /**
+     * Creates an empty program with a new identifier
+     */
+    @Override
+    public ShaderProgram loadProgram(TextEnum vertexShader, TextEnum fragShader) {
+        ShaderProgram shaderProgram = new ShaderProgram();
+        shaderProgram.setProgramId(++programsCount);
+        return shaderProgram;
+    }
+
+    /**
+     * @return Always true
+     */
+    @Override
+    public boolean linkProgram(ShaderProgram shaderProgram) {
+        return true;
+    }
+
+    /**
+     * Nothing to bind
+     */
+    @Override
+    public void glBindAttributeLocation(ShaderProgram shaderProgram, int attributeIndex, String variableName) {
+    }
+
+    /**
+     * @return A new location by each uniform asked
+     */
+    @Override
+    public int getUniformLocation(ShaderProgram shaderProgram, Enum<?> uniformName) {
+        return locationsCount++;
+    }
+
+    /**
+     * Counts one integer loaded
+     */
+    @Override
+    public void loadInt(int location, int value) {
+        uploads++;
+    }
+
+    /**
+     * Counts one float loaded
+     */
+    @Override
+    public void loadFloat(int location, float value) {
+        uploads++;
+    }
+
+    /**
+     * Counts one vector of 3 components loaded
+     */
+    @Override
+    public void loadVector(int location, Vector3f vector) {
+        uploads++;
+    }
+
+    /**
+     * Counts one vector of 2 components loaded
+     */
+    @Override
+    public void loadVector(int location, Vector2f vector) {
+        uploads++;
+    }
+
+    /**
+     * Counts one color loaded
+     */
+    @Override
+    public void loadColorRGB(int location, ColorRGB color) {
+        uploads++;
+    }
+
+    /**
+     * Counts one color with alpha loaded
+     */
+    @Override
+    public void loadColorRGBA(int location, ColorRGBA color) {
+        uploads++;
+    }
+
+    /**
+     * Counts one boolean loaded
+     */
+    @Override
+    public void loadBoolean(int location, boolean value) {
+        uploads++;
+    }
+
+    /**
+     * Counts one matrix loaded
+     */
+    @Override
+    public void loadMatrix(int location, GLTransformation matrix) {
+        uploads++;
+    }
+
+    /**
+     * Nothing to start
+     */
+    @Override
+    public void start(ShaderProgram shaderProgram) {
+    }
+
+    /**
+     * Nothing to stop
+     */
+    @Override
+    public void stop() {
+    }
+
+    /**
+     * Nothing to delete
+     */
+    @Override
+    public void deleteProgram(ShaderProgram shaderProgram) {
+    }
+
+    /**
+     * Nothing to release
+     */
+    @Override
+    public void dispose() {
+    }
+
+    /**
+     * @return the number of uniform values loaded
+     */
+    public long getUploads() {
+        return uploads;
+    }
+}
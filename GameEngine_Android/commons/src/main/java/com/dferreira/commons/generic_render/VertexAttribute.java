@@ -0,0 +1,100 @@
+package com.dferreira.commons.generic_render;
+
+/**
+ * Describes where one attribute is inside of an interleaved vertex
+ */
+public class VertexAttribute {
+
+    /**
+     * Attribute of the render engine
+     */
+    private final RenderAttributeEnum attribute;
+
+    /**
+     * Number of components of the attribute
+     */
+    private final int components;
+
+    /**
+     * Type of each component
+     */
+    private final VertexComponentTypeEnum type;
+
+    /**
+     * Indicates if the integer components are read by the shader as values in [-1, 1] or [0, 1]
+     */
+    private final boolean normalized;
+
+    /**
+     * Number of bytes from the start of the vertex to the attribute
+     */
+    private final int offset;
+
+    /**
+     * Constructor of the vertex attribute
+     *
+     * @param attribute  Attribute of the render engine
+     * @param components Number of components of the attribute
+     * @param type       Type of each component
+     * @param normalized Indicates if the integer components are normalized
+     * @param offset     Number of bytes from the start of the vertex to the attribute
+     */
+    VertexAttribute(RenderAttributeEnum attribute, int components, VertexComponentTypeEnum type, boolean normalized,
+                    int offset) {
+        this.attribute = attribute;
+        this.components = components;
+        this.type = type;
+        this.normalized = normalized;
+        this.offset = offset;
+    }
+
+    /**
+     * @return the attribute of the render engine
+     */
+    public RenderAttributeEnum getAttribute() {
+        return attribute;
+    }
+
+    /**
+     * @return the number of components of the attribute
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * @return the type of each component
+     */
+    public VertexComponentTypeEnum getType() {
+        return type;
+    }
+
+    /**
+     * @return true if the integer components are read by the shader as normalized values
+     */
+    public boolean isNormalized() {
+        return normalized;
+    }
+
+    /**
+     * @return the number of bytes from the start of the vertex to the attribute
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of bytes of the attribute
+     */
+    public int getSize() {
+        return components * type.getSize();
+    }
+
+    /**
+     * @return Textual description of the attribute
+     */
+    @Override
+    public String toString() {
+        return attribute + ":" + components + "x" + type + (normalized ? "(normalized)" : "") + "@" + offset;
+    }
+}
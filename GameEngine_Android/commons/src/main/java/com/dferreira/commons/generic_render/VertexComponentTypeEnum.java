@@ -0,0 +1,45 @@
+package com.dferreira.commons.generic_render;
+
+/**
+ * Types of the components of the attributes of a vertex
+ */
+public enum VertexComponentTypeEnum {
+    /**
+     * 32 bits float
+     */
+    FLOAT(4),
+
+    /**
+     * 16 bits signed integer
+     */
+    SHORT(2),
+
+    /**
+     * 16 bits unsigned integer
+     */
+    UNSIGNED_SHORT(2),
+
+    /**
+     * 8 bits signed integer
+     */
+    BYTE(1);
+
+    /**
+     * Number of bytes of one component
+     */
+    private final int size;
+
+    /**
+     * @param size Number of bytes of one component
+     */
+    VertexComponentTypeEnum(int size) {
+        this.size = size;
+    }
+
+    /**
+     * @return the number of bytes of one component
+     */
+    public int getSize() {
+        return size;
+    }
+}
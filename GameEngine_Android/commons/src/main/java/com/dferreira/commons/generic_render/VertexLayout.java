@@ -0,0 +1,122 @@
+package com.dferreira.commons.generic_render;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the attributes of the vertices interleaved in one single buffer
+ * (Every attribute starts aligned to 4 bytes)
+ */
+public class VertexLayout {
+
+    /**
+     * Alignment of the attributes and of the vertices in bytes
+     */
+    private final static int ALIGNMENT = 4;
+
+    /**
+     * Attributes of the vertex in the order that they are in the buffer
+     */
+    private final List<VertexAttribute> attributes;
+
+    /**
+     * Number of bytes between following vertices
+     */
+    private int stride;
+
+    /**
+     * Constructor of an empty layout
+     */
+    public VertexLayout() {
+        this.attributes = new ArrayList<>();
+        this.stride = 0;
+    }
+
+    /**
+     * Layout with the attributes of a shape as floats
+     *
+     * @return position (3 floats), texture coordinates (2 floats) and normal (3 floats)
+     */
+    public static VertexLayout floatLayout() {
+        return new VertexLayout()
+                .add(RenderAttributeEnum.position, 3, VertexComponentTypeEnum.FLOAT, false)
+                .add(RenderAttributeEnum.textureCoords, 2, VertexComponentTypeEnum.FLOAT, false)
+                .add(RenderAttributeEnum.normal, 3, VertexComponentTypeEnum.FLOAT, false);
+    }
+
+    /**
+     * Layout with the attributes of a shape in the quantized format
+     *
+     * @return position (3 normalized shorts), texture coordinates (2 normalized unsigned shorts)
+     * and normal (2 normalized bytes with octahedral encoding)
+     */
+    public static VertexLayout quantizedLayout() {
+        return new VertexLayout()
+                .add(RenderAttributeEnum.position, 3, VertexComponentTypeEnum.SHORT, true)
+                .add(RenderAttributeEnum.textureCoords, 2, VertexComponentTypeEnum.UNSIGNED_SHORT, true)
+                .add(RenderAttributeEnum.normal, 2, VertexComponentTypeEnum.BYTE, true);
+    }
+
+    /**
+     * @param value Number of bytes
+     * @return The value rounded up to the alignment
+     */
+    private static int align(int value) {
+        return (value + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Adds one attribute at the end of the vertex
+     *
+     * @param attribute  Attribute of the render engine
+     * @param components Number of components of the attribute
+     * @param type       Type of each component
+     * @param normalized Indicates if the integer components are normalized
+     * @return The layout itself
+     */
+    public VertexLayout add(RenderAttributeEnum attribute, int components, VertexComponentTypeEnum type,
+                            boolean normalized) {
+        if (get(attribute) != null) {
+            throw new IllegalArgumentException("The attribute " + attribute + " is already in the layout");
+        }
+        VertexAttribute vertexAttribute = new VertexAttribute(attribute, components, type, normalized, stride);
+        this.attributes.add(vertexAttribute);
+        this.stride = align(stride + vertexAttribute.getSize());
+        return this;
+    }
+
+    /**
+     * @param attribute Attribute of the render engine
+     * @return The description of the attribute (null if the layout does not have it)
+     */
+    public VertexAttribute get(RenderAttributeEnum attribute) {
+        for (VertexAttribute vertexAttribute : attributes) {
+            if (vertexAttribute.getAttribute() == attribute) {
+                return vertexAttribute;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the attributes of the vertex in the order that they are in the buffer
+     */
+    public List<VertexAttribute> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return the number of bytes between following vertices
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * @return Textual description of the layout
+     */
+    @Override
+    public String toString() {
+        return "stride=" + stride + " " + attributes;
+    }
+}
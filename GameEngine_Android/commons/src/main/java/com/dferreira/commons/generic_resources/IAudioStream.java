@@ -0,0 +1,32 @@
+package com.dferreira.commons.generic_resources;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Audio decoded incrementally (Used to play the long sounds without decoding them at once)
+ */
+public interface IAudioStream {
+
+    /**
+     * @return The number of channels of the audio
+     */
+    int getChannels();
+
+    /**
+     * @return The sampling rate of the audio
+     */
+    int getRate();
+
+    /**
+     * Decodes the next samples of the audio (16 bits in the native order)
+     *
+     * @param pcm Where to put the samples decoded (From the position until the limit)
+     * @return The number of bytes decoded (At least one while there is space in the buffer) or -1 at the end of the audio
+     */
+    int read(ByteBuffer pcm);
+
+    /**
+     * Releases the resources used by the decoder
+     */
+    void close();
+}
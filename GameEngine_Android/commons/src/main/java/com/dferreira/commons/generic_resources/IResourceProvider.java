@@ -48,6 +48,15 @@ public interface IResourceProvider {
 	 */
 	IAudioData getResource(AudioEnum audioEnum);
 
+	/**
+	 * Opens one audio to be decoded while it is played
+	 * 
+	 * @param audioEnum
+	 *            The audio to open
+	 * @return The stream of the audio or null if the platform can not stream it
+	 */
+	IAudioStream openAudioStream(AudioEnum audioEnum);
+
 	/**
 	 * Dispose the resources used by the resource provider
 	 */
@@ -0,0 +1,285 @@
+package com.dferreira.commons.memory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Pool of direct buffers organized in size classes of powers of two
+ * (The small classes are sliced from slabs of 16 buffers, the big ones are allocated alone.
+ * The direct memory is only freed by the garbage collector, so the buffers released are kept to be reused)
+ */
+public class DirectBufferPool {
+
+    /**
+     * Shift of the smallest size class (256 bytes)
+     */
+    private final static int MIN_CLASS_SHIFT = 8;
+
+    /**
+     * Shift of the biggest size class sliced from slabs (64 kilobytes)
+     */
+    private final static int MAX_SLAB_CLASS_SHIFT = 16;
+
+    /**
+     * Shift of the biggest size class (1 gigabyte)
+     */
+    private final static int MAX_CLASS_SHIFT = 30;
+
+    /**
+     * Number of buffers sliced from one slab
+     */
+    private final static int BUFFERS_BY_SLAB = 16;
+
+    /**
+     * Default number of bytes of the big buffers kept to be reused
+     */
+    private final static long DEFAULT_MAX_RETAINED_BYTES = 64L << 20;
+
+    /**
+     * Pool shared by the loaders
+     */
+    private static DirectBufferPool instance;
+
+    /**
+     * Buffers released by size class
+     */
+    private final List<ArrayDeque<ByteBuffer>> freeBuffers;
+
+    /**
+     * Size class of the buffers acquired and not released yet
+     */
+    private final IdentityHashMap<ByteBuffer, Integer> acquired;
+
+    /**
+     * Number of bytes of the big buffers released that are kept to be reused
+     * (The ones above are left to the garbage collector)
+     */
+    private final long maxRetainedBytes;
+
+    /**
+     * Number of bytes of direct memory allocated by the pool that it still references
+     */
+    private long reservedBytes;
+
+    /**
+     * Number of bytes of the buffers acquired and not released
+     */
+    private long usedBytes;
+
+    /**
+     * Maximum number of bytes used at the same time
+     */
+    private long highWaterMark;
+
+    /**
+     * Number of buffers acquired
+     */
+    private long acquireCount;
+
+    /**
+     * Number of buffers acquired that reused a buffer released
+     */
+    private long reuseCount;
+
+    /**
+     * Number of slabs allocated
+     */
+    private int slabsCount;
+
+    /**
+     * Constructor of the direct buffer pool
+     *
+     * @param maxRetainedBytes Number of bytes of the big buffers released that are kept to be reused
+     */
+    public DirectBufferPool(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.freeBuffers = new ArrayList<>();
+        for (int shift = 0; shift <= MAX_CLASS_SHIFT; shift++) {
+            this.freeBuffers.add(new ArrayDeque<ByteBuffer>());
+        }
+        this.acquired = new IdentityHashMap<>();
+    }
+
+    /**
+     * @return The pool shared by the loaders
+     */
+    public static synchronized DirectBufferPool getInstance() {
+        if (instance == null) {
+            instance = new DirectBufferPool(DEFAULT_MAX_RETAINED_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * @param size Number of bytes requested
+     * @return The shift of the size class where the size fits
+     */
+    private static int getSizeClass(int size) {
+        int shift = MIN_CLASS_SHIFT;
+        while ((1 << shift) < size) {
+            shift++;
+        }
+        return shift;
+    }
+
+    /**
+     * Acquires a direct buffer (Should be released once when it is not used anymore)
+     *
+     * @param size Number of bytes needed
+     * @return A buffer in the native order with the position at zero and the limit at the size
+     * (The capacity can be bigger)
+     */
+    public synchronized ByteBuffer acquire(int size) {
+        if ((size < 0) || (size > (1 << MAX_CLASS_SHIFT))) {
+            throw new IllegalArgumentException("Can not acquire a direct buffer of " + size + " bytes");
+        }
+        int sizeClass = getSizeClass(size);
+        ArrayDeque<ByteBuffer> free = freeBuffers.get(sizeClass);
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) {
+            reuseCount++;
+        } else if (sizeClass <= MAX_SLAB_CLASS_SHIFT) {
+            buffer = allocateSlab(sizeClass, free);
+        } else {
+            buffer = ByteBuffer.allocateDirect(1 << sizeClass);
+            reservedBytes += 1 << sizeClass;
+        }
+        acquireCount++;
+        usedBytes += 1 << sizeClass;
+        highWaterMark = Math.max(highWaterMark, usedBytes);
+        acquired.put(buffer, sizeClass);
+
+        buffer.clear();
+        buffer.limit(size);
+        buffer.order(ByteOrder.nativeOrder());
+        return buffer;
+    }
+
+    /**
+     * Allocates one slab and slices it in buffers of one size class
+     *
+     * @param sizeClass Shift of the size class
+     * @param free      Where to put the buffers that are not returned
+     * @return One of the buffers sliced
+     */
+    private ByteBuffer allocateSlab(int sizeClass, ArrayDeque<ByteBuffer> free) {
+        int bufferSize = 1 << sizeClass;
+        int slabSize = bufferSize * BUFFERS_BY_SLAB;
+        ByteBuffer slab = ByteBuffer.allocateDirect(slabSize);
+        reservedBytes += slabSize;
+        slabsCount++;
+        for (int offset = bufferSize; offset < slabSize; offset += bufferSize) {
+            slab.limit(offset + bufferSize).position(offset);
+            free.push(slab.slice());
+        }
+        slab.limit(bufferSize).position(0);
+        return slab.slice();
+    }
+
+    /**
+     * Releases a buffer acquired before
+     *
+     * @param buffer The buffer acquired (Can not be used after released)
+     * @return False if the buffer was not acquired from the pool or was already released
+     */
+    public synchronized boolean release(ByteBuffer buffer) {
+        Integer sizeClass = (buffer == null) ? null : acquired.remove(buffer);
+        if (sizeClass == null) {
+            return false;
+        }
+        int bufferSize = 1 << sizeClass;
+        usedBytes -= bufferSize;
+        if ((sizeClass > MAX_SLAB_CLASS_SHIFT) && (getRetainedBigBytes() + bufferSize > maxRetainedBytes)) {
+            // Left to the garbage collector
+            reservedBytes -= bufferSize;
+        } else {
+            freeBuffers.get(sizeClass).push(buffer);
+        }
+        return true;
+    }
+
+    /**
+     * @return Number of bytes of the big buffers released that are kept to be reused
+     */
+    private long getRetainedBigBytes() {
+        long retained = 0;
+        for (int sizeClass = MAX_SLAB_CLASS_SHIFT + 1; sizeClass <= MAX_CLASS_SHIFT; sizeClass++) {
+            retained += (long) freeBuffers.get(sizeClass).size() << sizeClass;
+        }
+        return retained;
+    }
+
+    /**
+     * Drops the big buffers released (The garbage collector frees them when it runs)
+     */
+    public synchronized void trim() {
+        for (int sizeClass = MAX_SLAB_CLASS_SHIFT + 1; sizeClass <= MAX_CLASS_SHIFT; sizeClass++) {
+            ArrayDeque<ByteBuffer> free = freeBuffers.get(sizeClass);
+            reservedBytes -= (long) free.size() << sizeClass;
+            free.clear();
+        }
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated by the pool that it still references
+     */
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    /**
+     * @return the number of bytes of the buffers acquired and not released
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return the maximum number of bytes used at the same time
+     */
+    public synchronized long getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * @return the number of buffers acquired and not released
+     */
+    public synchronized int getAcquiredCount() {
+        return acquired.size();
+    }
+
+    /**
+     * @return the number of buffers acquired
+     */
+    public synchronized long getAcquireCount() {
+        return acquireCount;
+    }
+
+    /**
+     * @return the number of buffers acquired that reused a buffer released
+     */
+    public synchronized long getReuseCount() {
+        return reuseCount;
+    }
+
+    /**
+     * @return the number of slabs allocated
+     */
+    public synchronized int getSlabsCount() {
+        return slabsCount;
+    }
+
+    /**
+     * @return Textual description of the usage of the pool
+     */
+    @Override
+    public synchronized String toString() {
+        return "reserved bytes=" + reservedBytes + " used bytes=" + usedBytes + " high water mark=" + highWaterMark
+                + " buffers acquired=" + acquired.size() + " acquires=" + acquireCount + " reuses=" + reuseCount
+                + " slabs=" + slabsCount;
+    }
+}
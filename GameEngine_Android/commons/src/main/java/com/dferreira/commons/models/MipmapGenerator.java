@@ -0,0 +1,282 @@
+package com.dferreira.commons.models;
+
+import com.dferreira.commons.memory.DirectBufferPool;
+import com.dferreira.commons.utils.WorkerPool;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds the mip chain of a texture in the CPU
+ * (Box filter done in linear space and weighted by the alpha, the rows of each level are filtered in parallel.
+ * Each pixel covers the area of the level above that maps to it, so the odd sizes do not drop a row or column)
+ */
+public class MipmapGenerator {
+
+    /**
+     * Number of components of each pixel (RGBA)
+     */
+    private final static int COMPONENTS = 4;
+
+    /**
+     * Offset of the alpha component
+     */
+    private final static int A_POSITION = 3;
+
+    /**
+     * Max value of one component of a pixel
+     */
+    private final static int MAX_COMPONENT = 255;
+
+    /**
+     * Number of entries of the table that converts linear values back to sRGB
+     */
+    private final static int LINEAR_TO_SRGB_SIZE = 4096;
+
+    /**
+     * Number of rows below which one task does not split anymore
+     */
+    private final static int ROWS_BY_TASK = 16;
+
+    /**
+     * Largest number of pixels of the level above that one pixel covers in each axle
+     */
+    private final static int MAX_TAPS = 4;
+
+    /**
+     * Converts each sRGB component to linear space
+     */
+    private final static float[] SRGB_TO_LINEAR = new float[MAX_COMPONENT + 1];
+
+    /**
+     * Converts linear values (quantized) back to sRGB components
+     */
+    private final static byte[] LINEAR_TO_SRGB = new byte[LINEAR_TO_SRGB_SIZE];
+
+    static {
+        for (int i = 0; i <= MAX_COMPONENT; i++) {
+            float value = (float) i / MAX_COMPONENT;
+            SRGB_TO_LINEAR[i] = (value <= 0.04045f) ? value / 12.92f
+                    : (float) Math.pow((value + 0.055f) / 1.055f, 2.4f);
+        }
+        for (int i = 0; i < LINEAR_TO_SRGB_SIZE; i++) {
+            float value = (float) i / (LINEAR_TO_SRGB_SIZE - 1);
+            float srgb = (value <= 0.0031308f) ? value * 12.92f
+                    : 1.055f * (float) Math.pow(value, 1.0f / 2.4f) - 0.055f;
+            LINEAR_TO_SRGB[i] = (byte) Math.round(srgb * MAX_COMPONENT);
+        }
+    }
+
+    /**
+     * @param value Value to check
+     * @return True if the value is a power of two
+     */
+    public static boolean isPowerOfTwo(int value) {
+        return (value > 0) && ((value & (value - 1)) == 0);
+    }
+
+    /**
+     * @param width  Width of the base level
+     * @param height Height of the base level
+     * @return Number of levels of the full mip chain (Including the base level)
+     */
+    public static int getLevelsCount(int width, int height) {
+        int size = Math.max(width, height);
+        int levels = 1;
+        while (size > 1) {
+            size >>= 1;
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Builds the full mip chain of a texture and stores it in the texture
+     *
+     * @param textureData The base level of the texture
+     * @return The same texture with the mip chain (null if there is no texture)
+     */
+    public static TextureData generate(TextureData textureData) {
+        if ((textureData == null) || (textureData.getBuffer() == null)) {
+            return textureData;
+        }
+        int levels = getLevelsCount(textureData.getWidth(), textureData.getHeight());
+        TextureData[] mipmaps = new TextureData[levels - 1];
+        TextureData source = textureData;
+        for (int i = 0; i < mipmaps.length; i++) {
+            int width = Math.max(1, source.getWidth() >> 1);
+            int height = Math.max(1, source.getHeight() >> 1);
+            ByteBuffer destination = DirectBufferPool.getInstance().acquire(width * height * COMPONENTS);
+            WorkerPool.getInstance().invoke(new DownsampleTask(source, destination, width, height, 0, height));
+            mipmaps[i] = new TextureData(destination, width, height);
+            source = mipmaps[i];
+        }
+        textureData.setMipmaps(mipmaps);
+        return textureData;
+    }
+
+    /**
+     * @param value Value in linear space
+     * @return The component in sRGB
+     */
+    private static byte toSrgb(float value) {
+        int index = Math.round(Math.max(0.0f, Math.min(1.0f, value)) * (LINEAR_TO_SRGB_SIZE - 1));
+        return LINEAR_TO_SRGB[index];
+    }
+
+    /**
+     * Finds the pixels of the level above covered by each pixel of the level in one axle
+     * (Two pixels with the same weight when the size above is even, up to three partially covered when it is odd)
+     *
+     * @param sourceSize Size of the level above in the axle
+     * @param size       Size of the level in the axle
+     * @param firstTaps  Where the first pixel covered by each pixel is written
+     * @param weights    Where the part of each pixel covered is written (MAX_TAPS by pixel)
+     */
+    private static void computeTaps(int sourceSize, int size, int[] firstTaps, float[] weights) {
+        for (int i = 0; i < size; i++) {
+            double start = (double) i * sourceSize / size;
+            double end = (double) (i + 1) * sourceSize / size;
+            int first = (int) Math.floor(start);
+            firstTaps[i] = first;
+            for (int t = 0; t < MAX_TAPS; t++) {
+                int pixel = first + t;
+                double covered = Math.min(end, pixel + 1) - Math.max(start, pixel);
+                weights[i * MAX_TAPS + t] = ((pixel < sourceSize) && (covered > 0.0)) ? (float) covered : 0.0f;
+            }
+        }
+    }
+
+    /**
+     * Filters the rows of one level from the level above
+     *
+     * @param source      The level above
+     * @param destination Buffer of the level to filter
+     * @param width       Width of the level to filter
+     * @param height      Height of the level to filter
+     * @param startRow    First row to filter
+     * @param endRow      Row after the last row to filter
+     */
+    private static void downsampleRows(TextureData source, ByteBuffer destination, int width, int height,
+                                       int startRow, int endRow) {
+        ByteBuffer pixels = source.getBuffer();
+        int sourceWidth = source.getWidth();
+        int[] firstColumns = new int[width];
+        float[] columnWeights = new float[width * MAX_TAPS];
+        computeTaps(sourceWidth, width, firstColumns, columnWeights);
+        int[] firstRows = new int[height];
+        float[] rowWeights = new float[height * MAX_TAPS];
+        computeTaps(source.getHeight(), height, firstRows, rowWeights);
+        float[] weighted = new float[A_POSITION];
+        float[] plain = new float[A_POSITION];
+        for (int y = startRow; y < endRow; y++) {
+            for (int x = 0; x < width; x++) {
+                float area = 0.0f;
+                float alpha = 0.0f;
+                Arrays.fill(weighted, 0.0f);
+                Arrays.fill(plain, 0.0f);
+                for (int ty = 0; ty < MAX_TAPS; ty++) {
+                    float rowWeight = rowWeights[y * MAX_TAPS + ty];
+                    if (rowWeight == 0.0f) {
+                        continue;
+                    }
+                    int sourceRow = firstRows[y] + ty;
+                    for (int tx = 0; tx < MAX_TAPS; tx++) {
+                        float weight = rowWeight * columnWeights[x * MAX_TAPS + tx];
+                        if (weight == 0.0f) {
+                            continue;
+                        }
+                        int offset = (sourceRow * sourceWidth + firstColumns[x] + tx) * COMPONENTS;
+                        float sampleAlpha = weight * (pixels.get(offset + A_POSITION) & 0xFF) / MAX_COMPONENT;
+                        area += weight;
+                        alpha += sampleAlpha;
+                        for (int c = 0; c < A_POSITION; c++) {
+                            float linear = SRGB_TO_LINEAR[pixels.get(offset + c) & 0xFF];
+                            weighted[c] += linear * sampleAlpha;
+                            plain[c] += linear * weight;
+                        }
+                    }
+                }
+
+                // Transparent pixels do not bleed their color into the visible ones
+                int index = (y * width + x) * COMPONENTS;
+                for (int c = 0; c < A_POSITION; c++) {
+                    float value = (alpha > 0.0f) ? weighted[c] / alpha : plain[c] / area;
+                    destination.put(index + c, toSrgb(value));
+                }
+                destination.put(index + A_POSITION, (byte) Math.round(alpha / area * MAX_COMPONENT));
+            }
+        }
+    }
+
+    /**
+     * Filters a range of rows of one level (Splits the range until it is small enough)
+     */
+    private static class DownsampleTask extends RecursiveAction {
+
+        private static final long serialVersionUID = -5530186520981645216L;
+
+        /**
+         * The level above
+         */
+        private final TextureData source;
+
+        /**
+         * Buffer of the level to filter
+         */
+        private final ByteBuffer destination;
+
+        /**
+         * Width of the level to filter
+         */
+        private final int width;
+
+        /**
+         * Height of the level to filter
+         */
+        private final int height;
+
+        /**
+         * First row to filter
+         */
+        private final int startRow;
+
+        /**
+         * Row after the last row to filter
+         */
+        private final int endRow;
+
+        /**
+         * @param source      The level above
+         * @param destination Buffer of the level to filter
+         * @param width       Width of the level to filter
+         * @param height      Height of the level to filter
+         * @param startRow    First row to filter
+         * @param endRow      Row after the last row to filter
+         */
+        private DownsampleTask(TextureData source, ByteBuffer destination, int width, int height, int startRow,
+                               int endRow) {
+            this.source = source;
+            this.destination = destination;
+            this.width = width;
+            this.height = height;
+            this.startRow = startRow;
+            this.endRow = endRow;
+        }
+
+        /**
+         * Filters the rows or splits them in two tasks
+         */
+        @Override
+        protected void compute() {
+            if (endRow - startRow <= ROWS_BY_TASK) {
+                downsampleRows(source, destination, width, height, startRow, endRow);
+            } else {
+                int middle = (startRow + endRow) >>> 1;
+                invokeAll(new DownsampleTask(source, destination, width, height, startRow, middle),
+                        new DownsampleTask(source, destination, width, height, middle, endRow));
+            }
+        }
+    }
+}
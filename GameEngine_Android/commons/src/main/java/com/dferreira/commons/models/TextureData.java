@@ -1,5 +1,8 @@
 package com.dferreira.commons.models;
 
+import com.dferreira.commons.compression.CompressedTextureData;
+import com.dferreira.commons.memory.DirectBufferPool;
+
 import java.nio.ByteBuffer;
 
 /**
@@ -39,6 +42,16 @@ public class TextureData {
 	 */
 	private final ByteBuffer buffer;
 
+	/**
+	 * Levels of the mip chain after the base level (null if the texture does not have them)
+	 */
+	private TextureData[] mipmaps;
+
+	/**
+	 * Version of the texture compressed in blocks (null if the texture was not compressed)
+	 */
+	private CompressedTextureData compressed;
+
 	/**
 	 * The constructor of the texture data
 	 * 
@@ -77,6 +90,60 @@ public class TextureData {
 		return buffer;
 	}
 
+	/**
+	 * @return the levels of the mip chain after the base level (null if the texture does not have them)
+	 */
+	public TextureData[] getMipmaps() {
+		return mipmaps;
+	}
+
+	/**
+	 * @param mipmaps
+	 *            the levels of the mip chain after the base level
+	 */
+	public void setMipmaps(TextureData[] mipmaps) {
+		this.mipmaps = mipmaps;
+	}
+
+	/**
+	 * @return True if the texture has the mip chain
+	 */
+	public boolean hasMipmaps() {
+		return mipmaps != null;
+	}
+
+	/**
+	 * @return the version of the texture compressed in blocks (null if the texture was not compressed)
+	 */
+	public CompressedTextureData getCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * @param compressed
+	 *            the version of the texture compressed in blocks
+	 */
+	public void setCompressed(CompressedTextureData compressed) {
+		this.compressed = compressed;
+	}
+
+	/**
+	 * @return the number of bytes of the pixels of the texture (Including the mip chain, the compressed
+	 *         version is counted instead when there is one)
+	 */
+	public long getSizeInBytes() {
+		if (compressed != null) {
+			return compressed.getSizeInBytes();
+		}
+		long size = (long) width * height * COMPONENTS_IMAGE;
+		if (mipmaps != null) {
+			for (TextureData mipmap : mipmaps) {
+				size += mipmap.getSizeInBytes();
+			}
+		}
+		return size;
+	}
+
 	/**
 	 * Get the component of the image
 	 * 
@@ -117,4 +184,20 @@ public class TextureData {
 
 		return (bComponent << 16) + (gComponent << 8) + rComponent;
 	}
+
+	/**
+	 * Returns the buffers of the texture to the pool (The texture can not be used after)
+	 * (Includes the mip chain and the compressed version, the buffers that are not of the pool are ignored)
+	 */
+	public void release() {
+		DirectBufferPool.getInstance().release(buffer);
+		if (mipmaps != null) {
+			for (TextureData mipmap : mipmaps) {
+				mipmap.release();
+			}
+		}
+		if (compressed != null) {
+			compressed.release();
+		}
+	}
 }
@@ -0,0 +1,68 @@
+package com.dferreira.commons.pack;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Stream that reads the bytes of a buffer (Used to read the entries of a pack without copies)
+ */
+class ByteBufferInputStream extends InputStream {
+
+    /**
+     * Buffer with the bytes still to read
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * @param buffer Buffer to read from the position until the limit
+     */
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return The next byte or -1 at the end of the buffer
+     */
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+    }
+
+    /**
+     * @param bytes  Where to put the bytes read
+     * @param offset First position to write
+     * @param length Maximum number of bytes to read
+     * @return The number of bytes read or -1 at the end of the buffer
+     */
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        return count;
+    }
+
+    /**
+     * @param count Number of bytes to skip
+     * @return The number of bytes skipped
+     */
+    @Override
+    public long skip(long count) {
+        int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    /**
+     * @return The number of bytes still to read
+     */
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
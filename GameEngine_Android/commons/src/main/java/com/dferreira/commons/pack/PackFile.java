@@ -0,0 +1,350 @@
+package com.dferreira.commons.pack;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Archive with several resources in one file written by the PackWriter
+ * (The file is mapped in memory, the table of contents is sorted by name so the lookups are binary searches
+ * and the entries stored without compression are returned as slices of the file without copies)
+ * <p>
+ * Layout of the file (little endian):
+ * magic, version, number of entries, number of bytes of the names,
+ * table of contents (name offset, name length, method, crc32, data offset, stored size, original size by entry),
+ * names (UTF-8), data of the entries (aligned to 8 bytes)
+ */
+public class PackFile {
+
+    /**
+     * Extension of the pack files
+     */
+    public final static String PACK_EXTENSION = ".pack";
+
+    /**
+     * Identifies a pack file ("GPCK")
+     */
+    final static int MAGIC = 0x4B435047;
+
+    /**
+     * Version of the layout of the file
+     */
+    final static int VERSION = 1;
+
+    /**
+     * Number of bytes of the header
+     */
+    final static int HEADER_SIZE = 16;
+
+    /**
+     * Number of bytes of one entry of the table of contents
+     */
+    final static int ENTRY_SIZE = 32;
+
+    /**
+     * Alignment of the data of the entries
+     */
+    final static int DATA_ALIGNMENT = 8;
+
+    /**
+     * Methods used to store the entries
+     */
+    final static int METHOD_STORED = 0;
+    final static int METHOD_DEFLATE = 1;
+
+    /**
+     * Offsets of the fields in one entry of the table of contents
+     */
+    private final static int NAME_OFFSET = 0;
+    private final static int NAME_LENGTH = 4;
+    private final static int METHOD = 8;
+    private final static int CRC = 12;
+    private final static int DATA_OFFSET = 16;
+    private final static int STORED_SIZE = 24;
+    private final static int ORIGINAL_SIZE = 28;
+
+    /**
+     * Order of the bytes in the file
+     */
+    final static ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Charset of the names of the entries
+     */
+    final static Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * Size of the chunks used to read a pack from a stream
+     */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Content of the whole file (Only read with absolute positions so it can be shared by threads)
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Number of entries in the pack
+     */
+    private final int entriesCount;
+
+    /**
+     * Position where the names start
+     */
+    private final int namesOffset;
+
+    /**
+     * @param buffer Content of the whole file
+     * @throws IOException If the buffer does not have a pack of a supported version
+     */
+    private PackFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(BYTE_ORDER);
+        if ((buffer.limit() < HEADER_SIZE) || (buffer.getInt(0) != MAGIC) || (buffer.getInt(4) != VERSION)) {
+            throw new IOException("The file is not a pack of a supported version");
+        }
+        this.entriesCount = buffer.getInt(8);
+        this.namesOffset = HEADER_SIZE + entriesCount * ENTRY_SIZE;
+    }
+
+    /**
+     * Maps a pack file in memory
+     *
+     * @param file The pack file
+     * @return The pack or null if was not possible to open
+     */
+    public static PackFile open(File file) {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            // The mapping stays valid after the channel is closed
+            return new PackFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (randomAccessFile != null) {
+                try {
+                    randomAccessFile.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a pack from a stream (Used when the file can not be mapped, ex: inside a jar)
+     *
+     * @param inputStream Stream of the pack file
+     * @return The pack or null if was not possible to read
+     */
+    public static PackFile open(InputStream inputStream) {
+        try {
+            ByteBuffer content = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                if (content.remaining() < read) {
+                    ByteBuffer bigger = ByteBuffer.allocateDirect(content.capacity() * 2);
+                    content.flip();
+                    bigger.put(content);
+                    content = bigger;
+                }
+                content.put(chunk, 0, read);
+            }
+            content.flip();
+            return new PackFile(content);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @param index Index of the entry
+     * @return Position of the entry in the table of contents
+     */
+    private static int getEntryPosition(int index) {
+        return HEADER_SIZE + index * ENTRY_SIZE;
+    }
+
+    /**
+     * Compares the name of an entry with a name encoded (Byte by byte without sign, the order of the table)
+     *
+     * @param index Index of the entry
+     * @param name  Name encoded in UTF-8
+     * @return Negative, zero or positive if the name of the entry is before, equal or after the name
+     */
+    private int compareName(int index, byte[] name) {
+        int entry = getEntryPosition(index);
+        int offset = namesOffset + buffer.getInt(entry + NAME_OFFSET);
+        int length = buffer.getInt(entry + NAME_LENGTH);
+        int common = Math.min(length, name.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (buffer.get(offset + i) & 0xFF) - (name[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - name.length;
+    }
+
+    /**
+     * @param name Name of the entry
+     * @return The index of the entry (-1 if the pack does not have it)
+     */
+    private int find(String name) {
+        byte[] encoded = name.getBytes(CHARSET);
+        int low = 0;
+        int high = entriesCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareName(middle, encoded);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index Index of the entry
+     * @return The bytes of the entry as they are in the file
+     */
+    private ByteBuffer getStoredSlice(int index) {
+        int entry = getEntryPosition(index);
+        int offset = (int) buffer.getLong(entry + DATA_OFFSET);
+        int size = buffer.getInt(entry + STORED_SIZE);
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(offset + size).position(offset);
+        return slice.slice();
+    }
+
+    /**
+     * @param name Name of the entry
+     * @return True if the pack has the entry
+     */
+    public boolean contains(String name) {
+        return find(name) >= 0;
+    }
+
+    /**
+     * @return the number of entries in the pack
+     */
+    public int getEntriesCount() {
+        return entriesCount;
+    }
+
+    /**
+     * @param index Index of the entry (The entries are sorted by name)
+     * @return The name of the entry
+     */
+    public String getName(int index) {
+        int entry = getEntryPosition(index);
+        byte[] name = new byte[buffer.getInt(entry + NAME_LENGTH)];
+        ByteBuffer names = buffer.duplicate();
+        names.position(namesOffset + buffer.getInt(entry + NAME_OFFSET));
+        names.get(name);
+        return new String(name, CHARSET);
+    }
+
+    /**
+     * @param name Name of the entry
+     * @return True if the entry is compressed in the pack (false if it is stored or does not exist)
+     */
+    public boolean isCompressed(String name) {
+        int index = find(name);
+        return (index >= 0) && (buffer.getInt(getEntryPosition(index) + METHOD) != METHOD_STORED);
+    }
+
+    /**
+     * @param name Name of the entry
+     * @return The content of the entry (A read only slice of the pack if the entry is stored, the content
+     * inflated if it is compressed) or null if the pack does not have the entry
+     */
+    public ByteBuffer getBuffer(String name) {
+        int index = find(name);
+        if (index < 0) {
+            return null;
+        }
+        int entry = getEntryPosition(index);
+        ByteBuffer stored = getStoredSlice(index);
+        if (buffer.getInt(entry + METHOD) == METHOD_STORED) {
+            return stored.asReadOnlyBuffer();
+        }
+        byte[] compressed = new byte[stored.remaining()];
+        stored.get(compressed);
+        byte[] original = new byte[buffer.getInt(entry + ORIGINAL_SIZE)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int inflated = 0;
+            while ((inflated < original.length) && (!inflater.finished())) {
+                int count = inflater.inflate(original, inflated, original.length - inflated);
+                if ((count == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflated += count;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(original);
+            if ((inflated != original.length) || ((int) crc.getValue() != buffer.getInt(entry + CRC))) {
+                System.err.println("The entry " + name + " of the pack is corrupted");
+                return null;
+            }
+            return ByteBuffer.wrap(original);
+        } catch (DataFormatException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @param name Name of the entry
+     * @return A stream with the content of the entry (Inflated while it is read if it is compressed)
+     * or null if the pack does not have the entry
+     */
+    public InputStream getInputStream(String name) {
+        int index = find(name);
+        if (index < 0) {
+            return null;
+        }
+        InputStream stored = new ByteBufferInputStream(getStoredSlice(index));
+        if (buffer.getInt(getEntryPosition(index) + METHOD) == METHOD_STORED) {
+            return stored;
+        } else {
+            return new InflaterInputStream(stored);
+        }
+    }
+
+    /**
+     * @param name Name of the entry
+     * @return The content of the entry decoded as UTF-8 text (null if the pack does not have the entry)
+     */
+    public String getText(String name) {
+        ByteBuffer content = getBuffer(name);
+        return (content == null) ? null : CHARSET.decode(content).toString();
+    }
+}
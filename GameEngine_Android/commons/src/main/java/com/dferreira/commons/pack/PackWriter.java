@@ -0,0 +1,342 @@
+package com.dferreira.commons.pack;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes the resources of the game in one pack file to be read by the PackFile
+ * (Each entry is compressed with deflate unless the compression does not pay off,
+ * ex: images and sounds already compressed, that are stored to be read without copies)
+ */
+public class PackWriter {
+
+    /**
+     * The entries are only compressed if their size drops below this fraction
+     */
+    private final static float MIN_COMPRESSION_RATIO = 0.9f;
+
+    /**
+     * Size of the chunks used to read the files
+     */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Entries to write in the pack
+     */
+    private final List<PackEntry> entries;
+
+    /**
+     * Number of bytes of the entries before compressed
+     */
+    private long originalBytes;
+
+    /**
+     * Number of bytes of the entries in the pack
+     */
+    private long storedBytes;
+
+    /**
+     * Constructor of the pack writer
+     */
+    public PackWriter() {
+        this.entries = new ArrayList<>();
+    }
+
+    /**
+     * Adds one entry to the pack (If there is already one with the same name it is replaced)
+     *
+     * @param name    Name of the entry (Path of the resource with '/' as separator)
+     * @param content Content of the entry
+     */
+    public void add(String name, byte[] content) {
+        byte[] encodedName = name.getBytes(PackFile.CHARSET);
+        for (int i = 0; i < entries.size(); i++) {
+            if (compare(entries.get(i).name, encodedName) == 0) {
+                entries.remove(i);
+                break;
+            }
+        }
+        entries.add(new PackEntry(encodedName, content));
+    }
+
+    /**
+     * Adds one file to the pack
+     *
+     * @param name Name of the entry (Path of the resource with '/' as separator)
+     * @param file File to add
+     * @return False if was not possible to read the file
+     */
+    public boolean add(String name, File file) {
+        InputStream in = null;
+        try {
+            in = new FileInputStream(file);
+            ByteArrayOutputStream content = new ByteArrayOutputStream((int) file.length());
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                content.write(chunk, 0, read);
+            }
+            add(name, content.toByteArray());
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every file of a folder and its sub folders to the pack
+     *
+     * @param folder Folder with the resources
+     * @param prefix Prefix of the names of the entries (The path of the folder in the pack, empty in the root)
+     * @return False if was not possible to read some file
+     */
+    public boolean addFolder(File folder, String prefix) {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            System.err.println("Could not list the folder: " + folder);
+            return false;
+        }
+        boolean added = true;
+        for (File file : files) {
+            String name = prefix + file.getName();
+            if (file.isDirectory()) {
+                added &= addFolder(file, name + "/");
+            } else if (!file.getName().endsWith(PackFile.PACK_EXTENSION)) {
+                added &= add(name, file);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Compares two names encoded byte by byte without sign (The order of the table of contents)
+     *
+     * @param left  First name
+     * @param right Second name
+     * @return Negative, zero or positive if the first name is before, equal or after the second
+     */
+    private static int compare(byte[] left, byte[] right) {
+        int common = Math.min(left.length, right.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (left[i] & 0xFF) - (right[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return left.length - right.length;
+    }
+
+    /**
+     * @param position Position in the file
+     * @return The position aligned to the data alignment
+     */
+    private static long align(long position) {
+        return (position + PackFile.DATA_ALIGNMENT - 1) & ~(long) (PackFile.DATA_ALIGNMENT - 1);
+    }
+
+    /**
+     * @param content Content of one entry
+     * @return The content compressed with deflate
+     */
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+            byte[] chunk = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(chunk);
+                compressed.write(chunk, 0, count);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes the pack file with the entries added
+     *
+     * @param file Where to write the pack
+     * @return False if was not possible to write the pack
+     */
+    public boolean write(File file) {
+        Collections.sort(entries, new Comparator<PackEntry>() {
+            @Override
+            public int compare(PackEntry left, PackEntry right) {
+                return PackWriter.compare(left.name, right.name);
+            }
+        });
+
+        // Compresses the entries and computes where they are
+        int namesSize = 0;
+        for (PackEntry entry : entries) {
+            entry.nameOffset = namesSize;
+            namesSize += entry.name.length;
+        }
+        long position = align(PackFile.HEADER_SIZE + (long) entries.size() * PackFile.ENTRY_SIZE + namesSize);
+        originalBytes = 0;
+        storedBytes = 0;
+        for (PackEntry entry : entries) {
+            CRC32 crc = new CRC32();
+            crc.update(entry.content);
+            entry.crc = (int) crc.getValue();
+            byte[] compressed = deflate(entry.content);
+            if (compressed.length < entry.content.length * MIN_COMPRESSION_RATIO) {
+                entry.method = PackFile.METHOD_DEFLATE;
+                entry.stored = compressed;
+            } else {
+                entry.method = PackFile.METHOD_STORED;
+                entry.stored = entry.content;
+            }
+            entry.dataOffset = position;
+            position = align(position + entry.stored.length);
+            originalBytes += entry.content.length;
+            storedBytes += entry.stored.length;
+        }
+        if (position > Integer.MAX_VALUE) {
+            System.err.println("The pack is too big to be mapped: " + position + " bytes");
+            return false;
+        }
+
+        // Header, table of contents and names
+        ByteBuffer index = ByteBuffer.allocate((int) align(PackFile.HEADER_SIZE
+                + (long) entries.size() * PackFile.ENTRY_SIZE + namesSize)).order(PackFile.BYTE_ORDER);
+        index.putInt(PackFile.MAGIC);
+        index.putInt(PackFile.VERSION);
+        index.putInt(entries.size());
+        index.putInt(namesSize);
+        for (PackEntry entry : entries) {
+            index.putInt(entry.nameOffset);
+            index.putInt(entry.name.length);
+            index.putInt(entry.method);
+            index.putInt(entry.crc);
+            index.putLong(entry.dataOffset);
+            index.putInt(entry.stored.length);
+            index.putInt(entry.content.length);
+        }
+        for (PackEntry entry : entries) {
+            index.put(entry.name);
+        }
+
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(file));
+            out.write(index.array());
+            long written = index.capacity();
+            byte[] padding = new byte[PackFile.DATA_ALIGNMENT];
+            for (PackEntry entry : entries) {
+                out.write(padding, 0, (int) (entry.dataOffset - written));
+                out.write(entry.stored);
+                written = entry.dataOffset + entry.stored.length;
+            }
+            out.write(padding, 0, (int) (position - written));
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries added
+     */
+    public int getEntriesCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of bytes of the entries before compressed (Of the last pack written)
+     */
+    public long getOriginalBytes() {
+        return originalBytes;
+    }
+
+    /**
+     * @return the number of bytes of the entries in the pack (Of the last pack written)
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * One entry to write in the pack
+     */
+    private static class PackEntry {
+
+        /**
+         * Name of the entry encoded in UTF-8
+         */
+        private final byte[] name;
+
+        /**
+         * Content of the entry
+         */
+        private final byte[] content;
+
+        /**
+         * Bytes written in the pack (The content or the content compressed)
+         */
+        private byte[] stored;
+
+        /**
+         * Position of the name in the names
+         */
+        private int nameOffset;
+
+        /**
+         * Position of the data in the file
+         */
+        private long dataOffset;
+
+        /**
+         * Method used to store the entry
+         */
+        private int method;
+
+        /**
+         * Checksum of the content
+         */
+        private int crc;
+
+        /**
+         * @param name    Name of the entry encoded in UTF-8
+         * @param content Content of the entry
+         */
+        private PackEntry(byte[] name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
+}
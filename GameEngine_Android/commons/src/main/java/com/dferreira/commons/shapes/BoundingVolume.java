@@ -0,0 +1,203 @@
+package com.dferreira.commons.shapes;
+
+import java.util.List;
+
+/**
+ * Bounds of the positions of a model in the space of the model
+ * (An axis aligned box, a sphere around the center of the box and the radii around the origin used to bound
+ * the model when it is rotated)
+ */
+public class BoundingVolume {
+
+    /**
+     * Number of components of each position
+     */
+    private final static int POSITION_SIZE = 3;
+
+    /**
+     * Corners of the axis aligned box
+     */
+    private final float minX, minY, minZ;
+    private final float maxX, maxY, maxZ;
+
+    /**
+     * Radius of the sphere around the center of the box
+     */
+    private final float radius;
+
+    /**
+     * Largest distance of a position to the vertical axis of the model (Bounds the model rotated around y)
+     */
+    private final float verticalAxisRadius;
+
+    /**
+     * Largest distance of a position to the origin of the model (Bounds the model rotated around any axis)
+     */
+    private final float originRadius;
+
+    /**
+     * Constructor of the bounding volume
+     *
+     * @param minX               Minimum of x of the positions
+     * @param minY               Minimum of y of the positions
+     * @param minZ               Minimum of z of the positions
+     * @param maxX               Maximum of x of the positions
+     * @param maxY               Maximum of y of the positions
+     * @param maxZ               Maximum of z of the positions
+     * @param radius             Radius of the sphere around the center of the box
+     * @param verticalAxisRadius Largest distance of a position to the vertical axis
+     * @param originRadius       Largest distance of a position to the origin
+     */
+    public BoundingVolume(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, float radius,
+                          float verticalAxisRadius, float originRadius) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.radius = radius;
+        this.verticalAxisRadius = verticalAxisRadius;
+        this.originRadius = originRadius;
+    }
+
+    /**
+     * Computes the bounds of the positions of all the shapes of a model
+     *
+     * @param shapes Shapes of the model
+     * @return The bounds of the model or null if the shapes have no positions
+     */
+    public static BoundingVolume fromShapes(List<IShape> shapes) {
+        float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+        float verticalAxisSquared = 0.0f;
+        float originSquared = 0.0f;
+        boolean hasPositions = false;
+
+        for (IShape shape : shapes) {
+            float[] vertices = shape.getVertices();
+            for (int i = 0; i + POSITION_SIZE <= vertices.length; i += POSITION_SIZE) {
+                float x = vertices[i], y = vertices[i + 1], z = vertices[i + 2];
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                minZ = Math.min(minZ, z);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                maxZ = Math.max(maxZ, z);
+                float horizontalSquared = x * x + z * z;
+                verticalAxisSquared = Math.max(verticalAxisSquared, horizontalSquared);
+                originSquared = Math.max(originSquared, horizontalSquared + y * y);
+                hasPositions = true;
+            }
+        }
+        if (!hasPositions) {
+            return null;
+        }
+
+        // The sphere is around the center of the box (Tighter than half of the diagonal)
+        float centerX = (minX + maxX) * 0.5f, centerY = (minY + maxY) * 0.5f, centerZ = (minZ + maxZ) * 0.5f;
+        float radiusSquared = 0.0f;
+        for (IShape shape : shapes) {
+            float[] vertices = shape.getVertices();
+            for (int i = 0; i + POSITION_SIZE <= vertices.length; i += POSITION_SIZE) {
+                float dx = vertices[i] - centerX, dy = vertices[i + 1] - centerY, dz = vertices[i + 2] - centerZ;
+                radiusSquared = Math.max(radiusSquared, dx * dx + dy * dy + dz * dz);
+            }
+        }
+        return new BoundingVolume(minX, minY, minZ, maxX, maxY, maxZ, (float) Math.sqrt(radiusSquared),
+                (float) Math.sqrt(verticalAxisSquared), (float) Math.sqrt(originSquared));
+    }
+
+    /**
+     * @return the minimum of x of the box
+     */
+    public float getMinX() {
+        return minX;
+    }
+
+    /**
+     * @return the minimum of y of the box
+     */
+    public float getMinY() {
+        return minY;
+    }
+
+    /**
+     * @return the minimum of z of the box
+     */
+    public float getMinZ() {
+        return minZ;
+    }
+
+    /**
+     * @return the maximum of x of the box
+     */
+    public float getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * @return the maximum of y of the box
+     */
+    public float getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * @return the maximum of z of the box
+     */
+    public float getMaxZ() {
+        return maxZ;
+    }
+
+    /**
+     * @return the x of the center of the box and of the sphere
+     */
+    public float getCenterX() {
+        return (minX + maxX) * 0.5f;
+    }
+
+    /**
+     * @return the y of the center of the box and of the sphere
+     */
+    public float getCenterY() {
+        return (minY + maxY) * 0.5f;
+    }
+
+    /**
+     * @return the z of the center of the box and of the sphere
+     */
+    public float getCenterZ() {
+        return (minZ + maxZ) * 0.5f;
+    }
+
+    /**
+     * @return the radius of the sphere around the center of the box
+     */
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * @return the largest distance of a position to the vertical axis of the model
+     */
+    public float getVerticalAxisRadius() {
+        return verticalAxisRadius;
+    }
+
+    /**
+     * @return the largest distance of a position to the origin of the model
+     */
+    public float getOriginRadius() {
+        return originRadius;
+    }
+
+    /**
+     * @return Textual description of the bounds
+     */
+    @Override
+    public String toString() {
+        return "min=(" + minX + ", " + minY + ", " + minZ + ") max=(" + maxX + ", " + maxY + ", " + maxZ
+                + ") radius=" + radius;
+    }
+}
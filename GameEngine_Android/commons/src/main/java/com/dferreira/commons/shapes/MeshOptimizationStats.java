@@ -0,0 +1,89 @@
+package com.dferreira.commons.shapes;
+
+/**
+ * Statistics of the optimization of the meshes for the post transform vertex cache
+ * (The ACMR is the average number of vertices transformed by triangle, 0.5 is the best possible
+ * and 3 means that no vertex is reused)
+ */
+public class MeshOptimizationStats {
+
+    /**
+     * Number of triangles optimized
+     */
+    private int trianglesCount;
+
+    /**
+     * Number of vertices optimized
+     */
+    private int verticesCount;
+
+    /**
+     * Number of misses of the simulated cache before the optimization
+     */
+    private int missesBefore;
+
+    /**
+     * Number of misses of the simulated cache after the optimization
+     */
+    private int missesAfter;
+
+    /**
+     * Adds the result of the optimization of one mesh
+     *
+     * @param trianglesCount Number of triangles of the mesh
+     * @param verticesCount  Number of vertices of the mesh
+     * @param missesBefore   Misses of the simulated cache before the optimization
+     * @param missesAfter    Misses of the simulated cache after the optimization
+     */
+    void add(int trianglesCount, int verticesCount, int missesBefore, int missesAfter) {
+        this.trianglesCount += trianglesCount;
+        this.verticesCount += verticesCount;
+        this.missesBefore += missesBefore;
+        this.missesAfter += missesAfter;
+    }
+
+    /**
+     * @return the number of triangles optimized
+     */
+    public int getTrianglesCount() {
+        return trianglesCount;
+    }
+
+    /**
+     * @return the number of vertices optimized
+     */
+    public int getVerticesCount() {
+        return verticesCount;
+    }
+
+    /**
+     * @param misses Number of misses of the cache
+     * @return The average cache miss ratio
+     */
+    private float acmr(int misses) {
+        return (trianglesCount == 0) ? 0.0f : ((float) misses / trianglesCount);
+    }
+
+    /**
+     * @return the average cache miss ratio before the optimization
+     */
+    public float getAcmrBefore() {
+        return acmr(missesBefore);
+    }
+
+    /**
+     * @return the average cache miss ratio after the optimization
+     */
+    public float getAcmrAfter() {
+        return acmr(missesAfter);
+    }
+
+    /**
+     * @return Textual description of the statistics
+     */
+    @Override
+    public String toString() {
+        return "triangles=" + trianglesCount + " vertices=" + verticesCount
+                + " ACMR before=" + getAcmrBefore() + " after=" + getAcmrAfter();
+    }
+}
@@ -0,0 +1,327 @@
+package com.dferreira.commons.shapes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reorders the triangles of the meshes to take advantage of the post transform vertex cache
+ * (Linear speed vertex cache optimization of Tom Forsyth) and then reorders the vertices
+ * in the order that they are used so the fetch of the vertices is sequential
+ */
+public class MeshOptimizer {
+
+    /**
+     * Number of components of each attribute of a vertex
+     */
+    private final static int COORDINATES_BY_VERTEX = 3;
+    private final static int COORDINATES_BY_TEXTURE = 2;
+    private final static int COORDINATES_BY_NORMAL = 3;
+
+    /**
+     * Number of vertices by triangle
+     */
+    private final static int VERTICES_BY_TRIANGLE = 3;
+
+    /**
+     * Size of the LRU cache modeled by the optimization
+     */
+    private final static int CACHE_SIZE = 32;
+
+    /**
+     * Size of the FIFO cache simulated to compute the ACMR
+     */
+    private final static int SIMULATED_CACHE_SIZE = 16;
+
+    /**
+     * Parameters of the score of the vertices
+     */
+    private final static float CACHE_DECAY_POWER = 1.5f;
+    private final static float LAST_TRIANGLE_SCORE = 0.75f;
+    private final static float VALENCE_BOOST_SCALE = 2.0f;
+    private final static float VALENCE_BOOST_POWER = 0.5f;
+
+    /**
+     * Maximum number of triangles of a vertex that have a score of their own (The others use the last)
+     */
+    private final static int MAX_VALENCE = 32;
+
+    /**
+     * Value when the vertex is not in the cache or the triangle is not selected
+     */
+    private final static int NONE = -1;
+
+    /**
+     * Marks the vertices already put in the new cache while the cache is updated
+     */
+    private final static int IN_NEW_CACHE = CACHE_SIZE;
+
+    /**
+     * Score of a vertex by position in the cache
+     */
+    private final static float[] CACHE_SCORES = new float[CACHE_SIZE];
+
+    /**
+     * Score of a vertex by number of triangles that still need the vertex
+     */
+    private final static float[] VALENCE_SCORES = new float[MAX_VALENCE + 1];
+
+    static {
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            if (i < VERTICES_BY_TRIANGLE) {
+                // The vertices of the last triangle have a fixed score
+                CACHE_SCORES[i] = LAST_TRIANGLE_SCORE;
+            } else {
+                float scaler = 1.0f - (float) (i - VERTICES_BY_TRIANGLE) / (CACHE_SIZE - VERTICES_BY_TRIANGLE);
+                CACHE_SCORES[i] = (float) Math.pow(scaler, CACHE_DECAY_POWER);
+            }
+        }
+        VALENCE_SCORES[0] = 0.0f;
+        for (int i = 1; i <= MAX_VALENCE; i++) {
+            VALENCE_SCORES[i] = VALENCE_BOOST_SCALE * (float) Math.pow(i, -VALENCE_BOOST_POWER);
+        }
+    }
+
+    /**
+     * Optimizes a list of shapes
+     *
+     * @param shapes The shapes to optimize
+     * @param stats  Where to add the statistics of the optimization (can be null)
+     * @return The list of optimized shapes
+     */
+    public static List<IShape> optimize(List<IShape> shapes, MeshOptimizationStats stats) {
+        List<IShape> optimizedShapes = new ArrayList<>(shapes.size());
+        for (IShape shape : shapes) {
+            optimizedShapes.add(optimize(shape, stats));
+        }
+        return optimizedShapes;
+    }
+
+    /**
+     * Optimizes one shape
+     *
+     * @param shape The shape to optimize
+     * @param stats Where to add the statistics of the optimization (can be null)
+     * @return The shape with triangles and vertices reordered
+     */
+    public static IShape optimize(IShape shape, MeshOptimizationStats stats) {
+        int vertexCount = shape.getVertices().length / COORDINATES_BY_VERTEX;
+        int[] indices = shape.getIndices();
+        int[] optimizedIndices = optimizeTriangles(indices, vertexCount);
+
+        // Reorders the vertices in the order of the first use
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, NONE);
+        int[] order = new int[vertexCount];
+        int usedCount = 0;
+        for (int i = 0; i < optimizedIndices.length; i++) {
+            int vertex = optimizedIndices[i];
+            if (remap[vertex] == NONE) {
+                remap[vertex] = usedCount;
+                order[usedCount++] = vertex;
+            }
+            optimizedIndices[i] = remap[vertex];
+        }
+        // Vertices that are not used go to the end
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            if (remap[vertex] == NONE) {
+                remap[vertex] = usedCount;
+                order[usedCount++] = vertex;
+            }
+        }
+
+        float[] vertices = reorder(shape.getVertices(), order, COORDINATES_BY_VERTEX);
+        float[] textureCoords = reorder(shape.getTextureCoords(), order, COORDINATES_BY_TEXTURE);
+        float[] normals = reorder(shape.getNormals(), order, COORDINATES_BY_NORMAL);
+
+        if (stats != null) {
+            stats.add(indices.length / VERTICES_BY_TRIANGLE, vertexCount,
+                    countCacheMisses(indices, vertexCount, SIMULATED_CACHE_SIZE),
+                    countCacheMisses(optimizedIndices, vertexCount, SIMULATED_CACHE_SIZE));
+        }
+        return new WfObject(vertices, textureCoords, normals, optimizedIndices, shape.getGroupName(), shape.getMaterial());
+    }
+
+    /**
+     * @param source Array with the attribute of every vertex
+     * @param order  The old index of each new vertex
+     * @param size   Number of components of the attribute
+     * @return The attribute of the vertices in the new order
+     */
+    private static float[] reorder(float[] source, int[] order, int size) {
+        float[] destination = new float[source.length];
+        for (int i = 0; i < order.length; i++) {
+            System.arraycopy(source, order[i] * size, destination, i * size, size);
+        }
+        return destination;
+    }
+
+    /**
+     * Simulates a FIFO post transform cache
+     *
+     * @param indices     The indices of the triangles
+     * @param vertexCount Number of vertices of the mesh
+     * @param cacheSize   Number of entries of the cache
+     * @return Number of vertices that had to be transformed
+     */
+    public static int countCacheMisses(int[] indices, int vertexCount, int cacheSize) {
+        // A vertex is in the cache if entered it less than cacheSize misses ago
+        int[] timestamps = new int[vertexCount];
+        Arrays.fill(timestamps, -cacheSize - 1);
+        int misses = 0;
+        for (int index : indices) {
+            if (misses - timestamps[index] > cacheSize) {
+                timestamps[index] = misses;
+                misses++;
+            }
+        }
+        return misses;
+    }
+
+    /**
+     * @param cachePosition     Position of the vertex in the cache (NONE if it is not there)
+     * @param remainingValence Number of triangles not yet selected that use the vertex
+     * @return The score of the vertex
+     */
+    private static float vertexScore(int cachePosition, int remainingValence) {
+        if (remainingValence == 0) {
+            // The vertex is not needed anymore
+            return NONE;
+        }
+        float score = VALENCE_SCORES[Math.min(remainingValence, MAX_VALENCE)];
+        if (cachePosition != NONE) {
+            score += CACHE_SCORES[cachePosition];
+        }
+        return score;
+    }
+
+    /**
+     * Reorders the triangles to reuse the vertices in the cache
+     *
+     * @param indices     The indices of the triangles
+     * @param vertexCount Number of vertices of the mesh
+     * @return The indices of the triangles in the new order
+     */
+    public static int[] optimizeTriangles(int[] indices, int vertexCount) {
+        int triangleCount = indices.length / VERTICES_BY_TRIANGLE;
+
+        // Triangles of each vertex (compressed rows: offsets + triangles)
+        int[] valences = new int[vertexCount];
+        for (int index : indices) {
+            valences[index]++;
+        }
+        int[] offsets = new int[vertexCount + 1];
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] = offsets[v] + valences[v];
+        }
+        int[] vertexTriangles = new int[indices.length];
+        int[] remaining = new int[vertexCount];
+        for (int i = 0; i < indices.length; i++) {
+            int vertex = indices[i];
+            vertexTriangles[offsets[vertex] + remaining[vertex]++] = i / VERTICES_BY_TRIANGLE;
+        }
+
+        int[] cachePositions = new int[vertexCount];
+        Arrays.fill(cachePositions, NONE);
+        float[] vertexScores = new float[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            vertexScores[v] = vertexScore(NONE, remaining[v]);
+        }
+        float[] triangleScores = new float[triangleCount];
+        boolean[] emitted = new boolean[triangleCount];
+        int bestTriangle = NONE;
+        float bestScore = -Float.MAX_VALUE;
+        for (int t = 0; t < triangleCount; t++) {
+            int base = t * VERTICES_BY_TRIANGLE;
+            triangleScores[t] = vertexScores[indices[base]] + vertexScores[indices[base + 1]] + vertexScores[indices[base + 2]];
+            if (triangleScores[t] > bestScore) {
+                bestScore = triangleScores[t];
+                bestTriangle = t;
+            }
+        }
+
+        int[] cache = new int[CACHE_SIZE + VERTICES_BY_TRIANGLE];
+        int[] newCache = new int[CACHE_SIZE + VERTICES_BY_TRIANGLE];
+        int cacheCount = 0;
+        int[] output = new int[triangleCount * VERTICES_BY_TRIANGLE];
+        int emittedCount = 0;
+        int scanPosition = 0;
+
+        while (bestTriangle != NONE) {
+            int base = bestTriangle * VERTICES_BY_TRIANGLE;
+            emitted[bestTriangle] = true;
+
+            // Emits the triangle and removes it from the triangles of the vertices
+            int newCacheCount = 0;
+            for (int i = 0; i < VERTICES_BY_TRIANGLE; i++) {
+                int vertex = indices[base + i];
+                output[emittedCount * VERTICES_BY_TRIANGLE + i] = vertex;
+
+                int start = offsets[vertex];
+                int end = start + remaining[vertex];
+                for (int j = start; j < end; j++) {
+                    if (vertexTriangles[j] == bestTriangle) {
+                        vertexTriangles[j] = vertexTriangles[end - 1];
+                        remaining[vertex]--;
+                        break;
+                    }
+                }
+                if (cachePositions[vertex] != IN_NEW_CACHE) {
+                    newCache[newCacheCount++] = vertex;
+                    cachePositions[vertex] = IN_NEW_CACHE;
+                }
+            }
+            emittedCount++;
+
+            // The vertices of the triangle go to the front of the cache (LRU)
+            for (int i = 0; i < cacheCount; i++) {
+                int vertex = cache[i];
+                if (cachePositions[vertex] != IN_NEW_CACHE) {
+                    newCache[newCacheCount++] = vertex;
+                }
+            }
+
+            // Updates the scores of the vertices in the cache and of their triangles
+            bestTriangle = NONE;
+            bestScore = -Float.MAX_VALUE;
+            for (int i = 0; i < newCacheCount; i++) {
+                int vertex = newCache[i];
+                cachePositions[vertex] = (i < CACHE_SIZE) ? i : NONE;
+                vertexScores[vertex] = vertexScore(cachePositions[vertex], remaining[vertex]);
+            }
+            for (int i = 0; i < newCacheCount; i++) {
+                int vertex = newCache[i];
+                int start = offsets[vertex];
+                int end = start + remaining[vertex];
+                for (int j = start; j < end; j++) {
+                    int triangle = vertexTriangles[j];
+                    int triangleBase = triangle * VERTICES_BY_TRIANGLE;
+                    float score = vertexScores[indices[triangleBase]] + vertexScores[indices[triangleBase + 1]]
+                            + vertexScores[indices[triangleBase + 2]];
+                    triangleScores[triangle] = score;
+                    if ((i < CACHE_SIZE) && (score > bestScore)) {
+                        bestScore = score;
+                        bestTriangle = triangle;
+                    }
+                }
+            }
+
+            // Swaps the caches
+            int[] swap = cache;
+            cache = newCache;
+            newCache = swap;
+            cacheCount = Math.min(newCacheCount, CACHE_SIZE);
+
+            // No triangle touches the cache (Uses the first triangle not yet emitted)
+            if (bestTriangle == NONE) {
+                while ((scanPosition < triangleCount) && emitted[scanPosition]) {
+                    scanPosition++;
+                }
+                if (scanPosition < triangleCount) {
+                    bestTriangle = scanPosition;
+                }
+            }
+        }
+        return output;
+    }
+}
@@ -0,0 +1,116 @@
+package com.dferreira.commons.shapes;
+
+import com.dferreira.commons.memory.DirectBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Vertices of a shape in the compact format
+ * (positions as normalized shorts, texture coordinates as normalized unsigned shorts
+ * and normals as two normalized bytes with octahedral encoding)
+ */
+public class QuantizedVertices {
+
+    /**
+     * Components written by position (x, y, z and one of padding to keep the vertices aligned)
+     */
+    public final static int POSITION_COMPONENTS = 4;
+
+    /**
+     * Components written by texture coordinate (u, v)
+     */
+    public final static int TEXTURE_COMPONENTS = 2;
+
+    /**
+     * Components written by normal (Octahedral encoding)
+     */
+    public final static int NORMAL_COMPONENTS = 2;
+
+    /**
+     * Number of bytes of one position
+     */
+    public final static int POSITION_BYTES = POSITION_COMPONENTS * 2;
+
+    /**
+     * Number of bytes of one texture coordinate
+     */
+    public final static int TEXTURE_BYTES = TEXTURE_COMPONENTS * 2;
+
+    /**
+     * Number of bytes of one normal
+     */
+    public final static int NORMAL_BYTES = NORMAL_COMPONENTS;
+
+    /**
+     * Buffer with the positions (normalized shorts)
+     */
+    private final ByteBuffer positions;
+
+    /**
+     * Buffer with the texture coordinates (normalized unsigned shorts)
+     */
+    private final ByteBuffer textureCoords;
+
+    /**
+     * Buffer with the normals (normalized bytes)
+     */
+    private final ByteBuffer normals;
+
+    /**
+     * How to convert the vertices back to the original values
+     */
+    private final VertexQuantization quantization;
+
+    /**
+     * Constructor of the quantized vertices
+     *
+     * @param positions     Buffer with the positions
+     * @param textureCoords Buffer with the texture coordinates
+     * @param normals       Buffer with the normals
+     * @param quantization  How to convert the vertices back to the original values
+     */
+    QuantizedVertices(ByteBuffer positions, ByteBuffer textureCoords, ByteBuffer normals,
+                      VertexQuantization quantization) {
+        this.positions = positions;
+        this.textureCoords = textureCoords;
+        this.normals = normals;
+        this.quantization = quantization;
+    }
+
+    /**
+     * @return the buffer with the positions (normalized shorts)
+     */
+    public ByteBuffer getPositions() {
+        return positions;
+    }
+
+    /**
+     * @return the buffer with the texture coordinates (normalized unsigned shorts)
+     */
+    public ByteBuffer getTextureCoords() {
+        return textureCoords;
+    }
+
+    /**
+     * @return the buffer with the normals (normalized bytes)
+     */
+    public ByteBuffer getNormals() {
+        return normals;
+    }
+
+    /**
+     * @return how to convert the vertices back to the original values
+     */
+    public VertexQuantization getQuantization() {
+        return quantization;
+    }
+
+    /**
+     * Returns the buffers of the vertices to the pool (The vertices can not be used after)
+     */
+    public void release() {
+        DirectBufferPool.getInstance().release(positions);
+        DirectBufferPool.getInstance().release(textureCoords);
+        DirectBufferPool.getInstance().release(normals);
+    }
+}
@@ -0,0 +1,97 @@
+package com.dferreira.commons.shapes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Gives to each shape of a model only the vertices that its indices reference
+ * (The shapes of a waveFront file share the arrays of the whole model)
+ */
+public class ShapeCompactor {
+
+    /**
+     * Number of components of each attribute of a vertex
+     */
+    private final static int COORDINATES_BY_VERTEX = 3;
+    private final static int COORDINATES_BY_TEXTURE = 2;
+    private final static int COORDINATES_BY_NORMAL = 3;
+
+    /**
+     * Value of the remap when the vertex is not used by the shape
+     */
+    private final static int NOT_USED = -1;
+
+    /**
+     * Creates for each shape a version with only its own vertices and the indices rebased
+     *
+     * @param shapes The shapes of one model
+     * @return The list of compacted shapes
+     */
+    public static List<IShape> compact(List<IShape> shapes) {
+        List<IShape> compactedShapes = new ArrayList<>(shapes.size());
+        int[] remap = null;
+
+        for (IShape shape : shapes) {
+            int vertexCount = shape.getVertices().length / COORDINATES_BY_VERTEX;
+            if ((remap == null) || (remap.length < vertexCount)) {
+                remap = new int[vertexCount];
+                Arrays.fill(remap, NOT_USED);
+            }
+            compactedShapes.add(compact(shape, remap));
+        }
+        return compactedShapes;
+    }
+
+    /**
+     * @param source      Array with the attribute of every vertex
+     * @param from        Vertex in the source array
+     * @param destination Array with the attribute of the vertices of the shape
+     * @param to          Vertex in the destination array
+     * @param size        Number of components of the attribute
+     */
+    private static void copyVertex(float[] source, int from, float[] destination, int to, int size) {
+        System.arraycopy(source, from * size, destination, to * size, size);
+    }
+
+    /**
+     * @param shape The shape to compact
+     * @param remap Array with NOT_USED in all the vertices of the shape (Left in the same state at the end)
+     * @return The shape with only its own vertices
+     */
+    private static IShape compact(IShape shape, int[] remap) {
+        int[] indices = shape.getIndices();
+        int vertexCount = shape.getVertices().length / COORDINATES_BY_VERTEX;
+
+        // Gives a new index to the vertices in the order that they are referenced
+        int[] usedVertices = new int[Math.min(indices.length, vertexCount)];
+        int usedCount = 0;
+        int[] rebasedIndices = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            int vertex = indices[i];
+            if (remap[vertex] == NOT_USED) {
+                remap[vertex] = usedCount;
+                usedVertices[usedCount++] = vertex;
+            }
+            rebasedIndices[i] = remap[vertex];
+        }
+        for (int i = 0; i < usedCount; i++) {
+            remap[usedVertices[i]] = NOT_USED;
+        }
+
+        // The shape already uses all the vertices
+        if (usedCount == vertexCount) {
+            return shape;
+        }
+
+        float[] vertices = new float[usedCount * COORDINATES_BY_VERTEX];
+        float[] textureCoords = new float[usedCount * COORDINATES_BY_TEXTURE];
+        float[] normals = new float[usedCount * COORDINATES_BY_NORMAL];
+        for (int i = 0; i < usedCount; i++) {
+            copyVertex(shape.getVertices(), usedVertices[i], vertices, i, COORDINATES_BY_VERTEX);
+            copyVertex(shape.getTextureCoords(), usedVertices[i], textureCoords, i, COORDINATES_BY_TEXTURE);
+            copyVertex(shape.getNormals(), usedVertices[i], normals, i, COORDINATES_BY_NORMAL);
+        }
+        return new WfObject(vertices, textureCoords, normals, rebasedIndices, shape.getGroupName(), shape.getMaterial());
+    }
+}
@@ -0,0 +1,120 @@
+package com.dferreira.commons.shapes;
+
+import com.dferreira.commons.generic_render.VertexAttribute;
+import com.dferreira.commons.generic_render.VertexComponentTypeEnum;
+import com.dferreira.commons.generic_render.VertexLayout;
+import com.dferreira.commons.memory.DirectBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interleaves the attributes of the vertices of a shape in one single buffer as described by a vertex layout
+ */
+public class VertexInterleaver {
+
+    /**
+     * Number of components of each attribute of a vertex in the shapes
+     */
+    private final static int COORDINATES_BY_VERTEX = 3;
+    private final static int COORDINATES_BY_TEXTURE = 2;
+    private final static int COORDINATES_BY_NORMAL = 3;
+
+    /**
+     * Interleaves the attributes of a shape (The layout can only have float attributes)
+     *
+     * @param shape  The shape with the attributes
+     * @param layout Layout of the vertices in the buffer
+     * @return A direct buffer in the native order with the vertices interleaved
+     */
+    public static ByteBuffer interleave(IShape shape, VertexLayout layout) {
+        int vertexCount = shape.getVertices().length / COORDINATES_BY_VERTEX;
+        ByteBuffer buffer = allocate(vertexCount * layout.getStride());
+        for (VertexAttribute attribute : layout.getAttributes()) {
+            if (attribute.getType() != VertexComponentTypeEnum.FLOAT) {
+                throw new IllegalArgumentException("The attributes of a shape are floats, not " + attribute);
+            }
+            float[] source;
+            int sourceComponents;
+            switch (attribute.getAttribute()) {
+                case position:
+                    source = shape.getVertices();
+                    sourceComponents = COORDINATES_BY_VERTEX;
+                    break;
+                case textureCoords:
+                    source = shape.getTextureCoords();
+                    sourceComponents = COORDINATES_BY_TEXTURE;
+                    break;
+                case normal:
+                    source = shape.getNormals();
+                    sourceComponents = COORDINATES_BY_NORMAL;
+                    break;
+                default:
+                    throw new IllegalArgumentException("A shape does not have " + attribute.getAttribute());
+            }
+            if (attribute.getComponents() > sourceComponents) {
+                throw new IllegalArgumentException("The shape only has " + sourceComponents + " components for " + attribute);
+            }
+            int position = attribute.getOffset();
+            for (int i = 0; i < vertexCount; i++) {
+                for (int c = 0; c < attribute.getComponents(); c++) {
+                    buffer.putFloat(position + c * VertexComponentTypeEnum.FLOAT.getSize(),
+                            source[i * sourceComponents + c]);
+                }
+                position += layout.getStride();
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * Interleaves the attributes of a quantized shape
+     * (The layout should have the types of VertexLayout.quantizedLayout)
+     *
+     * @param vertices The vertices in the quantized format
+     * @param layout   Layout of the vertices in the buffer
+     * @return A direct buffer in the native order with the vertices interleaved
+     */
+    public static ByteBuffer interleave(QuantizedVertices vertices, VertexLayout layout) {
+        int vertexCount = vertices.getPositions().limit() / QuantizedVertices.POSITION_BYTES;
+        ByteBuffer buffer = allocate(vertexCount * layout.getStride());
+        for (VertexAttribute attribute : layout.getAttributes()) {
+            ByteBuffer source;
+            int sourceStride;
+            switch (attribute.getAttribute()) {
+                case position:
+                    source = vertices.getPositions();
+                    sourceStride = QuantizedVertices.POSITION_BYTES;
+                    break;
+                case textureCoords:
+                    source = vertices.getTextureCoords();
+                    sourceStride = QuantizedVertices.TEXTURE_BYTES;
+                    break;
+                case normal:
+                    source = vertices.getNormals();
+                    sourceStride = QuantizedVertices.NORMAL_BYTES;
+                    break;
+                default:
+                    throw new IllegalArgumentException("A shape does not have " + attribute.getAttribute());
+            }
+            if (attribute.getSize() > sourceStride) {
+                throw new IllegalArgumentException("The quantized vertices do not have the bytes of " + attribute);
+            }
+            int position = attribute.getOffset();
+            for (int i = 0; i < vertexCount; i++) {
+                for (int b = 0; b < attribute.getSize(); b++) {
+                    buffer.put(position + b, source.get(i * sourceStride + b));
+                }
+                position += layout.getStride();
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * @param size Number of bytes of the buffer
+     * @return A direct buffer of the pool in the native order (As the render API expects)
+     */
+    private static ByteBuffer allocate(int size) {
+        return DirectBufferPool.getInstance().acquire(size);
+    }
+}
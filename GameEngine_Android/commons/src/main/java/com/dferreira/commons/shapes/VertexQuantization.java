@@ -0,0 +1,157 @@
+package com.dferreira.commons.shapes;
+
+import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.Vector3f;
+
+/**
+ * Describes how the quantized vertices of a shape are converted back to the original values
+ * (value = offset + scale * normalized value) and the error introduced by the quantization
+ */
+public class VertexQuantization {
+
+    /**
+     * Center of the bounds of the positions (The positions are normalized shorts in [-1, 1])
+     */
+    private final Vector3f positionOffset;
+
+    /**
+     * Half of the extent of the bounds of the positions
+     */
+    private final Vector3f positionScale;
+
+    /**
+     * Minimum of the texture coordinates (The texture coordinates are normalized unsigned shorts in [0, 1])
+     */
+    private final Vector2f textureOffset;
+
+    /**
+     * Extent of the bounds of the texture coordinates
+     */
+    private final Vector2f textureScale;
+
+    /**
+     * Number of bytes that the vertices use without quantization
+     */
+    private int originalBytes;
+
+    /**
+     * Number of bytes that the quantized vertices use
+     */
+    private int quantizedBytes;
+
+    /**
+     * Maximum distance between one position and its quantized version
+     */
+    private float maxPositionError;
+
+    /**
+     * Maximum difference between one texture coordinate and its quantized version
+     */
+    private float maxTextureError;
+
+    /**
+     * Maximum angle (in degrees) between one normal and its quantized version
+     */
+    private float maxNormalError;
+
+    /**
+     * Constructor of the quantization
+     *
+     * @param positionOffset Center of the bounds of the positions
+     * @param positionScale  Half of the extent of the bounds of the positions
+     * @param textureOffset  Minimum of the texture coordinates
+     * @param textureScale   Extent of the bounds of the texture coordinates
+     */
+    public VertexQuantization(Vector3f positionOffset, Vector3f positionScale, Vector2f textureOffset,
+                              Vector2f textureScale) {
+        this.positionOffset = positionOffset;
+        this.positionScale = positionScale;
+        this.textureOffset = textureOffset;
+        this.textureScale = textureScale;
+    }
+
+    /**
+     * @return the center of the bounds of the positions
+     */
+    public Vector3f getPositionOffset() {
+        return positionOffset;
+    }
+
+    /**
+     * @return the half of the extent of the bounds of the positions
+     */
+    public Vector3f getPositionScale() {
+        return positionScale;
+    }
+
+    /**
+     * @return the minimum of the texture coordinates
+     */
+    public Vector2f getTextureOffset() {
+        return textureOffset;
+    }
+
+    /**
+     * @return the extent of the bounds of the texture coordinates
+     */
+    public Vector2f getTextureScale() {
+        return textureScale;
+    }
+
+    /**
+     * @param originalBytes  Number of bytes that the vertices use without quantization
+     * @param quantizedBytes Number of bytes that the quantized vertices use
+     */
+    void setSizes(int originalBytes, int quantizedBytes) {
+        this.originalBytes = originalBytes;
+        this.quantizedBytes = quantizedBytes;
+    }
+
+    /**
+     * @param maxPositionError Maximum distance between one position and its quantized version
+     * @param maxTextureError  Maximum difference between one texture coordinate and its quantized version
+     * @param maxNormalError   Maximum angle (in degrees) between one normal and its quantized version
+     */
+    void setErrors(float maxPositionError, float maxTextureError, float maxNormalError) {
+        this.maxPositionError = maxPositionError;
+        this.maxTextureError = maxTextureError;
+        this.maxNormalError = maxNormalError;
+    }
+
+    /**
+     * @return the number of bytes saved by the quantization
+     */
+    public int getBytesSaved() {
+        return originalBytes - quantizedBytes;
+    }
+
+    /**
+     * @return the maximum distance between one position and its quantized version
+     */
+    public float getMaxPositionError() {
+        return maxPositionError;
+    }
+
+    /**
+     * @return the maximum difference between one texture coordinate and its quantized version
+     */
+    public float getMaxTextureError() {
+        return maxTextureError;
+    }
+
+    /**
+     * @return the maximum angle (in degrees) between one normal and its quantized version
+     */
+    public float getMaxNormalError() {
+        return maxNormalError;
+    }
+
+    /**
+     * @return Textual description of the quantization
+     */
+    @Override
+    public String toString() {
+        return "bytes saved=" + getBytesSaved() + " of " + originalBytes + " max error position=" + maxPositionError
+                + " texture=" + maxTextureError + " normal=" + maxNormalError + "deg";
+    }
+}
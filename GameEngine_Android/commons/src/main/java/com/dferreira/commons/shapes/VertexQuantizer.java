@@ -0,0 +1,233 @@
+package com.dferreira.commons.shapes;
+
+import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.memory.DirectBufferPool;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the vertices of a shape to the compact format of QuantizedVertices
+ */
+public class VertexQuantizer {
+
+    /**
+     * Number of components of each attribute of a vertex
+     */
+    private final static int COORDINATES_BY_VERTEX = 3;
+    private final static int COORDINATES_BY_TEXTURE = 2;
+    private final static int COORDINATES_BY_NORMAL = 3;
+
+    /**
+     * Number of bytes of one float
+     */
+    private final static int FLOAT_BYTES = 4;
+
+    /**
+     * Maximum values of the normalized types
+     */
+    private final static int SHORT_MAX = Short.MAX_VALUE;
+    private final static int UNSIGNED_SHORT_MAX = 0xFFFF;
+    private final static int BYTE_MAX = Byte.MAX_VALUE;
+
+    /**
+     * Quantizes the vertices of one shape
+     *
+     * @param shape The shape to quantize
+     * @return The vertices in the compact format
+     */
+    public static QuantizedVertices quantize(IShape shape) {
+        float[] vertices = shape.getVertices();
+        float[] textureCoords = shape.getTextureCoords();
+        float[] normals = shape.getNormals();
+        int vertexCount = vertices.length / COORDINATES_BY_VERTEX;
+
+        VertexQuantization quantization = computeBounds(vertices, textureCoords, vertexCount);
+        ByteBuffer positionsBuffer = allocate(vertexCount * QuantizedVertices.POSITION_BYTES);
+        ByteBuffer texturesBuffer = allocate(vertexCount * QuantizedVertices.TEXTURE_BYTES);
+        ByteBuffer normalsBuffer = allocate(vertexCount * QuantizedVertices.NORMAL_BYTES);
+
+        Vector3f positionOffset = quantization.getPositionOffset();
+        Vector3f positionScale = quantization.getPositionScale();
+        Vector2f textureOffset = quantization.getTextureOffset();
+        Vector2f textureScale = quantization.getTextureScale();
+        float maxPositionError = 0.0f;
+        float maxTextureError = 0.0f;
+        float maxNormalError = 0.0f;
+        float[] decoded = new float[COORDINATES_BY_NORMAL];
+
+        for (int i = 0; i < vertexCount; i++) {
+            // Positions
+            float x = vertices[i * COORDINATES_BY_VERTEX];
+            float y = vertices[i * COORDINATES_BY_VERTEX + 1];
+            float z = vertices[i * COORDINATES_BY_VERTEX + 2];
+            short qx = toNormalizedShort((x - positionOffset.x) / positionScale.x);
+            short qy = toNormalizedShort((y - positionOffset.y) / positionScale.y);
+            short qz = toNormalizedShort((z - positionOffset.z) / positionScale.z);
+            positionsBuffer.putShort(qx).putShort(qy).putShort(qz).putShort((short) 0);
+            float dx = positionOffset.x + positionScale.x * fromNormalizedShort(qx) - x;
+            float dy = positionOffset.y + positionScale.y * fromNormalizedShort(qy) - y;
+            float dz = positionOffset.z + positionScale.z * fromNormalizedShort(qz) - z;
+            maxPositionError = Math.max(maxPositionError, (float) Math.sqrt(dx * dx + dy * dy + dz * dz));
+
+            // Texture coordinates
+            for (int c = 0; c < COORDINATES_BY_TEXTURE; c++) {
+                float offset = (c == 0) ? textureOffset.x : textureOffset.y;
+                float scale = (c == 0) ? textureScale.x : textureScale.y;
+                float value = textureCoords[i * COORDINATES_BY_TEXTURE + c];
+                int quantized = Math.round(clamp((value - offset) / scale, 0.0f, 1.0f) * UNSIGNED_SHORT_MAX);
+                texturesBuffer.putShort((short) quantized);
+                float error = Math.abs(offset + scale * ((float) quantized / UNSIGNED_SHORT_MAX) - value);
+                maxTextureError = Math.max(maxTextureError, error);
+            }
+
+            // Normals
+            float nx = normals[i * COORDINATES_BY_NORMAL];
+            float ny = normals[i * COORDINATES_BY_NORMAL + 1];
+            float nz = normals[i * COORDINATES_BY_NORMAL + 2];
+            float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            byte[] encoded = encodeOctahedral(nx, ny, nz);
+            normalsBuffer.put(encoded[0]).put(encoded[1]);
+            if (length > 0.0f) {
+                decodeOctahedral(encoded[0], encoded[1], decoded);
+                float cos = (nx * decoded[0] + ny * decoded[1] + nz * decoded[2]) / length;
+                maxNormalError = Math.max(maxNormalError, (float) Math.toDegrees(Math.acos(clamp(cos, -1.0f, 1.0f))));
+            }
+        }
+        positionsBuffer.flip();
+        texturesBuffer.flip();
+        normalsBuffer.flip();
+
+        int originalBytes = (vertices.length + textureCoords.length + normals.length) * FLOAT_BYTES;
+        int quantizedBytes = positionsBuffer.limit() + texturesBuffer.limit() + normalsBuffer.limit();
+        quantization.setSizes(originalBytes, quantizedBytes);
+        quantization.setErrors(maxPositionError, maxTextureError, maxNormalError);
+        return new QuantizedVertices(positionsBuffer, texturesBuffer, normalsBuffer, quantization);
+    }
+
+    /**
+     * @param size Number of bytes of the buffer
+     * @return A direct buffer of the pool in the native order (As the render API expects)
+     */
+    private static ByteBuffer allocate(int size) {
+        return DirectBufferPool.getInstance().acquire(size);
+    }
+
+    /**
+     * @param value Value to clamp
+     * @param min   Minimum value
+     * @param max   Maximum value
+     * @return The value between min and max
+     */
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * @param value Value in [-1, 1]
+     * @return The value as a normalized short
+     */
+    private static short toNormalizedShort(float value) {
+        return (short) Math.round(clamp(value, -1.0f, 1.0f) * SHORT_MAX);
+    }
+
+    /**
+     * @param value Normalized short
+     * @return The value in [-1, 1] (The same conversion that openGL does)
+     */
+    private static float fromNormalizedShort(short value) {
+        return Math.max((float) value / SHORT_MAX, -1.0f);
+    }
+
+    /**
+     * Computes the bounds of the positions and texture coordinates
+     *
+     * @param vertices      Positions of the shape
+     * @param textureCoords Texture coordinates of the shape
+     * @param vertexCount   Number of vertices
+     * @return The quantization with the offsets and scales defined
+     */
+    private static VertexQuantization computeBounds(float[] vertices, float[] textureCoords, int vertexCount) {
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int i = 0; i < vertexCount; i++) {
+            for (int c = 0; c < COORDINATES_BY_VERTEX; c++) {
+                min[c] = Math.min(min[c], vertices[i * COORDINATES_BY_VERTEX + c]);
+                max[c] = Math.max(max[c], vertices[i * COORDINATES_BY_VERTEX + c]);
+            }
+            for (int c = 0; c < COORDINATES_BY_TEXTURE; c++) {
+                min[COORDINATES_BY_VERTEX + c] = Math.min(min[COORDINATES_BY_VERTEX + c], textureCoords[i * COORDINATES_BY_TEXTURE + c]);
+                max[COORDINATES_BY_VERTEX + c] = Math.max(max[COORDINATES_BY_VERTEX + c], textureCoords[i * COORDINATES_BY_TEXTURE + c]);
+            }
+        }
+        if (vertexCount == 0) {
+            min = new float[]{0.0f, 0.0f, 0.0f, 0.0f, 0.0f};
+            max = new float[]{0.0f, 0.0f, 0.0f, 0.0f, 0.0f};
+        }
+        Vector3f positionOffset = new Vector3f((min[0] + max[0]) / 2, (min[1] + max[1]) / 2, (min[2] + max[2]) / 2);
+        Vector3f positionScale = new Vector3f(extent(min[0], max[0]) / 2, extent(min[1], max[1]) / 2,
+                extent(min[2], max[2]) / 2);
+        Vector2f textureOffset = new Vector2f(min[3], min[4]);
+        Vector2f textureScale = new Vector2f(extent(min[3], max[3]), extent(min[4], max[4]));
+        return new VertexQuantization(positionOffset, positionScale, textureOffset, textureScale);
+    }
+
+    /**
+     * @param min Minimum of the bounds
+     * @param max Maximum of the bounds
+     * @return The extent of the bounds (1 if the bounds are flat to avoid divisions by zero)
+     */
+    private static float extent(float min, float max) {
+        return (max > min) ? (max - min) : 1.0f;
+    }
+
+    /**
+     * Encodes a normal with the octahedral encoding
+     *
+     * @param x Component x of the normal
+     * @param y Component y of the normal
+     * @param z Component z of the normal
+     * @return The two normalized bytes of the normal
+     */
+    static byte[] encodeOctahedral(float x, float y, float z) {
+        float sum = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        float u = 0.0f;
+        float v = 0.0f;
+        if (sum > 0.0f) {
+            u = x / sum;
+            v = y / sum;
+            if (z < 0.0f) {
+                // Folds the lower hemisphere over the diagonals
+                float foldedU = (1.0f - Math.abs(v)) * ((u >= 0.0f) ? 1.0f : -1.0f);
+                float foldedV = (1.0f - Math.abs(u)) * ((v >= 0.0f) ? 1.0f : -1.0f);
+                u = foldedU;
+                v = foldedV;
+            }
+        }
+        return new byte[]{(byte) Math.round(clamp(u, -1.0f, 1.0f) * BYTE_MAX),
+                (byte) Math.round(clamp(v, -1.0f, 1.0f) * BYTE_MAX)};
+    }
+
+    /**
+     * Decodes a normal with the octahedral encoding (The same decode done in the shader)
+     *
+     * @param encodedU First byte of the normal
+     * @param encodedV Second byte of the normal
+     * @param normal   Where to put the normal decoded
+     */
+    static void decodeOctahedral(byte encodedU, byte encodedV, float[] normal) {
+        float u = Math.max((float) encodedU / BYTE_MAX, -1.0f);
+        float v = Math.max((float) encodedV / BYTE_MAX, -1.0f);
+        float z = 1.0f - Math.abs(u) - Math.abs(v);
+        if (z < 0.0f) {
+            float foldedU = (1.0f - Math.abs(v)) * ((u >= 0.0f) ? 1.0f : -1.0f);
+            float foldedV = (1.0f - Math.abs(u)) * ((v >= 0.0f) ? 1.0f : -1.0f);
+            u = foldedU;
+            v = foldedV;
+        }
+        float length = (float) Math.sqrt(u * u + v * v + z * z);
+        normal[0] = u / length;
+        normal[1] = v / length;
+        normal[2] = z / length;
+    }
+}
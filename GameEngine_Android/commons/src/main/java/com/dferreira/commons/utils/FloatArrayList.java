@@ -0,0 +1,102 @@
+package com.dferreira.commons.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of primitive floats (Avoids the boxing of a List of Floats)
+ */
+public class FloatArrayList {
+
+    /**
+     * Capacity used when no capacity is specified
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Elements of the list (Only the first size elements are valid)
+     */
+    private float[] elements;
+
+    /**
+     * Number of elements in the list
+     */
+    private int size;
+
+    /**
+     * Constructor of an empty list with the default capacity
+     */
+    public FloatArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor of an empty list
+     *
+     * @param capacity Initial number of elements that the list can hold without grow
+     */
+    public FloatArrayList(int capacity) {
+        this.elements = new float[Math.max(capacity, 1)];
+        this.size = 0;
+    }
+
+    /**
+     * Ensures that the list can hold the specified number of elements without grow
+     *
+     * @param capacity Minimum capacity required
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            int newCapacity = Math.max(capacity, elements.length << 1);
+            this.elements = Arrays.copyOf(elements, newCapacity);
+        }
+    }
+
+    /**
+     * Appends one value to the end of the list
+     *
+     * @param value The value to append
+     */
+    public void add(float value) {
+        ensureCapacity(size + 1);
+        elements[size++] = value;
+    }
+
+    /**
+     * @param index Position of the element
+     * @return The element in the specified position
+     */
+    public float get(int index) {
+        return elements[index];
+    }
+
+    /**
+     * Replace the element in the specified position
+     *
+     * @param index Position of the element
+     * @param value The value to set
+     */
+    public void set(int index, float value) {
+        elements[index] = value;
+    }
+
+    /**
+     * @return Number of elements in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the elements of the list (Keeps the capacity)
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * @return A new array with the elements of the list
+     */
+    public float[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+}
@@ -0,0 +1,26 @@
+package com.dferreira.commons.utils;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Pool of worker threads shared by the tasks that split the work between the cores
+ * (The mip chains, the compression of the textures and the samples of the terrain use the same threads,
+ * so they do not compete with each other for the cores)
+ */
+public class WorkerPool {
+
+    /**
+     * The pool shared (Created only when needed)
+     */
+    private static ForkJoinPool instance;
+
+    /**
+     * @return The pool shared by the tasks that split the work between the cores
+     */
+    public static synchronized ForkJoinPool getInstance() {
+        if (instance == null) {
+            instance = new ForkJoinPool();
+        }
+        return instance;
+    }
+}
@@ -0,0 +1,235 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.WfObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Loads the shapes of a model compiled by the CompiledMeshWriter
+ * (The arrays are copied in bulk from the file so there is no text to parse)
+ * <p>
+ * Layout of the file (little endian, every section aligned to 4 bytes):
+ * magic, version, number of arrays, number of shapes, material file name,
+ * float arrays (length + elements),
+ * shapes (group name, material name, index of vertices, texture coordinates and normals arrays, indices)
+ */
+public class CompiledMeshLoader {
+
+    /**
+     * Extension of the compiled models
+     */
+    public final static String COMPILED_MESH_EXTENSION = ".mesh";
+
+    /**
+     * Identifies a compiled mesh file ("MESH")
+     */
+    final static int MAGIC = 0x4853454D;
+
+    /**
+     * Version of the layout of the file
+     */
+    final static int VERSION = 1;
+
+    /**
+     * Size of one int or float in the file
+     */
+    final static int WORD_SIZE = 4;
+
+    /**
+     * Length written when a string is null
+     */
+    final static int NULL_LENGTH = -1;
+
+    /**
+     * Order of the bytes in the file
+     */
+    final static ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Charset of the strings written in the file
+     */
+    final static Charset CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * Size of the buffer used to read the file from a stream
+     */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Maps the compiled file in memory and loads the shapes from it
+     *
+     * @param file                The compiled file
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return List of shapes of the model or null if was not possible to load
+     */
+    public static List<IShape> loadMesh(File file, ISubResourceProvider subResourceProvider) {
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "r");
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parseMesh(buffer, subResourceProvider);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (randomAccessFile != null) {
+                try {
+                    randomAccessFile.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the shapes from a stream of a compiled file (Used when the file can not be mapped, ex: inside a jar)
+     *
+     * @param inputStream         Stream of the compiled file
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return List of shapes of the model or null if was not possible to load
+     */
+    public static List<IShape> loadMesh(InputStream inputStream, ISubResourceProvider subResourceProvider) {
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(BUFFER_SIZE);
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                outputStream.write(chunk, 0, read);
+            }
+            return parseMesh(ByteBuffer.wrap(outputStream.toByteArray()), subResourceProvider);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Loads the shapes from a buffer with the content of a compiled file (ex: an entry of a pack)
+     *
+     * @param buffer              Buffer with the compiled file from the position until the limit
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return List of shapes of the model or null if was not possible to load
+     */
+    public static List<IShape> loadMesh(ByteBuffer buffer, ISubResourceProvider subResourceProvider) {
+        try {
+            return parseMesh(buffer.slice(), subResourceProvider);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param length Number of bytes
+     * @return The number of bytes rounded up to be aligned with a word
+     */
+    static int align(int length) {
+        return (length + WORD_SIZE - 1) & ~(WORD_SIZE - 1);
+    }
+
+    /**
+     * @param buffer Buffer positioned in the start of the string
+     * @return The string read (Moves the buffer to the next word)
+     */
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        buffer.position(buffer.position() + align(length) - length);
+        return new String(bytes, CHARSET);
+    }
+
+    /**
+     * @param buffer Buffer positioned in the start of the array
+     * @return The array of floats read
+     */
+    private static float[] readFloatArray(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        float[] array = new float[length];
+        buffer.asFloatBuffer().get(array);
+        buffer.position(buffer.position() + length * WORD_SIZE);
+        return array;
+    }
+
+    /**
+     * @param buffer Buffer positioned in the start of the array
+     * @return The array of integers read
+     */
+    private static int[] readIntArray(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        int[] array = new int[length];
+        buffer.asIntBuffer().get(array);
+        buffer.position(buffer.position() + length * WORD_SIZE);
+        return array;
+    }
+
+    /**
+     * Parses the content of a compiled file
+     *
+     * @param buffer              Buffer with the content of the file
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return List of shapes of the model
+     * @throws IOException If the buffer does not have a compiled mesh
+     */
+    private static List<IShape> parseMesh(ByteBuffer buffer, ISubResourceProvider subResourceProvider) throws IOException {
+        buffer.order(BYTE_ORDER);
+        if ((buffer.getInt() != MAGIC) || (buffer.getInt() != VERSION)) {
+            throw new IOException("The file is not a compiled mesh of a supported version");
+        }
+        int arraysCount = buffer.getInt();
+        int shapesCount = buffer.getInt();
+
+        String materialFileName = readString(buffer);
+        HashMap<String, IExternalMaterial> materials = null;
+        if (materialFileName != null) {
+            materials = subResourceProvider.getMaterials(materialFileName);
+        }
+
+        float[][] arrays = new float[arraysCount][];
+        for (int i = 0; i < arraysCount; i++) {
+            arrays[i] = readFloatArray(buffer);
+        }
+
+        List<IShape> shapes = new ArrayList<>(shapesCount);
+        for (int i = 0; i < shapesCount; i++) {
+            String groupName = readString(buffer);
+            String materialName = readString(buffer);
+            float[] vertices = arrays[buffer.getInt()];
+            float[] textureCoords = arrays[buffer.getInt()];
+            float[] normals = arrays[buffer.getInt()];
+            int[] indices = readIntArray(buffer);
+
+            IExternalMaterial material = null;
+            if ((materials != null) && (materialName != null) && (materials.containsKey(materialName))) {
+                material = materials.get(materialName);
+            }
+            shapes.add(new WfObject(vertices, textureCoords, normals, indices, groupName, material));
+        }
+        return shapes;
+    }
+}
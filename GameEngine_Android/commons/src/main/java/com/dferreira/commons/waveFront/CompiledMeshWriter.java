@@ -0,0 +1,189 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.IShape;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Compiles waveFront files to the binary format read by the CompiledMeshLoader
+ */
+public class CompiledMeshWriter {
+
+    /**
+     * Provider that remembers the name of the file of materials requested by the parser
+     */
+    private static class MaterialFileRecorder implements ISubResourceProvider {
+        private final ISubResourceProvider subResourceProvider;
+        private String materialFileName;
+
+        /**
+         * @param subResourceProvider Provider used to load the materials
+         */
+        private MaterialFileRecorder(ISubResourceProvider subResourceProvider) {
+            this.subResourceProvider = subResourceProvider;
+        }
+
+        /**
+         * @param materialFileName The name of the file where the materials are
+         * @return An hash with information about materials read
+         */
+        @Override
+        public HashMap<String, IExternalMaterial> getMaterials(String materialFileName) {
+            this.materialFileName = materialFileName;
+            return subResourceProvider.getMaterials(materialFileName);
+        }
+    }
+
+    /**
+     * Parses one waveFront file and writes the shapes in the compiled format
+     *
+     * @param inputStream         The resource where the waveFront file exists
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @param outputFile          File where to write the compiled model
+     * @return False = The model could not be compiled True = The model was written
+     */
+    public static boolean compile(InputStream inputStream, ISubResourceProvider subResourceProvider, File outputFile) {
+        MaterialFileRecorder recorder = new MaterialFileRecorder(subResourceProvider);
+        List<IShape> shapes = OBJStreamLoader.loadObjModel(inputStream, recorder);
+        if (shapes == null) {
+            return false;
+        }
+        return write(shapes, recorder.materialFileName, outputFile);
+    }
+
+    /**
+     * @param value The string to measure
+     * @return Number of bytes that the string uses in the file
+     */
+    private static int sizeOf(byte[] value) {
+        return CompiledMeshLoader.WORD_SIZE + ((value == null) ? 0 : CompiledMeshLoader.align(value.length));
+    }
+
+    /**
+     * @param value The string to convert
+     * @return The bytes of the string or null if it does not exist
+     */
+    private static byte[] toBytes(String value) {
+        return (value == null) ? null : value.getBytes(CompiledMeshLoader.CHARSET);
+    }
+
+    /**
+     * Writes one string with the length before and aligned to the next word
+     *
+     * @param buffer Buffer where to write
+     * @param value  Bytes of the string to write
+     */
+    private static void writeString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(CompiledMeshLoader.NULL_LENGTH);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+            for (int i = value.length; i < CompiledMeshLoader.align(value.length); i++) {
+                buffer.put((byte) 0);
+            }
+        }
+    }
+
+    /**
+     * @param arrays      Arrays already found
+     * @param arraysIndex Index of each array found (The shapes of one model share the same arrays)
+     * @param array       Array to register
+     */
+    private static void register(List<float[]> arrays, IdentityHashMap<float[], Integer> arraysIndex, float[] array) {
+        if (!arraysIndex.containsKey(array)) {
+            arraysIndex.put(array, arrays.size());
+            arrays.add(array);
+        }
+    }
+
+    /**
+     * Writes a list of shapes in the compiled format
+     *
+     * @param shapes           The shapes to write
+     * @param materialFileName Name of the file of materials used by the shapes (if any)
+     * @param outputFile       File where to write the compiled model
+     * @return False = The model could not be written True = The model was written
+     */
+    public static boolean write(List<IShape> shapes, String materialFileName, File outputFile) {
+        List<float[]> arrays = new ArrayList<>();
+        IdentityHashMap<float[], Integer> arraysIndex = new IdentityHashMap<>();
+        for (IShape shape : shapes) {
+            register(arrays, arraysIndex, shape.getVertices());
+            register(arrays, arraysIndex, shape.getTextureCoords());
+            register(arrays, arraysIndex, shape.getNormals());
+        }
+
+        // Computes the size of the file
+        byte[] materialFile = toBytes(materialFileName);
+        int size = 4 * CompiledMeshLoader.WORD_SIZE + sizeOf(materialFile);
+        for (float[] array : arrays) {
+            size += (array.length + 1) * CompiledMeshLoader.WORD_SIZE;
+        }
+        List<byte[]> groupNames = new ArrayList<>(shapes.size());
+        List<byte[]> materialNames = new ArrayList<>(shapes.size());
+        for (IShape shape : shapes) {
+            byte[] groupName = toBytes(shape.getGroupName());
+            byte[] materialName = toBytes((shape.getMaterial() == null) ? null : shape.getMaterial().getName());
+            groupNames.add(groupName);
+            materialNames.add(materialName);
+            size += sizeOf(groupName) + sizeOf(materialName) + (4 + shape.getIndices().length) * CompiledMeshLoader.WORD_SIZE;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(CompiledMeshLoader.BYTE_ORDER);
+        buffer.putInt(CompiledMeshLoader.MAGIC);
+        buffer.putInt(CompiledMeshLoader.VERSION);
+        buffer.putInt(arrays.size());
+        buffer.putInt(shapes.size());
+        writeString(buffer, materialFile);
+        for (float[] array : arrays) {
+            buffer.putInt(array.length);
+            buffer.asFloatBuffer().put(array);
+            buffer.position(buffer.position() + array.length * CompiledMeshLoader.WORD_SIZE);
+        }
+        for (int i = 0; i < shapes.size(); i++) {
+            IShape shape = shapes.get(i);
+            writeString(buffer, groupNames.get(i));
+            writeString(buffer, materialNames.get(i));
+            buffer.putInt(arraysIndex.get(shape.getVertices()));
+            buffer.putInt(arraysIndex.get(shape.getTextureCoords()));
+            buffer.putInt(arraysIndex.get(shape.getNormals()));
+            buffer.putInt(shape.getIndices().length);
+            buffer.asIntBuffer().put(shape.getIndices());
+            buffer.position(buffer.position() + shape.getIndices().length * CompiledMeshLoader.WORD_SIZE);
+        }
+        buffer.flip();
+
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(outputFile);
+            FileChannel channel = outputStream.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+}
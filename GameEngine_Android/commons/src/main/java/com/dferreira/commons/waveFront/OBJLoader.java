@@ -6,6 +6,8 @@ import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_resources.ISubResourceProvider;
 import com.dferreira.commons.shapes.IExternalMaterial;
 import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.MeshOptimizer;
+import com.dferreira.commons.shapes.ShapeCompactor;
 import com.dferreira.commons.shapes.WfObject;
 import com.dferreira.commons.utils.Utils;
 
@@ -74,7 +76,16 @@ public class OBJLoader extends GenericLoader {
             IShape shape = new WfObject(verticesArray, texturesArray, normalsArray, indicesArray, groupName, material);
             wfObjectList.add(shape);
         }
-        return wfObjectList;
+        // Each shape gets only the vertices that it uses (optimized for the vertex cache)
+        return MeshOptimizer.optimize(ShapeCompactor.compact(wfObjectList), null);
+    }
+
+    /**
+     * @param index Index of one attribute of a face
+     * @return The index or NO_INDEX if the face does not specify it
+     */
+    private static int toIndex(Integer index) {
+        return (index == null) ? VertexWelder.NO_INDEX : index;
     }
 
     /**
@@ -89,47 +100,54 @@ public class OBJLoader extends GenericLoader {
      */
     private static List<IShape> createShapes(List<Vector3f> vertices, List<Vector3f> normals, List<Vector2f> textures,
                                              ArrayList<PolygonalFace> facesLst, HashMap<String, IExternalMaterial> materials) {
-        // This are the format of data accepted by the loader
-        // We setup the arrays now that we know the size of them
-        float[] verticesArray = new float[vertices.size() * COORDINATES_BY_VERTEX];
-        float[] normalsArray = new float[vertices.size() * COORDINATES_BY_NORMAL];
-        float[] texturesArray = new float[vertices.size() * COORDINATES_BY_TEXTURE];
+        // Welds the corners of the faces that share the same position, texture and normal
+        VertexWelder welder = new VertexWelder(vertices.size());
         HashMap<String, List<Integer>> indicesArrayMap = new HashMap<>();
 
         for (PolygonalFace face : facesLst) {
-
-            int vertexIndex = face.getVertexIndex();
-            int normalIndex = face.getNormalIndex();
-            int textureIndex = face.getTextureIndex();
-
-            Vector3f vertex = vertices.get(vertexIndex);
-            Vector3f currentNorm = normals.get(normalIndex);
-            Vector2f currentTexture = textures.get(textureIndex);
+            int vertex = welder.weld(face.getVertexIndex(), toIndex(face.getTextureIndex()), toIndex(face.getNormalIndex()));
 
             // Build index lists
             if (indicesArrayMap.containsKey(getKey(face))) {
-                indicesArrayMap.get(getKey(face)).add(vertexIndex);
+                indicesArrayMap.get(getKey(face)).add(vertex);
             } else {
                 List<Integer> indicesArray = new ArrayList<>();
-                indicesArray.add(vertexIndex);
+                indicesArray.add(vertex);
                 indicesArrayMap.put(getKey(face), indicesArray);
             }
+        }
+
+        // This are the format of data accepted by the loader
+        // We setup the arrays now that we know the size of them
+        int vertexCount = welder.getVertexCount();
+        float[] verticesArray = new float[vertexCount * COORDINATES_BY_VERTEX];
+        float[] normalsArray = new float[vertexCount * COORDINATES_BY_NORMAL];
+        float[] texturesArray = new float[vertexCount * COORDINATES_BY_TEXTURE];
+
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int normalIndex = welder.getNormalIndex(vertex);
+            int textureIndex = welder.getTextureIndex(vertex);
+            Vector3f currentVertex = vertices.get(welder.getPositionIndex(vertex));
+            Vector3f currentNorm = (normalIndex == VertexWelder.NO_INDEX) ? null : normals.get(normalIndex);
+            Vector2f currentTexture = (textureIndex == VertexWelder.NO_INDEX) ? null : textures.get(textureIndex);
 
             // Uses the (faces and vertices list to build the final vertices
             // array
-            verticesArray[vertexIndex * COORDINATES_BY_VERTEX] = vertex.x;
-            verticesArray[vertexIndex * COORDINATES_BY_VERTEX + 1] = vertex.y;
-            verticesArray[vertexIndex * COORDINATES_BY_VERTEX + 2] = vertex.z;
+            verticesArray[vertex * COORDINATES_BY_VERTEX] = currentVertex.x;
+            verticesArray[vertex * COORDINATES_BY_VERTEX + 1] = currentVertex.y;
+            verticesArray[vertex * COORDINATES_BY_VERTEX + 2] = currentVertex.z;
 
             // Build the normals list
-            normalsArray[vertexIndex * COORDINATES_BY_NORMAL] = currentNorm.x;
-            normalsArray[vertexIndex * COORDINATES_BY_NORMAL + 1] = currentNorm.y;
-            normalsArray[vertexIndex * COORDINATES_BY_NORMAL + 2] = currentNorm.z;
+            if (currentNorm != null) {
+                normalsArray[vertex * COORDINATES_BY_NORMAL] = currentNorm.x;
+                normalsArray[vertex * COORDINATES_BY_NORMAL + 1] = currentNorm.y;
+                normalsArray[vertex * COORDINATES_BY_NORMAL + 2] = currentNorm.z;
+            }
 
             // Build the texture coordinates list
             if (currentTexture != null) {
-                texturesArray[vertexIndex * COORDINATES_BY_TEXTURE] = currentTexture.x;
-                texturesArray[vertexIndex * COORDINATES_BY_TEXTURE + 1] = 1.0f - currentTexture.y;
+                texturesArray[vertex * COORDINATES_BY_TEXTURE] = currentTexture.x;
+                texturesArray[vertex * COORDINATES_BY_TEXTURE + 1] = 1.0f - currentTexture.y;
             }
         }
 
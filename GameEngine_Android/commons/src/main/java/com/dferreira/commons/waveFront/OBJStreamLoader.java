@@ -0,0 +1,591 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.MeshOptimizationStats;
+import com.dferreira.commons.shapes.MeshOptimizer;
+import com.dferreira.commons.shapes.ShapeCompactor;
+import com.dferreira.commons.shapes.WfObject;
+import com.dferreira.commons.utils.FloatArrayList;
+import com.dferreira.commons.utils.IntArrayList;
+import com.dferreira.commons.utils.Utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Parses files in wavefront format scanning the bytes of the file directly
+ * (Produces the same shapes as the OBJLoader but without allocate one object by
+ * line, attribute or face)
+ */
+public class OBJStreamLoader {
+
+    private final static Logger logger = LogManager.getLogger(OBJStreamLoader.class);
+
+    /* Character for split material and group */
+    private final static String MAT_GROUP_SPLIT = "@";
+
+    /* Initial size of the buffer where the file is read */
+    private final static int BUFFER_SIZE = 64 * 1024;
+
+    /* Value of the index when the face does not specify it */
+    private final static int NO_INDEX = VertexWelder.NO_INDEX;
+
+    /* Number of corners of a face that are used (Faces are triangles) */
+    private final static int CORNERS_BY_FACE = 3;
+
+    /* Maximum number of significant digits that a long can hold without loss */
+    private final static int MAX_EXACT_DIGITS = 18;
+
+    /* Largest mantissa that a double holds without loss (2^53) */
+    private final static long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /* Bits of a double dropped when it is rounded to a float and their value when the double is halfway between
+     * two floats (Where rounding to the double and then to the float can differ from rounding to the float) */
+    private final static long FLOAT_DROPPED_BITS = (1L << 29) - 1;
+    private final static long FLOAT_HALFWAY_BITS = 1L << 28;
+
+    /* Powers of ten that are exactly representable as a double */
+    private final static double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /* Prefixes supported by the parser in bytes */
+    private final static byte[] MATERIALS = OBJPrefix.MATERIALS.getBytes();
+    private final static byte[] USE_MATERIAL = OBJPrefix.USE_MATERIAL.getBytes();
+    private final static byte[] OBJECT_NAME = OBJPrefix.OBJECT_NAME.getBytes();
+    private final static byte[] GROUP = OBJPrefix.GROUP.getBytes();
+    private final static byte[] SMOOTH_SHADING = OBJPrefix.SMOOTH_SHADING.getBytes();
+    private final static byte[] VERTEX = OBJPrefix.VERTEX.getBytes();
+    private final static byte[] NORMAL = OBJPrefix.NORMAL.getBytes();
+    private final static byte[] TEXTURE = OBJPrefix.TEXTURE.getBytes();
+    private final static byte[] FACE = OBJPrefix.FACE.getBytes();
+
+    /**
+     * Indices of the faces that share the same material and group
+     */
+    private static class ShapeGroup {
+        private final String materialName;
+        private final String groupName;
+        private final IntArrayList indices;
+
+        /**
+         * @param materialName Material of the faces of the group
+         * @param groupName    Name of the group that the faces belongs
+         */
+        private ShapeGroup(String materialName, String groupName) {
+            this.materialName = materialName;
+            this.groupName = groupName;
+            this.indices = new IntArrayList();
+        }
+    }
+
+    /**
+     * The resource where the waveFront file exists
+     */
+    private final InputStream inputStream;
+
+    /**
+     * Load the sub type of resources like (Materials)
+     */
+    private final ISubResourceProvider subResourceProvider;
+
+    /**
+     * Buffer with the bytes read from the file
+     */
+    private byte[] buffer;
+
+    /**
+     * Number of valid bytes in the buffer
+     */
+    private int limit;
+
+    /**
+     * Position where the next line starts
+     */
+    private int position;
+
+    /**
+     * Position from where should look for the end of the line
+     */
+    private int scanPosition;
+
+    /**
+     * Indicates that there is nothing more to read from the stream
+     */
+    private boolean endOfStream;
+
+    /**
+     * Bounds of the line currently parsed
+     */
+    private int lineEnd;
+
+    /**
+     * Position of the parser in the current line
+     */
+    private int cursor;
+
+    /**
+     * Components of the positions, texture coordinates and normals
+     */
+    private final FloatArrayList vertices;
+    private final FloatArrayList textures;
+    private final FloatArrayList normals;
+
+    /**
+     * Welds the corners (vertex, texture, normal) of the faces in unique vertices
+     */
+    private final VertexWelder welder;
+
+    /**
+     * Dictionary with the indices of the faces by material and group
+     */
+    private final HashMap<String, ShapeGroup> shapeGroups;
+
+    /**
+     * HashMap of materials that make part of the object (if any)
+     */
+    private HashMap<String, IExternalMaterial> materials;
+
+    /**
+     * Name of the group and material used by the next faces
+     */
+    private String currentGroupName;
+    private String currentMaterialName;
+
+    /**
+     * Indices where the next faces are going to be put (null when the group or material changed)
+     */
+    private IntArrayList currentIndices;
+
+    /**
+     * @param inputStream         The resource where the waveFront file exists
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     */
+    private OBJStreamLoader(InputStream inputStream, ISubResourceProvider subResourceProvider) {
+        this.inputStream = inputStream;
+        this.subResourceProvider = subResourceProvider;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.vertices = new FloatArrayList(BUFFER_SIZE);
+        this.textures = new FloatArrayList(BUFFER_SIZE);
+        this.normals = new FloatArrayList(BUFFER_SIZE);
+        this.welder = new VertexWelder(BUFFER_SIZE);
+        this.shapeGroups = new HashMap<>();
+        this.currentGroupName = Utils.EMPTY_STRING;
+        this.currentMaterialName = Utils.EMPTY_STRING;
+    }
+
+    /**
+     * Parses one waveFront file (Each shape gets only the vertices that it uses
+     * and is optimized for the vertex cache)
+     *
+     * @param inputStream         The resource where the waveFront file exists
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @return Wavefront object
+     */
+    public static List<IShape> loadObjModel(InputStream inputStream, ISubResourceProvider subResourceProvider) {
+        return loadObjModel(inputStream, subResourceProvider, true);
+    }
+
+    /**
+     * Parses one waveFront file
+     *
+     * @param inputStream         The resource where the waveFront file exists
+     * @param subResourceProvider Load the sub type of resources like (Materials)
+     * @param compactShapes       True = Each shape gets only the vertices that it uses (optimized for the vertex cache)
+     *                            False = The shapes share the arrays of the whole model
+     * @return Wavefront object
+     */
+    public static List<IShape> loadObjModel(InputStream inputStream, ISubResourceProvider subResourceProvider,
+                                            boolean compactShapes) {
+        OBJStreamLoader loader = new OBJStreamLoader(inputStream, subResourceProvider);
+        try {
+            while (loader.nextLine()) {
+                loader.parseLine();
+            }
+            List<IShape> shapes = loader.createShapes();
+            return compactShapes ? optimize(ShapeCompactor.compact(shapes)) : shapes;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Reorders the triangles and vertices of the shapes for the vertex cache
+     *
+     * @param shapes The shapes to optimize (Each one with its own vertices)
+     * @return The optimized shapes
+     */
+    private static List<IShape> optimize(List<IShape> shapes) {
+        MeshOptimizationStats stats = new MeshOptimizationStats();
+        List<IShape> optimizedShapes = MeshOptimizer.optimize(shapes, stats);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Optimized for the vertex cache: " + stats);
+        }
+        return optimizedShapes;
+    }
+
+    /**
+     * Finds the next line of the file reading more bytes from the stream when needed
+     *
+     * @return False = There are no more lines True = The cursor is in the start of a new line
+     * @throws IOException If was not possible to read from the stream
+     */
+    private boolean nextLine() throws IOException {
+        while (true) {
+            for (int i = scanPosition; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    this.cursor = position;
+                    this.lineEnd = i;
+                    this.position = i + 1;
+                    this.scanPosition = position;
+                    return true;
+                }
+            }
+            this.scanPosition = limit;
+            if (endOfStream) {
+                if (position < limit) {
+                    this.cursor = position;
+                    this.lineEnd = limit;
+                    this.position = limit;
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+            // Moves the incomplete line to the start of the buffer
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0, limit - position);
+                this.limit -= position;
+                this.scanPosition -= position;
+                this.position = 0;
+            }
+            // The line does not fit in the buffer
+            if (limit == buffer.length) {
+                this.buffer = Arrays.copyOf(buffer, buffer.length << 1);
+            }
+            int read = inputStream.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                this.endOfStream = true;
+            } else {
+                this.limit += read;
+            }
+        }
+    }
+
+    /**
+     * @param c Character to check
+     * @return True if the character separates the components of a line
+     */
+    private static boolean isSpace(byte c) {
+        return (c == ' ') || (c == '\t') || (c == '\r');
+    }
+
+    /**
+     * Moves the cursor to the next character that is not a space
+     */
+    private void skipSpaces() {
+        while ((cursor < lineEnd) && isSpace(buffer[cursor])) {
+            cursor++;
+        }
+    }
+
+    /**
+     * @param start  Position where the keyword of the line starts
+     * @param length Length of the keyword of the line
+     * @param prefix Prefix to compare with
+     * @return True if the keyword of the line is the prefix passed
+     */
+    private boolean isPrefix(int start, int length, byte[] prefix) {
+        if (length != prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the line between the cursor and the end of the line
+     */
+    private void parseLine() {
+        skipSpaces();
+        if (cursor >= lineEnd) {
+            return;
+        }
+        int keyStart = cursor;
+        while ((cursor < lineEnd) && !isSpace(buffer[cursor])) {
+            cursor++;
+        }
+        int keyLength = cursor - keyStart;
+
+        // The comments in the OBJ do nothing
+        if (buffer[keyStart] == OBJPrefix.COMMENT.charAt(0)) {
+            return;
+        }
+        // Parses the faces
+        if (isPrefix(keyStart, keyLength, FACE)) {
+            parseFace();
+        } else if (isPrefix(keyStart, keyLength, VERTEX)) {
+            // Parses the vertices
+            vertices.add(parseFloat());
+            vertices.add(parseFloat());
+            vertices.add(parseFloat());
+        } else if (isPrefix(keyStart, keyLength, TEXTURE)) {
+            // Parses the texture coordinates
+            textures.add(parseFloat());
+            textures.add(parseFloat());
+        } else if (isPrefix(keyStart, keyLength, NORMAL)) {
+            // Parses the normals
+            normals.add(parseFloat());
+            normals.add(parseFloat());
+            normals.add(parseFloat());
+        } else if (isPrefix(keyStart, keyLength, MATERIALS)) {
+            // Definition of the list of materials of the model
+            this.materials = subResourceProvider.getMaterials(parseStringComponent());
+        } else if (isPrefix(keyStart, keyLength, USE_MATERIAL)) {
+            // Update the current material used
+            this.currentMaterialName = parseStringComponent();
+            this.currentIndices = null;
+        } else if (isPrefix(keyStart, keyLength, OBJECT_NAME) || isPrefix(keyStart, keyLength, GROUP)) {
+            // Define the name of the object or the group
+            this.currentGroupName = parseStringComponent();
+            this.currentIndices = null;
+        } else if (!isPrefix(keyStart, keyLength, SMOOTH_SHADING)) {
+            // The smooth shading is not done yet
+            System.err.println("Impossible to parse:" + new String(buffer, keyStart, lineEnd - keyStart));
+        }
+    }
+
+    /**
+     * @return The rest of the line as a string without the spaces in the edges
+     */
+    private String parseStringComponent() {
+        skipSpaces();
+        int end = lineEnd;
+        while ((end > cursor) && isSpace(buffer[end - 1])) {
+            end--;
+        }
+        return new String(buffer, cursor, end - cursor);
+    }
+
+    /**
+     * @return The indices of the current material and group
+     */
+    private IntArrayList getCurrentIndices() {
+        if (currentIndices == null) {
+            String key = currentMaterialName + MAT_GROUP_SPLIT + currentGroupName;
+            ShapeGroup shapeGroup = shapeGroups.get(key);
+            if (shapeGroup == null) {
+                shapeGroup = new ShapeGroup(currentMaterialName, currentGroupName);
+                shapeGroups.put(key, shapeGroup);
+            }
+            this.currentIndices = shapeGroup.indices;
+        }
+        return currentIndices;
+    }
+
+    /**
+     * Parses the corners of one face (vertexIndex/textureIndex/normalIndex)
+     */
+    private void parseFace() {
+        IntArrayList indices = getCurrentIndices();
+        for (int i = 0; i < CORNERS_BY_FACE; i++) {
+            skipSpaces();
+            int vertexIndex = parseIndex(vertices.size() / OBJLoader.COORDINATES_BY_VERTEX);
+            int textureIndex = NO_INDEX;
+            int normalIndex = NO_INDEX;
+            if ((cursor < lineEnd) && (buffer[cursor] == '/')) {
+                cursor++;
+                textureIndex = parseIndex(textures.size() / OBJLoader.COORDINATES_BY_TEXTURE);
+                if ((cursor < lineEnd) && (buffer[cursor] == '/')) {
+                    cursor++;
+                    normalIndex = parseIndex(normals.size() / OBJLoader.COORDINATES_BY_NORMAL);
+                }
+            }
+            indices.add(welder.weld(vertexIndex, textureIndex, normalIndex));
+        }
+    }
+
+    /**
+     * Parses one index of a face and converts it to start in zero
+     *
+     * @param count Number of elements already read (used by the relative indexes)
+     * @return The index parsed or NO_INDEX if the face does not specify it
+     */
+    private int parseIndex(int count) {
+        boolean negative = false;
+        if ((cursor < lineEnd) && (buffer[cursor] == '-')) {
+            negative = true;
+            cursor++;
+        }
+        int start = cursor;
+        int value = 0;
+        while ((cursor < lineEnd) && (buffer[cursor] >= '0') && (buffer[cursor] <= '9')) {
+            value = value * 10 + (buffer[cursor] - '0');
+            cursor++;
+        }
+        if (cursor == start) {
+            return NO_INDEX;
+        } else {
+            return negative ? (count - value) : (value - 1);
+        }
+    }
+
+    /**
+     * Parses the next float of the line
+     *
+     * @return The value parsed
+     */
+    private float parseFloat() {
+        skipSpaces();
+        int start = cursor;
+        boolean negative = false;
+        if ((cursor < lineEnd) && ((buffer[cursor] == '-') || (buffer[cursor] == '+'))) {
+            negative = (buffer[cursor] == '-');
+            cursor++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean exact = true;
+        boolean hasDigits = false;
+        // Integer part
+        while ((cursor < lineEnd) && (buffer[cursor] >= '0') && (buffer[cursor] <= '9')) {
+            if (digits < MAX_EXACT_DIGITS) {
+                mantissa = mantissa * 10 + (buffer[cursor] - '0');
+                digits += (mantissa == 0) ? 0 : 1;
+            } else {
+                exact = false;
+            }
+            hasDigits = true;
+            cursor++;
+        }
+        // Fractional part
+        if ((cursor < lineEnd) && (buffer[cursor] == '.')) {
+            cursor++;
+            while ((cursor < lineEnd) && (buffer[cursor] >= '0') && (buffer[cursor] <= '9')) {
+                if (digits < MAX_EXACT_DIGITS) {
+                    mantissa = mantissa * 10 + (buffer[cursor] - '0');
+                    digits += (mantissa == 0) ? 0 : 1;
+                    exponent--;
+                } else {
+                    exact = false;
+                }
+                hasDigits = true;
+                cursor++;
+            }
+        }
+        // Exponent part
+        if ((cursor < lineEnd) && ((buffer[cursor] == 'e') || (buffer[cursor] == 'E'))) {
+            cursor++;
+            boolean negativeExponent = false;
+            if ((cursor < lineEnd) && ((buffer[cursor] == '-') || (buffer[cursor] == '+'))) {
+                negativeExponent = (buffer[cursor] == '-');
+                cursor++;
+            }
+            int exponentValue = 0;
+            while ((cursor < lineEnd) && (buffer[cursor] >= '0') && (buffer[cursor] <= '9')) {
+                exponentValue = Math.min(exponentValue * 10 + (buffer[cursor] - '0'), Short.MAX_VALUE);
+                cursor++;
+            }
+            exponent += negativeExponent ? -exponentValue : exponentValue;
+        }
+        // Unusual numbers are left to the parser of the platform
+        if ((!hasDigits) || (!exact) || (mantissa > MAX_EXACT_MANTISSA)
+                || (Math.abs(exponent) >= POWERS_OF_TEN.length)) {
+            return parsePlatformFloat(start);
+        }
+        // Both operands are exact so the double is correctly rounded
+        double value = (exponent < 0) ? (mantissa / POWERS_OF_TEN[-exponent]) : (mantissa * POWERS_OF_TEN[exponent]);
+        if ((Double.doubleToRawLongBits(value) & FLOAT_DROPPED_BITS) == FLOAT_HALFWAY_BITS) {
+            // The second rounding could go the wrong way
+            return parsePlatformFloat(start);
+        }
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Parses the float that starts in one position of the line with the parser of the platform
+     *
+     * @param start Position of the first character of the float
+     * @return The value parsed
+     */
+    private float parsePlatformFloat(int start) {
+        cursor = start;
+        while ((cursor < lineEnd) && !isSpace(buffer[cursor])) {
+            cursor++;
+        }
+        return Float.parseFloat(new String(buffer, start, cursor - start));
+    }
+
+    /**
+     * Uses the elements read from the waveFront file to create the shapes
+     *
+     * @return List of objects created
+     */
+    private List<IShape> createShapes() {
+        int vertexCount = welder.getVertexCount();
+        float[] verticesArray = new float[vertexCount * OBJLoader.COORDINATES_BY_VERTEX];
+        float[] normalsArray = new float[vertexCount * OBJLoader.COORDINATES_BY_NORMAL];
+        float[] texturesArray = new float[vertexCount * OBJLoader.COORDINATES_BY_TEXTURE];
+
+        // Uses the welded vertices to build the final arrays
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int vertexIndex = welder.getPositionIndex(vertex);
+            int textureIndex = welder.getTextureIndex(vertex);
+            int normalIndex = welder.getNormalIndex(vertex);
+
+            for (int c = 0; c < OBJLoader.COORDINATES_BY_VERTEX; c++) {
+                verticesArray[vertex * OBJLoader.COORDINATES_BY_VERTEX + c] =
+                        vertices.get(vertexIndex * OBJLoader.COORDINATES_BY_VERTEX + c);
+            }
+            if (normalIndex != NO_INDEX) {
+                for (int c = 0; c < OBJLoader.COORDINATES_BY_NORMAL; c++) {
+                    normalsArray[vertex * OBJLoader.COORDINATES_BY_NORMAL + c] =
+                            normals.get(normalIndex * OBJLoader.COORDINATES_BY_NORMAL + c);
+                }
+            }
+            if (textureIndex != NO_INDEX) {
+                texturesArray[vertex * OBJLoader.COORDINATES_BY_TEXTURE] =
+                        textures.get(textureIndex * OBJLoader.COORDINATES_BY_TEXTURE);
+                texturesArray[vertex * OBJLoader.COORDINATES_BY_TEXTURE + 1] =
+                        1.0f - textures.get(textureIndex * OBJLoader.COORDINATES_BY_TEXTURE + 1);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Welded " + welder.getCornersCount() + " corners in " + vertexCount
+                    + " vertices (reuse ratio " + welder.getReuseRatio() + ")");
+        }
+
+        List<IShape> wfObjectList = new ArrayList<>();
+        for (String key : shapeGroups.keySet()) {
+            ShapeGroup shapeGroup = shapeGroups.get(key);
+            IExternalMaterial material = null;
+            if ((materials != null) && (materials.containsKey(shapeGroup.materialName))) {
+                material = materials.get(shapeGroup.materialName);
+            }
+            IShape shape = new WfObject(verticesArray, texturesArray, normalsArray, shapeGroup.indices.toArray(),
+                    shapeGroup.groupName, material);
+            wfObjectList.add(shape);
+        }
+        return wfObjectList;
+    }
+}
@@ -0,0 +1,224 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.utils.IntArrayList;
+
+import java.util.Arrays;
+
+/**
+ * Welds the corners of the faces of a waveFront file in unique vertices
+ * (One vertex by each distinct triplet of position, texture coordinate and normal indexes)
+ * <p>
+ * The triplets are packed in one long and kept in an open addressing hash table
+ * so nothing is boxed while the faces are read
+ */
+public class VertexWelder {
+
+    /**
+     * Number of bits used by each index of the triplet in the packed key
+     */
+    private final static int BITS_BY_INDEX = 21;
+
+    /**
+     * Mask of one index in the packed key
+     */
+    private final static long INDEX_MASK = (1L << BITS_BY_INDEX) - 1;
+
+    /**
+     * Biggest index that can be welded (The indexes are shifted by one so the missing index fits)
+     */
+    public final static int MAX_INDEX = (int) INDEX_MASK - 1;
+
+    /**
+     * Value of the index when the face does not specify it
+     */
+    public final static int NO_INDEX = -1;
+
+    /**
+     * Key of a slot that is free in the table (No triplet packs to zero)
+     */
+    private final static long EMPTY_KEY = 0L;
+
+    /**
+     * Minimum number of slots of the table
+     */
+    private final static int MIN_CAPACITY = 16;
+
+    /**
+     * Number of indexes of the triplet
+     */
+    private final static int INDEXES_BY_VERTEX = 3;
+
+    /**
+     * Packed triplets of the table
+     */
+    private long[] keys;
+
+    /**
+     * Welded vertex of each slot of the table
+     */
+    private int[] values;
+
+    /**
+     * Triplet (position, texture, normal) of each welded vertex
+     */
+    private final IntArrayList triplets;
+
+    /**
+     * Number of corners welded
+     */
+    private int cornersCount;
+
+    /**
+     * Constructor of the welder
+     *
+     * @param expectedVertices Number of vertices expected (Avoids that the table grows)
+     */
+    public VertexWelder(int expectedVertices) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedVertices * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.triplets = new IntArrayList(expectedVertices * INDEXES_BY_VERTEX);
+        this.cornersCount = 0;
+    }
+
+    /**
+     * @param index Index of the triplet
+     * @return The index shifted by one to fit in the key
+     */
+    private static long pack(int index) {
+        if ((index < NO_INDEX) || (index > MAX_INDEX)) {
+            throw new IllegalArgumentException("Index out of the range that can be welded: " + index);
+        }
+        return index + 1;
+    }
+
+    /**
+     * @param key The packed triplet
+     * @return Hash of the packed triplet (Finalizer of the murmur hash)
+     */
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Finds the welded vertex of one corner (Creates one if the triplet was never seen)
+     *
+     * @param vertexIndex  Index of the position of the corner
+     * @param textureIndex Index of the texture coordinate of the corner (NO_INDEX if none)
+     * @param normalIndex  Index of the normal of the corner (NO_INDEX if none)
+     * @return Index of the welded vertex
+     */
+    public int weld(int vertexIndex, int textureIndex, int normalIndex) {
+        if (vertexIndex == NO_INDEX) {
+            throw new IllegalArgumentException("The position of a corner is mandatory");
+        }
+        long key = (pack(vertexIndex) << (2 * BITS_BY_INDEX)) | (pack(textureIndex) << BITS_BY_INDEX) | pack(normalIndex);
+        cornersCount++;
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY_KEY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int vertex = getVertexCount();
+        keys[slot] = key;
+        values[slot] = vertex;
+        triplets.add(vertexIndex);
+        triplets.add(textureIndex);
+        triplets.add(normalIndex);
+
+        // Keeps the table at most half full
+        if ((vertex + 1) * 2 > keys.length) {
+            grow();
+        }
+        return vertex;
+    }
+
+    /**
+     * Doubles the capacity of the table
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        this.keys = new long[oldKeys.length << 1];
+        this.values = new int[oldValues.length << 1];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Forgets every vertex welded (Keeps the capacity)
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        triplets.clear();
+        this.cornersCount = 0;
+    }
+
+    /**
+     * @return Number of unique vertices welded
+     */
+    public int getVertexCount() {
+        return triplets.size() / INDEXES_BY_VERTEX;
+    }
+
+    /**
+     * @return Number of corners that were welded
+     */
+    public int getCornersCount() {
+        return cornersCount;
+    }
+
+    /**
+     * @param vertex Index of the welded vertex
+     * @return Index of the position of the welded vertex
+     */
+    public int getPositionIndex(int vertex) {
+        return triplets.get(vertex * INDEXES_BY_VERTEX);
+    }
+
+    /**
+     * @param vertex Index of the welded vertex
+     * @return Index of the texture coordinate of the welded vertex (NO_INDEX if none)
+     */
+    public int getTextureIndex(int vertex) {
+        return triplets.get(vertex * INDEXES_BY_VERTEX + 1);
+    }
+
+    /**
+     * @param vertex Index of the welded vertex
+     * @return Index of the normal of the welded vertex (NO_INDEX if none)
+     */
+    public int getNormalIndex(int vertex) {
+        return triplets.get(vertex * INDEXES_BY_VERTEX + 2);
+    }
+
+    /**
+     * @return Average number of corners that share each welded vertex (1 = no vertex reused)
+     */
+    public float getReuseRatio() {
+        int vertexCount = getVertexCount();
+        return (vertexCount == 0) ? 0.0f : ((float) cornersCount / vertexCount);
+    }
+}
@@ -0,0 +1,78 @@
+package com.dferreira.commons.atlas;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the placements of the MaxRects packer
+ */
+public class AtlasPackerTest {
+
+    /**
+     * @param a First rectangle (x, y, width, height)
+     * @param b Second rectangle (x, y, width, height)
+     * @return True if the rectangles overlap
+     */
+    static boolean overlap(int[] a, int[] b) {
+        return (a[0] < b[0] + b[2]) && (b[0] < a[0] + a[2]) && (a[1] < b[1] + b[3]) && (b[1] < a[1] + a[3]);
+    }
+
+    /**
+     * The rectangles packed stay inside of the bin, never overlap and the occupancy is their area
+     */
+    @Test
+    public void placesRectanglesWithoutOverlaps() {
+        AtlasPacker packer = new AtlasPacker(256, 128);
+        Random random = new Random(5);
+        List<int[]> placed = new ArrayList<>();
+        long area = 0;
+        for (int i = 0; i < 200; i++) {
+            int width = 4 + random.nextInt(29);
+            int height = 4 + random.nextInt(29);
+            int[] position = packer.insert(width, height);
+            if (position == null) {
+                continue;
+            }
+            int[] rectangle = {position[0], position[1], width, height};
+            assertTrue((rectangle[0] >= 0) && (rectangle[1] >= 0));
+            assertTrue((rectangle[0] + width <= 256) && (rectangle[1] + height <= 128));
+            for (int[] other : placed) {
+                assertFalse("Overlap of rectangles", overlap(rectangle, other));
+            }
+            placed.add(rectangle);
+            area += (long) width * height;
+            assertEquals((float) area / (256 * 128), packer.getOccupancy(), 1e-6f);
+        }
+        assertTrue(placed.size() > 20);
+        assertTrue(packer.getOccupancy() > 0.8f);
+    }
+
+    /**
+     * Rectangles of the same size fill the bin completely and the next one does not fit
+     */
+    @Test
+    public void fillsTheBinAndRefusesTheRest() {
+        AtlasPacker packer = new AtlasPacker(64, 64);
+        assertEquals(0.0f, packer.getOccupancy(), 0.0f);
+        for (int i = 0; i < 16; i++) {
+            assertNotNull(packer.insert(16, 16));
+        }
+        assertEquals(1.0f, packer.getOccupancy(), 0.0f);
+        assertNull(packer.insert(1, 1));
+
+        // A rectangle larger than the bin never fits
+        AtlasPacker empty = new AtlasPacker(64, 64);
+        assertNull(empty.insert(65, 8));
+        assertNull(empty.insert(8, 65));
+        assertEquals(0.0f, empty.getOccupancy(), 0.0f);
+    }
+}
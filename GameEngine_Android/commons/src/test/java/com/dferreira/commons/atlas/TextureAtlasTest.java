@@ -0,0 +1,178 @@
+package com.dferreira.commons.atlas;
+
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.WfObject;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the regions, the padding, the texture coordinates and the mip chain of the atlases
+ */
+public class TextureAtlasTest {
+
+    /**
+     * Texels around each texture (As the atlases of the models)
+     */
+    private static final int PADDING = 4;
+
+    /**
+     * Number of components of each texel (RGBA)
+     */
+    private static final int COMPONENTS = 4;
+
+    /**
+     * Creates a texture with every texel of the same color
+     *
+     * @param width  Width of the texture
+     * @param height Height of the texture
+     * @param red    Red of the texels (Tells the textures apart)
+     * @return The texture
+     */
+    private static TextureData texture(int width, int height, int red) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(width * height * COMPONENTS);
+        for (int i = 0; i < width * height; i++) {
+            buffer.put((byte) red).put((byte) 0).put((byte) 0).put((byte) 255);
+        }
+        buffer.flip();
+        return new TextureData(buffer, width, height);
+    }
+
+    /**
+     * @return Textures of several sizes by name
+     */
+    private static Map<String, TextureData> textures() {
+        Map<String, TextureData> textures = new LinkedHashMap<>();
+        int[][] sizes = {{64, 64}, {32, 16}, {16, 32}, {24, 24}, {8, 8}, {50, 10}, {10, 50}, {32, 32}};
+        for (int i = 0; i < sizes.length; i++) {
+            textures.put("texture" + i, texture(sizes[i][0], sizes[i][1], 10 + 20 * i));
+        }
+        return textures;
+    }
+
+    /**
+     * @param atlas The atlas
+     * @param x     Column of the texel
+     * @param y     Row of the texel
+     * @return The red of the texel of the base level
+     */
+    private static int red(TextureAtlas atlas, int x, int y) {
+        TextureData data = atlas.getTextureData();
+        return data.getBuffer().get((y * data.getWidth() + x) * COMPONENTS) & 0xFF;
+    }
+
+    /**
+     * The regions with their padding are inside of the atlas, never overlap and the padding repeats the border
+     */
+    @Test
+    public void regionsKeepThePaddingApart() {
+        Map<String, TextureData> textures = textures();
+        TextureAtlas atlas = TextureAtlas.build(textures, PADDING, 1024);
+
+        assertNotNull(atlas);
+        int width = atlas.getTextureData().getWidth(), height = atlas.getTextureData().getHeight();
+        assertEquals(textures.size(), atlas.getRegions().size());
+        List<int[]> padded = new ArrayList<>();
+        long area = 0;
+        for (Map.Entry<String, TextureData> entry : textures.entrySet()) {
+            AtlasRegion region = atlas.getRegion(entry.getKey());
+            assertTrue(atlas.contains(entry.getKey()));
+            assertEquals(entry.getValue().getWidth(), region.getWidth());
+            assertEquals(entry.getValue().getHeight(), region.getHeight());
+            int[] rectangle = {region.getX() - PADDING, region.getY() - PADDING, region.getWidth() + 2 * PADDING,
+                    region.getHeight() + 2 * PADDING};
+            assertTrue((rectangle[0] >= 0) && (rectangle[1] >= 0));
+            assertTrue((rectangle[0] + rectangle[2] <= width) && (rectangle[1] + rectangle[3] <= height));
+            for (int[] other : padded) {
+                assertFalse("Regions closer than the padding", AtlasPackerTest.overlap(rectangle, other));
+            }
+            padded.add(rectangle);
+            area += (long) rectangle[2] * rectangle[3];
+
+            // Every texel of the padding has the color of the texture
+            int red = entry.getValue().getBuffer().get(0) & 0xFF;
+            for (int y = rectangle[1]; y < rectangle[1] + rectangle[3]; y++) {
+                for (int x = rectangle[0]; x < rectangle[0] + rectangle[2]; x++) {
+                    assertEquals(red, red(atlas, x, y));
+                }
+            }
+        }
+        assertEquals((float) area / ((long) width * height), atlas.getOccupancy(), 1e-6f);
+    }
+
+    /**
+     * The textures that do not fit in the max size keep their own texture and no atlas is built without textures
+     */
+    @Test
+    public void leavesOutTheTexturesThatDoNotFit() {
+        Map<String, TextureData> textures = new LinkedHashMap<>();
+        textures.put("large", texture(200, 200, 1));
+        textures.put("small", texture(16, 16, 2));
+        TextureAtlas atlas = TextureAtlas.build(textures, PADDING, 128);
+
+        assertNotNull(atlas);
+        assertFalse(atlas.contains("large"));
+        assertNull(atlas.getRegion("large"));
+        assertTrue(atlas.contains("small"));
+        assertEquals(128, atlas.getTextureData().getWidth());
+        assertEquals(128, atlas.getTextureData().getHeight());
+
+        textures.remove("small");
+        assertNull(TextureAtlas.build(textures, PADDING, 128));
+    }
+
+    /**
+     * The texture coordinates in [0, 1] are put in the region of the texture
+     */
+    @Test
+    public void remapsTheTextureCoordinatesToTheRegion() {
+        TextureAtlas atlas = TextureAtlas.build(textures(), PADDING, 1024);
+        float[] textureCoords = {0.0f, 0.0f, 1.0f, 1.0f, 0.5f, 0.25f, -0.0005f, 1.0005f};
+        IShape shape = new WfObject(new float[12], textureCoords, new float[12], new int[]{0, 1, 2}, "shape", null);
+
+        IShape remapped = atlas.remap(shape, "texture1");
+        AtlasRegion region = atlas.getRegion("texture1");
+        float atlasWidth = atlas.getTextureData().getWidth(), atlasHeight = atlas.getTextureData().getHeight();
+        float[] expected = {region.getX() / atlasWidth, region.getY() / atlasHeight,
+                (region.getX() + 32) / atlasWidth, (region.getY() + 16) / atlasHeight,
+                (region.getX() + 16) / atlasWidth, (region.getY() + 4) / atlasHeight,
+                region.getX() / atlasWidth, (region.getY() + 16) / atlasHeight};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], remapped.getTextureCoords()[i], 1e-6f);
+        }
+        // The other attributes are kept and the original shape is not changed
+        assertSame(shape.getVertices(), remapped.getVertices());
+        assertSame(shape.getNormals(), remapped.getNormals());
+        assertEquals(1.0f, textureCoords[2], 0.0f);
+        assertTrue(TextureAtlas.isInUnitRange(shape));
+        // A texture that is not packed keeps the shape
+        assertSame(shape, atlas.remap(shape, "missing"));
+    }
+
+    /**
+     * The mip chain only keeps the levels where the padding still has at least one texel
+     */
+    @Test
+    public void trimsTheMipmapsToThePadding() {
+        // 4 texels of padding: the levels with 2 and 1 texels are kept
+        TextureData[] mipmaps = TextureAtlas.build(textures(), 4, 1024).getTextureData().getMipmaps();
+        assertEquals(2, mipmaps.length);
+        assertEquals(mipmaps[0].getWidth() / 2, mipmaps[1].getWidth());
+
+        assertEquals(3, TextureAtlas.build(textures(), 8, 1024).getTextureData().getMipmaps().length);
+        assertEquals(0, TextureAtlas.build(textures(), 1, 1024).getTextureData().getMipmaps().length);
+    }
+}
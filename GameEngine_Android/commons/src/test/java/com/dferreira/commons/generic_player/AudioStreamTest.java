@@ -0,0 +1,256 @@
+package com.dferreira.commons.generic_player;
+
+import com.dferreira.commons.generic_resources.AudioEnum;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the ring of buffers of the audio streams against an audio engine in memory
+ */
+public class AudioStreamTest {
+
+    /**
+     * Identifier of the source that plays the audio
+     */
+    private static final int SOURCE_ID = 7;
+
+    /**
+     * Number of buffers in the ring
+     */
+    private static final int BUFFERS_COUNT = 4;
+
+    /**
+     * Number of bytes of each buffer (Not a multiple of the stereo frames of 4 bytes)
+     */
+    private static final int BUFFER_SIZE = 1002;
+
+    /**
+     * Number of bytes of each buffer filled with stereo frames
+     */
+    private static final int FILLED_SIZE = 1000;
+
+    /**
+     * Audio engine of the stream
+     */
+    private final FakeAudioQueue queue = new FakeAudioQueue();
+
+    /**
+     * Creates a stream of an audio in memory
+     *
+     * @param provider The provider of the audio
+     * @return The stream
+     */
+    private AudioStream createStream(FakeAudioProvider provider) {
+        StreamingAudioDescription description = new StreamingAudioDescription(AudioEnum.wind, provider);
+        return new AudioStream(queue, description, SOURCE_ID, BUFFERS_COUNT, BUFFER_SIZE);
+    }
+
+    /**
+     * Checks that the samples put in the buffers are the audio from one position
+     *
+     * @param samples  The samples of one buffer
+     * @param position Position of the audio where the samples should start
+     */
+    private static void assertSamplesFrom(byte[] samples, int position) {
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(FakeAudioDecoder.byteAt(position + i), samples[i]);
+        }
+    }
+
+    /**
+     * The start fills every buffer of the ring with whole frames and plays them
+     */
+    @Test
+    public void startFillsTheRing() {
+        AudioStream stream = createStream(new FakeAudioProvider(100000, 2));
+
+        assertTrue(stream.start());
+        assertEquals(BUFFERS_COUNT, queue.genCount);
+        assertEquals(Arrays.asList(1, 2, 3, 4), queue.getQueued());
+        assertEquals(1, queue.playCount);
+        for (int i = 0; i < BUFFERS_COUNT; i++) {
+            assertEquals(FILLED_SIZE, queue.data.get(i).length);
+            assertSamplesFrom(queue.data.get(i), i * FILLED_SIZE);
+        }
+        assertEquals(BUFFERS_COUNT, stream.getBuffersFilledCount());
+        stream.stop();
+    }
+
+    /**
+     * The refill takes the buffers played from the start of the queue and puts them back at the end with the next
+     * samples
+     */
+    @Test
+    public void refillRequeuesThePlayedBuffers() {
+        AudioStream stream = createStream(new FakeAudioProvider(100000, 2));
+        stream.start();
+
+        // Nothing played yet, nothing to refill
+        assertTrue(stream.refill());
+        assertEquals(0, queue.unqueueCount);
+        assertEquals(BUFFERS_COUNT, queue.data.size());
+
+        queue.playBuffers(2);
+        assertTrue(stream.refill());
+
+        assertEquals(2, queue.unqueueCount);
+        assertEquals(Arrays.asList(3, 4, 1, 2), queue.getQueued());
+        assertEquals(Arrays.asList(1, 2, 3, 4, 1, 2), queue.dataBufferIds);
+        assertSamplesFrom(queue.data.get(4), 4 * FILLED_SIZE);
+        assertSamplesFrom(queue.data.get(5), 5 * FILLED_SIZE);
+        // The source was still playing
+        assertEquals(1, queue.playCount);
+        assertEquals(0, stream.getUnderrunsCount());
+        stream.stop();
+    }
+
+    /**
+     * The source that played every buffer before the refill plays again the buffers filled
+     */
+    @Test
+    public void refillRestartsTheSourceAfterAnUnderrun() {
+        AudioStream stream = createStream(new FakeAudioProvider(100000, 2));
+        stream.start();
+
+        queue.playBuffers(BUFFERS_COUNT);
+        assertTrue(stream.refill());
+
+        assertEquals(BUFFERS_COUNT, queue.getQueued().size());
+        assertEquals(2, queue.playCount);
+        assertEquals(1, stream.getUnderrunsCount());
+        stream.stop();
+    }
+
+    /**
+     * The stream ends after the source plays the last samples and releases the buffers and the decoder
+     */
+    @Test
+    public void endsAfterTheLastSamples() {
+        FakeAudioProvider provider = new FakeAudioProvider(2500, 2);
+        AudioStream stream = createStream(provider);
+
+        assertTrue(stream.start());
+        // The audio fits in two buffers and a half, the last one is not queued
+        assertEquals(Arrays.asList(1, 2, 3), queue.getQueued());
+        assertEquals(500, queue.data.get(2).length);
+
+        queue.playBuffers(2);
+        assertTrue(stream.refill());
+        assertEquals(Arrays.asList(3), queue.getQueued());
+        assertEquals(3, queue.data.size());
+        assertTrue(stream.isActive());
+
+        queue.playBuffers(1);
+        assertFalse(stream.refill());
+        assertFalse(stream.isActive());
+        assertEquals(Arrays.asList(1, 2, 3, 4), queue.deleted);
+        assertTrue(provider.decoders.get(0).closed);
+        assertFalse(stream.refill());
+    }
+
+    /**
+     * The stream that loops opens the audio again and fills the buffers without gaps
+     */
+    @Test
+    public void loopsToTheStartOfTheAudio() {
+        FakeAudioProvider provider = new FakeAudioProvider(2500, 2);
+        AudioStream stream = createStream(provider);
+        stream.setLoop(true);
+
+        assertTrue(stream.start());
+        for (int i = 0; i < 5; i++) {
+            queue.playBuffers(2);
+            assertTrue(stream.refill());
+        }
+
+        List<byte[]> data = queue.data;
+        assertEquals(BUFFERS_COUNT + 10, data.size());
+        int position = 0;
+        for (byte[] samples : data) {
+            assertEquals(FILLED_SIZE, samples.length);
+            for (byte sample : samples) {
+                assertEquals(FakeAudioDecoder.byteAt(position), sample);
+                position = (position + 1) % 2500;
+            }
+        }
+        // 14000 bytes are the audio 5 times and a part
+        assertEquals(6, provider.decoders.size());
+        assertTrue(provider.decoders.get(4).closed);
+        stream.stop();
+        assertTrue(provider.decoders.get(5).closed);
+    }
+
+    /**
+     * The loop set after the start opens the audio again even when the start decoded it until the end
+     * (As the players that set the loop after playing a short audio)
+     */
+    @Test
+    public void loopSetAfterTheEndStartsAgain() {
+        FakeAudioProvider provider = new FakeAudioProvider(2500, 2);
+        AudioStream stream = createStream(provider);
+
+        assertTrue(stream.start());
+        assertEquals(Arrays.asList(1, 2, 3), queue.getQueued());
+        stream.setLoop(true);
+
+        // The buffer left out of the queue is filled from the start of the audio
+        assertEquals(Arrays.asList(1, 2, 3, 4), queue.getQueued());
+        assertEquals(2, provider.decoders.size());
+        assertTrue(provider.decoders.get(0).closed);
+        for (int i = 0; i < 5; i++) {
+            queue.playBuffers(2);
+            assertTrue(stream.refill());
+        }
+        assertEquals(BUFFERS_COUNT, queue.getQueued().size());
+        int position = 0;
+        for (byte[] samples : queue.data) {
+            for (byte sample : samples) {
+                assertEquals(FakeAudioDecoder.byteAt(position), sample);
+                position = (position + 1) % 2500;
+            }
+        }
+
+        // Without the loop the stream ends again
+        stream.setLoop(false);
+        for (int i = 0; i < 10 && stream.refill(); i++) {
+            queue.playBuffers(BUFFERS_COUNT);
+        }
+        assertFalse(stream.isActive());
+    }
+
+    /**
+     * An empty audio does not loop forever and the stream does not start
+     */
+    @Test
+    public void emptyAudioDoesNotStart() {
+        AudioStream stream = createStream(new FakeAudioProvider(0, 2));
+        stream.setLoop(true);
+
+        assertFalse(stream.start());
+        assertFalse(stream.isActive());
+        assertEquals(0, queue.playCount);
+        assertEquals(BUFFERS_COUNT, queue.deleted.size());
+    }
+
+    /**
+     * The stream that could not create its buffers does not start
+     */
+    @Test
+    public void failedBufferStopsTheStart() {
+        queue.failingBufferId = 3;
+        FakeAudioProvider provider = new FakeAudioProvider(100000, 2);
+        AudioStream stream = createStream(provider);
+
+        assertFalse(stream.start());
+        assertEquals(0, queue.queueCount);
+        assertEquals(Arrays.asList(1, 2), queue.deleted);
+        assertTrue(provider.decoders.get(0).closed);
+    }
+}
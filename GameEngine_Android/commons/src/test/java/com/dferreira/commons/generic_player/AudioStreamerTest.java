@@ -0,0 +1,48 @@
+package com.dferreira.commons.generic_player;
+
+import com.dferreira.commons.generic_resources.AudioEnum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the audio streamer refills the streams until they end
+ */
+public class AudioStreamerTest {
+
+    /**
+     * The refills put the buffers played back in the queue and remove the streams that ended
+     */
+    @Test
+    public void refillsUntilTheStreamsEnd() {
+        FakeAudioQueue shortQueue = new FakeAudioQueue();
+        FakeAudioQueue longQueue = new FakeAudioQueue();
+        AudioStream shortStream = new AudioStream(shortQueue,
+                new StreamingAudioDescription(AudioEnum.bounce, new FakeAudioProvider(1000, 1)), 1, 2, 1000);
+        AudioStream longStream = new AudioStream(longQueue,
+                new StreamingAudioDescription(AudioEnum.wind, new FakeAudioProvider(100000, 1)), 2, 2, 1000);
+        // The period is long so only the refills of the test run
+        AudioStreamer streamer = new AudioStreamer(60000);
+        assertTrue(shortStream.start());
+        assertTrue(longStream.start());
+        streamer.add(shortStream);
+        streamer.add(longStream);
+
+        shortQueue.playBuffers(1);
+        longQueue.playBuffers(1);
+        streamer.refillAll();
+
+        assertEquals(1, streamer.getStreamsCount());
+        assertFalse(shortStream.isActive());
+        assertTrue(longStream.isActive());
+        assertEquals(3, longQueue.data.size());
+        assertEquals(2, longQueue.getQueued().size());
+
+        streamer.dispose();
+        assertEquals(0, streamer.getStreamsCount());
+        assertFalse(longStream.isActive());
+    }
+}
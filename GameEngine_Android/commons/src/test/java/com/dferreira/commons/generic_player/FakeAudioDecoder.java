@@ -0,0 +1,94 @@
+package com.dferreira.commons.generic_player;
+
+import com.dferreira.commons.generic_resources.IAudioStream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decoder of an audio in memory that gives its samples in small pieces
+ * (Each byte of the audio is its position modulo 251, so the tests can tell where each sample came from)
+ */
+class FakeAudioDecoder implements IAudioStream {
+
+    /**
+     * Largest number of bytes decoded in each read
+     */
+    private static final int BYTES_BY_READ = 300;
+
+    /**
+     * Number of bytes of the audio
+     */
+    private final int size;
+
+    /**
+     * Number of channels of the audio
+     */
+    private final int channels;
+
+    /**
+     * Number of bytes already decoded
+     */
+    private int position;
+
+    /**
+     * Flag that indicates that the decoder was closed
+     */
+    boolean closed;
+
+    /**
+     * @param size     Number of bytes of the audio
+     * @param channels Number of channels of the audio
+     */
+    FakeAudioDecoder(int size, int channels) {
+        this.size = size;
+        this.channels = channels;
+    }
+
+    /**
+     * @param position Position in the audio
+     * @return The byte of the audio in the position
+     */
+    static byte byteAt(int position) {
+        return (byte) (position % 251);
+    }
+
+    /**
+     * @return The number of channels of the audio
+     */
+    @Override
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * @return The sampling rate of the audio
+     */
+    @Override
+    public int getRate() {
+        return 22050;
+    }
+
+    /**
+     * @param pcm Where to put the samples decoded (From the position until the limit)
+     * @return The number of bytes decoded or -1 at the end of the audio
+     */
+    @Override
+    public int read(ByteBuffer pcm) {
+        if (position == size) {
+            return -1;
+        }
+        int count = Math.min(Math.min(BYTES_BY_READ, pcm.remaining()), size - position);
+        for (int i = 0; i < count; i++) {
+            pcm.put(byteAt(position++));
+        }
+        return count;
+    }
+
+    /**
+     * Marks the decoder as closed
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,107 @@
+package com.dferreira.commons.generic_player;
+
+import com.dferreira.commons.generic_resources.AudioEnum;
+import com.dferreira.commons.generic_resources.IAudioData;
+import com.dferreira.commons.generic_resources.IAudioStream;
+import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.generic_resources.TextEnum;
+import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.IShape;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provider that only opens streams of audio in memory (Keeps the decoders opened)
+ */
+class FakeAudioProvider implements IResourceProvider {
+
+    /**
+     * Number of bytes of the audio
+     */
+    private final int size;
+
+    /**
+     * Number of channels of the audio
+     */
+    private final int channels;
+
+    /**
+     * Decoders opened, in the order that they were opened
+     */
+    final List<FakeAudioDecoder> decoders = new ArrayList<>();
+
+    /**
+     * @param size     Number of bytes of the audio
+     * @param channels Number of channels of the audio
+     */
+    FakeAudioProvider(int size, int channels) {
+        this.size = size;
+        this.channels = channels;
+    }
+
+    /**
+     * @param modelEnum The model to load
+     * @return Always null
+     */
+    @Override
+    public List<IShape> getResource(ModelEnum modelEnum) {
+        return null;
+    }
+
+    /**
+     * @param textureEnum The texture to load
+     * @return Always null
+     */
+    @Override
+    public TextureData getResource(TextureEnum textureEnum) {
+        return null;
+    }
+
+    /**
+     * @param textureFileName Name of the file where the texture it is
+     * @return Always null
+     */
+    @Override
+    public TextureData getTexture(String textureFileName) {
+        return null;
+    }
+
+    /**
+     * @param textEnum The text to load
+     * @return Always null
+     */
+    @Override
+    public String getResource(TextEnum textEnum) {
+        return null;
+    }
+
+    /**
+     * @param audioEnum The audio to load
+     * @return Always null
+     */
+    @Override
+    public IAudioData getResource(AudioEnum audioEnum) {
+        return null;
+    }
+
+    /**
+     * @param audioEnum The audio to open
+     * @return A new decoder of the audio in memory
+     */
+    @Override
+    public IAudioStream openAudioStream(AudioEnum audioEnum) {
+        FakeAudioDecoder decoder = new FakeAudioDecoder(size, channels);
+        decoders.add(decoder);
+        return decoder;
+    }
+
+    /**
+     * Nothing to dispose
+     */
+    @Override
+    public void dispose() {
+    }
+}
@@ -0,0 +1,174 @@
+package com.dferreira.commons.generic_player;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Audio engine in memory with one source that plays its queue when the test asks
+ * (Records the calls so the tests can check what the stream did)
+ */
+class FakeAudioQueue implements IAudioQueue {
+
+    /**
+     * Identifier of the last buffer created
+     */
+    private int lastBufferId;
+
+    /**
+     * Buffers in the queue of the source (The first ones are the ones already played)
+     */
+    private final ArrayDeque<Integer> queued = new ArrayDeque<>();
+
+    /**
+     * Number of buffers in the start of the queue already played
+     */
+    private int processedCount;
+
+    /**
+     * Flag that indicates that the source is playing
+     */
+    private boolean playing;
+
+    /**
+     * Samples put in the buffers, in the order of the calls
+     */
+    final List<byte[]> data = new ArrayList<>();
+
+    /**
+     * Buffers that received each one of the samples of data
+     */
+    final List<Integer> dataBufferIds = new ArrayList<>();
+
+    /**
+     * Buffers deleted
+     */
+    final List<Integer> deleted = new ArrayList<>();
+
+    /**
+     * Number of calls to each method
+     */
+    int genCount;
+    int queueCount;
+    int unqueueCount;
+    int playCount;
+
+    /**
+     * Identifier of the next buffer that can not be created (-1 when every buffer can be created)
+     */
+    int failingBufferId = -1;
+
+    /**
+     * Plays buffers of the queue (The source stops when it plays every buffer)
+     *
+     * @param count Number of buffers to play
+     */
+    void playBuffers(int count) {
+        processedCount = Math.min(queued.size(), processedCount + count);
+        if (processedCount == queued.size()) {
+            playing = false;
+        }
+    }
+
+    /**
+     * @return The buffers in the queue of the source
+     */
+    List<Integer> getQueued() {
+        return new ArrayList<>(queued);
+    }
+
+    /**
+     * @return The identifier of a new buffer or -1 if was not possible to create
+     */
+    @Override
+    public int genBuffer() {
+        genCount++;
+        lastBufferId++;
+        return (lastBufferId == failingBufferId) ? -1 : lastBufferId;
+    }
+
+    /**
+     * Copies the samples of a buffer
+     *
+     * @param bufferId Identifier of the buffer
+     * @param channels Number of channels of the samples
+     * @param rate     Sampling rate of the samples
+     * @param pcm      Samples of 16 bits in the native order (From the position until the limit)
+     */
+    @Override
+    public void bufferData(int bufferId, int channels, int rate, ByteBuffer pcm) {
+        byte[] samples = new byte[pcm.remaining()];
+        pcm.duplicate().get(samples);
+        data.add(samples);
+        dataBufferIds.add(bufferId);
+    }
+
+    /**
+     * Adds a buffer to the end of the queue of the source
+     *
+     * @param sourceId Identifier of the source
+     * @param bufferId Identifier of the buffer
+     */
+    @Override
+    public void queueBuffer(int sourceId, int bufferId) {
+        queueCount++;
+        queued.add(bufferId);
+    }
+
+    /**
+     * Removes from the queue of the source the first buffer already played
+     *
+     * @param sourceId Identifier of the source
+     * @return The identifier of the buffer removed or -1 if none was played yet
+     */
+    @Override
+    public int unqueueProcessedBuffer(int sourceId) {
+        if (processedCount == 0) {
+            return -1;
+        }
+        unqueueCount++;
+        processedCount--;
+        return queued.poll();
+    }
+
+    /**
+     * Starts playing the queue of the source
+     *
+     * @param sourceId Identifier of the source
+     */
+    @Override
+    public void play(int sourceId) {
+        playCount++;
+        playing = true;
+    }
+
+    /**
+     * @param sourceId Identifier of the source
+     * @return True if the source played every buffer of the queue or was stopped
+     */
+    @Override
+    public boolean isStopped(int sourceId) {
+        return !playing;
+    }
+
+    /**
+     * Stops the source and removes every buffer from its queue
+     *
+     * @param sourceId Identifier of the source
+     */
+    @Override
+    public void stopAndClear(int sourceId) {
+        playing = false;
+        queued.clear();
+        processedCount = 0;
+    }
+
+    /**
+     * @param bufferId Identifier of the buffer to delete
+     */
+    @Override
+    public void deleteBuffer(int bufferId) {
+        deleted.add(bufferId);
+    }
+}
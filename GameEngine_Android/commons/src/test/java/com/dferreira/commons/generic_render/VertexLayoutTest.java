@@ -0,0 +1,98 @@
+package com.dferreira.commons.generic_render;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the strides and the offsets of the layouts of the interleaved vertices
+ */
+public class VertexLayoutTest {
+
+    /**
+     * Checks one attribute of a layout
+     *
+     * @param layout     The layout
+     * @param attribute  Attribute of the render engine
+     * @param components Number of components expected
+     * @param type       Type of the components expected
+     * @param normalized If the components are expected to be normalized
+     * @param offset     Offset of the attribute expected
+     */
+    private static void assertAttribute(VertexLayout layout, RenderAttributeEnum attribute, int components,
+                                        VertexComponentTypeEnum type, boolean normalized, int offset) {
+        VertexAttribute vertexAttribute = layout.get(attribute);
+        assertEquals(attribute, vertexAttribute.getAttribute());
+        assertEquals(components, vertexAttribute.getComponents());
+        assertEquals(type, vertexAttribute.getType());
+        assertEquals(normalized, vertexAttribute.isNormalized());
+        assertEquals(offset, vertexAttribute.getOffset());
+    }
+
+    /**
+     * Checks that every attribute and the stride of a layout are aligned to 4 bytes
+     *
+     * @param layout The layout
+     */
+    private static void assertAligned(VertexLayout layout) {
+        assertEquals(0, layout.getStride() % 4);
+        for (VertexAttribute attribute : layout.getAttributes()) {
+            assertEquals(0, attribute.getOffset() % 4);
+            assertTrue(attribute.getOffset() + attribute.getSize() <= layout.getStride());
+        }
+    }
+
+    /**
+     * The floats of a shape take 32 bytes by vertex without padding
+     */
+    @Test
+    public void floatLayoutPacksTheShape() {
+        VertexLayout layout = VertexLayout.floatLayout();
+
+        assertEquals(32, layout.getStride());
+        assertEquals(3, layout.getAttributes().size());
+        assertAttribute(layout, RenderAttributeEnum.position, 3, VertexComponentTypeEnum.FLOAT, false, 0);
+        assertAttribute(layout, RenderAttributeEnum.textureCoords, 2, VertexComponentTypeEnum.FLOAT, false, 12);
+        assertAttribute(layout, RenderAttributeEnum.normal, 3, VertexComponentTypeEnum.FLOAT, false, 20);
+        assertAligned(layout);
+    }
+
+    /**
+     * The quantized format takes 16 bytes by vertex, with the positions and the normals padded to 4 bytes
+     */
+    @Test
+    public void quantizedLayoutPadsToFourBytes() {
+        VertexLayout layout = VertexLayout.quantizedLayout();
+
+        assertEquals(16, layout.getStride());
+        assertAttribute(layout, RenderAttributeEnum.position, 3, VertexComponentTypeEnum.SHORT, true, 0);
+        assertAttribute(layout, RenderAttributeEnum.textureCoords, 2, VertexComponentTypeEnum.UNSIGNED_SHORT, true,
+                8);
+        assertAttribute(layout, RenderAttributeEnum.normal, 2, VertexComponentTypeEnum.BYTE, true, 12);
+        assertAligned(layout);
+    }
+
+    /**
+     * Every attribute added starts aligned, whatever the size of the one before, and only once in the layout
+     */
+    @Test
+    public void alignsTheAttributesAdded() {
+        VertexLayout layout = new VertexLayout()
+                .add(RenderAttributeEnum.normal, 1, VertexComponentTypeEnum.BYTE, true)
+                .add(RenderAttributeEnum.textureCoords, 3, VertexComponentTypeEnum.SHORT, false);
+
+        assertEquals(0, layout.get(RenderAttributeEnum.normal).getOffset());
+        assertEquals(4, layout.get(RenderAttributeEnum.textureCoords).getOffset());
+        assertEquals(12, layout.getStride());
+        assertNull(layout.get(RenderAttributeEnum.position));
+        assertAligned(layout);
+        try {
+            layout.add(RenderAttributeEnum.normal, 3, VertexComponentTypeEnum.FLOAT, false);
+            throw new AssertionError("Added the same attribute twice");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
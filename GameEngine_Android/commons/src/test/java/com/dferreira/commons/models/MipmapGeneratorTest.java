@@ -0,0 +1,206 @@
+package com.dferreira.commons.models;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the filter and the sizes of the mip chains built in the CPU
+ */
+public class MipmapGeneratorTest {
+
+    /**
+     * Number of components of each pixel (RGBA)
+     */
+    private static final int COMPONENTS = 4;
+
+    /**
+     * Creates a texture from its pixels
+     *
+     * @param width  Width of the texture
+     * @param height Height of the texture
+     * @param pixels Components of the pixels row by row (RGBA)
+     * @return The texture
+     */
+    private static TextureData texture(int width, int height, int... pixels) {
+        assertEquals(width * height * COMPONENTS, pixels.length);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(pixels.length);
+        for (int component : pixels) {
+            buffer.put((byte) component);
+        }
+        buffer.flip();
+        return new TextureData(buffer, width, height);
+    }
+
+    /**
+     * Creates a texture with every pixel of the same color
+     *
+     * @param width  Width of the texture
+     * @param height Height of the texture
+     * @param color  Components of the color (RGBA)
+     * @return The texture
+     */
+    private static TextureData uniform(int width, int height, int... color) {
+        int[] pixels = new int[width * height * COMPONENTS];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = color[i % COMPONENTS];
+        }
+        return texture(width, height, pixels);
+    }
+
+    /**
+     * @param level     Level of the mip chain
+     * @param x         Column of the pixel
+     * @param y         Row of the pixel
+     * @param component Component of the pixel
+     * @return The component of the pixel
+     */
+    private static int component(TextureData level, int x, int y, int component) {
+        return level.getBuffer().get((y * level.getWidth() + x) * COMPONENTS + component) & 0xFF;
+    }
+
+    /**
+     * @param texture The texture
+     * @return The last level of the mip chain of the texture
+     */
+    private static TextureData lastLevel(TextureData texture) {
+        MipmapGenerator.generate(texture);
+        TextureData[] mipmaps = texture.getMipmaps();
+        assertNotNull(mipmaps);
+        return mipmaps[mipmaps.length - 1];
+    }
+
+    /**
+     * Black and white average to the middle gray in linear space, brighter than the average of the sRGB values
+     */
+    @Test
+    public void averagesInLinearSpace() {
+        TextureData level = lastLevel(texture(2, 2,
+                0, 0, 0, 255, 255, 255, 255, 255,
+                255, 255, 255, 255, 0, 0, 0, 255));
+
+        // Half of the light in linear space is 188 in sRGB (The average of the sRGB values is 128)
+        for (int c = 0; c < 3; c++) {
+            assertEquals(188, component(level, 0, 0, c), 1);
+        }
+        assertEquals(255, component(level, 0, 0, 3));
+    }
+
+    /**
+     * The color of the transparent pixels does not bleed into the visible ones
+     */
+    @Test
+    public void weightsTheColorByTheAlpha() {
+        TextureData level = lastLevel(texture(2, 2,
+                255, 0, 0, 255, 0, 255, 0, 0,
+                0, 255, 0, 0, 0, 255, 0, 0));
+
+        assertEquals(255, component(level, 0, 0, 0));
+        assertEquals(0, component(level, 0, 0, 1));
+        assertEquals(0, component(level, 0, 0, 2));
+        assertEquals(64, component(level, 0, 0, 3));
+    }
+
+    /**
+     * A texture fully transparent keeps the average of its colors
+     */
+    @Test
+    public void keepsTheColorOfTransparentTextures() {
+        TextureData level = lastLevel(uniform(4, 4, 40, 80, 120, 0));
+
+        assertEquals(40, component(level, 0, 0, 0), 1);
+        assertEquals(80, component(level, 0, 0, 1), 1);
+        assertEquals(120, component(level, 0, 0, 2), 1);
+        assertEquals(0, component(level, 0, 0, 3));
+    }
+
+    /**
+     * The chain halves each side (Never below one) until the level of 1x1
+     */
+    @Test
+    public void buildsTheLevelsDownToOnePixel() {
+        TextureData texture = uniform(8, 2, 10, 20, 30, 255);
+        MipmapGenerator.generate(texture);
+        TextureData[] mipmaps = texture.getMipmaps();
+
+        assertEquals(4, MipmapGenerator.getLevelsCount(8, 2));
+        assertEquals(3, mipmaps.length);
+        int[][] sizes = {{4, 1}, {2, 1}, {1, 1}};
+        for (int i = 0; i < mipmaps.length; i++) {
+            assertEquals(sizes[i][0], mipmaps[i].getWidth());
+            assertEquals(sizes[i][1], mipmaps[i].getHeight());
+        }
+        assertEquals(1, MipmapGenerator.getLevelsCount(1, 1));
+        assertTrue(MipmapGenerator.isPowerOfTwo(64));
+        assertFalse(MipmapGenerator.isPowerOfTwo(48));
+    }
+
+    /**
+     * The sizes that are not powers of two round down and keep the color of a uniform texture
+     */
+    @Test
+    public void buildsTheLevelsOfOddSizes() {
+        TextureData texture = uniform(5, 3, 200, 100, 50, 255);
+        MipmapGenerator.generate(texture);
+        TextureData[] mipmaps = texture.getMipmaps();
+
+        assertEquals(2, mipmaps.length);
+        assertEquals(2, mipmaps[0].getWidth());
+        assertEquals(1, mipmaps[0].getHeight());
+        assertEquals(1, mipmaps[1].getWidth());
+        assertEquals(1, mipmaps[1].getHeight());
+        for (TextureData level : mipmaps) {
+            for (int x = 0; x < level.getWidth(); x++) {
+                assertEquals(200, component(level, x, 0, 0), 1);
+                assertEquals(100, component(level, x, 0, 1), 1);
+                assertEquals(50, component(level, x, 0, 2), 1);
+                assertEquals(255, component(level, x, 0, 3));
+            }
+        }
+    }
+
+    /**
+     * The last column of an odd width is not dropped
+     */
+    @Test
+    public void keepsTheLastColumnOfOddWidths() {
+        TextureData level = lastLevel(texture(3, 1,
+                0, 0, 0, 255, 0, 0, 0, 255, 255, 255, 255, 255));
+
+        // A third of the light in linear space is 156 in sRGB
+        assertEquals(156, component(level, 0, 0, 0), 1);
+    }
+
+    /**
+     * The pixels of an odd width in the middle are shared by the two pixels of the level below
+     */
+    @Test
+    public void splitsTheMiddlePixelOfOddWidths() {
+        TextureData texture = texture(5, 1,
+                0, 0, 0, 255, 0, 0, 0, 255, 0, 0, 0, 255, 0, 0, 0, 255, 255, 255, 255, 255);
+        MipmapGenerator.generate(texture);
+        TextureData level = texture.getMipmaps()[0];
+
+        assertEquals(0, component(level, 0, 0, 0));
+        // The white pixel covers 1 of the 2.5 pixels of the second one (0.4 of the light is 170 in sRGB)
+        assertEquals(170, component(level, 1, 0, 0), 1);
+    }
+
+    /**
+     * The last row of an odd height is not dropped
+     */
+    @Test
+    public void keepsTheLastRowOfOddHeights() {
+        TextureData level = lastLevel(texture(2, 3,
+                0, 0, 0, 255, 0, 0, 0, 255,
+                0, 0, 0, 255, 0, 0, 0, 255,
+                255, 255, 255, 255, 255, 255, 255, 255));
+
+        assertEquals(156, component(level, 0, 0, 1), 1);
+    }
+}
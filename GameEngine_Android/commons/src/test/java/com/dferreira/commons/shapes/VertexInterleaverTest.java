@@ -0,0 +1,109 @@
+package com.dferreira.commons.shapes;
+
+import com.dferreira.commons.generic_render.VertexLayout;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the bytes of the vertices interleaved from the shapes and from the quantized vertices
+ */
+public class VertexInterleaverTest {
+
+    /**
+     * @param bytes The bytes
+     * @return A direct buffer in the native order with the bytes
+     */
+    private static ByteBuffer bufferOf(int... bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).order(ByteOrder.nativeOrder());
+        for (int value : bytes) {
+            buffer.put((byte) value);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * The floats of each vertex are put one after the other in the order of the layout
+     */
+    @Test
+    public void interleavesTheFloatsOfAShape() {
+        float[] vertices = {1.0f, 2.0f, 3.0f, -4.0f, -5.0f, -6.0f};
+        float[] textureCoords = {0.25f, 0.5f, 0.75f, 1.0f};
+        float[] normals = {0.0f, 1.0f, 0.0f, 1.0f, 0.0f, 0.0f};
+        IShape shape = new WfObject(vertices, textureCoords, normals, new int[]{0, 1, 0}, "shape", null);
+
+        ByteBuffer buffer = VertexInterleaver.interleave(shape, VertexLayout.floatLayout());
+
+        assertEquals(ByteOrder.nativeOrder(), buffer.order());
+        assertEquals(2 * 32, buffer.limit());
+        float[] expected = {1.0f, 2.0f, 3.0f, 0.25f, 0.5f, 0.0f, 1.0f, 0.0f,
+                -4.0f, -5.0f, -6.0f, 0.75f, 1.0f, 1.0f, 0.0f, 0.0f};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], buffer.getFloat(i * 4), 0.0f);
+        }
+    }
+
+    /**
+     * The bytes of each attribute are copied to their offset and the padding is left at zero
+     */
+    @Test
+    public void interleavesTheQuantizedVertices() {
+        // Positions as four shorts (The last one is padding), two unsigned shorts and two bytes by vertex
+        QuantizedVertices vertices = new QuantizedVertices(
+                bufferOf(1, 2, 3, 4, 5, 6, 0, 0, 11, 12, 13, 14, 15, 16, 0, 0),
+                bufferOf(21, 22, 23, 24, 31, 32, 33, 34),
+                bufferOf(41, 42, 51, 52), null);
+
+        ByteBuffer buffer = VertexInterleaver.interleave(vertices, VertexLayout.quantizedLayout());
+
+        int[] expected = {1, 2, 3, 4, 5, 6, 0, 0, 21, 22, 23, 24, 41, 42, 0, 0,
+                11, 12, 13, 14, 15, 16, 0, 0, 31, 32, 33, 34, 51, 52, 0, 0};
+        assertEquals(expected.length, buffer.limit());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Byte " + i, expected[i], buffer.get(i));
+        }
+    }
+
+    /**
+     * The quantized vertices of a shape keep their bytes in the interleaved buffer
+     */
+    @Test
+    public void interleavesAQuantizedShape() {
+        float[] vertices = {-1.0f, 0.0f, 2.0f, 1.0f, 4.0f, -2.0f, 0.0f, 2.0f, 0.0f};
+        float[] textureCoords = {0.0f, 0.0f, 1.0f, 1.0f, 0.5f, 0.25f};
+        float[] normals = {0.0f, 1.0f, 0.0f, 0.0f, 0.0f, -1.0f, 1.0f, 0.0f, 0.0f};
+        IShape shape = new WfObject(vertices, textureCoords, normals, new int[]{0, 1, 2}, "shape", null);
+        QuantizedVertices quantized = VertexQuantizer.quantize(shape);
+
+        ByteBuffer buffer = VertexInterleaver.interleave(quantized, VertexLayout.quantizedLayout());
+
+        assertEquals(3 * 16, buffer.limit());
+        for (int i = 0; i < 3; i++) {
+            for (int b = 0; b < 6; b++) {
+                assertEquals(quantized.getPositions().get(i * QuantizedVertices.POSITION_BYTES + b),
+                        buffer.get(i * 16 + b));
+            }
+            for (int b = 0; b < 4; b++) {
+                assertEquals(quantized.getTextureCoords().get(i * QuantizedVertices.TEXTURE_BYTES + b),
+                        buffer.get(i * 16 + 8 + b));
+            }
+            for (int b = 0; b < 2; b++) {
+                assertEquals(quantized.getNormals().get(i * QuantizedVertices.NORMAL_BYTES + b),
+                        buffer.get(i * 16 + 12 + b));
+            }
+            assertEquals(0, buffer.getShort(i * 16 + 6));
+            assertEquals(0, buffer.getShort(i * 16 + 14));
+        }
+        // The extremes of the bounds are the extremes of the normalized values
+        assertEquals(-Short.MAX_VALUE, buffer.getShort(0));
+        assertEquals(Short.MAX_VALUE, buffer.getShort(16));
+        assertEquals(0, buffer.getShort(8));
+        assertEquals((short) 0xFFFF, buffer.getShort(16 + 8));
+        quantized.release();
+    }
+}
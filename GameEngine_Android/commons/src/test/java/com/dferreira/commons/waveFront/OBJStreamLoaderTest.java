@@ -0,0 +1,139 @@
+package com.dferreira.commons.waveFront;
+
+import com.dferreira.commons.generic_resources.ISubResourceProvider;
+import com.dferreira.commons.shapes.IExternalMaterial;
+import com.dferreira.commons.shapes.IShape;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that the streaming loader builds the same shapes as the loader of lines
+ * (Both compact the shapes and optimize them for the vertex cache)
+ */
+public class OBJStreamLoaderTest {
+
+    /**
+     * Loads the materials from the resources of the tests
+     */
+    private static final ISubResourceProvider MATERIALS_PROVIDER = new ISubResourceProvider() {
+        /**
+         * @param materialFileName The name of the file where the materials are
+         * @return The materials of the file
+         */
+        @Override
+        public HashMap<String, IExternalMaterial> getMaterials(String materialFileName) {
+            return MtlLoader.loadMaterials(openResource(materialFileName));
+        }
+    };
+
+    /**
+     * @param fileName Name of the file in the resources of the tests
+     * @return The stream of the file
+     */
+    private static InputStream openResource(String fileName) {
+        InputStream inputStream = OBJStreamLoaderTest.class.getResourceAsStream("/" + fileName);
+        assertNotNull("Missing resource " + fileName, inputStream);
+        return inputStream;
+    }
+
+    /**
+     * @param text Content of one waveFront file
+     * @return The stream of the content
+     */
+    private static InputStream streamOf(String text) {
+        return new ByteArrayInputStream(text.getBytes(Charset.forName("US-ASCII")));
+    }
+
+    /**
+     * Checks that two lists of shapes are the same
+     *
+     * @param expected Shapes of the loader of lines
+     * @param actual   Shapes of the streaming loader
+     */
+    private static void assertSameShapes(List<IShape> expected, List<IShape> actual) {
+        assertNotNull(expected);
+        assertNotNull(actual);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            IShape expectedShape = expected.get(i);
+            IShape actualShape = actual.get(i);
+            assertEquals(expectedShape.getGroupName(), actualShape.getGroupName());
+            assertArrayEquals(expectedShape.getVertices(), actualShape.getVertices(), 0.0f);
+            assertArrayEquals(expectedShape.getTextureCoords(), actualShape.getTextureCoords(), 0.0f);
+            assertArrayEquals(expectedShape.getNormals(), actualShape.getNormals(), 0.0f);
+            assertArrayEquals(expectedShape.getIndices(), actualShape.getIndices());
+            if (expectedShape.getMaterial() == null) {
+                assertNull(actualShape.getMaterial());
+            } else {
+                assertEquals(expectedShape.getMaterial().getName(), actualShape.getMaterial().getName());
+                assertEquals(expectedShape.getMaterial().getDiffuseTextureFileName(),
+                        actualShape.getMaterial().getDiffuseTextureFileName());
+            }
+        }
+    }
+
+    /**
+     * The shapes of the sample model are the same of the loader of lines
+     */
+    @Test
+    public void sampleModelMatchesOBJLoader() {
+        List<IShape> expected = OBJLoader.loadObjModel(openResource("sample.obj"), MATERIALS_PROVIDER);
+        List<IShape> actual = OBJStreamLoader.loadObjModel(openResource("sample.obj"), MATERIALS_PROVIDER);
+
+        assertEquals(3, expected.size());
+        assertSameShapes(expected, actual);
+    }
+
+    /**
+     * The floats parsed are the same of the parser of the platform in every format that the exporters write
+     * (Including the ones where rounding to a double first would round to the wrong float)
+     */
+    @Test
+    public void floatsMatchThePlatformParser() {
+        String[] tricky = {"1.0000000596046448", "1.00000005960464477", "1.000000059604645", "0.1", "-0.0",
+                "3.4028235e38", "1.4e-45", "1.17549435e-38", "123456789012345678901234", "9007199254740993",
+                "0.30000001192092896", "16777217", "1e22", "1e23", "2.5e-22"};
+        Random random = new Random(11);
+        String[] formats = {"%.6f", "%.7f", "%.9f", "%.3e", "%.10g", "%.17g", "%.16g"};
+        // The loader of lines needs a group or a material in the faces
+        StringBuilder text = new StringBuilder("o Points\n");
+        int verticesCount = 0;
+        for (int i = 0; i + 2 < tricky.length; i += 3) {
+            text.append("v ").append(tricky[i]).append(' ').append(tricky[i + 1]).append(' ')
+                    .append(tricky[i + 2]).append('\n');
+            verticesCount++;
+        }
+        for (int i = 0; i < 3000; i++) {
+            text.append('v');
+            for (int c = 0; c < 3; c++) {
+                String format = formats[random.nextInt(formats.length)];
+                double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 6);
+                text.append(' ').append(String.format(Locale.US, format, value));
+            }
+            text.append('\n');
+            verticesCount++;
+        }
+        text.append("vt 0.5 0.5\nvn 0 1 0\n");
+        for (int i = 1; i + 2 <= verticesCount; i += 3) {
+            text.append("f ").append(i).append("/1/1 ").append(i + 1).append("/1/1 ").append(i + 2)
+                    .append("/1/1\n");
+        }
+        String model = text.toString();
+
+        assertSameShapes(OBJLoader.loadObjModel(streamOf(model), MATERIALS_PROVIDER),
+                OBJStreamLoader.loadObjModel(streamOf(model), MATERIALS_PROVIDER));
+    }
+}
@@ -3,25 +3,33 @@ package com.dferreira.desktopUtils;
 import com.dferreira.commons.LoadUtils;
 import com.dferreira.commons.generic_resources.AudioEnum;
 import com.dferreira.commons.generic_resources.IAudioData;
+import com.dferreira.commons.generic_resources.IAudioStream;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ISubResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
 import com.dferreira.commons.generic_resources.TextEnum;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.MipmapGenerator;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.pack.PackFile;
 import com.dferreira.commons.shapes.IExternalMaterial;
 import com.dferreira.commons.shapes.IShape;
 import com.dferreira.commons.utils.Utils;
+import com.dferreira.commons.waveFront.CompiledMeshLoader;
 import com.dferreira.commons.waveFront.MtlLoader;
-import com.dferreira.commons.waveFront.OBJLoader;
+import com.dferreira.commons.waveFront.OBJStreamLoader;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.newdawn.slick.openal.OggData;
 import org.newdawn.slick.openal.OggDecoder;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.List;
 
@@ -63,6 +71,97 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
      */
     private final String OGG_EXTENSION = ".ogg";
 
+    /**
+     * Name of the pack with the resources of the game (Built by the ResourcePacker)
+     */
+    private final static String PACK_FILE_NAME = "resources" + PackFile.PACK_EXTENSION;
+
+    /**
+     * Pack with the resources of the game (null if there is no pack and the resources are loose files)
+     */
+    private final PackFile pack;
+
+    /**
+     * Constructor of the desktop resource provider
+     * (Opens the pack of the resources if there is one)
+     */
+    public DesktopResourceProvider() {
+        this.pack = openPack();
+    }
+
+    /**
+     * Copies the pack inside of the jar to a temporary file so it can be mapped instead of read to memory
+     *
+     * @return The temporary file with the pack or null if there is no pack in the jar or the copy failed
+     */
+    private static File extractPack() {
+        InputStream packStream = DesktopResourceProvider.class.getClassLoader().getResourceAsStream(PACK_FILE_NAME);
+        if (packStream == null) {
+            return null;
+        }
+        try {
+            File packFile = File.createTempFile("resources", PackFile.PACK_EXTENSION);
+            packFile.deleteOnExit();
+            Files.copy(packStream, packFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return packFile;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            try {
+                packStream.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return The pack of the resources of the game or null if there is none
+     */
+    private static PackFile openPack() {
+        File packFile = LoadUtils.getFileToResource(PACK_FILE_NAME);
+        if (packFile == null) {
+            // The pack is inside of the jar
+            packFile = extractPack();
+        }
+        PackFile pack = null;
+        if (packFile != null) {
+            pack = PackFile.open(packFile);
+        } else {
+            InputStream packStream = DesktopResourceProvider.class.getClassLoader().getResourceAsStream(PACK_FILE_NAME);
+            if (packStream != null) {
+                pack = PackFile.open(packStream);
+            }
+        }
+        if (pack != null) {
+            logger.info("Loading the resources from the pack with " + pack.getEntriesCount() + " entries");
+        }
+        return pack;
+    }
+
+    /**
+     * @param path Path of the resource
+     * @return True if the resource is in the pack of the resources
+     */
+    private boolean isInPack(String path) {
+        return (pack != null) && pack.contains(path);
+    }
+
+    /**
+     * Opens a resource from the pack or from the loose files if the pack does not have it
+     *
+     * @param path Path of the resource
+     * @return The stream of the resource or null if it was not found
+     */
+    private InputStream openResource(String path) {
+        if (isInPack(path)) {
+            return pack.getInputStream(path);
+        } else {
+            return LoadUtils.getInputStreamToResource(path);
+        }
+    }
+
     /**
      * @param textEnum The text that is to get the identifier
      * @return The path of the text passed in the arguments of the method
@@ -77,6 +176,9 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
      * @return The information of the texture to load
      */
     private TextureData pGetTexture(String filePath) {
+        if (isInPack(filePath)) {
+            return LoadUtils.loadTexture(pack.getInputStream(filePath));
+        }
         TextureData texture = LoadUtils.loadTexture(filePath);
         return texture;
     }
@@ -139,9 +241,33 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
 
         String objName = modelEnum.toString();
 
+        // Prefers the compiled version of the model if it exists
+        String compiledPath = RESOURCES_FOLDER + objName + CompiledMeshLoader.COMPILED_MESH_EXTENSION;
+        List<IShape> compiledShapes = null;
+        if (isInPack(compiledPath)) {
+            // Stored entries are slices of the mapped pack so the mesh is parsed without copies
+            ByteBuffer compiledBuffer = pack.getBuffer(compiledPath);
+            if (compiledBuffer != null) {
+                compiledShapes = CompiledMeshLoader.loadMesh(compiledBuffer, this);
+            }
+        } else {
+            File compiledFile = LoadUtils.getFileToResource(compiledPath);
+            if (compiledFile != null) {
+                compiledShapes = CompiledMeshLoader.loadMesh(compiledFile, this);
+            } else {
+                InputStream compiledStream = DesktopResourceProvider.class.getClassLoader().getResourceAsStream(compiledPath);
+                if (compiledStream != null) {
+                    compiledShapes = CompiledMeshLoader.loadMesh(compiledStream, this);
+                }
+            }
+        }
+        if (compiledShapes != null) {
+            return compiledShapes;
+        }
+
         try {
-            InputStream fr = LoadUtils.getInputStreamToResource(RESOURCES_FOLDER + objName + WAVEFRONT_EXTENSION);
-            List<IShape> shapes = OBJLoader.loadObjModel(fr, this);
+            InputStream fr = openResource(RESOURCES_FOLDER + objName + WAVEFRONT_EXTENSION);
+            List<IShape> shapes = OBJStreamLoader.loadObjModel(fr, this);
 
             return shapes;
         } catch (Exception e) {
@@ -172,7 +298,8 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
             return null;
         } else {
             String path = RESOURCES_FOLDER + textureFileName;
-            return pGetTexture(path);
+            // The mip chain is built here because the textures of the models are decoded in background
+            return MipmapGenerator.generate(pGetTexture(path));
         }
     }
 
@@ -184,6 +311,9 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
     @Override
     public String getResource(TextEnum textEnum) {
         String filePath = getResourcePath(textEnum);
+        if (isInPack(filePath)) {
+            return pack.getText(filePath);
+        }
         return LoadUtils.readTextFromRawResource(filePath);
     }
 
@@ -193,7 +323,7 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
      */
     @Override
     public HashMap<String, IExternalMaterial> getMaterials(String materialFileName) {
-        InputStream inputStream = LoadUtils.getInputStreamToResource(materialFileName);
+        InputStream inputStream = openResource(materialFileName);
         return MtlLoader.loadMaterials(inputStream);
     }
 
@@ -210,7 +340,7 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
         InputStream bin = null;
         OggData oggFile = null;
         try {
-            bin = LoadUtils.getInputStreamToResource(filePath);
+            bin = openResource(filePath);
             oggFile = oggDecoder.getData(bin);
 
             if (oggFile == null) {
@@ -236,6 +366,33 @@ public class DesktopResourceProvider implements IResourceProvider, ISubResourceP
         }
     }
 
+    /**
+     * Opens one audio to be decoded while it is played
+     *
+     * @param audioEnum The audio to open
+     * @return The stream of the audio or null if was not possible to open
+     */
+    @Override
+    public IAudioStream openAudioStream(AudioEnum audioEnum) {
+        String filePath = getResourcePath(audioEnum);
+        InputStream inputStream = openResource(filePath);
+        if (inputStream == null) {
+            System.err.println("Could not find the audio: " + filePath);
+            return null;
+        }
+        try {
+            return new OggAudioStream(inputStream);
+        } catch (Exception e) {
+            e.printStackTrace();
+            try {
+                inputStream.close();
+            } catch (IOException e1) {
+                e1.printStackTrace();
+            }
+            return null;
+        }
+    }
+
     /**
      * Dispose the resources used by the resource provider
      */
@@ -0,0 +1,188 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.ColorRGB;
+import com.dferreira.commons.ColorRGBA;
+import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.generic_render.IRawModel;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
+import com.dferreira.commons.generic_render.RecordingFrameRenderAPI;
+import com.dferreira.commons.generic_render.RecordingShaderManagerAPI;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.models.Light;
+import com.dferreira.commons.shapes.VertexQuantization;
+import com.dferreira.gameEngine.models.Player;
+import com.dferreira.gameEngine.models.complexEntities.Entity;
+import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
+import com.dferreira.gameEngine.models.complexEntities.LightingComponent;
+import com.dferreira.gameEngine.models.complexEntities.Material;
+import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
+import com.dferreira.gameEngine.models.complexEntities.RawModelMaterial;
+import com.dferreira.gameEngine.renderEngine.EntityRender;
+import com.dferreira.gameEngine.shaders.entities.EntityShaderManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the work done in the CPU by the entity render with and without instanced draws
+ * (The render runs against the recording backend so only the sort, the packing and the calls are measured)
+ */
+public class InstancingBenchmark {
+
+    /**
+     * Number of entities of each model when it is not passed (The world has 360 entities of 5 models)
+     */
+    private final static int DEFAULT_ENTITIES_BY_MODEL = 72;
+
+    /**
+     * Number of frames measured when it is not passed
+     */
+    private final static int DEFAULT_FRAMES = 2000;
+
+    /**
+     * Number of frames rendered before the measure (Lets the JIT compile the render)
+     */
+    private final static int WARM_UP_FRAMES = 500;
+
+    /**
+     * Size of the world where the entities are put
+     */
+    private final static float WORLD_SIZE = 800.0f;
+
+    /**
+     * Models of the world and if they have transparency
+     */
+    private final static ModelEnum[] MODELS = {ModelEnum.tree, ModelEnum.banana_tree, ModelEnum.fern,
+            ModelEnum.grass, ModelEnum.flower};
+    private final static boolean[] TRANSPARENT_MODELS = {false, false, true, true, true};
+
+    /**
+     * @return A raw model that only exists in the recording backend
+     */
+    private static IRawModel createRawModel() {
+        return new IRawModel() {
+            @Override
+            public VertexQuantization getQuantization() {
+                return null;
+            }
+
+            @Override
+            public IndexTypeEnum getIndexType() {
+                return IndexTypeEnum.UNSIGNED_SHORT;
+            }
+
+            @Override
+            public void dispose() {
+            }
+        };
+    }
+
+    /**
+     * @param modelEnum       The model
+     * @param hasTransparency If the model has transparency
+     * @return A generic entity with one part
+     */
+    private static GenericEntity createGenericEntity(ModelEnum modelEnum, boolean hasTransparency) {
+        LightingComponent diffuse = new LightingComponent();
+        diffuse.setTextureWeight(0.0f);
+        diffuse.setColor(new ColorRGBA(0.5f, 0.5f, 0.5f, 1.0f));
+        Material material = new Material();
+        material.setHasTransparency(hasTransparency);
+        material.setAlphaTested(hasTransparency);
+        material.setDiffuse(diffuse);
+
+        List<RawModelMaterial> parts = new ArrayList<>();
+        parts.add(new RawModelMaterial(createRawModel(), material));
+        HashMap<String, MaterialGroup> groupsOfMaterials = new HashMap<>();
+        groupsOfMaterials.put(modelEnum.toString(), new MaterialGroup(parts));
+        return new GenericEntity(groupsOfMaterials, modelEnum);
+    }
+
+    /**
+     * @param entitiesByModel Number of entities of each model
+     * @return The entities of the world grouped by model
+     */
+    private static Map<GenericEntity, List<Entity>> createEntities(int entitiesByModel) {
+        Random random = new Random(0);
+        Map<GenericEntity, List<Entity>> entities = new HashMap<>();
+        for (int i = 0; i < MODELS.length; i++) {
+            GenericEntity genericEntity = createGenericEntity(MODELS[i], TRANSPARENT_MODELS[i]);
+            List<Entity> batch = new ArrayList<>();
+            for (int j = 0; j < entitiesByModel; j++) {
+                Vector3f position = new Vector3f(random.nextFloat() * WORLD_SIZE, 0.0f,
+                        random.nextFloat() * -WORLD_SIZE);
+                batch.add(new Entity(genericEntity, position, 0.0f, random.nextFloat() * 360.0f, 0.0f, 1.0f));
+            }
+            entities.put(genericEntity, batch);
+        }
+        return entities;
+    }
+
+    /**
+     * Renders the entities several times and prints how long each frame took
+     *
+     * @param instancing      If the recording backend says that it can draw instances
+     * @param entities        The entities of the world
+     * @param player          The player of the world
+     * @param framesCount     Number of frames measured
+     */
+    private static void measure(boolean instancing, Map<GenericEntity, List<Entity>> entities, Player player,
+                                int framesCount) {
+        RecordingFrameRenderAPI frameRenderAPI = new RecordingFrameRenderAPI(instancing);
+        RecordingShaderManagerAPI shaderManagerAPI = new RecordingShaderManagerAPI();
+        GLTransformation matrix = new GLTransformation();
+        matrix.loadIdentity();
+        EntityRender entityRender = new EntityRender(new EntityShaderManager(shaderManagerAPI), matrix,
+                frameRenderAPI);
+
+        ColorRGBA skyColor = new ColorRGBA(0.5f, 0.5f, 0.5f, 1.0f);
+        Light[] lights = {new Light(new Vector3f(0.0f, 1000.0f, 0.0f), new ColorRGB(1.0f, 1.0f, 1.0f))};
+        Vector3f cameraPosition = new Vector3f(WORLD_SIZE / 2.0f, 10.0f, -WORLD_SIZE / 2.0f);
+
+        for (int i = 0; i < WARM_UP_FRAMES; i++) {
+            entityRender.render(skyColor, lights, matrix, cameraPosition, entities, player);
+        }
+        frameRenderAPI.reset();
+        long uploadsBefore = shaderManagerAPI.getUploads();
+        long start = System.nanoTime();
+        for (int i = 0; i < framesCount; i++) {
+            // Moves the camera so the order by depth changes between the frames
+            cameraPosition.x = (i % 100) * WORLD_SIZE / 100.0f;
+            entityRender.render(skyColor, lights, matrix, cameraPosition, entities, player);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println((instancing ? "Instanced" : "Not instanced") + ": "
+                + String.format("%.1f", elapsed / 1000.0 / framesCount) + " us/frame, "
+                + frameRenderAPI.getDrawCalls() / framesCount + " draws/frame, "
+                + frameRenderAPI.getInstancesDrawn() / framesCount + " instances/frame, "
+                + (shaderManagerAPI.getUploads() - uploadsBefore) / framesCount + " uniform uploads/frame, "
+                + frameRenderAPI.getTransformationFloats() * 4 / framesCount + " instance bytes/frame"
+                + " (checksum " + frameRenderAPI.getTransformationsChecksum() + ")");
+        entityRender.dispose();
+    }
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args the first argument is the number of entities of each model, the second the number of frames
+     */
+    public static void main(String[] args) {
+        int entitiesByModel = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_ENTITIES_BY_MODEL;
+        int framesCount = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_FRAMES;
+
+        Map<GenericEntity, List<Entity>> entities = createEntities(entitiesByModel);
+        GenericEntity playerEntity = createGenericEntity(ModelEnum.player, false);
+        Player player = new Player(playerEntity, new Vector3f(WORLD_SIZE / 2.0f, 0.0f, -WORLD_SIZE / 2.0f),
+                0.0f, 0.0f, 0.0f, 1.0f);
+
+        System.out.println("Rendering " + entitiesByModel * MODELS.length + " entities in " + framesCount
+                + " frames");
+        measure(false, entities, player, framesCount);
+        measure(true, entities, player, framesCount);
+    }
+}
@@ -0,0 +1,48 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.LoadUtils;
+import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.waveFront.CompiledMeshLoader;
+import com.dferreira.commons.waveFront.CompiledMeshWriter;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * Compiles the waveFront models of the game to the binary format
+ * (So the game does not need to parse the text of the models every time that starts)
+ */
+public class ModelCompiler {
+
+    /**
+     * Extension of wave front files files
+     */
+    private final static String WAVEFRONT_EXTENSION = ".obj";
+
+    /**
+     * Folder where the compiled models are written when it is not passed (The folder of the models)
+     */
+    private final static String DEFAULT_OUTPUT_FOLDER = ".";
+
+    /**
+     * Compiles every model of the game
+     *
+     * @param args the first argument is the folder where to write the compiled models
+     */
+    public static void main(String[] args) {
+        File outputFolder = new File((args.length > 0) ? args[0] : DEFAULT_OUTPUT_FOLDER);
+        DesktopResourceProvider resourceProvider = new DesktopResourceProvider();
+
+        for (ModelEnum modelEnum : ModelEnum.values()) {
+            String objName = modelEnum.toString();
+            InputStream inputStream = LoadUtils.getInputStreamToResource(objName + WAVEFRONT_EXTENSION);
+            File outputFile = new File(outputFolder, objName + CompiledMeshLoader.COMPILED_MESH_EXTENSION);
+
+            if ((inputStream != null) && CompiledMeshWriter.compile(inputStream, resourceProvider, outputFile)) {
+                System.out.println("Compiled " + objName + " to " + outputFile.getPath());
+            } else {
+                System.err.println("Could not compile : " + modelEnum);
+            }
+        }
+    }
+}
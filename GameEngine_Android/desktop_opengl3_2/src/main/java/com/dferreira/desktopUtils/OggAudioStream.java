@@ -0,0 +1,87 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.generic_resources.IAudioStream;
+
+import org.newdawn.slick.openal.OggInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes one OGG file incrementally (Only the pages needed to fill each buffer are decoded)
+ */
+public class OggAudioStream implements IAudioStream {
+
+    /**
+     * Size of the chunks decoded at once
+     */
+    private final static int CHUNK_SIZE = 4 * 1024;
+
+    /**
+     * Decoder of the OGG file (Gives the samples in the native order)
+     */
+    private final OggInputStream oggInputStream;
+
+    /**
+     * Chunk where the samples are decoded before put in the buffer
+     */
+    private final byte[] chunk;
+
+    /**
+     * @param inputStream Stream of the OGG file
+     * @throws IOException If the stream is not an OGG file
+     */
+    public OggAudioStream(InputStream inputStream) throws IOException {
+        this.oggInputStream = new OggInputStream(inputStream);
+        this.chunk = new byte[CHUNK_SIZE];
+    }
+
+    /**
+     * @return The number of channels of the audio
+     */
+    @Override
+    public int getChannels() {
+        return oggInputStream.getChannels();
+    }
+
+    /**
+     * @return The sampling rate of the audio
+     */
+    @Override
+    public int getRate() {
+        return oggInputStream.getRate();
+    }
+
+    /**
+     * Decodes the next samples of the audio
+     *
+     * @param pcm Where to put the samples decoded (From the position until the limit)
+     * @return The number of bytes decoded or -1 at the end of the audio
+     */
+    @Override
+    public int read(ByteBuffer pcm) {
+        try {
+            int read = oggInputStream.read(chunk, 0, Math.min(chunk.length, pcm.remaining()));
+            if (read > 0) {
+                pcm.put(chunk, 0, read);
+            }
+            return (read > 0) ? read : ((pcm.hasRemaining()) ? -1 : 0);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Releases the resources used by the decoder
+     */
+    @Override
+    public void close() {
+        try {
+            oggInputStream.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
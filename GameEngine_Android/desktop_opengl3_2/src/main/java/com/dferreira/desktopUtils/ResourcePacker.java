@@ -0,0 +1,50 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.pack.PackWriter;
+
+import java.io.File;
+
+/**
+ * Packs the resources of the game in one pack file
+ * (So the game maps one file instead of opening every resource alone)
+ */
+public class ResourcePacker {
+
+    /**
+     * Pack written when it is not passed
+     */
+    private final static String DEFAULT_OUTPUT_FILE = "resources.pack";
+
+    /**
+     * Folder of the resources when it is not passed
+     */
+    private final static String DEFAULT_RESOURCES_FOLDER = ".";
+
+    /**
+     * Packs the resources of the game
+     *
+     * @param args the first argument is the pack to write, the next ones are the folders with the resources
+     *             (The folders passed later replace the resources with the same name of the ones before)
+     */
+    public static void main(String[] args) {
+        File outputFile = new File((args.length > 0) ? args[0] : DEFAULT_OUTPUT_FILE);
+        PackWriter writer = new PackWriter();
+
+        if (args.length > 1) {
+            for (int i = 1; i < args.length; i++) {
+                if (!writer.addFolder(new File(args[i]), "")) {
+                    System.err.println("Could not pack the folder : " + args[i]);
+                }
+            }
+        } else {
+            writer.addFolder(new File(DEFAULT_RESOURCES_FOLDER), "");
+        }
+
+        if (writer.write(outputFile)) {
+            System.out.println("Packed " + writer.getEntriesCount() + " resources to " + outputFile.getPath()
+                    + " (" + writer.getOriginalBytes() + " bytes stored in " + writer.getStoredBytes() + ")");
+        } else {
+            System.err.println("Could not write the pack : " + outputFile.getPath());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.Frustum;
+import com.dferreira.commons.GLTransformation;
+import com.dferreira.gameEngine.models.spatialIndex.GenericSpatialIndex;
+import com.dferreira.gameEngine.models.spatialIndex.SpatialIndexTypeEnum;
+
+import java.util.Random;
+
+/**
+ * Measures the spatial indexes against walking all the entities with 1k, 100k and 1M entities
+ * (The entities are spread with the density of the world, one entity by 1800 square units)
+ */
+public class SpatialIndexBenchmark {
+
+    /**
+     * Numbers of entities measured when they are not passed
+     */
+    private final static int[] DEFAULT_ENTITIES_COUNTS = {1000, 100000, 1000000};
+
+    /**
+     * Area of the world by entity (The world has 360 entities in 800 x 800)
+     */
+    private final static float AREA_BY_ENTITY = 1800.0f;
+
+    /**
+     * Height of the region where the entities are
+     */
+    private final static float WORLD_HEIGHT = 40.0f;
+
+    /**
+     * Size of the smallest cells of the indexes
+     */
+    private final static float CELL_SIZE = 50.0f;
+
+    /**
+     * Radius of the queries around the player (The distance where the entities are listened)
+     */
+    private final static float QUERY_RADIUS = 50.0f;
+
+    /**
+     * Number of queries of each kind measured
+     */
+    private final static int QUERIES_COUNT = 10000;
+    private final static int FRUSTUM_QUERIES_COUNT = 200;
+
+    /**
+     * Parameters of the camera of the frustum queries
+     */
+    private final static float FOV = 45.0f;
+    private final static float CAMERA_RATE = 16.0f / 9.0f;
+    private final static float NEAR_PLANE = 0.1f;
+    private final static float FAR_PLANE = 1000.0f;
+
+    /**
+     * Spheres of the entities
+     */
+    private static float[] positionsX;
+    private static float[] positionsY;
+    private static float[] positionsZ;
+    private static float[] radii;
+
+    /**
+     * Sum of the results of the queries (Keeps the queries from being optimized away)
+     */
+    private static long checksum;
+
+    /**
+     * @param start Start of the measure in nanoseconds
+     * @param count Number of operations measured
+     * @return The time by operation in microseconds
+     */
+    private static String microsecondsBy(long start, int count) {
+        return String.format("%.3f", (System.nanoTime() - start) / 1000.0 / count);
+    }
+
+    /**
+     * Spreads the entities in a square of the world
+     *
+     * @param count     Number of entities
+     * @param worldSize Size of the side of the square
+     */
+    private static void createEntities(int count, float worldSize) {
+        Random random = new Random(0);
+        positionsX = new float[count];
+        positionsY = new float[count];
+        positionsZ = new float[count];
+        radii = new float[count];
+        for (int i = 0; i < count; i++) {
+            positionsX[i] = random.nextFloat() * worldSize;
+            positionsY[i] = random.nextFloat() * WORLD_HEIGHT;
+            positionsZ[i] = random.nextFloat() * worldSize;
+            // Mostly small plants and a few trees
+            radii[i] = (random.nextInt(10) == 0) ? 8.0f : 1.5f;
+        }
+    }
+
+    /**
+     * Finds the entities near a place walking all of them (What the entity player did before the index)
+     *
+     * @param x       X of the place
+     * @param y       Y of the place
+     * @param z       Z of the place
+     * @param results Where the indexes of the entities found are written
+     * @return The number of indexes written in results
+     */
+    private static int linearRadius(float x, float y, float z, int[] results) {
+        int count = 0;
+        for (int i = 0; (i < positionsX.length) && (count < results.length); i++) {
+            float dx = positionsX[i] - x, dy = positionsY[i] - y, dz = positionsZ[i] - z;
+            float reach = radii[i] + QUERY_RADIUS;
+            if (dx * dx + dy * dy + dz * dz <= reach * reach) {
+                results[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Measures one spatial index
+     *
+     * @param type      Structure of the index
+     * @param worldSize Size of the side of the world
+     * @param results   Where the results of the queries are written
+     */
+    private static void measure(SpatialIndexTypeEnum type, float worldSize, int[] results) {
+        int count = positionsX.length;
+        float half = worldSize / 2.0f;
+        GenericSpatialIndex<Integer> index = GenericSpatialIndex.create(type, CELL_SIZE, half, WORLD_HEIGHT / 2.0f,
+                half, half);
+        Integer item = 0;
+        int[] handles = new int[count];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            handles[i] = index.insert(item, positionsX[i], positionsY[i], positionsZ[i], radii[i]);
+        }
+        String insert = microsecondsBy(start, count);
+
+        // Moves a tenth of the entities a little, as they do between frames
+        Random random = new Random(1);
+        int moves = Math.max(count / 10, 1);
+        start = System.nanoTime();
+        for (int i = 0; i < moves; i++) {
+            int entity = random.nextInt(count);
+            positionsX[entity] += random.nextFloat() - 0.5f;
+            positionsZ[entity] += random.nextFloat() - 0.5f;
+            index.move(handles[entity], positionsX[entity], positionsY[entity], positionsZ[entity], radii[entity]);
+        }
+        String move = microsecondsBy(start, moves);
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES_COUNT; i++) {
+            checksum += index.queryRadius(random.nextFloat() * worldSize, WORLD_HEIGHT / 2.0f,
+                    random.nextFloat() * worldSize, QUERY_RADIUS, results);
+        }
+        String radius = microsecondsBy(start, QUERIES_COUNT);
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES_COUNT; i++) {
+            float x = random.nextFloat() * worldSize, z = random.nextFloat() * worldSize;
+            checksum += index.queryBox(x - QUERY_RADIUS, 0.0f, z - QUERY_RADIUS, x + QUERY_RADIUS, WORLD_HEIGHT,
+                    z + QUERY_RADIUS, results);
+        }
+        String box = microsecondsBy(start, QUERIES_COUNT);
+
+        GLTransformation projection = new GLTransformation();
+        projection.loadIdentity();
+        projection.perspective(FOV, CAMERA_RATE, NEAR_PLANE, FAR_PLANE);
+        Frustum frustum = new Frustum();
+        long found = 0;
+        long frustumTime = 0;
+        for (int i = 0; i < FRUSTUM_QUERIES_COUNT; i++) {
+            GLTransformation view = new GLTransformation();
+            view.loadIdentity();
+            view.rotate(random.nextFloat() * 360.0f, 0.0f, 1.0f, 0.0f);
+            view.translate(-random.nextFloat() * worldSize, -WORLD_HEIGHT, -random.nextFloat() * worldSize);
+            frustum.extract(projection, view);
+            start = System.nanoTime();
+            int visible = index.queryFrustum(frustum, results);
+            frustumTime += System.nanoTime() - start;
+            found += visible;
+        }
+        checksum += found;
+
+        System.out.println("  " + type + ": insert " + insert + " us, move " + move + " us, radius " + radius
+                + " us, box " + box + " us, frustum " + String.format("%.1f", frustumTime / 1000.0
+                / FRUSTUM_QUERIES_COUNT) + " us (" + found / FRUSTUM_QUERIES_COUNT + " found)");
+    }
+
+    /**
+     * Measures the spatial indexes with one number of entities
+     *
+     * @param count Number of entities
+     */
+    private static void measure(int count) {
+        float worldSize = (float) Math.sqrt(count * AREA_BY_ENTITY);
+        createEntities(count, worldSize);
+        int[] results = new int[count];
+        System.out.println(count + " entities in " + Math.round(worldSize) + " x " + Math.round(worldSize));
+
+        Random random = new Random(2);
+        int linearQueries = Math.max(1, Math.min(QUERIES_COUNT, 100000000 / count));
+        long start = System.nanoTime();
+        for (int i = 0; i < linearQueries; i++) {
+            checksum += linearRadius(random.nextFloat() * worldSize, WORLD_HEIGHT / 2.0f,
+                    random.nextFloat() * worldSize, results);
+        }
+        System.out.println("  linear scan: radius " + microsecondsBy(start, linearQueries) + " us");
+
+        for (SpatialIndexTypeEnum type : SpatialIndexTypeEnum.values()) {
+            measure(type, worldSize, results);
+        }
+    }
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args the numbers of entities to measure (1k, 100k and 1M when not passed)
+     */
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_ENTITIES_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        // The first run only lets the JIT compile the indexes
+        measure(counts[0]);
+        for (int count : counts) {
+            measure(count);
+        }
+        System.out.println("(checksum " + checksum + ")");
+    }
+}
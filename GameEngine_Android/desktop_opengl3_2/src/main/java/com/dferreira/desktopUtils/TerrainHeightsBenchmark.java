@@ -0,0 +1,205 @@
+package com.dferreira.desktopUtils;
+
+import com.dferreira.commons.Maths;
+import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.utils.WorkerPool;
+import com.dferreira.gameEngine.models.HeightField;
+import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.TerrainHeightsSampler;
+import com.dferreira.gameEngine.models.TerrainShape;
+
+import java.util.Random;
+
+/**
+ * Measures the samples of the heights of the terrain with 360 (The entities of the world), 10k, 100k and 1M
+ * positions, against the sample that built vectors to interpolate the heights
+ * (The batches with normals are measured in the calling thread and split between the cores of the shared pool,
+ * with one core both take the same path so the speedup of the pool can only be measured with several cores)
+ */
+public class TerrainHeightsBenchmark {
+
+    /**
+     * Numbers of positions measured when they are not passed
+     */
+    private final static int[] DEFAULT_POSITIONS_COUNTS = {360, 10000, 100000, 1000000};
+
+    /**
+     * Number of positions sampled in each measure (The batches are repeated until they reach it)
+     */
+    private final static int SAMPLES_BY_MEASURE = 20000000;
+
+    /**
+     * Largest height of the terrain measured
+     */
+    private final static float MAX_HEIGHT = 40.0f;
+
+    /**
+     * Heights of the terrain by x and z (As the terrain kept them before)
+     */
+    private static float[][] columns;
+
+    /**
+     * Sum of the heights sampled (Keeps the samples from being optimized away)
+     */
+    private static double checksum;
+
+    /**
+     * @param start Start of the measure in nanoseconds
+     * @param count Number of operations measured
+     * @return The time by operation in nanoseconds
+     */
+    private static String nanosecondsBy(long start, long count) {
+        return String.format("%.2f", (double) (System.nanoTime() - start) / count);
+    }
+
+    /**
+     * Creates a terrain with hills and some noise
+     *
+     * @return The terrain at the origin of the world
+     */
+    private static Terrain createTerrain() {
+        int vertexCount = TerrainShape.VERTEX_COUNT;
+        Random random = new Random(0);
+        float[] rows = new float[vertexCount * vertexCount];
+        columns = new float[vertexCount][vertexCount];
+        for (int z = 0; z < vertexCount; z++) {
+            for (int x = 0; x < vertexCount; x++) {
+                float height = (float) (MAX_HEIGHT * Math.sin(x / 9.0) * Math.cos(z / 13.0)) + random.nextFloat();
+                rows[z * vertexCount + x] = height;
+                columns[x][z] = height;
+            }
+        }
+        HeightField heights = new HeightField(rows, vertexCount, TerrainShape.SIZE);
+        return new Terrain(null, heights, null, new Vector3f(0.0f, 0.0f, 0.0f));
+    }
+
+    /**
+     * The height of the terrain interpolated with vectors (What the terrain did before the height field)
+     *
+     * @param terrainX X of the position relative to the terrain
+     * @param terrainZ Z of the position relative to the terrain
+     * @return The height in the position
+     */
+    private static float vectorsHeight(float terrainX, float terrainZ) {
+        float gridSquareSize = TerrainShape.SIZE / ((float) columns.length - 1);
+        int gridX = (int) Math.floor(terrainX / gridSquareSize);
+        int gridZ = (int) Math.floor(terrainZ / gridSquareSize);
+        if (gridX >= columns.length - 1 || gridZ >= columns.length - 1 || gridX < 0 || gridZ < 0) {
+            return 0;
+        }
+        float xCoord = (terrainX % gridSquareSize);
+        float zCoord = (terrainZ % gridSquareSize);
+        if (xCoord <= (gridSquareSize - zCoord)) {
+            return Maths.barryCentric(new Vector3f(0, columns[gridX][gridZ], 0),
+                    new Vector3f(gridSquareSize, columns[gridX + 1][gridZ], 0),
+                    new Vector3f(0, columns[gridX][gridZ + 1], gridSquareSize), new Vector2f(xCoord, zCoord));
+        } else {
+            return Maths.barryCentric(new Vector3f(gridSquareSize, columns[gridX + 1][gridZ], 0),
+                    new Vector3f(gridSquareSize, columns[gridX + 1][gridZ + 1], gridSquareSize),
+                    new Vector3f(0, columns[gridX][gridZ + 1], gridSquareSize), new Vector2f(xCoord, zCoord));
+        }
+    }
+
+    /**
+     * Measures the samples with one number of positions
+     *
+     * @param terrain The terrain to sample
+     * @param count   Number of positions
+     */
+    private static void measure(Terrain terrain, int count) {
+        Random random = new Random(1);
+        float[] positionsX = new float[count];
+        float[] positionsZ = new float[count];
+        for (int i = 0; i < count; i++) {
+            positionsX[i] = random.nextFloat() * TerrainShape.SIZE;
+            positionsZ[i] = random.nextFloat() * TerrainShape.SIZE;
+        }
+        float[] heights = new float[count];
+        float[] normals = new float[count * 3];
+        int repeats = Math.max(1, SAMPLES_BY_MEASURE / count);
+        long samples = (long) repeats * count;
+
+        long start = System.nanoTime();
+        for (int r = 0; r < repeats; r++) {
+            for (int i = 0; i < count; i++) {
+                checksum += vectorsHeight(positionsX[i], positionsZ[i]);
+            }
+        }
+        String vectors = nanosecondsBy(start, samples);
+
+        start = System.nanoTime();
+        for (int r = 0; r < repeats; r++) {
+            for (int i = 0; i < count; i++) {
+                checksum += terrain.getHeightOfTerrain(positionsX[i], positionsZ[i]);
+            }
+        }
+        String scalar = nanosecondsBy(start, samples);
+
+        start = System.nanoTime();
+        for (int r = 0; r < repeats; r++) {
+            terrain.getHeightsOfTerrain(positionsX, positionsZ, 0, count, heights, null);
+            checksum += heights[r % count];
+        }
+        String batch = nanosecondsBy(start, samples);
+
+        start = System.nanoTime();
+        for (int r = 0; r < repeats; r++) {
+            terrain.getHeightsOfTerrain(positionsX, positionsZ, 0, count, heights, normals);
+            checksum += normals[(r % count) * 3 + 1];
+        }
+        long batchTime = System.nanoTime() - start;
+        String batchNormals = nanosecondsBy(start, samples);
+
+        start = System.nanoTime();
+        for (int r = 0; r < repeats; r++) {
+            TerrainHeightsSampler.sample(terrain, positionsX, positionsZ, count, heights, normals);
+            checksum += heights[r % count];
+        }
+        long parallelTime = System.nanoTime() - start;
+        String parallel = nanosecondsBy(start, samples);
+
+        // The interpolations of both must give the same heights
+        float maxDifference = 0.0f;
+        for (int i = 0; i < count; i++) {
+            maxDifference = Math.max(maxDifference, Math.abs(heights[i] - vectorsHeight(positionsX[i],
+                    positionsZ[i])));
+        }
+
+        System.out.println(count + " positions: vectors " + vectors + " ns, scalar " + scalar + " ns, batch "
+                + batch + " ns, batch with normals " + batchNormals + " ns, parallel with normals " + parallel
+                + " ns, speedup of the parallel " + String.format("%.2f", (double) batchTime / parallelTime)
+                + " (largest difference " + maxDifference + ")");
+    }
+
+    /**
+     * Runs the benchmark
+     *
+     * @param args the numbers of positions to measure (360, 10k, 100k and 1M when not passed)
+     */
+    public static void main(String[] args) {
+        int[] counts = DEFAULT_POSITIONS_COUNTS;
+        if (args.length > 0) {
+            counts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                counts[i] = Integer.parseInt(args[i]);
+            }
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("Cores: " + cores + ", parallelism of the pool: "
+                + WorkerPool.getInstance().getParallelism());
+        if (cores < 2) {
+            System.out.println("With one core the parallel samples run in one thread (No speedup to measure)");
+        }
+        Terrain terrain = createTerrain();
+        // The first run only lets the JIT compile the samples
+        for (int count : counts) {
+            measure(terrain, count);
+        }
+        System.out.println("Measures:");
+        for (int count : counts) {
+            measure(terrain, count);
+        }
+        System.out.println("(checksum " + checksum + ")");
+    }
+}
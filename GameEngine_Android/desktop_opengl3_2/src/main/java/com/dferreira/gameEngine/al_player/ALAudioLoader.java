@@ -1,11 +1,14 @@
 package com.dferreira.gameEngine.al_player;
 
+import com.dferreira.commons.generic_player.AudioStreamer;
 import com.dferreira.commons.generic_player.IAudioDescription;
 import com.dferreira.commons.generic_player.IAudioLoader;
 import com.dferreira.commons.generic_player.IAudioSource;
 import com.dferreira.commons.generic_player.IListener;
+import com.dferreira.commons.generic_player.StreamingAudioDescription;
 import com.dferreira.commons.generic_resources.AudioEnum;
 import com.dferreira.commons.generic_resources.IAudioData;
+import com.dferreira.commons.generic_resources.IAudioStream;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.desktopUtils.OggAudioData;
 
@@ -34,6 +37,16 @@ public class ALAudioLoader implements IAudioLoader {
      */
     private IListener listener;
 
+    /**
+     * Queue of buffers used by the sources to stream the long sounds
+     */
+    private final ALAudioQueue audioQueue;
+
+    /**
+     * Refills the buffers of the sounds streamed
+     */
+    private final AudioStreamer audioStreamer;
+
     /**
      * Constructor of the loader class
      */
@@ -41,6 +54,8 @@ public class ALAudioLoader implements IAudioLoader {
         this.audioBuffers = new ArrayList<Integer>();
         this.audioSources = new ArrayList<Integer>();
         this.listener = new ALListener();
+        this.audioQueue = new ALAudioQueue();
+        this.audioStreamer = new AudioStreamer(AudioStreamer.DEFAULT_REFILL_PERIOD_MILLIS);
     }
 
     /**
@@ -59,7 +74,17 @@ public class ALAudioLoader implements IAudioLoader {
      */
     @Override
     public IAudioDescription loadAudio(AudioEnum audioEnum, IResourceProvider resourceProvider) {
-        IAudioData iOggFile = resourceProvider.getResource(audioEnum);
+        return loadAudio(resourceProvider.getResource(audioEnum));
+    }
+
+    /**
+     * Load one audio already decoded in a buffer
+     *
+     * @param iOggFile The audio decoded by the provider of resources
+     * @return The identifier of the buffer return by openAL
+     */
+    @Override
+    public IAudioDescription loadAudio(IAudioData iOggFile) {
         if (iOggFile == null) {
             return null;
         } else {
@@ -88,6 +113,25 @@ public class ALAudioLoader implements IAudioLoader {
         }
     }
 
+    /**
+     * Load one audio to be decoded while it is played
+     *
+     * @param audioEnum        Enumeration of the audio that is going to play
+     * @param resourceProvider The provider of resources that opens the streams of the audio
+     * @return The audio descriptor of the audio (null if the audio can not be streamed)
+     */
+    @Override
+    public IAudioDescription loadStreamingAudio(AudioEnum audioEnum, IResourceProvider resourceProvider) {
+        StreamingAudioDescription description = new StreamingAudioDescription(audioEnum, resourceProvider);
+        // Checks that the audio can be opened before the sources try to play it
+        IAudioStream stream = description.openStream();
+        if (stream == null) {
+            return null;
+        }
+        stream.close();
+        return description;
+    }
+
     /**
      * @param errorId
      * @return A string with description of the error
@@ -118,7 +162,7 @@ public class ALAudioLoader implements IAudioLoader {
         int sourceId = AL10.alGenSources();
         int errorId = AL10.alGetError();
         if (errorId == AL10.AL_NO_ERROR) {
-            return new ALAudioSource(sourceId);
+            return new ALAudioSource(sourceId, audioQueue, audioStreamer);
         } else {
             System.err.println(getALErrorString(errorId));
             return null;
@@ -148,6 +192,9 @@ public class ALAudioLoader implements IAudioLoader {
      */
     @Override
     public void dispose() {
+        // The streams release their buffers before the sources are deleted
+        this.audioStreamer.dispose();
+
         // Release of audio sources
         for (int sourceId : this.audioSources) {
             AL10.alSourceStop(sourceId);
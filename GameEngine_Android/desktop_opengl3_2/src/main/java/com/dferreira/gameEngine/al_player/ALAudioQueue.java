@@ -0,0 +1,100 @@
+package com.dferreira.gameEngine.al_player;
+
+import com.dferreira.commons.generic_player.IAudioQueue;
+
+import org.lwjgl.openal.AL10;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Queue of buffers of the sources of openAL (Used to stream the long sounds)
+ */
+public class ALAudioQueue implements IAudioQueue {
+
+    /**
+     * @return The identifier of a new buffer or -1 if was not possible to create
+     */
+    @Override
+    public int genBuffer() {
+        int bufferId = AL10.alGenBuffers();
+        return (AL10.alGetError() == AL10.AL_NO_ERROR) ? bufferId : -1;
+    }
+
+    /**
+     * Puts samples in a buffer
+     *
+     * @param bufferId Identifier of the buffer
+     * @param channels Number of channels of the samples
+     * @param rate     Sampling rate of the samples
+     * @param pcm      Samples of 16 bits in the native order
+     */
+    @Override
+    public void bufferData(int bufferId, int channels, int rate, ByteBuffer pcm) {
+        int audioFormat = channels > 1 ? AL10.AL_FORMAT_STEREO16 : AL10.AL_FORMAT_MONO16;
+        AL10.alBufferData(bufferId, audioFormat, pcm, rate);
+    }
+
+    /**
+     * Adds a buffer to the end of the queue of a source
+     *
+     * @param sourceId Identifier of the source
+     * @param bufferId Identifier of the buffer
+     */
+    @Override
+    public void queueBuffer(int sourceId, int bufferId) {
+        AL10.alSourceQueueBuffers(sourceId, bufferId);
+    }
+
+    /**
+     * Removes from the queue of a source the first buffer already played
+     *
+     * @param sourceId Identifier of the source
+     * @return The identifier of the buffer removed or -1 if none was played yet
+     */
+    @Override
+    public int unqueueProcessedBuffer(int sourceId) {
+        if (AL10.alGetSourcei(sourceId, AL10.AL_BUFFERS_PROCESSED) <= 0) {
+            return -1;
+        }
+        return AL10.alSourceUnqueueBuffers(sourceId);
+    }
+
+    /**
+     * Starts playing the queue of a source
+     *
+     * @param sourceId Identifier of the source
+     */
+    @Override
+    public void play(int sourceId) {
+        AL10.alSourcePlay(sourceId);
+    }
+
+    /**
+     * @param sourceId Identifier of the source
+     * @return True if the source stopped
+     */
+    @Override
+    public boolean isStopped(int sourceId) {
+        return AL10.alGetSourcei(sourceId, AL10.AL_SOURCE_STATE) == AL10.AL_STOPPED;
+    }
+
+    /**
+     * Stops a source and removes every buffer from its queue
+     *
+     * @param sourceId Identifier of the source
+     */
+    @Override
+    public void stopAndClear(int sourceId) {
+        AL10.alSourceStop(sourceId);
+        // Detaching the buffer of a stopped source empties its queue
+        AL10.alSourcei(sourceId, AL10.AL_BUFFER, 0);
+    }
+
+    /**
+     * @param bufferId Identifier of the buffer to delete
+     */
+    @Override
+    public void deleteBuffer(int bufferId) {
+        AL10.alDeleteBuffers(bufferId);
+    }
+}
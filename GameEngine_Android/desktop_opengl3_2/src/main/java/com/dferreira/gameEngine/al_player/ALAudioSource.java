@@ -1,8 +1,12 @@
 package com.dferreira.gameEngine.al_player;
 
 import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.generic_player.AudioStream;
+import com.dferreira.commons.generic_player.AudioStreamer;
 import com.dferreira.commons.generic_player.IAudioDescription;
+import com.dferreira.commons.generic_player.IAudioQueue;
 import com.dferreira.commons.generic_player.IAudioSource;
+import com.dferreira.commons.generic_player.StreamingAudioDescription;
 
 import org.lwjgl.openal.AL10;
 
@@ -17,16 +21,40 @@ public class ALAudioSource implements IAudioSource {
     private final int id;
 
     /**
-     * Reference to the buffer currently in the source if any
+     * Queue of buffers used to stream the long sounds
      */
-    private ALAudioDescription buffer;
+    private final IAudioQueue audioQueue;
 
     /**
-     * @param sourceId Identifier of the source in openAL
+     * Refills the buffers of the sounds streamed
      */
-    public ALAudioSource(int sourceId) {
+    private final AudioStreamer audioStreamer;
+
+    /**
+     * Reference to the audio currently in the source if any
+     */
+    private IAudioDescription buffer;
+
+    /**
+     * Stream of the audio currently in the source if it is streamed
+     */
+    private AudioStream stream;
+
+    /**
+     * If the source should play over and over again the audio
+     */
+    private boolean loop;
+
+    /**
+     * @param sourceId      Identifier of the source in openAL
+     * @param audioQueue    Queue of buffers used to stream the long sounds
+     * @param audioStreamer Refills the buffers of the sounds streamed
+     */
+    public ALAudioSource(int sourceId, IAudioQueue audioQueue, AudioStreamer audioStreamer) {
         super();
         this.id = sourceId;
+        this.audioQueue = audioQueue;
+        this.audioStreamer = audioStreamer;
     }
 
     /**
@@ -52,14 +80,30 @@ public class ALAudioSource implements IAudioSource {
      */
     @Override
     public void play(IAudioDescription audioDescriptor) {
+        if (audioDescriptor == null) {
+            // The audio is not loaded yet
+            return;
+        }
         this.stop();
-        this.buffer = (ALAudioDescription) audioDescriptor;
-        int bufferId = buffer.getBufferId();
-
-
-        // Associate the buffer with the source (Put the CD into the player)
-        AL10.alSourcei(this.id, AL10.AL_BUFFER, bufferId);
-        AL10.alSourcePlay(this.id);
+        this.buffer = audioDescriptor;
+
+        if (audioDescriptor instanceof StreamingAudioDescription) {
+            // The looping is done by the stream, the source only plays the buffers queued
+            AL10.alSourcei(this.id, AL10.AL_LOOPING, AL10.AL_FALSE);
+            AudioStream audioStream = new AudioStream(audioQueue, (StreamingAudioDescription) audioDescriptor, this.id,
+                    AudioStream.DEFAULT_BUFFERS_COUNT, AudioStream.DEFAULT_BUFFER_SIZE);
+            audioStream.setLoop(loop);
+            if (audioStream.start()) {
+                this.stream = audioStream;
+                audioStreamer.add(audioStream);
+            }
+        } else {
+            int bufferId = ((ALAudioDescription) audioDescriptor).getBufferId();
+
+            // Associate the buffer with the source (Put the CD into the player)
+            AL10.alSourcei(this.id, AL10.AL_BUFFER, bufferId);
+            AL10.alSourcePlay(this.id);
+        }
     }
 
     /**
@@ -90,6 +134,11 @@ public class ALAudioSource implements IAudioSource {
     @Override
     public void stop() {
         this.buffer = null;
+        if (stream != null) {
+            audioStreamer.remove(stream);
+            stream.stop();
+            stream = null;
+        }
         AL10.alSourceStop(this.id);
     }
 
@@ -102,7 +151,12 @@ public class ALAudioSource implements IAudioSource {
      */
     @Override
     public void setLoop(boolean loop) {
-        AL10.alSourcei(this.id, AL10.AL_LOOPING, (loop) ? AL10.AL_TRUE : AL10.AL_FALSE);
+        this.loop = loop;
+        if (stream != null) {
+            stream.setLoop(loop);
+        } else {
+            AL10.alSourcei(this.id, AL10.AL_LOOPING, (loop) ? AL10.AL_TRUE : AL10.AL_FALSE);
+        }
     }
 
     /**
@@ -111,7 +165,9 @@ public class ALAudioSource implements IAudioSource {
      */
     @Override
     public boolean isPlaying() {
-        return AL10.alGetSourcei(this.id, AL10.AL_SOURCE_STATE) == AL10.AL_PLAYING;
+        int state = AL10.alGetSourcei(this.id, AL10.AL_SOURCE_STATE);
+        // A stream that played every buffer before the refill is still playing
+        return (state == AL10.AL_PLAYING) || ((state == AL10.AL_STOPPED) && (stream != null) && stream.isActive());
     }
 
     /**
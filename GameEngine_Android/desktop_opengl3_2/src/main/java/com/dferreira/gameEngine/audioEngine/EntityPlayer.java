@@ -9,8 +9,11 @@ import com.dferreira.commons.generic_resources.ModelEnum;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.gameEngine.models.Player;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
+import com.dferreira.gameEngine.models.spatialIndex.EntitySpatialIndex;
+import com.dferreira.gameEngine.models.spatialIndex.SpatialIndexTypeEnum;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,6 +37,22 @@ public class EntityPlayer {
     private float ROUGH_THRESHOLD = 10;
     private float CRASH_THRESHOLD = 2;
 
+    /**
+     * Structure and size of the cells of the index used to find the entities near the player
+     */
+    private final static SpatialIndexTypeEnum SPATIAL_INDEX_TYPE = SpatialIndexTypeEnum.looseGrid;
+    private final static float SPATIAL_INDEX_CELL_SIZE = 50.0f;
+
+    /**
+     * Region where most of the entities are (Only used when the index is an octree)
+     */
+    private final static float WORLD_HALF_SIZE = 1000.0f;
+
+    /**
+     * Number of entities near the player that the array of the results has space for when created
+     */
+    private final static int INITIAL_NEAR_ENTITIES = 64;
+
     /**
      * List of sound sources available to the entity player
      */
@@ -49,6 +68,16 @@ public class EntityPlayer {
      */
     private Map<Entity, IAudioSource> sourcesAssign;
 
+    /**
+     * Index of the entities by position (So only the entities near the player are walked)
+     */
+    private final EntitySpatialIndex entitiesIndex;
+
+    /**
+     * Handles of the entities near the player found by the index
+     */
+    private int[] nearEntities;
+
     /**
      * Constructor of the entity player
      */
@@ -58,6 +87,9 @@ public class EntityPlayer {
             this.playerSource = this.sourcesAvailable.remove(this.sourcesAvailable.size() - 1);
         }
         this.sourcesAssign = new HashMap<Entity, IAudioSource>();
+        this.entitiesIndex = new EntitySpatialIndex(SPATIAL_INDEX_TYPE, SPATIAL_INDEX_CELL_SIZE, 0.0f, 0.0f, 0.0f,
+                WORLD_HALF_SIZE);
+        this.nearEntities = new int[INITIAL_NEAR_ENTITIES];
     }
 
     /**
@@ -129,33 +161,56 @@ public class EntityPlayer {
         return roughApproximation(pPosition, ePosition, SOUND_THRESHOLD);
     }
 
+    /**
+     * Finds the entities that may pass the threshold of the player
+     *
+     * @param pPosition The position of player to take in account
+     * @return The number of handles of entities written in the near entities
+     */
+    private int findNearEntities(Vector3f pPosition) {
+        while (true) {
+            int count = entitiesIndex.queryBox(pPosition.x - SOUND_THRESHOLD, pPosition.y - SOUND_THRESHOLD,
+                    pPosition.z - SOUND_THRESHOLD, pPosition.x + SOUND_THRESHOLD, pPosition.y + SOUND_THRESHOLD,
+                    pPosition.z + SOUND_THRESHOLD, nearEntities);
+            if (count < nearEntities.length) {
+                return count;
+            }
+            // Some entities may not fit
+            nearEntities = new int[nearEntities.length * 2];
+        }
+    }
+
     /**
      * Assign audio sources to the entities	taking in account the position of the player
+     * (The sources of the entities that went far are released first, then the index gives the entities near)
      *
      * @param player   The player of the scene and also the listener
      * @param entities Set of entities that should provide sound feedback
      */
     private void assignSources(Player player, Entity[] entities) {
         if ((player != null) && (!Utils.isEmpty(entities))) {
+            entitiesIndex.setEntities(entities);
             Vector3f pPosition = player.getPosition();
-            for (Entity entity : entities) {
-                if (passesThreshold(pPosition, entity.getPosition())) {
-                    // Can not assign nothing
-                    if (sourcesAvailable.isEmpty()) {
-                        continue;
-                    }
-                    // Check is a source was already assign
-                    if (!sourcesAssign.containsKey(entity)) {
-                        IAudioSource aSource = sourcesAvailable.remove(sourcesAvailable.size() - 1);
-                        sourcesAssign.put(entity, aSource);
-                    }
-                } else {
-                    // Not passed threshold
-                    if (sourcesAssign.containsKey(entity)) {
-                        IAudioSource aSource = sourcesAssign.remove(entity);
-                        aSource.stop();
-                        this.sourcesAvailable.add(aSource);
-                    }
+
+            // Not passed threshold
+            Iterator<Map.Entry<Entity, IAudioSource>> iterator = sourcesAssign.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Entity, IAudioSource> entry = iterator.next();
+                if (!passesThreshold(pPosition, entry.getKey().getPosition())) {
+                    IAudioSource aSource = entry.getValue();
+                    aSource.stop();
+                    this.sourcesAvailable.add(aSource);
+                    iterator.remove();
+                }
+            }
+
+            int count = findNearEntities(pPosition);
+            for (int i = 0; (i < count) && (!sourcesAvailable.isEmpty()); i++) {
+                Entity entity = entitiesIndex.get(nearEntities[i]);
+                // Check is a source was already assign
+                if (passesThreshold(pPosition, entity.getPosition()) && (!sourcesAssign.containsKey(entity))) {
+                    IAudioSource aSource = sourcesAvailable.remove(sourcesAvailable.size() - 1);
+                    sourcesAssign.put(entity, aSource);
                 }
             }
         }
@@ -287,6 +342,7 @@ public class EntityPlayer {
      * Clean up because we need to clean up when we finish the program
      */
     public void dispose() {
+        this.entitiesIndex.clear();
 
     }
 }
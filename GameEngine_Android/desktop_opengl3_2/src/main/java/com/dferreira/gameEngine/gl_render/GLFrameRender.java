@@ -4,28 +4,164 @@ import com.dferreira.commons.IEnum;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.VertexAttribute;
+import com.dferreira.commons.generic_render.VertexLayout;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.ARBDrawElementsBaseVertex;
+import org.lwjgl.opengl.ARBInstancedArrays;
+import org.lwjgl.opengl.ContextCapabilities;
 import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.opengl.GLContext;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Contains useful methods when is render on frame using OpenGL
  */
 class GLFrameRender implements IFrameRenderAPI {
 
+    private final static Logger logger = LogManager.getLogger(GLFrameRender.class);
+
+    /**
+     * Size of the buffer where the transformations of the instances are streamed
+     */
+    private final static int INSTANCE_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Size of the transformation of one instance (Matrix of 4x4 floats)
+     */
+    private final static int MATRIX_FLOATS = 16;
+    private final static int MATRIX_BYTES = MATRIX_FLOATS * 4;
+
+    /**
+     * Number of columns of the transformation (Each column takes one attribute)
+     */
+    private final static int MATRIX_COLUMNS = 4;
+    private final static int COLUMN_BYTES = MATRIX_BYTES / MATRIX_COLUMNS;
+
+    /**
+     * Flags used to map the part of the instance buffer that is going to be written
+     * (Unsynchronized because the part written was not used by the draws still in flight)
+     */
+    private final static int INSTANCE_MAP_ACCESS = GL30.GL_MAP_WRITE_BIT | GL30.GL_MAP_INVALIDATE_RANGE_BIT
+            | GL30.GL_MAP_UNSYNCHRONIZED_BIT;
+
+    /**
+     * Shadow copy of the state used to filter the calls that would not change it
+     */
+    private final GLStateCache stateCache;
+
+    /**
+     * If the context can draw instances (null while was not checked)
+     */
+    private Boolean instancingSupported;
+
+    /**
+     * If the divisor of the attributes is in the core of the context (Otherwise comes from ARB_instanced_arrays)
+     */
+    private boolean coreDivisor;
+
+    /**
+     * If the context can draw ranges of indexes relative to a base vertex (null while was not checked)
+     */
+    private Boolean drawRangeSupported;
+
+    /**
+     * If the draws with a base vertex are in the core of the context (Otherwise come from
+     * ARB_draw_elements_base_vertex)
+     */
+    private boolean coreBaseVertex;
+
+    /**
+     * Buffer where the transformations of the instances are streamed (0 while was not created)
+     */
+    private int instanceBufferId;
+
+    /**
+     * Position in the instance buffer where the next transformations are written
+     */
+    private int instanceBufferOffset;
+
+    /**
+     * Last part of the instance buffer mapped (Passed to the next map so the object can be reused)
+     */
+    private ByteBuffer mappedInstances;
+
+    /**
+     * Constructor of the frame render
+     *
+     * @param stateCache Shadow copy of the state (Shared with the loader that deletes the objects)
+     */
+    GLFrameRender(GLStateCache stateCache) {
+        this.stateCache = stateCache;
+    }
+
     /**
      * Clear the screen as well as the depth buffer
      */
     @Override
     public void prepareFrame() {
-        GL11.glEnable(GL11.GL_DEPTH_TEST);
+        stateCache.startFrame();
+        setCapability(GLStateCache.DEPTH_TEST, GL11.GL_DEPTH_TEST, true);
         GL11.glClearColor(0, 0.3f, 0, 1);
         GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
     }
 
+    /**
+     * Enables or disables one capability if it is not already in that state
+     *
+     * @param capability   Capability in the state cache
+     * @param glCapability Capability in openGL
+     * @param enabled      If the capability should be enabled
+     * @return True if the state changed
+     */
+    private boolean setCapability(int capability, int glCapability, boolean enabled) {
+        if (!stateCache.setCapability(capability, enabled)) {
+            return false;
+        }
+        if (enabled) {
+            GL11.glEnable(glCapability);
+        } else {
+            GL11.glDisable(glCapability);
+        }
+        return true;
+    }
+
+    /**
+     * Binds a vertex array if it is not already bound
+     *
+     * @param vaoId Identifier of the vertex array
+     */
+    private void bindVertexArray(int vaoId) {
+        if (stateCache.bindVertexArray(vaoId)) {
+            GL30.glBindVertexArray(vaoId);
+        }
+    }
+
+    /**
+     * Enables one attribute of the vertex array bound if it is not already enabled
+     * (The vertex array remembers the attributes enabled)
+     *
+     * @param attribute The attribute to enable (Ignored if null)
+     */
+    private void enableVertexAttribute(IEnum attribute) {
+        if ((attribute != null) && stateCache.setVertexAttribute(attribute.getValue(), true)) {
+            GL20.glEnableVertexAttribArray(attribute.getValue());
+        }
+    }
+
     /**
      * Prepares one model to be render in scene
      *
@@ -34,24 +170,20 @@ class GLFrameRender implements IFrameRenderAPI {
     @Override
     public void prepareModel(IRawModel model) {
         GLRawModel rawModel = (GLRawModel) model;
-
-        IEnum position = rawModel.getAttribute(RenderAttributeEnum.position); // The
-        // position
-        // attribute
-        IEnum textureCoords = rawModel.getAttribute(RenderAttributeEnum.textureCoords); // The
-        // texture
-        // attribute
-        IEnum normal = rawModel.getAttribute(RenderAttributeEnum.normal);// The
-        // normal
-        // attribute
-        // position
-
-        GL30.glBindVertexArray(rawModel.getVaoId());
+        VertexLayout layout = rawModel.getLayout();
+        bindVertexArray(rawModel.getVaoId());
+        if (layout != null) {
+            // Enable the attributes that the interleaved buffer has
+            for (VertexAttribute vertexAttribute : layout.getAttributes()) {
+                enableVertexAttribute(rawModel.getAttribute(vertexAttribute.getAttribute()));
+            }
+            return;
+        }
 
         // Enable the attributes to bind
-        GL20.glEnableVertexAttribArray(position.getValue());
-        GL20.glEnableVertexAttribArray(textureCoords.getValue());
-        GL20.glEnableVertexAttribArray(normal.getValue());
+        enableVertexAttribute(rawModel.getAttribute(RenderAttributeEnum.position));
+        enableVertexAttribute(rawModel.getAttribute(RenderAttributeEnum.textureCoords));
+        enableVertexAttribute(rawModel.getAttribute(RenderAttributeEnum.normal));
     }
 
     /**
@@ -63,13 +195,8 @@ class GLFrameRender implements IFrameRenderAPI {
     public void prepare2DModel(IRawModel model) {
         GLRawModel rawModel = (GLRawModel) model;
 
-        IEnum position = rawModel.getAttribute(RenderAttributeEnum.position); // The
-        // position
-        // attribute
-
-        GL30.glBindVertexArray(rawModel.getVaoId());
-        GL20.glEnableVertexAttribArray(position.getValue());
-
+        bindVertexArray(rawModel.getVaoId());
+        enableVertexAttribute(rawModel.getAttribute(RenderAttributeEnum.position));
     }
 
     /**
@@ -84,48 +211,40 @@ class GLFrameRender implements IFrameRenderAPI {
 
     /**
      * UnBind the previous bound elements
+     * (Nothing is issued, the vertex array keeps its attributes enabled and stays bound until the next model
+     * binds its own, so drawing the same model again does not bind it again)
      *
      * @param model The model to be prepared to be rendered
      */
     @Override
     public void unPrepareModel(IRawModel model) {
-        GLRawModel rawModel = (GLRawModel) model;
+    }
 
-        IEnum position = rawModel.getAttribute(RenderAttributeEnum.position); // The
-        // position
-        // attribute
-        IEnum textureCoords = rawModel.getAttribute(RenderAttributeEnum.textureCoords); // The
-        // texture
-        // attribute
-        IEnum normal = rawModel.getAttribute(RenderAttributeEnum.normal);// The
-        // normal
-        // attribute
-        // position
-
-        GL20.glDisableVertexAttribArray(position.getValue());
-
-        if (textureCoords != null) {
-            GL20.glDisableVertexAttribArray(textureCoords.getValue());
-        }
-        if (normal != null) {
-            GL20.glDisableVertexAttribArray(normal.getValue());
+    /**
+     * Activates one texture unit if it is not already active
+     *
+     * @param unit Index of the texture unit (0 for GL_TEXTURE0)
+     */
+    private void activeTexture(int unit) {
+        if (stateCache.activeTexture(unit)) {
+            GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
         }
-        GL30.glBindVertexArray(0);
-
     }
 
     /**
-     * Activates and binds the texture with ID passed in the specified target
+     * Activates and binds the texture with ID passed in the specified unit
      *
-     * @param target  Target where is to bind the texture
+     * @param unit    Index of the texture unit where is to bind the texture
      * @param texture The texture to use
      */
-    private void activeAndBind2DTexture(int target, ITexture texture) {
+    private void activeAndBind2DTexture(int unit, ITexture texture) {
         GLTexture glTexture = (GLTexture) texture;
 
         // Enable the specific texture
-        GL13.glActiveTexture(target);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, glTexture.getId());
+        activeTexture(unit);
+        if (stateCache.bindTexture(GLStateCache.TEXTURE_2D, glTexture.getId())) {
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, glTexture.getId());
+        }
     }
 
     /**
@@ -135,7 +254,7 @@ class GLFrameRender implements IFrameRenderAPI {
      */
     @Override
     public void activeAndBindTexture(ITexture texture) {
-        activeAndBind2DTexture(GL13.GL_TEXTURE0, texture);
+        activeAndBind2DTexture(0, texture);
     }
 
     /**
@@ -147,8 +266,10 @@ class GLFrameRender implements IFrameRenderAPI {
     public void activeAndBindCubeTexture(ITexture texture) {
         GLTexture glTexture = (GLTexture) texture;
 
-        GL13.glActiveTexture(GL13.GL_TEXTURE0);
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, glTexture.getId());
+        activeTexture(0);
+        if (stateCache.bindTexture(GLStateCache.TEXTURE_CUBE_MAP, glTexture.getId())) {
+            GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, glTexture.getId());
+        }
     }
 
     /**
@@ -163,11 +284,11 @@ class GLFrameRender implements IFrameRenderAPI {
     @Override
     public void activeAndBindTextures(ITexture texture1, ITexture texture2, ITexture texture3, ITexture texture4,
                                       ITexture texture5) {
-        activeAndBind2DTexture(GL13.GL_TEXTURE0, texture1);
-        activeAndBind2DTexture(GL13.GL_TEXTURE1, texture2);
-        activeAndBind2DTexture(GL13.GL_TEXTURE2, texture3);
-        activeAndBind2DTexture(GL13.GL_TEXTURE3, texture4);
-        activeAndBind2DTexture(GL13.GL_TEXTURE4, texture5);
+        activeAndBind2DTexture(0, texture1);
+        activeAndBind2DTexture(1, texture2);
+        activeAndBind2DTexture(2, texture3);
+        activeAndBind2DTexture(3, texture4);
+        activeAndBind2DTexture(4, texture5);
     }
 
     /**
@@ -179,8 +300,155 @@ class GLFrameRender implements IFrameRenderAPI {
     public void drawTrianglesIndexes(IRawModel model) {
         GLRawModel rawModel = (GLRawModel) model;
 
+        int indexType = (rawModel.getIndexType() == IndexTypeEnum.UNSIGNED_SHORT) ? GL11.GL_UNSIGNED_SHORT
+                : GL11.GL_UNSIGNED_INT;
+
         // Specify the indexes
-        GL11.glDrawElements(GL11.GL_TRIANGLES, rawModel.getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
+        GL11.glDrawElements(GL11.GL_TRIANGLES, rawModel.getVertexCount(), indexType, 0);
+    }
+
+    /**
+     * @return True if the context has draws of indexes relative to a base vertex
+     */
+    @Override
+    public boolean supportsDrawRange() {
+        if (drawRangeSupported == null) {
+            ContextCapabilities capabilities = GLContext.getCapabilities();
+            coreBaseVertex = capabilities.OpenGL32;
+            drawRangeSupported = capabilities.OpenGL32 || capabilities.GL_ARB_draw_elements_base_vertex;
+        }
+        return drawRangeSupported;
+    }
+
+    /**
+     * Draw a range of the indexes of a model relative to a base vertex (Only called if supportsDrawRange)
+     *
+     * @param model        The model to be drawn
+     * @param firstIndex   Position of the first index to draw
+     * @param indicesCount Number of indexes to draw
+     * @param baseVertex   Number added to each index before reading the vertex
+     */
+    @Override
+    public void drawTrianglesIndexesRange(IRawModel model, int firstIndex, int indicesCount, int baseVertex) {
+        GLRawModel rawModel = (GLRawModel) model;
+
+        int indexType = (rawModel.getIndexType() == IndexTypeEnum.UNSIGNED_SHORT) ? GL11.GL_UNSIGNED_SHORT
+                : GL11.GL_UNSIGNED_INT;
+        long offset = (long) firstIndex * rawModel.getIndexType().getSize();
+
+        if (coreBaseVertex) {
+            GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, indicesCount, indexType, offset, baseVertex);
+        } else {
+            ARBDrawElementsBaseVertex.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, indicesCount, indexType, offset,
+                    baseVertex);
+        }
+    }
+
+    /**
+     * @return True if the context has instanced draws and the divisor of the attributes
+     */
+    @Override
+    public boolean supportsInstancing() {
+        if (instancingSupported == null) {
+            ContextCapabilities capabilities = GLContext.getCapabilities();
+            coreDivisor = capabilities.OpenGL33;
+            instancingSupported = capabilities.OpenGL33
+                    || (capabilities.OpenGL31 && capabilities.GL_ARB_instanced_arrays);
+        }
+        return instancingSupported;
+    }
+
+    /**
+     * Draw several instances of a model using for that there indexes, each one with its own transformation matrix
+     * (The transformations are streamed to the instance buffer, when they do not fit it the draw is split)
+     *
+     * @param model                   The model to be drawn
+     * @param transformationAttribute Attribute of the shader that receives the transformation of each instance
+     * @param transformations         Transformation matrices of the instances packed one after the other
+     * @param instancesCount          Number of instances to draw
+     */
+    @Override
+    public void drawTrianglesIndexesInstanced(IRawModel model, IEnum transformationAttribute, float[] transformations,
+                                              int instancesCount) {
+        GLRawModel rawModel = (GLRawModel) model;
+
+        int indexType = (rawModel.getIndexType() == IndexTypeEnum.UNSIGNED_SHORT) ? GL11.GL_UNSIGNED_SHORT
+                : GL11.GL_UNSIGNED_INT;
+        int maxInstances = INSTANCE_BUFFER_SIZE / MATRIX_BYTES;
+
+        for (int first = 0; first < instancesCount; first += maxInstances) {
+            int count = Math.min(maxInstances, instancesCount - first);
+            int offset = streamInstances(transformations, first, count);
+            if (offset < 0) {
+                return;
+            }
+            bindInstanceTransformations(transformationAttribute.getValue(), offset);
+            GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, rawModel.getVertexCount(), indexType, 0, count);
+        }
+    }
+
+    /**
+     * Writes the transformations of some instances in the instance buffer
+     * (Appended after the previous ones, when the buffer is full it is orphaned and written from the start)
+     *
+     * @param transformations Transformation matrices of the instances
+     * @param first           Index of the first instance to write
+     * @param count           Number of instances to write
+     * @return The position in the buffer where the transformations were written or -1 if was not possible
+     */
+    private int streamInstances(float[] transformations, int first, int count) {
+        int bytes = count * MATRIX_BYTES;
+        if (instanceBufferId == 0) {
+            instanceBufferId = GL15.glGenBuffers();
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceBufferId);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, INSTANCE_BUFFER_SIZE, GL15.GL_STREAM_DRAW);
+            instanceBufferOffset = 0;
+        } else {
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, instanceBufferId);
+        }
+        if (instanceBufferOffset + bytes > INSTANCE_BUFFER_SIZE) {
+            // Orphans the buffer so the draws in flight keep the old storage
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, INSTANCE_BUFFER_SIZE, GL15.GL_STREAM_DRAW);
+            instanceBufferOffset = 0;
+        }
+
+        ByteBuffer mapped = GL30.glMapBufferRange(GL15.GL_ARRAY_BUFFER, instanceBufferOffset, bytes,
+                INSTANCE_MAP_ACCESS, mappedInstances);
+        if (mapped == null) {
+            System.err.println("Could not map the buffer of the instances");
+            return -1;
+        }
+        mappedInstances = mapped;
+        mapped.order(ByteOrder.nativeOrder()).asFloatBuffer().put(transformations, first * MATRIX_FLOATS,
+                count * MATRIX_FLOATS);
+        GL15.glUnmapBuffer(GL15.GL_ARRAY_BUFFER);
+
+        int offset = instanceBufferOffset;
+        instanceBufferOffset += bytes;
+        return offset;
+    }
+
+    /**
+     * Points the attributes of the transformation to the instances written in the instance buffer
+     * (The buffer should be bound, one attribute by column that advances once by instance)
+     *
+     * @param attribute First attribute of the transformation
+     * @param offset    Position in the buffer of the transformation of the first instance
+     */
+    private void bindInstanceTransformations(int attribute, int offset) {
+        for (int column = 0; column < MATRIX_COLUMNS; column++) {
+            int index = attribute + column;
+            if (stateCache.setVertexAttribute(index, true)) {
+                GL20.glEnableVertexAttribArray(index);
+            }
+            GL20.glVertexAttribPointer(index, MATRIX_COLUMNS, GL11.GL_FLOAT, false, MATRIX_BYTES,
+                    offset + column * COLUMN_BYTES);
+            if (coreDivisor) {
+                GL33.glVertexAttribDivisor(index, 1);
+            } else {
+                ARBInstancedArrays.glVertexAttribDivisorARB(index, 1);
+            }
+        }
     }
 
     /**
@@ -211,9 +479,10 @@ class GLFrameRender implements IFrameRenderAPI {
     @Override
     public void enableCulling() {
         // Enable the GL cull face feature
-        GL11.glEnable(GL11.GL_CULL_FACE);
-        // Avoid to render faces that are away from the camera
-        GL11.glCullFace(GL11.GL_BACK);
+        if (setCapability(GLStateCache.CULL_FACE, GL11.GL_CULL_FACE, true)) {
+            // Avoid to render faces that are away from the camera
+            GL11.glCullFace(GL11.GL_BACK);
+        }
     }
 
     /**
@@ -221,7 +490,7 @@ class GLFrameRender implements IFrameRenderAPI {
      */
     @Override
     public void disableCulling() {
-        GL11.glDisable(GL11.GL_CULL_FACE);
+        setCapability(GLStateCache.CULL_FACE, GL11.GL_CULL_FACE, false);
     }
 
     /**
@@ -229,7 +498,7 @@ class GLFrameRender implements IFrameRenderAPI {
      */
     @Override
     public void enableDepthTest() {
-        GL11.glEnable(GL11.GL_DEPTH_TEST);
+        setCapability(GLStateCache.DEPTH_TEST, GL11.GL_DEPTH_TEST, true);
     }
 
     /**
@@ -237,7 +506,7 @@ class GLFrameRender implements IFrameRenderAPI {
      */
     @Override
     public void disableDepthTest() {
-        GL11.glDisable(GL11.GL_DEPTH_TEST);
+        setCapability(GLStateCache.DEPTH_TEST, GL11.GL_DEPTH_TEST, false);
     }
 
     /**
@@ -246,8 +515,9 @@ class GLFrameRender implements IFrameRenderAPI {
      */
     @Override
     public void enableBlend() {
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        if (setCapability(GLStateCache.BLEND, GL11.GL_BLEND, true)) {
+            GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        }
     }
 
     /**
@@ -256,7 +526,7 @@ class GLFrameRender implements IFrameRenderAPI {
      */
     @Override
     public void disableBlend() {
-        GL11.glDisable(GL11.GL_BLEND);
+        setCapability(GLStateCache.BLEND, GL11.GL_BLEND, false);
     }
 
     /**
@@ -285,6 +555,12 @@ class GLFrameRender implements IFrameRenderAPI {
      */
     @Override
     public void dispose() {
+        logger.info("State changes " + stateCache);
+        if (instanceBufferId != 0) {
+            GL15.glDeleteBuffers(instanceBufferId);
+            instanceBufferId = 0;
+        }
+        mappedInstances = null;
     }
 
 }
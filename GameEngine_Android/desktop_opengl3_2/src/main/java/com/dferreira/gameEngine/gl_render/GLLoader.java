@@ -1,47 +1,59 @@
 package com.dferreira.gameEngine.gl_render;
 
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.compression.CompressedTextureData;
+import com.dferreira.commons.compression.CompressedTextureFormatEnum;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.VertexAttribute;
+import com.dferreira.commons.generic_render.VertexComponentTypeEnum;
+import com.dferreira.commons.generic_render.VertexLayout;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.memory.DirectBufferPool;
+import com.dferreira.commons.models.MipmapGenerator;
 import com.dferreira.commons.models.TextureData;
 import com.dferreira.commons.shapes.IShape;
+import com.dferreira.commons.shapes.QuantizedVertices;
+import com.dferreira.commons.shapes.VertexInterleaver;
+import com.dferreira.commons.shapes.VertexQuantizer;
 import com.dferreira.commons.utils.Utils;
 
-import org.lwjgl.BufferUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.lwjgl.opengl.ARBES3Compatibility;
+import org.lwjgl.opengl.ContextCapabilities;
+import org.lwjgl.opengl.EXTTextureCompressionS3TC;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL12;
 import org.lwjgl.opengl.GL13;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GLContext;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.WeakHashMap;
 
 /**
  * Loader for parts that are specific to openGL
  */
 public class GLLoader implements ILoaderRenderAPI {
 
+    private final static Logger logger = LogManager.getLogger(GLLoader.class);
+
     /**
      * Number of components that make part of one vertex
      */
     private final int VERTEX_SIZE = 3;
-    /**
-     * Number of components that compose the coordinates of the texture
-     */
-    private final int COORD_SIZE = 2;
-    /**
-     * Number of components that compose the normal vector
-     */
-    private final int NORMAL_SIZE = 3;
     /**
      * Offset between following vertices (If we have any data between them
      */
@@ -56,10 +68,20 @@ public class GLLoader implements ILoaderRenderAPI {
      * accessed.
      */
     private final boolean VERTEX_NORMALIZED = false;
+    /**
+     * Number of bytes of the types put in the buffers
+     */
+    private final int FLOAT_BYTES = 4;
+    private final int INT_BYTES = 4;
+    private final int SHORT_BYTES = 2;
     /**
      * Provider of the resources (highly dependent from the architecture)
      */
     private final IResourceProvider resourceProvider;
+    /**
+     * Shadow copy of the state of the frame render (Told about the objects deleted because their ids are reused)
+     */
+    private final GLStateCache stateCache;
     /**
      * List of the vertex array objects loaded
      */
@@ -72,15 +94,47 @@ public class GLLoader implements ILoaderRenderAPI {
      * List of the textures that make part of the game engine
      */
     private List<Integer> textures;
+    /**
+     * Vertex buffer object of each array already uploaded
+     * (The shapes that share the same array share the same vertex buffer object)
+     */
+    private WeakHashMap<float[], Integer> arrayBuffers;
+    /**
+     * Vertex buffer objects with the interleaved vertices of the shapes already uploaded, by their positions
+     * (A buffer is only shared by the shapes with the same positions, texture coordinates and normals, the shapes
+     * remapped to an atlas keep the positions with other texture coordinates)
+     */
+    private WeakHashMap<float[], List<InterleavedBuffer>> interleavedBuffers;
+    /**
+     * Vertex buffer objects used by each vertex array object (Released with it)
+     */
+    private HashMap<Integer, List<Integer>> buffersOfVAOs;
+    /**
+     * Vertex buffer objects used by the vertex array object being loaded
+     */
+    private List<Integer> buffersOfVAO;
+    /**
+     * Number of vertex array objects that use each vertex buffer object
+     * (The shared ones are deleted only with the last vertex array object that uses them)
+     */
+    private HashMap<Integer, Integer> vboReferences;
 
     /**
      * Constructor of the loader GL
+     *
+     * @param resourceProvider Provider of the resources
+     * @param stateCache       Shadow copy of the state of the frame render
      */
-    GLLoader(IResourceProvider resourceProvider) {
+    GLLoader(IResourceProvider resourceProvider, GLStateCache stateCache) {
         this.vaos = new ArrayList<Integer>();
         this.vbos = new ArrayList<Integer>();
         this.textures = new ArrayList<Integer>();
+        this.arrayBuffers = new WeakHashMap<float[], Integer>();
+        this.interleavedBuffers = new WeakHashMap<float[], List<InterleavedBuffer>>();
+        this.buffersOfVAOs = new HashMap<Integer, List<Integer>>();
+        this.vboReferences = new HashMap<Integer, Integer>();
         this.resourceProvider = resourceProvider;
+        this.stateCache = stateCache;
     }
 
     /**
@@ -88,11 +142,13 @@ public class GLLoader implements ILoaderRenderAPI {
      *
      * @param target    The target of the filter
      * @param wrapParam Parameter used in the wrap filters
+     * @param mipmapped Indicates that the texture has the mip chain loaded (Uses trilinear filtering)
      */
-    private void defineTextureFunctionFilters(int target, int wrapParam) {
+    private void defineTextureFunctionFilters(int target, int wrapParam, boolean mipmapped) {
         // The texture minify function is used whenever the pixel being textured
         // maps to an area greater than one texture element
-        GL11.glTexParameteri(target, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GL11.glTexParameteri(target, GL11.GL_TEXTURE_MIN_FILTER,
+                mipmapped ? GL11.GL_LINEAR_MIPMAP_LINEAR : GL11.GL_LINEAR);
 
         // The texture magnification function is used when the pixel being
         // textured maps to an area less than or equal to one texture element
@@ -126,10 +182,16 @@ public class GLLoader implements ILoaderRenderAPI {
         int textureId = GL11.glGenTextures();
         GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
 
-        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
-                GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, textureData.getBuffer());
+        CompressedTextureData compressed = textureData.getCompressed();
+        int levels;
+        if ((compressed != null) && isCompressedFormatSupported(compressed.getFormat())) {
+            levels = loadCompressedLevels(compressed);
+        } else {
+            levels = loadLevels(textureData);
+        }
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_MAX_LEVEL, levels - 1);
 
-        defineTextureFunctionFilters(GL11.GL_TEXTURE_2D, getWrapFilters(repeat));
+        defineTextureFunctionFilters(GL11.GL_TEXTURE_2D, getWrapFilters(repeat), levels > 1);
 
         GLTexture texture = new GLTexture();
         texture.setId(textureId);
@@ -137,6 +199,104 @@ public class GLLoader implements ILoaderRenderAPI {
         return texture;
     }
 
+    /**
+     * Loads the pixels of the texture bound and of its mip chain
+     *
+     * @param textureData The data of the texture to load
+     * @return Number of levels loaded
+     */
+    private int loadLevels(TextureData textureData) {
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
+                GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, textureData.getBuffer());
+
+        // The mip chain is usually built when the texture is decoded (Otherwise is built now)
+        if (!textureData.hasMipmaps()) {
+            MipmapGenerator.generate(textureData);
+        }
+        TextureData[] mipmaps = textureData.getMipmaps();
+        for (int level = 0; level < mipmaps.length; level++) {
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, level + 1, GL11.GL_RGBA, mipmaps[level].getWidth(),
+                    mipmaps[level].getHeight(), 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, mipmaps[level].getBuffer());
+        }
+        return mipmaps.length + 1;
+    }
+
+    /**
+     * Loads the blocks of the texture bound and of its mip chain
+     *
+     * @param compressed The texture compressed
+     * @return Number of levels loaded
+     */
+    private int loadCompressedLevels(CompressedTextureData compressed) {
+        int internalFormat = getGLFormat(compressed.getFormat());
+        GL13.glCompressedTexImage2D(GL11.GL_TEXTURE_2D, 0, internalFormat, compressed.getWidth(),
+                compressed.getHeight(), 0, compressed.getBuffer());
+        CompressedTextureData[] mipmaps = compressed.getMipmaps();
+        if (mipmaps == null) {
+            return 1;
+        }
+        for (int level = 0; level < mipmaps.length; level++) {
+            GL13.glCompressedTexImage2D(GL11.GL_TEXTURE_2D, level + 1, internalFormat, mipmaps[level].getWidth(),
+                    mipmaps[level].getHeight(), 0, mipmaps[level].getBuffer());
+        }
+        return mipmaps.length + 1;
+    }
+
+    /**
+     * @param format Format of block compression
+     * @return The internal format of openGL that matches the format passed
+     */
+    private int getGLFormat(CompressedTextureFormatEnum format) {
+        switch (format) {
+            case BC1:
+                return EXTTextureCompressionS3TC.GL_COMPRESSED_RGB_S3TC_DXT1_EXT;
+            case BC3:
+                return EXTTextureCompressionS3TC.GL_COMPRESSED_RGBA_S3TC_DXT5_EXT;
+            case ETC2_RGB8:
+                return ARBES3Compatibility.GL_COMPRESSED_RGB8_ETC2;
+            case ETC2_RGBA8:
+                return ARBES3Compatibility.GL_COMPRESSED_RGBA8_ETC2_EAC;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @param format Format of block compression
+     * @return True if the context can load textures compressed in the format passed
+     */
+    @Override
+    public boolean isCompressedFormatSupported(CompressedTextureFormatEnum format) {
+        ContextCapabilities capabilities = GLContext.getCapabilities();
+        switch (format) {
+            case BC1:
+            case BC3:
+                return capabilities.GL_EXT_texture_compression_s3tc;
+            case ETC2_RGB8:
+            case ETC2_RGBA8:
+                return capabilities.GL_ARB_ES3_compatibility || capabilities.OpenGL43;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Load a texture already decoded
+     *
+     * @param textureData The data of the texture to load
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass
+     *                    the size of texture
+     * @return Id from the texture that was bounded in openGL (null if there is no data)
+     */
+    @Override
+    public ITexture loadTexture(TextureData textureData, boolean repeat) {
+        if (textureData == null) {
+            return null;
+        } else {
+            return pLoadTexture(textureData, repeat);
+        }
+    }
+
     /**
      * Load texture from resource
      *
@@ -148,7 +308,11 @@ public class GLLoader implements ILoaderRenderAPI {
     @Override
     public ITexture loadTexture(TextureEnum textureEnum, boolean repeat) {
         TextureData textureData = this.resourceProvider.getResource(textureEnum);
-        return pLoadTexture(textureData, repeat);
+        ITexture texture = pLoadTexture(textureData, repeat);
+        if (textureData != null) {
+            textureData.release();
+        }
+        return texture;
     }
 
     /**
@@ -162,7 +326,26 @@ public class GLLoader implements ILoaderRenderAPI {
     @Override
     public ITexture loadTexture(String textureFileName, boolean repeat) {
         TextureData textureData = this.resourceProvider.getTexture(textureFileName);
-        return pLoadTexture(textureData, repeat);
+        ITexture texture = pLoadTexture(textureData, repeat);
+        if (textureData != null) {
+            textureData.release();
+        }
+        return texture;
+    }
+
+    /**
+     * Deletes one texture loaded before
+     *
+     * @param texture The texture to delete
+     */
+    @Override
+    public void deleteTexture(ITexture texture) {
+        if (texture != null) {
+            Integer textureId = ((GLTexture) texture).getId();
+            GL11.glDeleteTextures(textureId);
+            this.stateCache.forgetTexture(textureId);
+            this.textures.remove(textureId);
+        }
     }
 
     /**
@@ -208,9 +391,10 @@ public class GLLoader implements ILoaderRenderAPI {
                     int target = cubicTextureTargets[i];
                     GL11.glTexImage2D(target, 0, GL11.GL_RGBA, textureData.getWidth(), textureData.getHeight(), 0,
                             GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, textureData.getBuffer());
+                    textureData.release();
                 }
             }
-            defineTextureFunctionFilters(GL13.GL_TEXTURE_CUBE_MAP, getWrapFilters(repeat));
+            defineTextureFunctionFilters(GL13.GL_TEXTURE_CUBE_MAP, getWrapFilters(repeat), false);
 
             GLTexture texture = new GLTexture();
             texture.setId(textureId);
@@ -228,6 +412,8 @@ public class GLLoader implements ILoaderRenderAPI {
     private int createVAO() {
         int vaoID = GL30.glGenVertexArrays();
         this.vaos.add(vaoID);
+        this.buffersOfVAO = new ArrayList<Integer>();
+        this.buffersOfVAOs.put(vaoID, buffersOfVAO);
         GL30.glBindVertexArray(vaoID);
         return vaoID;
     }
@@ -237,6 +423,93 @@ public class GLLoader implements ILoaderRenderAPI {
      */
     private void unbindVAO() {
         GL30.glBindVertexArray(0);
+        this.buffersOfVAO = null;
+    }
+
+    /**
+     * Create a vertex buffer object that belongs to the vertex array object being loaded
+     *
+     * @return the identifier of the VBO created
+     */
+    private int createVBO() {
+        int vboID = GL15.glGenBuffers();
+        this.vbos.add(vboID);
+        useVBO(vboID);
+        return vboID;
+    }
+
+    /**
+     * Records that the vertex array object being loaded uses one vertex buffer object
+     *
+     * @param vboID Identifier of the vertex buffer object (Created now or shared with other models)
+     */
+    private void useVBO(int vboID) {
+        if (this.buffersOfVAO != null) {
+            this.buffersOfVAO.add(vboID);
+            Integer references = this.vboReferences.get(vboID);
+            this.vboReferences.put(vboID, (references == null) ? 1 : references + 1);
+        }
+    }
+
+    /**
+     * Releases one use of a vertex buffer object and deletes it when no vertex array object uses it anymore
+     *
+     * @param vboID Identifier of the vertex buffer object
+     */
+    private void releaseVBO(Integer vboID) {
+        Integer references = this.vboReferences.get(vboID);
+        if ((references != null) && (references > 1)) {
+            this.vboReferences.put(vboID, references - 1);
+            return;
+        }
+        this.vboReferences.remove(vboID);
+        GL15.glDeleteBuffers(vboID);
+        this.vbos.remove(vboID);
+        // The id can be reused by the next buffer created
+        this.arrayBuffers.values().remove(vboID);
+        Iterator<List<InterleavedBuffer>> iterator = this.interleavedBuffers.values().iterator();
+        while (iterator.hasNext()) {
+            List<InterleavedBuffer> buffers = iterator.next();
+            for (int i = buffers.size() - 1; i >= 0; i--) {
+                if (buffers.get(i).vboID == vboID) {
+                    buffers.remove(i);
+                }
+            }
+            if (buffers.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * @param shape The shape to load
+     * @return The vertex buffer object with the same interleaved vertices of the shape or null if there is none
+     */
+    private Integer getInterleavedBuffer(IShape shape) {
+        List<InterleavedBuffer> buffers = this.interleavedBuffers.get(shape.getVertices());
+        if (buffers != null) {
+            for (InterleavedBuffer buffer : buffers) {
+                if ((buffer.textureCoords == shape.getTextureCoords()) && (buffer.normals == shape.getNormals())) {
+                    return buffer.vboID;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the vertex buffer object with the interleaved vertices of one shape to share with the same shapes
+     *
+     * @param shape The shape loaded
+     * @param vboID Identifier of the vertex buffer object
+     */
+    private void putInterleavedBuffer(IShape shape, int vboID) {
+        List<InterleavedBuffer> buffers = this.interleavedBuffers.get(shape.getVertices());
+        if (buffers == null) {
+            buffers = new ArrayList<InterleavedBuffer>();
+            this.interleavedBuffers.put(shape.getVertices(), buffers);
+        }
+        buffers.add(new InterleavedBuffer(shape.getTextureCoords(), shape.getNormals(), vboID));
     }
 
     /**
@@ -245,24 +518,44 @@ public class GLLoader implements ILoaderRenderAPI {
      *
      * @param data array with data to put in the Integer Buffer the integer
      *             buffer created
-     * @return The integer buffer created
+     * @return The buffer of the pool with the integers (Should be released after the upload)
      */
-    private IntBuffer storeDataInIntBuffer(int[] data) {
-        IntBuffer buffer = BufferUtils.createIntBuffer(data.length);
-        buffer.put(data);
-        buffer.flip();
+    private ByteBuffer storeDataInIntBuffer(int[] data) {
+        ByteBuffer buffer = DirectBufferPool.getInstance().acquire(data.length * INT_BYTES);
+        buffer.asIntBuffer().put(data);
         return buffer;
     }
 
     /**
-     * @param indices the indices to vertex buffer object
+     * Convert on array of Integers in a buffer of Shorts that can be used in
+     * openGL (The values should fit in 16 bits unsigned)
+     *
+     * @param data array with data to put in the Short Buffer
+     * @return The buffer of the pool with the shorts (Should be released after the upload)
      */
-    private void bindIndicesBuffer(int[] indices) {
-        int vboID = GL15.glGenBuffers();
-        vbos.add(vboID);
+    private ByteBuffer storeDataInShortBuffer(int[] data) {
+        ByteBuffer buffer = DirectBufferPool.getInstance().acquire(data.length * SHORT_BYTES);
+        ShortBuffer shortBuffer = buffer.asShortBuffer();
+        for (int value : data) {
+            shortBuffer.put((short) value);
+        }
+        return buffer;
+    }
+
+    /**
+     * @param indices     the indices to vertex buffer object
+     * @param vertexCount Number of vertices indexed
+     * @return The type of indices used in the buffer (16 bits when the vertices allow it)
+     */
+    private IndexTypeEnum bindIndicesBuffer(int[] indices, int vertexCount) {
+        IndexTypeEnum indexType = IndexTypeEnum.forVertexCount(vertexCount);
+        int vboID = createVBO();
         GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, vboID);
-        IntBuffer buffer = storeDataInIntBuffer(indices);
+        ByteBuffer buffer = (indexType == IndexTypeEnum.UNSIGNED_SHORT) ? storeDataInShortBuffer(indices)
+                : storeDataInIntBuffer(indices);
         GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        DirectBufferPool.getInstance().release(buffer);
+        return indexType;
     }
 
     /**
@@ -271,12 +564,11 @@ public class GLLoader implements ILoaderRenderAPI {
      *
      * @param data array with data to put in the Float Buffer the float buffer
      *             created
-     * @return The integer buffer created
+     * @return The buffer of the pool with the floats (Should be released after the upload)
      */
-    private FloatBuffer storeDataInFloatBuffer(float[] data) {
-        FloatBuffer buffer = BufferUtils.createFloatBuffer(data.length);
-        buffer.put(data);
-        buffer.flip();
+    private ByteBuffer storeDataInFloatBuffer(float[] data) {
+        ByteBuffer buffer = DirectBufferPool.getInstance().acquire(data.length * FLOAT_BYTES);
+        buffer.asFloatBuffer().put(data);
         return buffer;
     }
 
@@ -288,18 +580,77 @@ public class GLLoader implements ILoaderRenderAPI {
      * @param data            Data to be store
      */
     private void storeDataInAttributeList(IEnum attributeNumber, int coordinateSize, float[] data) {
-        int vboID = GL15.glGenBuffers();
-        vbos.add(vboID);
-        // Bind the VBO just created
-        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
-        FloatBuffer buffer = storeDataInFloatBuffer(data);
-        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        Integer sharedVboID = arrayBuffers.get(data);
+        if (sharedVboID == null) {
+            int vboID = createVBO();
+            arrayBuffers.put(data, vboID);
+            // Bind the VBO just created
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
+            ByteBuffer buffer = storeDataInFloatBuffer(data);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+            DirectBufferPool.getInstance().release(buffer);
+        } else {
+            // The data was already uploaded by other shape
+            useVBO(sharedVboID);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, sharedVboID);
+        }
         GL20.glVertexAttribPointer(attributeNumber.getValue(), coordinateSize, GL11.GL_FLOAT, VERTEX_NORMALIZED, STRIDE,
                 START_OFFSET);
         // UnBind the current VBO
         GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
     }
 
+    /**
+     * @param type Type of the components of one attribute
+     * @return The equivalent type of openGL
+     */
+    private int getGLType(VertexComponentTypeEnum type) {
+        switch (type) {
+            case SHORT:
+                return GL11.GL_SHORT;
+            case UNSIGNED_SHORT:
+                return GL11.GL_UNSIGNED_SHORT;
+            case BYTE:
+                return GL11.GL_BYTE;
+            case FLOAT:
+            default:
+                return GL11.GL_FLOAT;
+        }
+    }
+
+    /**
+     * Creates a vertex buffer object with the interleaved vertices and leaves it bound
+     *
+     * @param data The vertices interleaved (Returned to the pool after the upload)
+     * @return The identifier of the vertex buffer object created
+     */
+    private int storeInterleavedData(ByteBuffer data) {
+        int vboID = createVBO();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboID);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, data, GL15.GL_STATIC_DRAW);
+        DirectBufferPool.getInstance().release(data);
+        return vboID;
+    }
+
+    /**
+     * Points the attributes of the program shader to the interleaved vertex buffer object bound
+     *
+     * @param layout     Layout of the vertices in the buffer
+     * @param attributes Map of attributes associated with the model
+     */
+    private void storeLayoutInAttributeList(VertexLayout layout, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        for (VertexAttribute vertexAttribute : layout.getAttributes()) {
+            IEnum attributeNumber = attributes.get(vertexAttribute.getAttribute());
+            if (attributeNumber != null) {
+                GL20.glVertexAttribPointer(attributeNumber.getValue(), vertexAttribute.getComponents(),
+                        getGLType(vertexAttribute.getType()), vertexAttribute.isNormalized(), layout.getStride(),
+                        vertexAttribute.getOffset());
+            }
+        }
+        // UnBind the current VBO
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
     /**
      * Load a list of positions to VAO
      *
@@ -325,20 +676,51 @@ public class GLLoader implements ILoaderRenderAPI {
      */
     @Override
     public IRawModel loadToRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        VertexLayout layout = VertexLayout.floatLayout();
         int vaoID = createVAO();
 
-        bindIndicesBuffer(shape.getIndices());
+        IndexTypeEnum indexType = bindIndicesBuffer(shape.getIndices(), shape.getVertices().length / VERTEX_SIZE);
 
-        IEnum positionEnum = attributes.get(RenderAttributeEnum.position);
-        IEnum textureCoordsEnum = attributes.get(RenderAttributeEnum.textureCoords);
-        IEnum normalEnum = attributes.get(RenderAttributeEnum.normal);
-
-        storeDataInAttributeList(positionEnum, VERTEX_SIZE, shape.getVertices());
-        storeDataInAttributeList(textureCoordsEnum, COORD_SIZE, shape.getTextureCoords());
-        storeDataInAttributeList(normalEnum, NORMAL_SIZE, shape.getNormals());
+        Integer sharedVboID = getInterleavedBuffer(shape);
+        if (sharedVboID == null) {
+            int vboID = storeInterleavedData(VertexInterleaver.interleave(shape, layout));
+            putInterleavedBuffer(shape, vboID);
+        } else {
+            // The vertices were already uploaded by other shape
+            useVBO(sharedVboID);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, sharedVboID);
+        }
+        storeLayoutInAttributeList(layout, attributes);
         unbindVAO();
 
-        return new GLRawModel(vaoID, shape.getIndices().length, attributes);
+        return new GLRawModel(vaoID, shape.getIndices().length, attributes, layout, indexType, null);
+    }
+
+    /**
+     * Load from a shape to one equivalent IRawModel with the vertices in a compact format
+     * (positions as normalized shorts, texture coordinates as normalized unsigned shorts and
+     * normals as two normalized bytes with octahedral encoding)
+     *
+     * @param shape      The shape to load
+     * @param attributes Map of attributes associated with the model
+     * @return A raw model with information loaded
+     */
+    @Override
+    public IRawModel loadToQuantizedRawModel(IShape shape, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        QuantizedVertices vertices = VertexQuantizer.quantize(shape);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Quantized " + shape.getGroupName() + ": " + vertices.getQuantization());
+        }
+        VertexLayout layout = VertexLayout.quantizedLayout();
+        int vaoID = createVAO();
+        IndexTypeEnum indexType = bindIndicesBuffer(shape.getIndices(), shape.getVertices().length / VERTEX_SIZE);
+        ByteBuffer interleaved = VertexInterleaver.interleave(vertices, layout);
+        vertices.release();
+        storeInterleavedData(interleaved);
+        storeLayoutInAttributeList(layout, attributes);
+        unbindVAO();
+        return new GLRawModel(vaoID, shape.getIndices().length, attributes, layout, indexType,
+                vertices.getQuantization());
     }
 
     /**
@@ -367,6 +749,30 @@ public class GLLoader implements ILoaderRenderAPI {
         return loadPositionsToVAO(positions, dimensions, attributes);
     }
 
+    /**
+     * Deletes one raw model loaded before with the vertex buffer objects that only it uses
+     * (The ones shared with other models are deleted with the last of them)
+     *
+     * @param model The raw model to delete
+     */
+    @Override
+    public void deleteRawModel(IRawModel model) {
+        if (model == null) {
+            return;
+        }
+        Integer vaoID = ((GLRawModel) model).getVaoId();
+        GL30.glDeleteVertexArrays(vaoID);
+        this.stateCache.forgetVertexArray(vaoID);
+        this.vaos.remove(vaoID);
+
+        List<Integer> buffers = this.buffersOfVAOs.remove(vaoID);
+        if (buffers != null) {
+            for (Integer vboID : buffers) {
+                releaseVBO(vboID);
+            }
+        }
+    }
+
 
     /**
      * A bit o memory cleaning
@@ -384,10 +790,48 @@ public class GLLoader implements ILoaderRenderAPI {
             GL15.glDeleteBuffers(vbo);
         }
         this.vbos = null;
+        this.arrayBuffers = null;
+        this.interleavedBuffers = null;
+        this.buffersOfVAOs = null;
+        this.vboReferences = null;
         // Textures
         for (Integer texture : textures) {
             GL11.glDeleteTextures(texture);
         }
         this.textures = null;
+        this.stateCache.reset();
+    }
+
+    /**
+     * Vertex buffer object with the interleaved vertices of one shape
+     * (Found by the positions, the other arrays tell apart the shapes that only share the positions)
+     */
+    private static class InterleavedBuffer {
+
+        /**
+         * Texture coordinates of the shape
+         */
+        private final float[] textureCoords;
+
+        /**
+         * Normals of the shape
+         */
+        private final float[] normals;
+
+        /**
+         * Identifier of the vertex buffer object
+         */
+        private final int vboID;
+
+        /**
+         * @param textureCoords Texture coordinates of the shape
+         * @param normals       Normals of the shape
+         * @param vboID         Identifier of the vertex buffer object
+         */
+        private InterleavedBuffer(float[] textureCoords, float[] normals, int vboID) {
+            this.textureCoords = textureCoords;
+            this.normals = normals;
+            this.vboID = vboID;
+        }
     }
 }
@@ -1,8 +1,11 @@
 package com.dferreira.gameEngine.gl_render;
 
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.generic_render.IndexTypeEnum;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_render.VertexLayout;
+import com.dferreira.commons.shapes.VertexQuantization;
 
 import java.util.HashMap;
 
@@ -26,6 +29,21 @@ public class GLRawModel implements IRawModel {
      */
     private final HashMap<RenderAttributeEnum, IEnum> attributes;
 
+    /**
+     * Layout of the vertices interleaved in the vertex buffer object (null if each attribute has its own buffer)
+     */
+    private final VertexLayout layout;
+
+    /**
+     * Type of the indices of the vertices (null if the model is not drawn with indices)
+     */
+    private final IndexTypeEnum indexType;
+
+    /**
+     * How to convert the vertices to the original values (null if they are floats)
+     */
+    private final VertexQuantization quantization;
+
     /**
      * Constructor of the raw model
      *
@@ -34,10 +52,28 @@ public class GLRawModel implements IRawModel {
      * @param attributes  List of attributes associated with the model
      */
     public GLRawModel(int vaoId, int vertexCount, HashMap<RenderAttributeEnum, IEnum> attributes) {
+        this(vaoId, vertexCount, attributes, null, null, null);
+    }
+
+    /**
+     * Constructor of the raw model
+     *
+     * @param vaoId        The identifier of vertex array object assigned by openGL
+     * @param vertexCount  number of vertex
+     * @param attributes   List of attributes associated with the model
+     * @param layout       Layout of the vertices interleaved in the vertex buffer object
+     * @param indexType    Type of the indices of the vertices
+     * @param quantization How to convert the vertices to the original values (null if they are floats)
+     */
+    public GLRawModel(int vaoId, int vertexCount, HashMap<RenderAttributeEnum, IEnum> attributes,
+                      VertexLayout layout, IndexTypeEnum indexType, VertexQuantization quantization) {
         super();
         this.vaoId = vaoId;
         this.vertexCount = vertexCount;
         this.attributes = attributes;
+        this.layout = layout;
+        this.indexType = indexType;
+        this.quantization = quantization;
     }
 
     /**
@@ -64,6 +100,30 @@ public class GLRawModel implements IRawModel {
         return this.attributes.get(renderAttribute);
     }
 
+    /**
+     * @return the layout of the vertices interleaved in the vertex buffer object
+     * (null if each attribute has its own buffer)
+     */
+    public VertexLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return the type of the indices of the vertices (null if the model is not drawn with indices)
+     */
+    @Override
+    public IndexTypeEnum getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * @return how to convert the vertices to the original values (null if they are floats)
+     */
+    @Override
+    public VertexQuantization getQuantization() {
+        return quantization;
+    }
+
     /**
      * Clean the memory used by the model
      */
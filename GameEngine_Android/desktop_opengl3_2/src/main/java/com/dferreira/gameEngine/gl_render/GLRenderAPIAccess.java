@@ -30,8 +30,9 @@ public class GLRenderAPIAccess implements IRenderAPIAccess {
      * Constructor to the render responsible to access the openGL API
      */
     public GLRenderAPIAccess(IResourceProvider resourceProvider) {
-        this.loader = new GLLoader(resourceProvider);
-        this.frameRender = new GLFrameRender();
+        GLStateCache stateCache = new GLStateCache();
+        this.loader = new GLLoader(resourceProvider, stateCache);
+        this.frameRender = new GLFrameRender(stateCache);
         this.shaderManagerAPI = new GLShaderManager(resourceProvider);
     }
 
@@ -3,6 +3,7 @@ package com.dferreira.gameEngine.gl_render;
 import com.dferreira.commons.ColorRGB;
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector2f;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IShaderManagerAPI;
 import com.dferreira.commons.generic_render.ShaderProgram;
@@ -115,6 +116,17 @@ class GLShaderManager implements IShaderManagerAPI {
      */
     @Override
     public void loadVector(int location, Vector3f vector) {
+        GL20.glUniform3f(location, vector.x, vector.y, vector.z);
+    }
+
+    /**
+     * Load a 2D vector to be used in the shader script
+     *
+     * @param location location of the shader variable in the script
+     * @param vector   The vector to load
+     */
+    @Override
+    public void loadVector(int location, Vector2f vector) {
         GL20.glUniform2f(location, vector.x, vector.y);
     }
 
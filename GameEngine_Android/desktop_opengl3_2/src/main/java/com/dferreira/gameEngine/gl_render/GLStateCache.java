@@ -0,0 +1,282 @@
+package com.dferreira.gameEngine.gl_render;
+
+import java.util.Arrays;
+
+/**
+ * Shadow copy of the openGL state changed by the frame render
+ * (Says which calls would not change the state so they are not issued.
+ * The bindings are forgotten at the start of each frame because the loader binds its own objects between frames,
+ * the attributes enabled are kept by vertex array until the array is deleted)
+ */
+class GLStateCache {
+
+    /**
+     * Capabilities tracked
+     */
+    final static int CULL_FACE = 0;
+    final static int BLEND = 1;
+    final static int DEPTH_TEST = 2;
+    private final static int CAPABILITIES_COUNT = 3;
+
+    /**
+     * Targets of the textures tracked
+     */
+    final static int TEXTURE_2D = 0;
+    final static int TEXTURE_CUBE_MAP = 1;
+    private final static int TEXTURE_TARGETS_COUNT = 2;
+
+    /**
+     * Number of texture units tracked (The units above are always issued)
+     */
+    private final static int TEXTURE_UNITS_COUNT = 16;
+
+    /**
+     * Number of vertex attributes tracked by vertex array (The attributes above are always issued)
+     */
+    private final static int MAX_ATTRIBUTES = 32;
+
+    /**
+     * Value of a state that is not known
+     */
+    private final static int UNKNOWN = -1;
+
+    /**
+     * Vertex array bound
+     */
+    private int boundVertexArray;
+
+    /**
+     * Texture unit active
+     */
+    private int activeTextureUnit;
+
+    /**
+     * Texture bound in each target of each unit
+     */
+    private final int[] boundTextures;
+
+    /**
+     * State of each capability (1 enabled, 0 disabled)
+     */
+    private final int[] capabilities;
+
+    /**
+     * Attributes enabled in each vertex array (Bit mask by attribute index)
+     */
+    private int[] enabledAttributes;
+
+    /**
+     * Attributes with the state known in each vertex array (Bit mask by attribute index)
+     */
+    private int[] knownAttributes;
+
+    /**
+     * Number of calls issued in the current frame
+     */
+    private int issuedCount;
+
+    /**
+     * Number of calls filtered in the current frame
+     */
+    private int filteredCount;
+
+    /**
+     * Number of calls issued in the last frame
+     */
+    private int lastFrameIssuedCount;
+
+    /**
+     * Number of calls filtered in the last frame
+     */
+    private int lastFrameFilteredCount;
+
+    /**
+     * Number of calls issued since the start
+     */
+    private long totalIssuedCount;
+
+    /**
+     * Number of calls filtered since the start
+     */
+    private long totalFilteredCount;
+
+    /**
+     * Constructor of the GL state cache
+     */
+    GLStateCache() {
+        this.boundTextures = new int[TEXTURE_UNITS_COUNT * TEXTURE_TARGETS_COUNT];
+        this.capabilities = new int[CAPABILITIES_COUNT];
+        this.enabledAttributes = new int[0];
+        this.knownAttributes = new int[0];
+        invalidate();
+    }
+
+    /**
+     * @param changes If the call changes the state
+     * @return The same flag (The call is counted as issued or filtered)
+     */
+    private boolean count(boolean changes) {
+        if (changes) {
+            issuedCount++;
+        } else {
+            filteredCount++;
+        }
+        return changes;
+    }
+
+    /**
+     * @param vertexArrayId Identifier of the vertex array to bind
+     * @return True if the bind should be issued
+     */
+    boolean bindVertexArray(int vertexArrayId) {
+        boolean changes = (boundVertexArray != vertexArrayId);
+        boundVertexArray = vertexArrayId;
+        return count(changes);
+    }
+
+    /**
+     * @param unit Index of the texture unit to activate (0 for GL_TEXTURE0)
+     * @return True if the activation should be issued
+     */
+    boolean activeTexture(int unit) {
+        boolean changes = (activeTextureUnit != unit);
+        activeTextureUnit = unit;
+        return count(changes);
+    }
+
+    /**
+     * @param target    Target where to bind the texture (TEXTURE_2D or TEXTURE_CUBE_MAP)
+     * @param textureId Identifier of the texture to bind in the unit active
+     * @return True if the bind should be issued
+     */
+    boolean bindTexture(int target, int textureId) {
+        if ((activeTextureUnit < 0) || (activeTextureUnit >= TEXTURE_UNITS_COUNT)) {
+            return count(true);
+        }
+        int index = activeTextureUnit * TEXTURE_TARGETS_COUNT + target;
+        boolean changes = (boundTextures[index] != textureId);
+        boundTextures[index] = textureId;
+        return count(changes);
+    }
+
+    /**
+     * @param capability Capability to change (CULL_FACE, BLEND or DEPTH_TEST)
+     * @param enabled    If the capability should be enabled
+     * @return True if the change should be issued
+     */
+    boolean setCapability(int capability, boolean enabled) {
+        int state = (enabled) ? 1 : 0;
+        boolean changes = (capabilities[capability] != state);
+        capabilities[capability] = state;
+        return count(changes);
+    }
+
+    /**
+     * @param attribute Index of the attribute to enable in the vertex array bound
+     * @param enabled   If the attribute should be enabled
+     * @return True if the change should be issued
+     */
+    boolean setVertexAttribute(int attribute, boolean enabled) {
+        if ((boundVertexArray <= 0) || (attribute < 0) || (attribute >= MAX_ATTRIBUTES)) {
+            return count(true);
+        }
+        if (boundVertexArray >= knownAttributes.length) {
+            int size = Math.max(boundVertexArray + 1, knownAttributes.length * 2);
+            knownAttributes = Arrays.copyOf(knownAttributes, size);
+            enabledAttributes = Arrays.copyOf(enabledAttributes, size);
+        }
+        int mask = 1 << attribute;
+        boolean changes = ((knownAttributes[boundVertexArray] & mask) == 0)
+                || (((enabledAttributes[boundVertexArray] & mask) != 0) != enabled);
+        knownAttributes[boundVertexArray] |= mask;
+        if (enabled) {
+            enabledAttributes[boundVertexArray] |= mask;
+        } else {
+            enabledAttributes[boundVertexArray] &= ~mask;
+        }
+        return count(changes);
+    }
+
+    /**
+     * Forgets the attributes of one vertex array (Called when the array is deleted because its id can be reused)
+     *
+     * @param vertexArrayId Identifier of the vertex array
+     */
+    void forgetVertexArray(int vertexArrayId) {
+        if ((vertexArrayId >= 0) && (vertexArrayId < knownAttributes.length)) {
+            knownAttributes[vertexArrayId] = 0;
+            enabledAttributes[vertexArrayId] = 0;
+        }
+        if (boundVertexArray == vertexArrayId) {
+            boundVertexArray = UNKNOWN;
+        }
+    }
+
+    /**
+     * Forgets the units where one texture is bound (Called when the texture is deleted because its id can be reused)
+     *
+     * @param textureId Identifier of the texture
+     */
+    void forgetTexture(int textureId) {
+        for (int i = 0; i < boundTextures.length; i++) {
+            if (boundTextures[i] == textureId) {
+                boundTextures[i] = UNKNOWN;
+            }
+        }
+    }
+
+    /**
+     * Forgets the bindings and the capabilities (The next calls are all issued)
+     */
+    void invalidate() {
+        boundVertexArray = UNKNOWN;
+        activeTextureUnit = UNKNOWN;
+        Arrays.fill(boundTextures, UNKNOWN);
+        Arrays.fill(capabilities, UNKNOWN);
+    }
+
+    /**
+     * Forgets everything including the attributes of the vertex arrays
+     */
+    void reset() {
+        invalidate();
+        Arrays.fill(knownAttributes, 0);
+        Arrays.fill(enabledAttributes, 0);
+    }
+
+    /**
+     * Starts counting a new frame and forgets the bindings made by the loader since the last frame
+     */
+    void startFrame() {
+        lastFrameIssuedCount = issuedCount;
+        lastFrameFilteredCount = filteredCount;
+        totalIssuedCount += issuedCount;
+        totalFilteredCount += filteredCount;
+        issuedCount = 0;
+        filteredCount = 0;
+        invalidate();
+    }
+
+    /**
+     * @return the number of calls issued in the last frame
+     */
+    int getLastFrameIssuedCount() {
+        return lastFrameIssuedCount;
+    }
+
+    /**
+     * @return the number of calls filtered in the last frame
+     */
+    int getLastFrameFilteredCount() {
+        return lastFrameFilteredCount;
+    }
+
+    /**
+     * @return Textual description of the calls issued and filtered
+     */
+    @Override
+    public String toString() {
+        return "last frame issued=" + lastFrameIssuedCount + " filtered=" + lastFrameFilteredCount
+                + " total issued=" + (totalIssuedCount + issuedCount) + " filtered=" + (totalFilteredCount + filteredCount);
+    }
+}
@@ -1,9 +1,6 @@
 package com.dferreira.gameEngine.modelGenerators;
 
 import com.dferreira.commons.generic_resources.ModelEnum;
-import com.dferreira.commons.shapes.IShape;
-
-import java.util.List;
 
 /**
  * Define the default properties that the element should obey
@@ -16,10 +13,6 @@ public class DefaultModelGenerator {
      */
     private ModelEnum objectType;
 
-    /**
-     * The name of the .obj that represents the model
-     */
-    private List<IShape> objectReference;
 
     /**
      * The scale of the model
@@ -51,22 +44,6 @@ public class DefaultModelGenerator {
         this.objectType = objectType;
     }
 
-    /**
-     * @return The reference to the object that represents the model
-     */
-    public List<IShape> getObjectReference() {
-        return objectReference;
-    }
-
-    /**
-     * Set the reference to object the represents the model
-     *
-     * @param objectReference reference to the object to set
-     */
-    public void setObjectReference(List<IShape> objectReference) {
-        this.objectReference = objectReference;
-    }
-
     /**
      * @return the scale
      */
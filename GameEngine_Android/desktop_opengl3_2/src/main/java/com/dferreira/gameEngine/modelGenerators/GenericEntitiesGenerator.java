@@ -1,22 +1,31 @@
 package com.dferreira.gameEngine.modelGenerators;
 
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.atlas.TextureAtlas;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.commons.shapes.BoundingVolume;
 import com.dferreira.commons.shapes.IShape;
 import com.dferreira.commons.utils.Utils;
-import com.dferreira.gameEngine.models.complexEntities.Entity;
+import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
 import com.dferreira.gameEngine.models.complexEntities.Material;
 import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
 import com.dferreira.gameEngine.models.complexEntities.RawModelMaterial;
+import com.dferreira.gameEngine.renderEngine.AssetStreamer;
+import com.dferreira.gameEngine.renderEngine.IAssetUpload;
 import com.dferreira.gameEngine.renderEngine.Loader;
+import com.dferreira.gameEngine.renderEngine.TextureRegistry;
 import com.dferreira.gameEngine.shaders.entities.TEntityAttribute;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Provide generic methods to generate entities
@@ -24,32 +33,80 @@ import java.util.List;
 public class GenericEntitiesGenerator {
 
     /**
-     * Load a textured model
-     *
-     * @param loader            the loader of the texture
-     * @param shapes            List of shapes that make the model
-     * @param hasTransparency   Flag that indicates if has transparency or not
-     * @param normalsPointingUp Indicates that all the normals of the object are pointing up
-     * @return the textured model loaded
+     * Indicates that the vertices of the entities are loaded in the compact format
+     * (Lossy, so only when asked with -Dgame.quantizeVertices=true, the entities are loaded as floats by default)
      */
-    static HashMap<String, MaterialGroup> getTexturedObj(Loader loader, ILoaderRenderAPI loaderAPI, List<IShape> shapes,
-                                                         boolean hasTransparency, boolean normalsPointingUp) {
-        HashMap<String, MaterialGroup> groupsOfMaterials = new HashMap<>();
+    private static final boolean QUANTIZE_VERTICES = Boolean.getBoolean("game.quantizeVertices");
 
+    /**
+     * Number of bytes of each component of the shapes
+     * (Used to estimate the bytes of each upload)
+     */
+    private static final int COMPONENT_BYTES = 4;
+
+    /**
+     * Name under which the atlas of the entities is registered
+     */
+    private static final String ATLAS_NAME = "entities.atlas";
+
+    /**
+     * Max width and height of the textures packed in the atlas (The bigger ones keep their own texture)
+     */
+    private static final int ATLAS_MAX_TEXTURE_SIZE = 128;
+
+    /**
+     * Texels around each texture in the atlas
+     * (A multiple of the side of the compressed blocks, so the blocks do not mix textures)
+     */
+    private static final int ATLAS_PADDING = 4;
+
+    /**
+     * Max width and height of the atlas
+     */
+    private static final int ATLAS_MAX_SIZE = 1024;
+
+    /**
+     * @return The attributes of the shader of the entities
+     */
+    private static HashMap<RenderAttributeEnum, IEnum> getEntityAttributes() {
         HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
 
         attributes.put(RenderAttributeEnum.position, TEntityAttribute.position);
         attributes.put(RenderAttributeEnum.textureCoords, TEntityAttribute.textureCoords);
         attributes.put(RenderAttributeEnum.normal, TEntityAttribute.normal);
+        return attributes;
+    }
 
-        for (IShape shape : shapes) {
-            IRawModel model = loaderAPI.loadToRawModel(shape, attributes);
+    /**
+     * Build the groups of materials of a model with the raw models already loaded
+     *
+     * @param loader            the loader of the materials
+     * @param shapes            List of shapes that make the model
+     * @param models            The raw model loaded of each shape
+     * @param textureRegistry   Registry where the textures of the model were loaded
+     *                          (Each material acquires its own handle to the texture)
+     * @param hasTransparency   Flag that indicates if has transparency or not
+     * @param normalsPointingUp Indicates that all the normals of the object are pointing up
+     * @return the groups of materials of the model
+     */
+    private static HashMap<String, MaterialGroup> getTexturedObj(Loader loader, List<IShape> shapes, IRawModel[] models,
+                                                                 TextureRegistry textureRegistry,
+                                                                 boolean hasTransparency, boolean normalsPointingUp) {
+        HashMap<String, MaterialGroup> groupsOfMaterials = new HashMap<>();
+
+        for (int i = 0; i < shapes.size(); i++) {
+            IShape shape = shapes.get(i);
             Material material = loader.loadMaterial(shape.getMaterial());
             material.setShineDamper(10.0f);
             material.setReflectivity(1.0f);
             material.setHasTransparency(hasTransparency);
+            // The shader of the entities discards the texels below half of the alpha, it does not blend them
+            material.setAlphaTested(hasTransparency);
             material.setNormalsPointingUp(normalsPointingUp);
-            RawModelMaterial texturedModel = new RawModelMaterial(model, material);
+            if (!Utils.isEmpty(material.getDiffuse().getFilename())) {
+                material.getDiffuse().setTexture(textureRegistry.acquire(material.getDiffuse().getFilename(), false));
+            }
+            RawModelMaterial texturedModel = new RawModelMaterial(models[i], material);
 
             List<RawModelMaterial> materials = new ArrayList<>();
             materials.add(texturedModel);
@@ -61,40 +118,292 @@ public class GenericEntitiesGenerator {
     }
 
     /**
-     * Load the textures of groups of materials
+     * @param shape Shape of a model
+     * @return The name of the file of the diffuse texture of the shape (null if has none)
+     */
+    private static String getTextureFileName(IShape shape) {
+        String fileName = (shape.getMaterial() == null) ? null : shape.getMaterial().getDiffuseTextureFileName();
+        return Utils.isEmpty(fileName) ? null : fileName;
+    }
+
+    /**
+     * Enqueues the uploads of one model already decoded
      *
-     * @param loaderRenderAPI   Loader to load content specific to the render API
-     * @param groupsOfMaterials The groups of material that is to load their textures
+     * @param streamer        Streamer that uploads the assets
+     * @param loader          the loader of the materials
+     * @param loaderAPI       Loader to load content specific to the render API
+     * @param textureRegistry Registry that shares the textures between the models
+     * @param model           Describes the model to load
+     * @param genericEntity   The generic entity that is resident after the last upload
+     * @param shapes          List of shapes that make the model
+     * @param texturesData    Textures of the model by file name (null values for the ones already registered)
      */
-    private static void loadTexturesOfObj(ILoaderRenderAPI loaderRenderAPI,
-                                          HashMap<String, MaterialGroup> groupsOfMaterials) {
-        if (!Utils.isEmpty(groupsOfMaterials)) {
-            for (String key : groupsOfMaterials.keySet()) {
-                MaterialGroup materialGroups = groupsOfMaterials.get(key);
-                if (!Utils.isEmpty(materialGroups.getMaterials())) {
-                    for (RawModelMaterial rawModelMaterial : materialGroups.getMaterials()) {
-                        Material material = rawModelMaterial.getMaterial();
-                        if ((!Utils.isEmpty(material.getDiffuse().getFilename())) && (material.getDiffuse().getTexture() == null)) {
-                            ITexture texture = loaderRenderAPI.loadTexture(material.getDiffuse().getFilename(), false);
-                            material.getDiffuse().setTexture(texture);
+    private static void enqueueModel(final AssetStreamer streamer, final Loader loader,
+                                     final ILoaderRenderAPI loaderAPI, final TextureRegistry textureRegistry,
+                                     final DefaultModelGenerator model, final GenericEntity genericEntity,
+                                     final List<IShape> shapes, Map<String, TextureData> texturesData) {
+        final HashMap<RenderAttributeEnum, IEnum> attributes = getEntityAttributes();
+        final IRawModel[] models = new IRawModel[shapes.size()];
+        final List<ITexture> textures = new ArrayList<>();
+        // Computed by the worker while the positions are still in memory
+        final BoundingVolume bounds = BoundingVolume.fromShapes(shapes);
+
+        // Shapes
+        for (int i = 0; i < shapes.size(); i++) {
+            final IShape shape = shapes.get(i);
+            final int index = i;
+            final long bytes = (long) (shape.getVertices().length + shape.getTextureCoords().length
+                    + shape.getNormals().length + shape.getIndices().length) * COMPONENT_BYTES;
+            streamer.enqueue(new IAssetUpload() {
+                @Override
+                public long getBytes() {
+                    return bytes;
+                }
+
+                @Override
+                public void upload() {
+                    models[index] = QUANTIZE_VERTICES ? loaderAPI.loadToQuantizedRawModel(shape, attributes)
+                            : loaderAPI.loadToRawModel(shape, attributes);
+                }
+            });
+        }
+
+        // Textures
+        for (final Map.Entry<String, TextureData> entry : texturesData.entrySet()) {
+            final TextureData textureData = entry.getValue();
+            final long bytes = (textureData == null) ? 0 : textureData.getSizeInBytes();
+            streamer.enqueue(new IAssetUpload() {
+                @Override
+                public long getBytes() {
+                    return bytes;
+                }
+
+                @Override
+                public void upload() {
+                    textures.add(textureRegistry.acquire(entry.getKey(), textureData, false));
+                }
+            });
+        }
+
+        // Makes the entity resident after all the parts
+        streamer.enqueue(new IAssetUpload() {
+            @Override
+            public long getBytes() {
+                return 0;
+            }
+
+            @Override
+            public void upload() {
+                genericEntity.setBounds(bounds);
+                genericEntity.setGroupsOfMaterials(getTexturedObj(loader, shapes, models, textureRegistry,
+                        model.getHasTransparency(), model.getNormalsPointingUp()));
+                // The materials have their own handles
+                for (ITexture texture : textures) {
+                    textureRegistry.release(texture);
+                }
+            }
+        });
+    }
+
+    /**
+     * Creates a generic entity that is going to have the model loaded by the streamer
+     * (The model is decoded by the workers and uploaded a few parts by frame, the entity is
+     * resident after the last part)
+     *
+     * @param streamer         Streamer that decodes and uploads the assets
+     * @param loader           the loader of the materials
+     * @param loaderAPI        Loader to load content specific to the render API
+     * @param textureRegistry  Registry that shares the textures between the models
+     * @param resourceProvider Provider of the resources to decode
+     * @param model            Describes the model to load
+     * @return The generic entity (Not resident until the streamer uploads the model)
+     */
+    static GenericEntity streamGenericEntity(final AssetStreamer streamer, final Loader loader,
+                                             final ILoaderRenderAPI loaderAPI, final TextureRegistry textureRegistry,
+                                             final IResourceProvider resourceProvider,
+                                             final DefaultModelGenerator model) {
+        final GenericEntity genericEntity = new GenericEntity(null, model.getObjectType());
+        streamer.decode(new Runnable() {
+            @Override
+            public void run() {
+                List<IShape> shapes = resourceProvider.getResource(model.getObjectType());
+                if (shapes == null) {
+                    System.err.println("Was not possible to load the model " + model.getObjectType());
+                    return;
+                }
+                // Textures (Each file is decoded only once and only if the registry does not have it)
+                Map<String, TextureData> texturesData = new LinkedHashMap<>();
+                for (IShape shape : shapes) {
+                    String fileName = getTextureFileName(shape);
+                    if ((fileName != null) && (!texturesData.containsKey(fileName))) {
+                        texturesData.put(fileName, textureRegistry.isRegistered(fileName, false) ? null
+                                : textureRegistry.decode(fileName));
+                    }
+                }
+                enqueueModel(streamer, loader, loaderAPI, textureRegistry, model, genericEntity, shapes, texturesData);
+            }
+        });
+        return genericEntity;
+    }
+
+    /**
+     * Creates the generic entities of several models that are going to be loaded by the streamer
+     * (The small textures of the models are packed in one atlas, so the models share the same bind)
+     *
+     * @param streamer         Streamer that decodes and uploads the assets
+     * @param loader           the loader of the materials
+     * @param loaderAPI        Loader to load content specific to the render API
+     * @param textureRegistry  Registry that shares the textures between the models
+     * @param resourceProvider Provider of the resources to decode
+     * @param models           Describes the models to load
+     * @return The generic entities in the same order of the models (Not resident until the streamer uploads them)
+     */
+    static GenericEntity[] streamGenericEntities(final AssetStreamer streamer, final Loader loader,
+                                                 final ILoaderRenderAPI loaderAPI,
+                                                 final TextureRegistry textureRegistry,
+                                                 final IResourceProvider resourceProvider,
+                                                 final List<DefaultModelGenerator> models) {
+        final GenericEntity[] genericEntities = new GenericEntity[models.size()];
+        for (int i = 0; i < models.size(); i++) {
+            genericEntities[i] = new GenericEntity(null, models.get(i).getObjectType());
+        }
+        streamer.decode(new Runnable() {
+            @Override
+            public void run() {
+                List<List<IShape>> shapesOfModels = new ArrayList<>();
+                Map<String, TextureData> texturesData = new HashMap<>();
+                for (DefaultModelGenerator model : models) {
+                    List<IShape> shapes = resourceProvider.getResource(model.getObjectType());
+                    if (shapes == null) {
+                        System.err.println("Was not possible to load the model " + model.getObjectType());
+                    } else {
+                        // Decoded without compression because the atlas needs the texels
+                        for (IShape shape : shapes) {
+                            String fileName = getTextureFileName(shape);
+                            if ((fileName != null) && (!texturesData.containsKey(fileName))) {
+                                texturesData.put(fileName, textureRegistry.isRegistered(fileName, false) ? null
+                                        : resourceProvider.getTexture(fileName));
+                            }
+                        }
+                    }
+                    // Copied because the shapes packed are replaced by the ones remapped
+                    shapesOfModels.add((shapes == null) ? null : new ArrayList<>(shapes));
+                }
+
+                final TextureAtlas atlas = packTextures(shapesOfModels, texturesData);
+                final ITexture[] atlasTexture = new ITexture[1];
+                if (atlas != null) {
+                    // The texels of the textures packed are in the atlas now
+                    for (String fileName : atlas.getRegions().keySet()) {
+                        texturesData.remove(fileName).release();
+                    }
+                    textureRegistry.registerAtlas(ATLAS_NAME, atlas);
+                    final TextureData atlasData = textureRegistry.compress(ATLAS_NAME, atlas.getTextureData());
+                    final long bytes = atlasData.getSizeInBytes();
+                    streamer.enqueue(new IAssetUpload() {
+                        @Override
+                        public long getBytes() {
+                            return bytes;
+                        }
+
+                        @Override
+                        public void upload() {
+                            atlasTexture[0] = textureRegistry.acquire(ATLAS_NAME, atlasData, false);
+                        }
+                    });
+                    for (List<IShape> shapes : shapesOfModels) {
+                        for (int i = 0; (shapes != null) && (i < shapes.size()); i++) {
+                            shapes.set(i, atlas.remap(shapes.get(i), getTextureFileName(shapes.get(i))));
+                        }
+                    }
+                }
+
+                for (int m = 0; m < models.size(); m++) {
+                    List<IShape> shapes = shapesOfModels.get(m);
+                    if (shapes == null) {
+                        continue;
+                    }
+                    Map<String, TextureData> modelTexturesData = new LinkedHashMap<>();
+                    for (IShape shape : shapes) {
+                        String fileName = getTextureFileName(shape);
+                        if ((fileName != null) && (!modelTexturesData.containsKey(fileName))) {
+                            boolean alone = (atlas == null) || (!atlas.contains(fileName));
+                            modelTexturesData.put(fileName, alone ? textureRegistry.compress(fileName,
+                                    texturesData.remove(fileName)) : null);
                         }
                     }
+                    enqueueModel(streamer, loader, loaderAPI, textureRegistry, models.get(m), genericEntities[m],
+                            shapes, modelTexturesData);
+                }
+
+                if (atlas != null) {
+                    // The materials have their own handles to the atlas
+                    streamer.enqueue(new IAssetUpload() {
+                        @Override
+                        public long getBytes() {
+                            return 0;
+                        }
+
+                        @Override
+                        public void upload() {
+                            textureRegistry.release(atlasTexture[0]);
+                        }
+                    });
+                }
+            }
+        });
+        return genericEntities;
+    }
+
+    /**
+     * Packs the small textures of the models in one atlas
+     * (Only the textures that all the shapes use with coordinates in [0, 1], the ones that repeat can not share)
+     *
+     * @param shapesOfModels Shapes of each model (null for the models that failed to load)
+     * @param texturesData   Textures decoded by file name (null values for the ones already registered)
+     * @return The atlas (null if there are not enough textures to pack)
+     */
+    private static TextureAtlas packTextures(List<List<IShape>> shapesOfModels, Map<String, TextureData> texturesData) {
+        Map<String, TextureData> candidates = new HashMap<>();
+        for (Map.Entry<String, TextureData> entry : texturesData.entrySet()) {
+            TextureData textureData = entry.getValue();
+            if ((textureData != null)
+                    && (Math.max(textureData.getWidth(), textureData.getHeight()) <= ATLAS_MAX_TEXTURE_SIZE)) {
+                candidates.put(entry.getKey(), textureData);
+            }
+        }
+        for (List<IShape> shapes : shapesOfModels) {
+            for (int i = 0; (shapes != null) && (i < shapes.size()); i++) {
+                String fileName = getTextureFileName(shapes.get(i));
+                if ((fileName != null) && (!TextureAtlas.isInUnitRange(shapes.get(i)))) {
+                    candidates.remove(fileName);
                 }
             }
         }
+        if (candidates.size() < 2) {
+            return null;
+        }
+        return TextureAtlas.build(candidates, ATLAS_PADDING, ATLAS_MAX_SIZE);
     }
 
     /**
-     * Load the textures of one entity
+     * Releases the handles to the textures of the materials of a generic entity
      *
-     * @param loaderRenderAPI Loader to load content specific to the render API
-     * @param entity          The entity for which is to load the textures
+     * @param textureRegistry Registry where the textures were acquired
+     * @param genericEntity   The generic entity that is not going to be render anymore
      */
-    static void loadTexturesOfEntity(ILoaderRenderAPI loaderRenderAPI, Entity entity) {
-        if ((entity != null) && (entity.getGenericEntity() != null)
-                && (!Utils.isEmpty(entity.getGenericEntity().getGroupsOfMaterials()))) {
-            HashMap<String, MaterialGroup> groupsOfMaterials = entity.getGenericEntity().getGroupsOfMaterials();
-            loadTexturesOfObj(loaderRenderAPI, groupsOfMaterials);
+    static void releaseTextures(TextureRegistry textureRegistry, GenericEntity genericEntity) {
+        if ((genericEntity == null) || (!genericEntity.isResident())) {
+            return;
+        }
+        for (MaterialGroup materialGroup : genericEntity.getGroupsOfMaterials().values()) {
+            for (RawModelMaterial rawModelMaterial : materialGroup.getMaterials()) {
+                Material material = rawModelMaterial.getMaterial();
+                if ((material != null) && (material.getDiffuse().getTexture() != null)) {
+                    textureRegistry.release(material.getDiffuse().getTexture());
+                    material.getDiffuse().setTexture(null);
+                }
+            }
         }
     }
 }
@@ -3,8 +3,12 @@ package com.dferreira.gameEngine.modelGenerators;
 import com.dferreira.commons.generic_player.IAudioDescription;
 import com.dferreira.commons.generic_player.IAudioLoader;
 import com.dferreira.commons.generic_resources.AudioEnum;
+import com.dferreira.commons.generic_resources.IAudioData;
 import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.gameEngine.renderEngine.AssetStreamer;
+import com.dferreira.gameEngine.renderEngine.IAssetUpload;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 
 /**
@@ -12,25 +16,73 @@ import java.util.HashMap;
  */
 public class WorldAudioGenerator {
 
+    /**
+     * Long sounds that are decoded while they are played instead of kept decoded in memory
+     */
+    private final static EnumSet<AudioEnum> STREAMED_AUDIO = EnumSet.of(AudioEnum.wind, AudioEnum.falcon);
+
     /**
      * Creates one dictionary with buffers to the audio engine
+     * (The sounds are decoded by the workers of the streamer and put in the dictionary as they are loaded)
      *
-     * @param loader
-     * @param resourceProvider
-     * @return
+     * @param loader           Loader of the audio buffers
+     * @param resourceProvider Provider of the resources to decode
+     * @param streamer         Streamer that decodes and uploads the sounds
+     * @return The dictionary of sounds (Empty until the sounds are loaded)
      */
-    public static HashMap<AudioEnum, IAudioDescription> getBuffers(IAudioLoader loader, IResourceProvider resourceProvider) {
-        AudioEnum[] audioTypes = AudioEnum.values();
-        HashMap<AudioEnum, IAudioDescription> audioLibrary = new HashMap<AudioEnum, IAudioDescription>();
-
-        for (AudioEnum tAudio : audioTypes) {
-            IAudioDescription audioBuffer = loader.loadAudio(tAudio, resourceProvider);
-            if (audioBuffer != null) {
-                audioLibrary.put(tAudio, audioBuffer);
-            }
-        }
+    public static HashMap<AudioEnum, IAudioDescription> getBuffers(final IAudioLoader loader,
+                                                                   final IResourceProvider resourceProvider,
+                                                                   final AssetStreamer streamer) {
+        final HashMap<AudioEnum, IAudioDescription> audioLibrary = new HashMap<AudioEnum, IAudioDescription>();
 
+        // The sounds are decoded one after another because the decoder of ogg files is shared
+        streamer.decode(new Runnable() {
+            @Override
+            public void run() {
+                AudioEnum[] audioTypes = AudioEnum.values();
+                for (final AudioEnum tAudio : audioTypes) {
+                    if (STREAMED_AUDIO.contains(tAudio)) {
+                        final IAudioDescription streamingAudio = loader.loadStreamingAudio(tAudio, resourceProvider);
+                        if (streamingAudio != null) {
+                            // Nothing to upload, each source opens its own stream when it plays the audio
+                            streamer.enqueue(new IAssetUpload() {
+                                @Override
+                                public long getBytes() {
+                                    return 0;
+                                }
+
+                                @Override
+                                public void upload() {
+                                    audioLibrary.put(tAudio, streamingAudio);
+                                }
+                            });
+                            continue;
+                        }
+                    }
+                    final IAudioData audioData = resourceProvider.getResource(tAudio);
+                    if (audioData == null) {
+                        continue;
+                    }
+                    streamer.enqueue(new IAssetUpload() {
+                        /**
+                         * @return 0 because the generic audio data does not know its size (Only the time budget applies)
+                         */
+                        @Override
+                        public long getBytes() {
+                            return 0;
+                        }
+
+                        @Override
+                        public void upload() {
+                            IAudioDescription audioBuffer = loader.loadAudio(audioData);
+                            if (audioBuffer != null) {
+                                audioLibrary.put(tAudio, audioBuffer);
+                            }
+                        }
+                    });
+                }
+            }
+        });
         return audioLibrary;
     }
-
 }
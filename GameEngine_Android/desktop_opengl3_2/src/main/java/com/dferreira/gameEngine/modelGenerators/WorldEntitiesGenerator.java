@@ -5,13 +5,18 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
 import com.dferreira.commons.utils.Utils;
-import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.ITerrainHeights;
+import com.dferreira.gameEngine.models.TerrainHeightsSampler;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
 import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
-import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
+import com.dferreira.gameEngine.renderEngine.AssetStreamer;
 import com.dferreira.gameEngine.renderEngine.Loader;
+import com.dferreira.gameEngine.renderEngine.TextureRegistry;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -43,16 +48,14 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
     /**
      * Get the default values of the entities that are going make the world
      *
-     * @param rProvider Provider of the resources to load
      * @return The map of model VS quantities of entities
      */
-    private static HashMap<DefaultModelGenerator, Integer> getEntitiesMap(IResourceProvider rProvider) {
+    private static HashMap<DefaultModelGenerator, Integer> getEntitiesMap() {
         HashMap<DefaultModelGenerator, Integer> entitiesMap = new HashMap<DefaultModelGenerator, Integer>();
 
 		/* Fern model */
         DefaultModelGenerator fernModel = new DefaultModelGenerator();
         fernModel.setObjectType(ModelEnum.fern);
-        fernModel.setObjectReference(rProvider.getResource(ModelEnum.fern));
         fernModel.setScale(1.0f);
         fernModel.setHasTransparency(true);
         fernModel.setNormalsPointingUp(true);
@@ -60,7 +63,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* Tree model */
         DefaultModelGenerator treeModel = new DefaultModelGenerator();
         treeModel.setObjectType(ModelEnum.tree);
-        treeModel.setObjectReference(rProvider.getResource(ModelEnum.tree));
         treeModel.setScale(10.0f);
         treeModel.setHasTransparency(false);
         treeModel.setNormalsPointingUp(false);
@@ -68,7 +70,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* Banana tree */
         DefaultModelGenerator bananaTreeModel = new DefaultModelGenerator();
         bananaTreeModel.setObjectType(ModelEnum.banana_tree);
-        bananaTreeModel.setObjectReference(rProvider.getResource(ModelEnum.banana_tree));
         bananaTreeModel.setScale(1.0f);
         bananaTreeModel.setHasTransparency(true);
         bananaTreeModel.setNormalsPointingUp(false);
@@ -76,7 +77,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* grass model */
         DefaultModelGenerator grassModel = new DefaultModelGenerator();
         grassModel.setObjectType(ModelEnum.grass);
-        grassModel.setObjectReference(rProvider.getResource(ModelEnum.grass));
         grassModel.setScale(1.0f);
         grassModel.setHasTransparency(true);
         grassModel.setNormalsPointingUp(true);
@@ -84,7 +84,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* flower model */
         DefaultModelGenerator flowerModel = new DefaultModelGenerator();
         flowerModel.setObjectType(ModelEnum.flower);
-        flowerModel.setObjectReference(rProvider.getResource(ModelEnum.flower));
         flowerModel.setScale(1.0f);
         flowerModel.setHasTransparency(true);
         flowerModel.setNormalsPointingUp(false);
@@ -92,7 +91,6 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
 		/* Marble model */
         DefaultModelGenerator marbleModel = new DefaultModelGenerator();
         marbleModel.setObjectType(ModelEnum.marble);
-        marbleModel.setObjectReference(rProvider.getResource(ModelEnum.marble));
         marbleModel.setScale(5.0f);
         marbleModel.setHasTransparency(false);
         marbleModel.setNormalsPointingUp(false);
@@ -113,12 +111,15 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
      * @param loaderAPI        loader that will load the entities of the 3D world
      * @param resourceProvider Provider of the resources used in the application
      * @param terrain          The terrain used to determine the height position
-     * @return The entities that will compose the 3D world
+     * @param streamer         Streamer that loads the models of the entities in background
+     * @param textureRegistry  Registry that shares the textures between the models
+     * @return The entities that will compose the 3D world (Only render after their models are loaded)
      */
     public static Entity[] getEntities(Loader loader, ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider,
-                                       Terrain terrain) {
+                                       ITerrainHeights terrain, AssetStreamer streamer,
+                                       TextureRegistry textureRegistry) {
 
-        HashMap<DefaultModelGenerator, Integer> entitiesMap = getEntitiesMap(resourceProvider);
+        HashMap<DefaultModelGenerator, Integer> entitiesMap = getEntitiesMap();
 
         int totalModels = 0;
         for (DefaultModelGenerator key : entitiesMap.keySet()) {
@@ -126,19 +127,29 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
         }
         Entity[] entities = new Entity[totalModels];
 
+        // The models are streamed together to share the atlas of their small textures
+        List<DefaultModelGenerator> models = new ArrayList<>(entitiesMap.keySet());
+        GenericEntity[] genericEntities = streamGenericEntities(streamer, loader, loaderAPI, textureRegistry,
+                resourceProvider, models);
+
+        // The heights of all the positions are sampled in one batch
         Random random = new Random();
+        float[] xPositions = new float[totalModels];
+        float[] zPositions = new float[totalModels];
+        float[] yPositions = new float[totalModels];
+        for (int i = 0; i < totalModels; i++) {
+            xPositions[i] = 20.0f + random.nextFloat() * 400.0f;
+            zPositions[i] = random.nextFloat() * 400.0f;
+        }
+        TerrainHeightsSampler.sample(terrain, xPositions, zPositions, totalModels, yPositions, null);
+
         int count = 0;
-        for (DefaultModelGenerator key : entitiesMap.keySet()) {
-            HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI,
-                    key.getObjectReference(), key.getHasTransparency(), key.getNormalsPointingUp());
-            GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, key.getObjectType());
-            // Prepare generic entity end
+        for (int m = 0; m < models.size(); m++) {
+            DefaultModelGenerator key = models.get(m);
+            GenericEntity genericEntity = genericEntities[m];
             Integer numberOfObjs = entitiesMap.get(key);
             for (int i = 0; i < numberOfObjs; i++) {
-                float xPosition = 20.0f + random.nextFloat() * 400.0f;
-                float zPosition = random.nextFloat() * 400.0f;
-                float yPosition = terrain.getHeightOfTerrain(xPosition, zPosition);
-                Vector3f entityPosition = new Vector3f(xPosition, yPosition, zPosition);
+                Vector3f entityPosition = new Vector3f(xPositions[count], yPositions[count], zPositions[count]);
                 Entity entity = getEntity(genericEntity, entityPosition);
                 float scale = random.nextFloat() * key.getScale();
                 entity.setScale(scale);
@@ -150,15 +161,20 @@ public class WorldEntitiesGenerator extends GenericEntitiesGenerator {
     }
 
     /**
-     * Load the textures of a list of entities
+     * Releases the textures of a list of entities
      *
-     * @param loaderRenderAPI Loader to load content specific to the render API
-     * @param entities        The entities for which is to load the textures
+     * @param textureRegistry Registry where the textures were acquired
+     * @param entities        The entities for which is to release the textures
      */
-    public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, Entity[] entities) {
+    public static void releaseTextures(TextureRegistry textureRegistry, Entity[] entities) {
         if (!Utils.isEmpty(entities)) {
+            // The entities of the same model share the generic entity
+            IdentityHashMap<GenericEntity, Boolean> released = new IdentityHashMap<>();
             for (Entity entity : entities) {
-                loadTexturesOfEntity(loaderRenderAPI, entity);
+                GenericEntity genericEntity = entity.getGenericEntity();
+                if (released.put(genericEntity, Boolean.TRUE) == null) {
+                    releaseTextures(textureRegistry, genericEntity);
+                }
             }
         }
     }
@@ -2,25 +2,43 @@ package com.dferreira.gameEngine.modelGenerators;
 
 import com.dferreira.commons.IEnum;
 import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.atlas.TextureAtlas;
 import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
 import com.dferreira.commons.generic_resources.TextureEnum;
+import com.dferreira.commons.models.TextureData;
 import com.dferreira.commons.utils.Utils;
 import com.dferreira.gameEngine.models.GuiShape;
 import com.dferreira.gameEngine.models.GuiTexture;
 import com.dferreira.gameEngine.shaders.guis.TGuiAttribute;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Responsible for creating the multiple GUIs to the user interact with 3D world
  */
 public class WorldGUIsGenerator {
 
+    private final static Logger logger = LogManager.getLogger(WorldGUIsGenerator.class);
+
     private final static int NUMBER_OF_GUI = 1;
 
+    /**
+     * Texels around each texture in the atlas of the GUIs
+     */
+    private final static int ATLAS_PADDING = 4;
+
+    /**
+     * Max width and height of the atlas of the GUIs
+     */
+    private final static int ATLAS_MAX_SIZE = 2048;
+
     /**
      * @param rawMode     Shape of the GUI
      * @param textureEnum The enum of the file where the texture exists
@@ -66,16 +84,43 @@ public class WorldGUIsGenerator {
 
     /**
      * Loads the textures of the guis
+     * (The textures are packed in one atlas so all the GUIs are rendered with the same bind)
      *
      * @param loaderRenderAPI Loader to load the raw model
      * @param GUIs            List of the GUIs in the scene
      */
     public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, GuiTexture[] GUIs) {
         if (!Utils.isEmpty(GUIs)) {
+            Map<String, TextureData> texturesData = new HashMap<>();
+            for (GuiTexture guiTexture : GUIs) {
+                String name = guiTexture.getTextureEnum().toString();
+                if (!texturesData.containsKey(name)) {
+                    TextureData textureData = loaderRenderAPI.getTextureData(guiTexture.getTextureEnum());
+                    if (textureData != null) {
+                        texturesData.put(name, textureData);
+                    }
+                }
+            }
+            TextureAtlas atlas = TextureAtlas.build(texturesData, ATLAS_PADDING, ATLAS_MAX_SIZE);
+            for (TextureData textureData : texturesData.values()) {
+                textureData.release();
+            }
+            ITexture atlasTexture = null;
+            if (atlas != null) {
+                logger.info("GUIs atlas " + atlas);
+                atlasTexture = loaderRenderAPI.loadTexture(atlas.getTextureData(), false);
+                atlas.getTextureData().release();
+            }
             for (GuiTexture guiTexture : GUIs) {
-                // Load the texture of the GUI
-                ITexture texture = loaderRenderAPI.loadTexture(guiTexture.getTextureEnum(), false);
-                guiTexture.setTexture(texture);
+                String name = guiTexture.getTextureEnum().toString();
+                if ((atlasTexture != null) && atlas.contains(name)) {
+                    guiTexture.setTexture(atlasTexture);
+                    guiTexture.setTextureRegion(atlas.getRegion(name));
+                } else {
+                    // Load the texture of the GUI alone
+                    ITexture texture = loaderRenderAPI.loadTexture(guiTexture.getTextureEnum(), false);
+                    guiTexture.setTexture(texture);
+                }
             }
         }
     }
@@ -6,10 +6,9 @@ import com.dferreira.commons.generic_resources.IResourceProvider;
 import com.dferreira.commons.generic_resources.ModelEnum;
 import com.dferreira.gameEngine.models.Player;
 import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
-import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
+import com.dferreira.gameEngine.renderEngine.AssetStreamer;
 import com.dferreira.gameEngine.renderEngine.Loader;
-
-import java.util.HashMap;
+import com.dferreira.gameEngine.renderEngine.TextureRegistry;
 
 /**
  * Responsible for creating the creating the player_mtl(s) of the scene
@@ -17,13 +16,11 @@ import java.util.HashMap;
 public class WorldPlayersGenerator extends GenericEntitiesGenerator {
 
     /**
-     * @param rProvider Provider of the resources to load
      * @return The model with information to generate a player_mtl
      */
-    private static DefaultModelGenerator getPlayerModel(IResourceProvider rProvider) {
+    private static DefaultModelGenerator getPlayerModel() {
         /* Player model */
         DefaultModelGenerator playerModel = new DefaultModelGenerator();
-        playerModel.setObjectReference(rProvider.getResource(ModelEnum.player));
         playerModel.setObjectType(ModelEnum.player);
         playerModel.setScale(1.0f);
         playerModel.setHasTransparency(false);
@@ -34,12 +31,17 @@ public class WorldPlayersGenerator extends GenericEntitiesGenerator {
     }
 
     /**
-     * @param loader loader that will load the entities of the 3D world
-     * @return The player_mtl that is going to be used in the scene
+     * @param loader           loader that will load the entities of the 3D world
+     * @param loaderAPI        loader that will load the entities of the 3D world
+     * @param resourceProvider Provider of the resources used in the application
+     * @param streamer         Streamer that loads the model of the player in background
+     * @param textureRegistry  Registry that shares the textures between the models
+     * @return The player_mtl that is going to be used in the scene (Only render after its model is loaded)
      */
     @SuppressWarnings("UnnecessaryLocalVariable")
-    public static Player getPlayer(Loader loader, ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider) {
-        DefaultModelGenerator model = getPlayerModel(resourceProvider);
+    public static Player getPlayer(Loader loader, ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider,
+                                   AssetStreamer streamer, TextureRegistry textureRegistry) {
+        DefaultModelGenerator model = getPlayerModel();
 
         float xPosition = 20.0f;
         float yPosition = -1.0f;
@@ -48,9 +50,8 @@ public class WorldPlayersGenerator extends GenericEntitiesGenerator {
         Vector3f playerPosition = new Vector3f(xPosition, yPosition, zPosition);
 
         //Load the obj of the player
-        HashMap<String, MaterialGroup> groupsOfMaterials = getTexturedObj(loader, loaderAPI, model.getObjectReference(),
-                model.getHasTransparency(), model.getNormalsPointingUp());
-        GenericEntity genericEntity = new GenericEntity(groupsOfMaterials, model.getObjectType());
+        GenericEntity genericEntity = streamGenericEntity(streamer, loader, loaderAPI, textureRegistry,
+                resourceProvider, model);
         //Prepare generic entity end
         Player player = new Player(genericEntity, playerPosition, // Position
                 0.0f, 0.0f, 0.0f, // Rotation
@@ -59,14 +60,15 @@ public class WorldPlayersGenerator extends GenericEntitiesGenerator {
         return player;
     }
 
-
     /**
-     * Load the textures of the players
+     * Releases the textures of the player
      *
-     * @param loaderRenderAPI Loader to load the raw model
-     * @param player          The player which is to load the textures
+     * @param textureRegistry Registry where the textures were acquired
+     * @param player          The player for which is to release the textures
      */
-    public static void loadTextures(ILoaderRenderAPI loaderRenderAPI, Player player) {
-        loadTexturesOfEntity(loaderRenderAPI, player);
+    public static void releaseTextures(TextureRegistry textureRegistry, Player player) {
+        if (player != null) {
+            releaseTextures(textureRegistry, player.getGenericEntity());
+        }
     }
 }
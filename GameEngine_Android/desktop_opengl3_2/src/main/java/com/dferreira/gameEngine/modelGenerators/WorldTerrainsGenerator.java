@@ -8,8 +8,12 @@ import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_render.RenderAttributeEnum;
 import com.dferreira.commons.generic_resources.TextureEnum;
 import com.dferreira.commons.models.TextureData;
+import com.dferreira.gameEngine.models.HeightField;
 import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.TerrainLod;
 import com.dferreira.gameEngine.models.TerrainShape;
+import com.dferreira.gameEngine.renderEngine.AssetStreamer;
+import com.dferreira.gameEngine.renderEngine.TerrainTileManager;
 import com.dferreira.gameEngine.shaders.terrains.TTerrainAttribute;
 import com.dferreira.gameEngine.textures.TerrainTexturesPack;
 
@@ -20,6 +24,22 @@ import java.util.HashMap;
  */
 public class WorldTerrainsGenerator {
 
+    /**
+     * Position of the tile of terrain with index zero (In sizes of tiles)
+     */
+    private static final Vector3f TILES_ORIGIN = new Vector3f(0.0f, 0.0f, -0.1f);
+
+    /**
+     * Number of tiles resident in each direction around the tile of the player
+     * (Covers the distance of the far plane of the camera)
+     */
+    private static final int TILES_RADIUS = 2;
+
+    /**
+     * Maximum number of tiles resident (The ones around the player and the ones left recently)
+     */
+    private static final int MAX_RESIDENT_TILES = 30;
+
     /**
      * Load the texture of the terrain
      *
@@ -45,16 +65,29 @@ public class WorldTerrainsGenerator {
         return texturesPackage;
     }
 
+    /**
+     * @return The attributes of the shader of the terrains
+     */
+    private static HashMap<RenderAttributeEnum, IEnum> getTerrainAttributes() {
+        HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
+
+        attributes.put(RenderAttributeEnum.position, TTerrainAttribute.position);
+        attributes.put(RenderAttributeEnum.textureCoords, TTerrainAttribute.textureCoords);
+        attributes.put(RenderAttributeEnum.normal, TTerrainAttribute.normal);
+        return attributes;
+    }
+
     /**
      * Creates a terrain in a specified position
      *
      * @param terrainModel Model of the terrain to render
      * @param heights      The height of the vertices of the terrain
+     * @param lod          The chunks of the terrain and their levels of detail
      * @param position     Position where is to put the terrain
      * @return The terrain in the position specified
      */
-    private static Terrain getTerrain(IRawModel terrainModel, float[][] heights, Vector3f position) {
-        return new Terrain(terrainModel, heights, position);
+    private static Terrain getTerrain(IRawModel terrainModel, HeightField heights, TerrainLod lod, Vector3f position) {
+        return new Terrain(terrainModel, heights, lod, position);
     }
 
     /**
@@ -65,18 +98,33 @@ public class WorldTerrainsGenerator {
         TextureData heightMap = loaderRenderAPI.getTextureData(TextureEnum.terrain_heightmap);
 
         TerrainShape terrain = new TerrainShape(heightMap);
+        // The heights were already read
+        heightMap.release();
 
-        HashMap<RenderAttributeEnum, IEnum> attributes = new HashMap<>();
-
-        attributes.put(RenderAttributeEnum.position, TTerrainAttribute.position);
-        attributes.put(RenderAttributeEnum.textureCoords, TTerrainAttribute.textureCoords);
-        attributes.put(RenderAttributeEnum.normal, TTerrainAttribute.normal);
-
-
-        IRawModel model = loaderRenderAPI.loadToRawModel(terrain, attributes);
+        IRawModel model = loaderRenderAPI.loadToRawModel(terrain, getTerrainAttributes());
 
         Vector3f terrainPosition1 = new Vector3f(0.0f, 0.0f, -0.1f);
-        return getTerrain(model, terrain.getHeights(), terrainPosition1);
+        return getTerrain(model, terrain.getHeights(), terrain.getLod(), terrainPosition1);
+    }
+
+    /**
+     * Creates the manager of the tiles of terrain of the 3D world
+     * (The tile at the origin is loaded right away, the others are streamed around the player)
+     *
+     * @param loaderRenderAPI The API responsible for load elements specifics to the render
+     * @param streamer        Streamer that generates the tiles in background and uploads them
+     * @param levelsOfDetail  If the render API can draw the tiles in chunks with levels of detail
+     * @return The manager of the tiles of terrain
+     */
+    public static TerrainTileManager getTerrainTiles(ILoaderRenderAPI loaderRenderAPI, AssetStreamer streamer,
+                                                     boolean levelsOfDetail) {
+        // Kept by the manager to generate the tiles
+        TextureData heightMap = loaderRenderAPI.getTextureData(TextureEnum.terrain_heightmap);
+        TerrainTileManager terrainTiles = new TerrainTileManager(loaderRenderAPI, streamer, heightMap,
+                getTexturedTerrain(loaderRenderAPI), getTerrainAttributes(), levelsOfDetail, TILES_ORIGIN,
+                TILES_RADIUS, MAX_RESIDENT_TILES);
+        terrainTiles.loadTileNow(0, 0);
+        return terrainTiles;
     }
 
     /**
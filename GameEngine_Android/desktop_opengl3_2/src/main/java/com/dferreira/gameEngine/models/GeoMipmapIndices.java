@@ -0,0 +1,207 @@
+package com.dferreira.gameEngine.models;
+
+import java.util.Arrays;
+
+/**
+ * Indices of one chunk of terrain in each level of detail (Geomipmapping)
+ * (Level l uses one vertex in each 2^l of the chunk. Each level has a variant for each set of edges next to a
+ * chunk one level coarser, where the vertices that the coarser chunk does not have are collapsed onto the
+ * next vertex of the edge so both chunks have the same edge and no cracks appear between them)
+ */
+public class GeoMipmapIndices {
+
+    /**
+     * Bits of the stitch mask with the edges of the chunk next to a coarser chunk
+     */
+    public final static int LEFT_EDGE = 1;
+    public final static int RIGHT_EDGE = 2;
+    public final static int TOP_EDGE = 4;
+    public final static int BOTTOM_EDGE = 8;
+
+    /**
+     * Number of different stitch masks
+     */
+    public final static int MASKS_COUNT = 16;
+
+    /**
+     * Number of quads in each side of the chunk
+     */
+    private final int chunkQuads;
+
+    /**
+     * Number of vertices in each side of the chunk
+     */
+    private final int chunkVertices;
+
+    /**
+     * Number of levels of detail (The last one is the chunk as two triangles)
+     */
+    private final int levelsCount;
+
+    /**
+     * Indices of all the variants one after the other
+     */
+    private final int[] indices;
+
+    /**
+     * Position of the first index and number of indices of each variant (By level and mask)
+     */
+    private final int[] firstIndex;
+    private final int[] indicesCount;
+
+    /**
+     * Constructor of the indices of the chunks
+     *
+     * @param chunkQuads Number of quads in each side of the chunk (A power of two)
+     */
+    public GeoMipmapIndices(int chunkQuads) {
+        if ((chunkQuads <= 0) || ((chunkQuads & (chunkQuads - 1)) != 0)) {
+            throw new IllegalArgumentException("The number of quads of the chunks is not a power of two: "
+                    + chunkQuads);
+        }
+        this.chunkQuads = chunkQuads;
+        this.chunkVertices = chunkQuads + 1;
+        this.levelsCount = Integer.numberOfTrailingZeros(chunkQuads) + 1;
+        this.firstIndex = new int[levelsCount * MASKS_COUNT];
+        this.indicesCount = new int[levelsCount * MASKS_COUNT];
+
+        // The worst case of each variant is the level without stitches
+        int capacity = 0;
+        for (int level = 0; level < levelsCount; level++) {
+            int quads = chunkQuads >> level;
+            capacity += MASKS_COUNT * 6 * quads * quads;
+        }
+        int[] buffer = new int[capacity];
+        int count = 0;
+        for (int level = 0; level < levelsCount; level++) {
+            for (int mask = 0; mask < MASKS_COUNT; mask++) {
+                int variant = level * MASKS_COUNT + mask;
+                if ((level == levelsCount - 1) && (mask != 0)) {
+                    // There is no coarser level to stitch to
+                    firstIndex[variant] = firstIndex[level * MASKS_COUNT];
+                    indicesCount[variant] = indicesCount[level * MASKS_COUNT];
+                    continue;
+                }
+                firstIndex[variant] = count;
+                count = generate(level, mask, buffer, count);
+                indicesCount[variant] = count - firstIndex[variant];
+            }
+        }
+        this.indices = Arrays.copyOf(buffer, count);
+    }
+
+    /**
+     * Moves one vertex of a stitched edge to the next vertex of the edge when the coarser level does not have it
+     * (The vertices move to the top left corner in the top and left edges and to the bottom right corner in the
+     * others, the two corners that the diagonals of the quads do not touch, so no triangle is flipped)
+     *
+     * @param row    Row of the vertex in the chunk
+     * @param column Column of the vertex in the chunk
+     * @param step   Distance between the vertices of the level
+     * @param mask   Edges of the chunk next to a coarser chunk
+     * @return Index of the vertex in the chunk after the collapse
+     */
+    private int vertexOf(int row, int column, int step, int mask) {
+        int doubleStep = step * 2;
+        if ((row == 0) && ((mask & TOP_EDGE) != 0) && (column % doubleStep != 0)) {
+            column -= step;
+        } else if ((row == chunkQuads) && ((mask & BOTTOM_EDGE) != 0) && (column % doubleStep != 0)) {
+            column += step;
+        } else if ((column == 0) && ((mask & LEFT_EDGE) != 0) && (row % doubleStep != 0)) {
+            row -= step;
+        } else if ((column == chunkQuads) && ((mask & RIGHT_EDGE) != 0) && (row % doubleStep != 0)) {
+            row += step;
+        }
+        return row * chunkVertices + column;
+    }
+
+    /**
+     * Writes one triangle unless two of its vertices were collapsed to the same one
+     *
+     * @param a      First vertex
+     * @param b      Second vertex
+     * @param c      Third vertex
+     * @param buffer Where the indices are written
+     * @param count  Number of indices already in the buffer
+     * @return The number of indices in the buffer after the triangle
+     */
+    private static int addTriangle(int a, int b, int c, int[] buffer, int count) {
+        if ((a == b) || (b == c) || (a == c)) {
+            return count;
+        }
+        buffer[count++] = a;
+        buffer[count++] = b;
+        buffer[count++] = c;
+        return count;
+    }
+
+    /**
+     * Generates the indices of one variant (With the same diagonal in the quads as the full terrain)
+     *
+     * @param level  Level of detail
+     * @param mask   Edges of the chunk next to a coarser chunk
+     * @param buffer Where the indices are written
+     * @param count  Number of indices already in the buffer
+     * @return The number of indices in the buffer after the variant
+     */
+    private int generate(int level, int mask, int[] buffer, int count) {
+        int step = 1 << level;
+        for (int row = 0; row < chunkQuads; row += step) {
+            for (int column = 0; column < chunkQuads; column += step) {
+                int topLeft = vertexOf(row, column, step, mask);
+                int topRight = vertexOf(row, column + step, step, mask);
+                int bottomLeft = vertexOf(row + step, column, step, mask);
+                int bottomRight = vertexOf(row + step, column + step, step, mask);
+                count = addTriangle(topLeft, bottomLeft, topRight, buffer, count);
+                count = addTriangle(topRight, bottomLeft, bottomRight, buffer, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of quads in each side of the chunk
+     */
+    public int getChunkQuads() {
+        return chunkQuads;
+    }
+
+    /**
+     * @return the number of vertices of one chunk
+     */
+    public int getChunkVerticesCount() {
+        return chunkVertices * chunkVertices;
+    }
+
+    /**
+     * @return the number of levels of detail
+     */
+    public int getLevelsCount() {
+        return levelsCount;
+    }
+
+    /**
+     * @return the indices of all the variants one after the other (Relative to the first vertex of the chunk)
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @param level Level of detail
+     * @param mask  Edges of the chunk next to a coarser chunk
+     * @return The position of the first index of the variant
+     */
+    public int getFirstIndex(int level, int mask) {
+        return firstIndex[level * MASKS_COUNT + mask];
+    }
+
+    /**
+     * @param level Level of detail
+     * @param mask  Edges of the chunk next to a coarser chunk
+     * @return The number of indices of the variant
+     */
+    public int getIndicesCount(int level, int mask) {
+        return indicesCount[level * MASKS_COUNT + mask];
+    }
+}
@@ -1,6 +1,7 @@
 package com.dferreira.gameEngine.models;
 
 import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.atlas.AtlasRegion;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.generic_render.ITexture;
 import com.dferreira.commons.generic_resources.TextureEnum;
@@ -34,6 +35,16 @@ public class GuiTexture {
      */
     private ITexture texture;
 
+    /**
+     * Offset of the texture coordinates in the texture (Not zero when the texture is in an atlas)
+     */
+    private Vector2f textureOffset;
+
+    /**
+     * Scale of the texture coordinates in the texture (Not one when the texture is in an atlas)
+     */
+    private Vector2f textureScale;
+
     /**
      * @param rawModel    The rawModel that will be used by the guiTexture
      * @param textureEnum Identifier of resource that contains the texture
@@ -46,6 +57,8 @@ public class GuiTexture {
         this.textureEnum = textureEnum;
         this.position = position;
         this.scale = scale;
+        this.textureOffset = new Vector2f(0.0f, 0.0f);
+        this.textureScale = new Vector2f(1.0f, 1.0f);
     }
 
     /**
@@ -89,4 +102,26 @@ public class GuiTexture {
     public Vector2f getScale() {
         return scale;
     }
+
+    /**
+     * @return Offset of the texture coordinates in the texture
+     */
+    public Vector2f getTextureOffset() {
+        return textureOffset;
+    }
+
+    /**
+     * @return Scale of the texture coordinates in the texture
+     */
+    public Vector2f getTextureScale() {
+        return textureScale;
+    }
+
+    /**
+     * @param region Region of the texture in the atlas
+     */
+    public void setTextureRegion(AtlasRegion region) {
+        this.textureOffset = new Vector2f(region.getOffsetU(), region.getOffsetV());
+        this.textureScale = new Vector2f(region.getScaleU(), region.getScaleV());
+    }
 }
@@ -0,0 +1,187 @@
+package com.dferreira.gameEngine.models;
+
+/**
+ * Heights of the vertices of one terrain in a flat array, row by row in the z-axle
+ * (Samples the surface of the triangles of the terrain without allocating anything)
+ */
+public class HeightField {
+
+    /**
+     * Heights of the vertices (The vertex x of the row z is in z * vertexCount + x)
+     */
+    private final float[] heights;
+
+    /**
+     * Number of vertices in each side of the terrain
+     */
+    private final int vertexCount;
+
+    /**
+     * Size of the side of the terrain in the world
+     */
+    private final float size;
+
+    /**
+     * Size of the side of one quad of the terrain
+     */
+    private final float gridSquareSize;
+
+    /**
+     * Lowest and highest heights of the terrain
+     */
+    private final float minHeight;
+    private final float maxHeight;
+
+    /**
+     * Constructor of the height field
+     *
+     * @param heights     Heights of the vertices row by row in the z-axle
+     * @param vertexCount Number of vertices in each side of the terrain
+     * @param size        Size of the side of the terrain in the world
+     */
+    public HeightField(float[] heights, int vertexCount, float size) {
+        if ((vertexCount < 2) || (heights.length != vertexCount * vertexCount)) {
+            throw new IllegalArgumentException("The " + heights.length + " heights are not a square of "
+                    + vertexCount + " vertices by side");
+        }
+        this.heights = heights;
+        this.vertexCount = vertexCount;
+        this.size = size;
+        this.gridSquareSize = size / (vertexCount - 1);
+
+        float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+        for (float height : heights) {
+            min = Math.min(min, height);
+            max = Math.max(max, height);
+        }
+        this.minHeight = min;
+        this.maxHeight = max;
+    }
+
+    /**
+     * @return the heights of the vertices row by row in the z-axle
+     */
+    public float[] getHeights() {
+        return heights;
+    }
+
+    /**
+     * @return the number of vertices in each side of the terrain
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return the size of the side of the terrain in the world
+     */
+    public float getSize() {
+        return size;
+    }
+
+    /**
+     * @return the lowest height of the terrain
+     */
+    public float getMinHeight() {
+        return minHeight;
+    }
+
+    /**
+     * @return the highest height of the terrain
+     */
+    public float getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * @param x Index of the vertex in the x-axle
+     * @param z Index of the vertex in the z-axle
+     * @return The height of the vertex
+     */
+    public float getHeight(int x, int z) {
+        return heights[z * vertexCount + x];
+    }
+
+    /**
+     * The height of the surface of the terrain in one position
+     * (Interpolated in the triangle of the position with the same diagonal as the model)
+     *
+     * @param x X of the position relative to the terrain
+     * @param z Z of the position relative to the terrain
+     * @return The height in the position (Zero outside of the terrain)
+     */
+    public float getHeightAt(float x, float z) {
+        float gridX = x / gridSquareSize, gridZ = z / gridSquareSize;
+        int quadX = (int) Math.floor(gridX), quadZ = (int) Math.floor(gridZ);
+        if ((quadX < 0) || (quadZ < 0) || (quadX >= vertexCount - 1) || (quadZ >= vertexCount - 1)) {
+            return 0.0f;
+        }
+        float u = gridX - quadX, v = gridZ - quadZ;
+        int topLeft = quadZ * vertexCount + quadX;
+        float topRightHeight = heights[topLeft + 1];
+        float bottomLeftHeight = heights[topLeft + vertexCount];
+        if (u + v <= 1.0f) {
+            float topLeftHeight = heights[topLeft];
+            return topLeftHeight + u * (topRightHeight - topLeftHeight) + v * (bottomLeftHeight - topLeftHeight);
+        } else {
+            float bottomRightHeight = heights[topLeft + vertexCount + 1];
+            return bottomRightHeight + (1.0f - u) * (bottomLeftHeight - bottomRightHeight)
+                    + (1.0f - v) * (topRightHeight - bottomRightHeight);
+        }
+    }
+
+    /**
+     * Samples the heights and the normals of the surface of the terrain in a range of positions
+     * (The normal is the one of the triangle of the position, pointing up outside of the terrain)
+     *
+     * @param positionsX X of the positions in the world
+     * @param positionsZ Z of the positions in the world
+     * @param originX    X of the terrain in the world
+     * @param originZ    Z of the terrain in the world
+     * @param start      First position to sample
+     * @param end        Position after the last one to sample
+     * @param outHeights Where the heights are written (By position)
+     * @param outNormals Where the normals are written (Three components by position, null to skip them)
+     */
+    public void sample(float[] positionsX, float[] positionsZ, float originX, float originZ, int start, int end,
+                       float[] outHeights, float[] outNormals) {
+        for (int i = start; i < end; i++) {
+            float gridX = (positionsX[i] - originX) / gridSquareSize;
+            float gridZ = (positionsZ[i] - originZ) / gridSquareSize;
+            int quadX = (int) Math.floor(gridX), quadZ = (int) Math.floor(gridZ);
+            if ((quadX < 0) || (quadZ < 0) || (quadX >= vertexCount - 1) || (quadZ >= vertexCount - 1)) {
+                outHeights[i] = 0.0f;
+                if (outNormals != null) {
+                    outNormals[i * 3] = 0.0f;
+                    outNormals[i * 3 + 1] = 1.0f;
+                    outNormals[i * 3 + 2] = 0.0f;
+                }
+                continue;
+            }
+            float u = gridX - quadX, v = gridZ - quadZ;
+            int topLeft = quadZ * vertexCount + quadX;
+            float topRightHeight = heights[topLeft + 1];
+            float bottomLeftHeight = heights[topLeft + vertexCount];
+            // Changes of the height along one quad in each axle
+            float slopeX, slopeZ;
+            if (u + v <= 1.0f) {
+                float topLeftHeight = heights[topLeft];
+                slopeX = topRightHeight - topLeftHeight;
+                slopeZ = bottomLeftHeight - topLeftHeight;
+                outHeights[i] = topLeftHeight + u * slopeX + v * slopeZ;
+            } else {
+                float bottomRightHeight = heights[topLeft + vertexCount + 1];
+                slopeX = bottomRightHeight - bottomLeftHeight;
+                slopeZ = bottomRightHeight - topRightHeight;
+                outHeights[i] = bottomRightHeight - (1.0f - u) * slopeX - (1.0f - v) * slopeZ;
+            }
+            if (outNormals != null) {
+                float normalX = -slopeX, normalY = gridSquareSize, normalZ = -slopeZ;
+                float length = (float) Math.sqrt(normalX * normalX + normalY * normalY + normalZ * normalZ);
+                outNormals[i * 3] = normalX / length;
+                outNormals[i * 3 + 1] = normalY / length;
+                outNormals[i * 3 + 2] = normalZ / length;
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.dferreira.gameEngine.models;
+
+/**
+ * Gives the height of the ground in any position of the world
+ */
+public interface ITerrainHeights {
+
+    /**
+     * The height of the terrain in a certain position of the world
+     *
+     * @param worldX The x-component of the location to compute the height of the terrain
+     * @param worldZ The z-component of the location to compute the height of the terrain
+     * @return The height of the terrain in the specified position of the world (Zero where there is no terrain)
+     */
+    float getHeightOfTerrain(float worldX, float worldZ);
+
+    /**
+     * The heights and the normals of the terrain in a range of positions of the world
+     * (Can be called from several threads at the same time for different ranges)
+     *
+     * @param worldX     The x-components of the locations
+     * @param worldZ     The z-components of the locations
+     * @param start      First location to sample
+     * @param end        Location after the last one to sample
+     * @param outHeights Where the heights are written (By location, zero where there is no terrain)
+     * @param outNormals Where the normals are written (Three components by location, null to skip them)
+     */
+    void getHeightsOfTerrain(float[] worldX, float[] worldZ, int start, int end, float[] outHeights,
+                             float[] outNormals);
+}
@@ -54,7 +54,7 @@ public class Player extends Entity {
      *
      * @param terrain Reference to the terrain
      */
-    private void checkInputs(Terrain terrain) {
+    private void checkInputs(ITerrainHeights terrain) {
         if (Keyboard.isKeyDown(Keyboard.KEY_UP)) {
             // Go in front
             this.currentSpeed = RUN_SPEED;
@@ -104,7 +104,7 @@ public class Player extends Entity {
      *                     that the movement of the player is frame rate independent
      * @param terrain      Reference to the terrain to compute where is going to fall
      */
-    private void fallDown(float timeToRender, Terrain terrain) {
+    private void fallDown(float timeToRender, ITerrainHeights terrain) {
         float terrainHeight = terrain.getHeightOfTerrain(getPosition().x, getPosition().z);
         if (((getPosition().y > terrainHeight) || (upwardsSpeed > 0)) && isJumping) {
             upwardsSpeed += GRAVITIY * timeToRender;
@@ -125,7 +125,7 @@ public class Player extends Entity {
      * @param terrain Reference to the terrain in order to compute the height that
      *                is going to jump
      */
-    private void jump(Terrain terrain) {
+    private void jump(ITerrainHeights terrain) {
         float terrainHeight = terrain.getHeightOfTerrain(getPosition().x, getPosition().z);
         if (super.getPosition().y <= terrainHeight) {
             upwardsSpeed = terrainHeight + JUMP_POWER;
@@ -141,7 +141,7 @@ public class Player extends Entity {
      * @param terrain      Terrain used to determine the height where the player is going
      *                     to fall/stay
      */
-    public void move(float timeToRender, Terrain terrain) {
+    public void move(float timeToRender, ITerrainHeights terrain) {
         checkInputs(terrain);
         moveAndRotate(timeToRender);
         fallDown(timeToRender, terrain);
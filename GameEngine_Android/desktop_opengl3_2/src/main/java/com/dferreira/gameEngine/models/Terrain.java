@@ -1,7 +1,5 @@
 package com.dferreira.gameEngine.models;
 
-import com.dferreira.commons.Maths;
-import com.dferreira.commons.Vector2f;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.gameEngine.textures.TerrainTexturesPack;
@@ -9,7 +7,7 @@ import com.dferreira.gameEngine.textures.TerrainTexturesPack;
 /**
  * The model to the terrain entity
  */
-public class Terrain {
+public class Terrain implements ITerrainHeights {
 
     /**
      * Position of the terrain in the x-axle
@@ -27,7 +25,12 @@ public class Terrain {
     private final float z;
 
     /* Heights of the components of the terrain */
-    private final float[][] heights;
+    private final HeightField heights;
+
+    /**
+     * The chunks of the terrain and their levels of detail
+     */
+    private final TerrainLod lod;
 
     /**
      * The IRawModel of the terrain
@@ -44,11 +47,13 @@ public class Terrain {
      *
      * @param rawModel The model of the terrain
      * @param heights  The heights of the terrain
+     * @param lod      The chunks of the terrain and their levels of detail
      * @param position Position where the terrain will be put in
      */
-    public Terrain(IRawModel rawModel, float[][] heights, Vector3f position) {
+    public Terrain(IRawModel rawModel, HeightField heights, TerrainLod lod, Vector3f position) {
         this.model = rawModel;
         this.heights = heights;
+        this.lod = lod;
         this.x = position.x * TerrainShape.SIZE;
         this.y = position.y * TerrainShape.SIZE;
         this.z = position.z * TerrainShape.SIZE;
@@ -77,6 +82,20 @@ public class Terrain {
         return z;
     }
 
+    /**
+     * @return the lowest height of the terrain
+     */
+    public float getMinHeight() {
+        return heights.getMinHeight();
+    }
+
+    /**
+     * @return the highest height of the terrain
+     */
+    public float getMaxHeight() {
+        return heights.getMaxHeight();
+    }
+
     /**
      * @return the texturePack
      */
@@ -100,6 +119,20 @@ public class Terrain {
         return model;
     }
 
+    /**
+     * @return the chunks of the terrain and their levels of detail
+     */
+    public TerrainLod getLod() {
+        return lod;
+    }
+
+    /**
+     * @return the heights of the vertices of the terrain
+     */
+    public HeightField getHeightField() {
+        return heights;
+    }
+
     /**
      * The height of the terrain in a certain position of the world
      *
@@ -109,34 +142,24 @@ public class Terrain {
      *               terrain
      * @return The height of the terrain in the specified position of the world
      */
+    @Override
     public float getHeightOfTerrain(float worldX, float worldZ) {
-        float terrainX = worldX - this.x;
-        float terrainZ = worldZ - this.z;
-        float gridSquareSize = TerrainShape.SIZE / ((float) heights.length - 1);
-        int gridX = (int) Math.floor(terrainX / gridSquareSize);
-        int gridZ = (int) Math.floor(terrainZ / gridSquareSize);
-        if (gridX >= heights.length - 1 || gridZ >= heights.length - 1 || gridX < 0 || gridZ < 0) {
-            return 0;
-        }
-        float xCoord = (terrainX % gridSquareSize);
-        float zCoord = (terrainZ % gridSquareSize);
-
-        float height;
-        if (xCoord <= (gridSquareSize - zCoord)) {
-            float v1Height = heights[gridX][gridZ];
-            float v3Height = heights[gridX][gridZ + 1];
-            height = Maths.barryCentric(new Vector3f(0, v1Height, 0),
-                    new Vector3f(gridSquareSize, heights[gridX + 1][gridZ], 0),
-                    new Vector3f(0, v3Height, gridSquareSize), new Vector2f(xCoord, zCoord));
-        } else {
-            float v1Height = heights[gridX + 1][gridZ];
-            float v2Height = heights[gridX + 1][gridZ + 1];
-            float v3Height = heights[gridX][gridZ + 1];
-            height = Maths.barryCentric(new Vector3f(gridSquareSize, v1Height, 0),
-                    new Vector3f(gridSquareSize, v2Height, gridSquareSize), new Vector3f(0, v3Height, gridSquareSize),
-                    new Vector2f(xCoord, zCoord));
-        }
-
-        return height;
+        return heights.getHeightAt(worldX - this.x, worldZ - this.z);
+    }
+
+    /**
+     * The heights and the normals of the terrain in a range of positions of the world
+     *
+     * @param worldX     The x-components of the locations
+     * @param worldZ     The z-components of the locations
+     * @param start      First location to sample
+     * @param end        Location after the last one to sample
+     * @param outHeights Where the heights are written (By location, zero outside of the terrain)
+     * @param outNormals Where the normals are written (Three components by location, null to skip them)
+     */
+    @Override
+    public void getHeightsOfTerrain(float[] worldX, float[] worldZ, int start, int end, float[] outHeights,
+                                    float[] outNormals) {
+        heights.sample(worldX, worldZ, this.x, this.z, start, end, outHeights, outNormals);
     }
 }
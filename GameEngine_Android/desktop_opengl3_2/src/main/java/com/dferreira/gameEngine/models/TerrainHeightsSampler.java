@@ -0,0 +1,110 @@
+package com.dferreira.gameEngine.models;
+
+import com.dferreira.commons.utils.WorkerPool;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Samples the heights and the normals of the terrain in many positions at once
+ * (The small batches are sampled in the calling thread, the large ones are split between the cores)
+ */
+public class TerrainHeightsSampler {
+
+    /**
+     * Smallest number of positions sampled in parallel (Below it the threads cost more than they save)
+     */
+    private final static int PARALLEL_THRESHOLD = 16384;
+
+    /**
+     * Number of positions sampled by each task
+     */
+    private final static int POSITIONS_BY_TASK = 4096;
+
+    /**
+     * Samples the heights and the normals of the terrain in a batch of positions
+     *
+     * @param terrain    The terrain to sample
+     * @param worldX     The x-components of the positions
+     * @param worldZ     The z-components of the positions
+     * @param count      Number of positions to sample
+     * @param outHeights Where the heights are written (By position)
+     * @param outNormals Where the normals are written (Three components by position, null to skip them)
+     */
+    public static void sample(ITerrainHeights terrain, float[] worldX, float[] worldZ, int count, float[] outHeights,
+                              float[] outNormals) {
+        if (count < PARALLEL_THRESHOLD) {
+            terrain.getHeightsOfTerrain(worldX, worldZ, 0, count, outHeights, outNormals);
+        } else {
+            WorkerPool.getInstance().invoke(new SampleTask(terrain, worldX, worldZ, 0, count, outHeights, outNormals));
+        }
+    }
+
+    /**
+     * Samples a range of positions (Splits the range until it is small enough)
+     */
+    private static class SampleTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 3265981047713592648L;
+
+        /**
+         * The terrain to sample
+         */
+        private final ITerrainHeights terrain;
+
+        /**
+         * The components of the positions
+         */
+        private final float[] worldX;
+        private final float[] worldZ;
+
+        /**
+         * First position to sample
+         */
+        private final int start;
+
+        /**
+         * Position after the last one to sample
+         */
+        private final int end;
+
+        /**
+         * Where the heights and the normals are written
+         */
+        private final float[] outHeights;
+        private final float[] outNormals;
+
+        /**
+         * @param terrain    The terrain to sample
+         * @param worldX     The x-components of the positions
+         * @param worldZ     The z-components of the positions
+         * @param start      First position to sample
+         * @param end        Position after the last one to sample
+         * @param outHeights Where the heights are written
+         * @param outNormals Where the normals are written (null to skip them)
+         */
+        private SampleTask(ITerrainHeights terrain, float[] worldX, float[] worldZ, int start, int end,
+                           float[] outHeights, float[] outNormals) {
+            this.terrain = terrain;
+            this.worldX = worldX;
+            this.worldZ = worldZ;
+            this.start = start;
+            this.end = end;
+            this.outHeights = outHeights;
+            this.outNormals = outNormals;
+        }
+
+        /**
+         * Samples the positions or splits them in two tasks
+         */
+        @Override
+        protected void compute() {
+            if (end - start <= POSITIONS_BY_TASK) {
+                terrain.getHeightsOfTerrain(worldX, worldZ, start, end, outHeights, outNormals);
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new SampleTask(terrain, worldX, worldZ, start, middle, outHeights, outNormals),
+                        new SampleTask(terrain, worldX, worldZ, middle, end, outHeights, outNormals));
+            }
+        }
+    }
+}
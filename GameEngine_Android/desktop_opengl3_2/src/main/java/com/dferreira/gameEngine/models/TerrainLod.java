@@ -0,0 +1,422 @@
+package com.dferreira.gameEngine.models;
+
+/**
+ * Splits one terrain in square chunks and chooses the level of detail of each chunk from the camera
+ * (A level is chosen when its geometric error projected in the screen is below a number of pixels. The chunks
+ * next to each other differ at most one level and the finer one is stitched to the coarser one)
+ */
+public class TerrainLod {
+
+    /**
+     * Indices of the chunks in each level of detail
+     */
+    private final GeoMipmapIndices chunkIndices;
+
+    /**
+     * Number of chunks in each side of the terrain
+     */
+    private final int chunksBySide;
+
+    /**
+     * Size of the side of one chunk in the world
+     */
+    private final float chunkSize;
+
+    /**
+     * Lowest and highest heights of each chunk
+     */
+    private final float[] chunkMinHeight;
+    private final float[] chunkMaxHeight;
+
+    /**
+     * Largest difference between the heights of the terrain and the heights of each chunk in each level
+     * (By chunk and level)
+     */
+    private final float[] geometricErrors;
+
+    /**
+     * Level of detail and stitch mask of each chunk chosen in the last selection
+     */
+    private final int[] levels;
+    private final int[] stitchMasks;
+
+    /**
+     * Constructor of the levels of detail of one terrain
+     *
+     * @param heights      Heights of the vertices of the terrain
+     * @param chunkIndices Indices of the chunks in each level of detail (Can be shared by several terrains)
+     */
+    public TerrainLod(HeightField heights, GeoMipmapIndices chunkIndices) {
+        int chunkQuads = chunkIndices.getChunkQuads();
+        int quads = heights.getVertexCount() - 1;
+        if ((quads <= 0) || (quads % chunkQuads != 0)) {
+            throw new IllegalArgumentException("The terrain with " + quads + " quads by side can not be split in"
+                    + " chunks of " + chunkQuads + " quads");
+        }
+        this.chunkIndices = chunkIndices;
+        this.chunksBySide = quads / chunkQuads;
+        this.chunkSize = heights.getSize() / chunksBySide;
+
+        int chunksCount = chunksBySide * chunksBySide;
+        int levelsCount = chunkIndices.getLevelsCount();
+        this.chunkMinHeight = new float[chunksCount];
+        this.chunkMaxHeight = new float[chunksCount];
+        this.geometricErrors = new float[chunksCount * levelsCount];
+        this.levels = new int[chunksCount];
+        this.stitchMasks = new int[chunksCount];
+
+        for (int chunk = 0; chunk < chunksCount; chunk++) {
+            int startX = (chunk % chunksBySide) * chunkQuads;
+            int startZ = (chunk / chunksBySide) * chunkQuads;
+            float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+            for (int x = startX; x <= startX + chunkQuads; x++) {
+                for (int z = startZ; z <= startZ + chunkQuads; z++) {
+                    min = Math.min(min, heights.getHeight(x, z));
+                    max = Math.max(max, heights.getHeight(x, z));
+                }
+            }
+            chunkMinHeight[chunk] = min;
+            chunkMaxHeight[chunk] = max;
+
+            float error = 0.0f;
+            for (int level = 0; level < levelsCount; level++) {
+                // A coarser level never has less error than the finer ones
+                error = Math.max(error, computeError(heights, startX, startZ, chunkQuads, 1 << level));
+                geometricErrors[chunk * levelsCount + level] = error;
+            }
+        }
+    }
+
+    /**
+     * Computes the largest difference between the heights of the terrain and the triangles of one level of a chunk
+     *
+     * @param heights    Heights of the vertices of the terrain
+     * @param startX     First vertex of the chunk in the x-axle
+     * @param startZ     First vertex of the chunk in the z-axle
+     * @param chunkQuads Number of quads in each side of one chunk
+     * @param step       Distance between the vertices of the level
+     * @return The geometric error of the level
+     */
+    private static float computeError(HeightField heights, int startX, int startZ, int chunkQuads, int step) {
+        float error = 0.0f;
+        for (int quadZ = startZ; quadZ < startZ + chunkQuads; quadZ += step) {
+            for (int quadX = startX; quadX < startX + chunkQuads; quadX += step) {
+                float topLeft = heights.getHeight(quadX, quadZ);
+                float topRight = heights.getHeight(quadX + step, quadZ);
+                float bottomLeft = heights.getHeight(quadX, quadZ + step);
+                float bottomRight = heights.getHeight(quadX + step, quadZ + step);
+                for (int z = 0; z <= step; z++) {
+                    for (int x = 0; x <= step; x++) {
+                        float u = (float) x / step, v = (float) z / step;
+                        // Same diagonal as the triangles, from the top right to the bottom left
+                        float height = (u + v <= 1.0f)
+                                ? topLeft + u * (topRight - topLeft) + v * (bottomLeft - topLeft)
+                                : bottomRight + (1.0f - u) * (bottomLeft - bottomRight)
+                                + (1.0f - v) * (topRight - bottomRight);
+                        error = Math.max(error, Math.abs(heights.getHeight(quadX + x, quadZ + z) - height));
+                    }
+                }
+            }
+        }
+        return error;
+    }
+
+    /**
+     * Chooses the level of detail and the stitch mask of each chunk
+     *
+     * @param cameraX        X of the camera relative to the terrain
+     * @param cameraY        Y of the camera relative to the terrain
+     * @param cameraZ        Z of the camera relative to the terrain
+     * @param lodScale       Pixels of the screen by unit of the world at the distance of one unit
+     * @param maxPixelsError Largest error in pixels accepted in the screen
+     */
+    public void select(float cameraX, float cameraY, float cameraZ, float lodScale, float maxPixelsError) {
+        selectLevels(cameraX, cameraY, cameraZ, lodScale, maxPixelsError);
+        limitNeighborLevels();
+        updateStitchMasks(null, null, null, null);
+    }
+
+    /**
+     * Chooses the level of detail of each chunk only from its error
+     * (The terrains next to other terrains should limit the levels and update the stitch masks after)
+     *
+     * @param cameraX        X of the camera relative to the terrain
+     * @param cameraY        Y of the camera relative to the terrain
+     * @param cameraZ        Z of the camera relative to the terrain
+     * @param lodScale       Pixels of the screen by unit of the world at the distance of one unit
+     * @param maxPixelsError Largest error in pixels accepted in the screen
+     */
+    public void selectLevels(float cameraX, float cameraY, float cameraZ, float lodScale, float maxPixelsError) {
+        int levelsCount = chunkIndices.getLevelsCount();
+        for (int chunk = 0; chunk < levels.length; chunk++) {
+            float distance = distanceToChunk(chunk, cameraX, cameraY, cameraZ);
+            int level = 0;
+            while ((level + 1 < levelsCount)
+                    && (geometricErrors[chunk * levelsCount + level + 1] * lodScale <= maxPixelsError * distance)) {
+                level++;
+            }
+            levels[chunk] = level;
+        }
+    }
+
+    /**
+     * @param chunk    Index of the chunk
+     * @param edge     Edge of the chunk (One of the edges of GeoMipmapIndices)
+     * @param neighbor Terrain next to that edge of this terrain (null if there is none)
+     * @return The level of the chunk on the other side of the edge (-1 if there is none)
+     */
+    private int levelAcross(int chunk, int edge, TerrainLod neighbor) {
+        int chunkX = chunk % chunksBySide, chunkZ = chunk / chunksBySide;
+        int last = chunksBySide - 1;
+        if ((neighbor != null) && (neighbor.chunksBySide != chunksBySide)) {
+            neighbor = null;
+        }
+        switch (edge) {
+            case GeoMipmapIndices.LEFT_EDGE:
+                return (chunkX > 0) ? levels[chunk - 1] : (neighbor == null) ? -1 : neighbor.levels[chunk + last];
+            case GeoMipmapIndices.RIGHT_EDGE:
+                return (chunkX < last) ? levels[chunk + 1] : (neighbor == null) ? -1 : neighbor.levels[chunk - last];
+            case GeoMipmapIndices.TOP_EDGE:
+                return (chunkZ > 0) ? levels[chunk - chunksBySide]
+                        : (neighbor == null) ? -1 : neighbor.levels[chunk + chunksBySide * last];
+            case GeoMipmapIndices.BOTTOM_EDGE:
+            default:
+                return (chunkZ < last) ? levels[chunk + chunksBySide]
+                        : (neighbor == null) ? -1 : neighbor.levels[chunk - chunksBySide * last];
+        }
+    }
+
+    /**
+     * Lowers the level of one chunk to at most one level coarser than the chunk on the other side of an edge
+     *
+     * @param chunk    Index of the chunk
+     * @param edge     Edge of the chunk
+     * @param neighbor Terrain next to that edge of this terrain (null if there is none)
+     * @return True if the level of the chunk was lowered
+     */
+    private boolean limitLevel(int chunk, int edge, TerrainLod neighbor) {
+        int across = levelAcross(chunk, edge, neighbor);
+        if ((across >= 0) && (levels[chunk] > across + 1)) {
+            levels[chunk] = across + 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Refines the chunks until no chunk is more than one level coarser than its neighbors in the terrain
+     * (The levels only go down so no chunk gets more error than chosen)
+     *
+     * @return True if any level was lowered
+     */
+    public boolean limitNeighborLevels() {
+        boolean lowered = false;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int chunk = 0; chunk < levels.length; chunk++) {
+                changed |= limitLevel(chunk, GeoMipmapIndices.LEFT_EDGE, null);
+                changed |= limitLevel(chunk, GeoMipmapIndices.RIGHT_EDGE, null);
+                changed |= limitLevel(chunk, GeoMipmapIndices.TOP_EDGE, null);
+                changed |= limitLevel(chunk, GeoMipmapIndices.BOTTOM_EDGE, null);
+            }
+            lowered |= changed;
+        }
+        return lowered;
+    }
+
+    /**
+     * Refines the chunks of one edge of the terrain until none is more than one level coarser than the chunks of
+     * the terrain next to it
+     *
+     * @param neighbor Terrain next to the edge
+     * @param edge     Edge of this terrain (One of the edges of GeoMipmapIndices)
+     * @return True if any level was lowered
+     */
+    public boolean limitEdgeLevels(TerrainLod neighbor, int edge) {
+        boolean lowered = false;
+        for (int i = 0; i < chunksBySide; i++) {
+            int chunk;
+            switch (edge) {
+                case GeoMipmapIndices.LEFT_EDGE:
+                    chunk = i * chunksBySide;
+                    break;
+                case GeoMipmapIndices.RIGHT_EDGE:
+                    chunk = i * chunksBySide + chunksBySide - 1;
+                    break;
+                case GeoMipmapIndices.TOP_EDGE:
+                    chunk = i;
+                    break;
+                case GeoMipmapIndices.BOTTOM_EDGE:
+                default:
+                    chunk = (chunksBySide - 1) * chunksBySide + i;
+                    break;
+            }
+            lowered |= limitLevel(chunk, edge, neighbor);
+        }
+        return lowered;
+    }
+
+    /**
+     * Stitches each chunk to the chunks one level coarser next to it
+     *
+     * @param left   Terrain next to the left edge (null if there is none)
+     * @param right  Terrain next to the right edge (null if there is none)
+     * @param top    Terrain next to the top edge (null if there is none)
+     * @param bottom Terrain next to the bottom edge (null if there is none)
+     */
+    public void updateStitchMasks(TerrainLod left, TerrainLod right, TerrainLod top, TerrainLod bottom) {
+        for (int chunk = 0; chunk < levels.length; chunk++) {
+            int coarser = levels[chunk] + 1;
+            int mask = 0;
+            if (levelAcross(chunk, GeoMipmapIndices.LEFT_EDGE, left) == coarser) {
+                mask |= GeoMipmapIndices.LEFT_EDGE;
+            }
+            if (levelAcross(chunk, GeoMipmapIndices.RIGHT_EDGE, right) == coarser) {
+                mask |= GeoMipmapIndices.RIGHT_EDGE;
+            }
+            if (levelAcross(chunk, GeoMipmapIndices.TOP_EDGE, top) == coarser) {
+                mask |= GeoMipmapIndices.TOP_EDGE;
+            }
+            if (levelAcross(chunk, GeoMipmapIndices.BOTTOM_EDGE, bottom) == coarser) {
+                mask |= GeoMipmapIndices.BOTTOM_EDGE;
+            }
+            stitchMasks[chunk] = mask;
+        }
+    }
+
+    /**
+     * @param chunk   Index of the chunk
+     * @param cameraX X of the camera relative to the terrain
+     * @param cameraY Y of the camera relative to the terrain
+     * @param cameraZ Z of the camera relative to the terrain
+     * @return The distance from the camera to the box that bounds the chunk
+     */
+    private float distanceToChunk(int chunk, float cameraX, float cameraY, float cameraZ) {
+        float minX = getChunkMinX(chunk), minZ = getChunkMinZ(chunk);
+        float dx = Math.max(Math.max(minX - cameraX, 0.0f), cameraX - (minX + chunkSize));
+        float dy = Math.max(Math.max(chunkMinHeight[chunk] - cameraY, 0.0f), cameraY - chunkMaxHeight[chunk]);
+        float dz = Math.max(Math.max(minZ - cameraZ, 0.0f), cameraZ - (minZ + chunkSize));
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * @return the indices of the chunks in each level of detail
+     */
+    public GeoMipmapIndices getChunkIndices() {
+        return chunkIndices;
+    }
+
+    /**
+     * @return the number of chunks of the terrain
+     */
+    public int getChunksCount() {
+        return levels.length;
+    }
+
+    /**
+     * @return the number of chunks in each side of the terrain
+     */
+    public int getChunksBySide() {
+        return chunksBySide;
+    }
+
+    /**
+     * @return the size of the side of one chunk in the world
+     */
+    public float getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The smallest x of the chunk relative to the terrain
+     */
+    public float getChunkMinX(int chunk) {
+        return (chunk % chunksBySide) * chunkSize;
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The smallest z of the chunk relative to the terrain
+     */
+    public float getChunkMinZ(int chunk) {
+        return (chunk / chunksBySide) * chunkSize;
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The lowest height of the chunk
+     */
+    public float getChunkMinHeight(int chunk) {
+        return chunkMinHeight[chunk];
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The highest height of the chunk
+     */
+    public float getChunkMaxHeight(int chunk) {
+        return chunkMaxHeight[chunk];
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @param level Level of detail
+     * @return The largest difference between the heights of the terrain and the chunk in the level
+     */
+    public float getGeometricError(int chunk, int level) {
+        return geometricErrors[chunk * chunkIndices.getLevelsCount() + level];
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The first vertex of the chunk in the shape of the terrain
+     */
+    public int getBaseVertex(int chunk) {
+        return chunk * chunkIndices.getChunkVerticesCount();
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The level of detail of the chunk chosen in the last selection
+     */
+    public int getLevel(int chunk) {
+        return levels[chunk];
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The edges of the chunk stitched to a coarser chunk in the last selection
+     */
+    public int getStitchMask(int chunk) {
+        return stitchMasks[chunk];
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The position of the first index of the chunk in the last selection
+     */
+    public int getFirstIndex(int chunk) {
+        return chunkIndices.getFirstIndex(levels[chunk], stitchMasks[chunk]);
+    }
+
+    /**
+     * @param chunk Index of the chunk
+     * @return The number of indices of the chunk in the last selection
+     */
+    public int getIndicesCount(int chunk) {
+        return chunkIndices.getIndicesCount(levels[chunk], stitchMasks[chunk]);
+    }
+
+    /**
+     * @return The number of triangles of all the chunks in the last selection
+     */
+    public int getTrianglesCount() {
+        int indicesCount = 0;
+        for (int chunk = 0; chunk < levels.length; chunk++) {
+            indicesCount += getIndicesCount(chunk);
+        }
+        return indicesCount / 3;
+    }
+}
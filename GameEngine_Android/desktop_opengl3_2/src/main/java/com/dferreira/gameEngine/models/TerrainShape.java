@@ -12,8 +12,11 @@ public class TerrainShape implements IShape {
     /* Size of block that composes the terrain */
     public static final float SIZE = 500.0f;
 
-    /* Number of blocks in each side of the terrain */
-    public static final int VERTEX_COUNT = 128;
+    /* Number of vertices in each side of the terrain (One more than the blocks so it splits in chunks) */
+    public static final int VERTEX_COUNT = 129;
+
+    /* Number of blocks in each side of one chunk of the terrain */
+    public static final int CHUNK_QUADS = 32;
 
     /* Minimum height that the terrain has */
     private static final float MIN_HEIGHT = -40.0f;
@@ -21,6 +24,17 @@ public class TerrainShape implements IShape {
     /* Maximum height that the terrain has */
     private static final float MAX_HEIGHT = 40.0f;
 
+    /**
+     * Indices of the chunks in each level of detail (The same for all the terrains)
+     */
+    private static final GeoMipmapIndices CHUNK_INDICES = new GeoMipmapIndices(CHUNK_QUADS);
+
+    /**
+     * Position of the first vertex of the terrain in the height map repeated over the world
+     */
+    private final int firstVertexX;
+    private final int firstVertexZ;
+
     /**
      * Vertices of the terrain
      */
@@ -29,7 +43,7 @@ public class TerrainShape implements IShape {
     /**
      * Heights of the vertices that make the terrain
      */
-    private float[][] heights;
+    private HeightField heights;
 
     /**
      * Normals of the terrain
@@ -46,27 +60,56 @@ public class TerrainShape implements IShape {
      */
     private int[] indices;
 
+    /**
+     * The chunks of the terrain and their levels of detail
+     */
+    private TerrainLod lod;
+
+    /**
+     * If the terrain is drawn in chunks with levels of detail (Otherwise is drawn whole in the full detail)
+     */
+    private final boolean levelsOfDetail;
+
     /**
      * Constructor of the terrain shape
      *
      * @param heightMap Texture with different heights in the terrain
      */
     public TerrainShape(TextureData heightMap) {
+        this(heightMap, 0, 0, true);
+    }
+
+    /**
+     * Constructor of the shape of one tile of a terrain bigger than one height map
+     * (The height map is repeated mirrored over the world so the tiles next to each other have the same edges)
+     *
+     * @param heightMap      Texture with different heights in the terrain
+     * @param tileX          Index of the tile in the x-axle
+     * @param tileZ          Index of the tile in the z-axle
+     * @param levelsOfDetail If the terrain is drawn in chunks with levels of detail (Needs the draws of ranges of
+     *                       indexes, without them the indices draw the whole terrain in the full detail)
+     */
+    public TerrainShape(TextureData heightMap, int tileX, int tileZ, boolean levelsOfDetail) {
+        this.firstVertexX = tileX * (VERTEX_COUNT - 1);
+        this.firstVertexZ = tileZ * (VERTEX_COUNT - 1);
+        this.levelsOfDetail = levelsOfDetail;
         generateTerrain(heightMap);
     }
 
     /**
      * Get the height of the terrain in the specified coordinate
+     * (Read from the height map outside of the terrain so the normals of the edges match the next tiles)
      *
-     * @param x x-coordinate
-     * @param y y-coordinate
+     * @param x         x-coordinate
+     * @param y         y-coordinate
+     * @param heightMap Texture with different heights in the terrain
      * @return the height of the terrain in the specified position
      */
-    private float getCurrentHeight(int x, int y) {
+    private float getCurrentHeight(int x, int y, TextureData heightMap) {
         if ((x < 0) || (x >= VERTEX_COUNT) || (y < 0) || (y >= VERTEX_COUNT)) {
-            return 0.0f;
+            return getHeight(x, y, heightMap);
         } else {
-            return heights[x][y];
+            return heights.getHeight(x, y);
         }
     }
 
@@ -76,72 +119,94 @@ public class TerrainShape implements IShape {
      * @param heightMap Texture with different heights in the terrain
      */
     private void generateTerrain(TextureData heightMap) {
-        int count = VERTEX_COUNT * VERTEX_COUNT;
+        float[] rows = new float[VERTEX_COUNT * VERTEX_COUNT];
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            for (int j = 0; j < VERTEX_COUNT; j++) {
+                rows[i * VERTEX_COUNT + j] = getHeight(j, i, heightMap);
+            }
+        }
+        this.heights = new HeightField(rows, VERTEX_COUNT, SIZE);
+        this.lod = new TerrainLod(heights, CHUNK_INDICES);
+
+        // The vertices are by chunk (The ones in the edges are repeated) so every chunk uses the same indices
+        int chunksBySide = lod.getChunksBySide();
+        int count = lod.getChunksCount() * lod.getChunkIndices().getChunkVerticesCount();
         this.vertices = new float[count * 3];
         this.normals = new float[count * 3];
         this.textureCoords = new float[count * 2];
-        this.indices = new int[6 * (VERTEX_COUNT - 1) * (VERTEX_COUNT - 1)];
-        this.heights = new float[VERTEX_COUNT][VERTEX_COUNT];
+        this.indices = levelsOfDetail ? lod.getChunkIndices().getIndices() : getFullDetailIndices(lod);
 
         int vertexPointer = 0;
-        // Generates the positions of the terrain
-        for (int i = 0; i < VERTEX_COUNT; i++) {
-            for (int j = 0; j < VERTEX_COUNT; j++) {
-                vertices[vertexPointer * 3] = (float) j / ((float) VERTEX_COUNT - 1) * SIZE;
-                this.heights[j][i] = getHeight(j, i, heightMap);
-                vertices[vertexPointer * 3 + 1] = this.heights[j][i];
-                vertices[vertexPointer * 3 + 2] = (float) i / ((float) VERTEX_COUNT - 1) * SIZE;
-                textureCoords[vertexPointer * 2] = (float) j / ((float) VERTEX_COUNT - 1);
-                textureCoords[vertexPointer * 2 + 1] = (float) i / ((float) VERTEX_COUNT - 1);
-                vertexPointer++;
+        for (int chunkZ = 0; chunkZ < chunksBySide; chunkZ++) {
+            for (int chunkX = 0; chunkX < chunksBySide; chunkX++) {
+                for (int i = chunkZ * CHUNK_QUADS; i <= (chunkZ + 1) * CHUNK_QUADS; i++) {
+                    for (int j = chunkX * CHUNK_QUADS; j <= (chunkX + 1) * CHUNK_QUADS; j++) {
+                        vertices[vertexPointer * 3] = (float) j / ((float) VERTEX_COUNT - 1) * SIZE;
+                        vertices[vertexPointer * 3 + 1] = this.heights.getHeight(j, i);
+                        vertices[vertexPointer * 3 + 2] = (float) i / ((float) VERTEX_COUNT - 1) * SIZE;
+                        textureCoords[vertexPointer * 2] = (float) j / ((float) VERTEX_COUNT - 1);
+                        textureCoords[vertexPointer * 2 + 1] = (float) i / ((float) VERTEX_COUNT - 1);
+                        Vector3f normal = calculateNormal(j, i, heightMap);
+                        normals[vertexPointer * 3] = normal.x;
+                        normals[vertexPointer * 3 + 1] = normal.y;
+                        normals[vertexPointer * 3 + 2] = normal.z;
+                        vertexPointer++;
+                    }
+                }
             }
         }
+    }
 
-        vertexPointer = 0;
-        // Generates the normals of the terrain
-        for (int i = 0; i < VERTEX_COUNT; i++) {
-            for (int j = 0; j < VERTEX_COUNT; j++) {
-                Vector3f normal = calculateNormal(j, i);
-                normals[vertexPointer * 3] = normal.x;
-                normals[vertexPointer * 3 + 1] = normal.y;
-                normals[vertexPointer * 3 + 2] = normal.z;
-                vertexPointer++;
-            }
-        }
-        int pointer = 0;
-        for (int gz = 0; gz < VERTEX_COUNT - 1; gz++) {
-            for (int gx = 0; gx < VERTEX_COUNT - 1; gx++) {
-                int topLeft = (gz * VERTEX_COUNT) + gx;
-                int topRight = topLeft + 1;
-                int bottomLeft = ((gz + 1) * VERTEX_COUNT) + gx;
-                int bottomRight = bottomLeft + 1;
-                indices[pointer++] = topLeft;
-                indices[pointer++] = bottomLeft;
-                indices[pointer++] = topRight;
-                indices[pointer++] = topRight;
-                indices[pointer++] = bottomLeft;
-                indices[pointer++] = bottomRight;
+    /**
+     * @param lod The chunks of the terrain
+     * @return The indices of every chunk in the full detail (Relative to the first vertex of the terrain)
+     */
+    private static int[] getFullDetailIndices(TerrainLod lod) {
+        GeoMipmapIndices chunkIndices = lod.getChunkIndices();
+        int[] variants = chunkIndices.getIndices();
+        int firstIndex = chunkIndices.getFirstIndex(0, 0);
+        int indicesCount = chunkIndices.getIndicesCount(0, 0);
+        int chunkVerticesCount = chunkIndices.getChunkVerticesCount();
+
+        int[] fullIndices = new int[lod.getChunksCount() * indicesCount];
+        for (int chunk = 0; chunk < lod.getChunksCount(); chunk++) {
+            int baseVertex = chunk * chunkVerticesCount;
+            for (int i = 0; i < indicesCount; i++) {
+                fullIndices[chunk * indicesCount + i] = variants[firstIndex + i] + baseVertex;
             }
         }
+        return fullIndices;
     }
 
     /**
      * Computes the normal of a vertice using for that the neighbor points
      *
-     * @param x x-coordinate
-     * @param y y-coordinate
+     * @param x         x-coordinate
+     * @param y         y-coordinate
+     * @param heightMap Texture with different heights in the terrain
      * @return The normal of the point
      */
-    private Vector3f calculateNormal(int x, int y) {
-        float heightL = getCurrentHeight(x - 1, y);
-        float heightR = getCurrentHeight(x + 1, y);
-        float heightD = getCurrentHeight(x, y - 1);
-        float heightU = getCurrentHeight(x, y + 1);
+    private Vector3f calculateNormal(int x, int y, TextureData heightMap) {
+        float heightL = getCurrentHeight(x - 1, y, heightMap);
+        float heightR = getCurrentHeight(x + 1, y, heightMap);
+        float heightD = getCurrentHeight(x, y - 1, heightMap);
+        float heightU = getCurrentHeight(x, y + 1, heightMap);
         Vector3f normal = new Vector3f(heightL - heightR, 2f, heightD - heightU);
         normal.normalise();
         return normal;
     }
 
+    /**
+     * @param position Position in the height map repeated over the world
+     * @param size     Size of the height map
+     * @return The position in the height map (Each other repetition is mirrored)
+     */
+    private static int mirror(int position, int size) {
+        int period = 2 * size;
+        int mirrored = ((position % period) + period) % period;
+        return (mirrored < size) ? mirrored : period - 1 - mirrored;
+    }
+
     /*
      * Get the height that was specified in the height map image
      *
@@ -155,7 +220,8 @@ public class TerrainShape implements IShape {
      */
     private float getHeight(int x, int y, TextureData heightMap) {
 
-        int rgb = heightMap.getRGB(x, y);
+        int rgb = heightMap.getRGB(mirror(firstVertexX + x, heightMap.getWidth()),
+                mirror(firstVertexZ + y, heightMap.getHeight()));
         float heightNormal = (rgb / TextureData.MAX_PIXEL_COLOR);
         float finalHeight = (heightNormal * (MAX_HEIGHT - MIN_HEIGHT)) + MIN_HEIGHT;
 
@@ -197,10 +263,17 @@ public class TerrainShape implements IShape {
     /**
      * @return The heights of the vertices of the terrain
      */
-    public float[][] getHeights() {
+    public HeightField getHeights() {
         return this.heights;
     }
 
+    /**
+     * @return The chunks of the terrain and their levels of detail (null if the terrain is drawn whole)
+     */
+    public TerrainLod getLod() {
+        return this.levelsOfDetail ? this.lod : null;
+    }
+
     /**
      * @return The group that the terrain shape belongs (if any)
      */
@@ -33,7 +33,7 @@ public class ThirdPersonCamera extends Camera {
      * @param player  Reference to that the camera is going to follow
      * @param terrain The camera needs to be above the terrain otherwise gets flick
      */
-    public void update(Player player, Terrain terrain) {
+    public void update(Player player, ITerrainHeights terrain) {
         this.checkMouseInputs();
         float horizontalDistance = getHorizontalDistance();
         float verticalDistance = getVerticalDistance();
@@ -50,7 +50,7 @@ public class ThirdPersonCamera extends Camera {
      * @param player             Player of the scene
      * @param terrain            The camera needs to be above the terrain otherwise gets flick
      */
-    private void calculateCameraPosition(float horizontalDistance, float verticalDistance, Player player, Terrain terrain) {
+    private void calculateCameraPosition(float horizontalDistance, float verticalDistance, Player player, ITerrainHeights terrain) {
         float theta = player.getRotY() + angleAroundPlayer;
         double rTheta = Math.toRadians(theta);
         float offsetX = (float) (horizontalDistance * Math.sin(rTheta));
@@ -1,6 +1,7 @@
 package com.dferreira.gameEngine.models.complexEntities;
 
 import com.dferreira.commons.generic_resources.ModelEnum;
+import com.dferreira.commons.shapes.BoundingVolume;
 
 import java.util.HashMap;
 
@@ -11,19 +12,24 @@ public class GenericEntity {
 
     /**
      * Keys: Have the name of the group The name of the material group for
-     * instance harm
+     * instance harm (null while the model is not loaded)
      */
-    private final HashMap<String, MaterialGroup> groupsOfMaterials;
+    private HashMap<String, MaterialGroup> groupsOfMaterials;
 
     /**
      * The type of the object that the model is supporting
      */
     private final ModelEnum objectType;
 
+    /**
+     * Bounds of the model in the space of the model (null while not known, the entities are never culled)
+     */
+    private BoundingVolume bounds;
+
     /**
      * Constructor of the generic entity to be render in the 3D world
      *
-     * @param groupsOfMaterials HashMap with groups of materials to use in entity
+     * @param groupsOfMaterials HashMap with groups of materials to use in entity (null if not loaded yet)
      * @param objectType        The type of the object that the model is supporting
      */
     public GenericEntity(HashMap<String, MaterialGroup> groupsOfMaterials, ModelEnum objectType) {
@@ -39,6 +45,34 @@ public class GenericEntity {
         return groupsOfMaterials;
     }
 
+    /**
+     * @param groupsOfMaterials the groups of materials of the model that was loaded
+     */
+    public void setGroupsOfMaterials(HashMap<String, MaterialGroup> groupsOfMaterials) {
+        this.groupsOfMaterials = groupsOfMaterials;
+    }
+
+    /**
+     * @return the bounds of the model in the space of the model (null while not known)
+     */
+    public BoundingVolume getBounds() {
+        return bounds;
+    }
+
+    /**
+     * @param bounds the bounds of the model that was loaded
+     */
+    public void setBounds(BoundingVolume bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * @return True if the model of the entity is loaded and can be render
+     */
+    public boolean isResident() {
+        return groupsOfMaterials != null;
+    }
+
     /**
      * @return The type of the object that the model is supporting
      */
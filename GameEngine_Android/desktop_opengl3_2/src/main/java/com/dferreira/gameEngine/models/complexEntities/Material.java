@@ -25,6 +25,11 @@ public class Material {
      */
     private boolean hasTransparency;
 
+    /**
+     * Indicates if the transparency is alpha tested (The texels are kept or discarded, never blended)
+     */
+    private boolean alphaTested;
+
     /**
      * Indicate that all the normals of the material are going to point up (in
      * the same direction
@@ -38,6 +43,7 @@ public class Material {
         this.shineDamper = 1.0f;
         this.reflectivity = 0.0f;
         this.hasTransparency = false;
+        this.alphaTested = false;
         this.normalsPointingUp = false;
     }
 
@@ -83,6 +89,20 @@ public class Material {
         return this.hasTransparency;
     }
 
+    /**
+     * @param alphaTested If the transparency of the model is alpha tested
+     */
+    public void setAlphaTested(boolean alphaTested) {
+        this.alphaTested = alphaTested;
+    }
+
+    /**
+     * @return if the transparency of the model is alpha tested (False when it is blended)
+     */
+    public boolean isAlphaTested() {
+        return alphaTested;
+    }
+
     /**
      * @param normalsPointingUp If the normals of the model should point up
      */
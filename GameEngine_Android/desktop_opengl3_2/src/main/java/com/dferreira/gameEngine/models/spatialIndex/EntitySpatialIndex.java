@@ -0,0 +1,180 @@
+package com.dferreira.gameEngine.models.spatialIndex;
+
+import com.dferreira.commons.Frustum;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.shapes.BoundingVolume;
+import com.dferreira.gameEngine.models.complexEntities.Entity;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the entities of the world in a spatial index so the ones near a place are found without walking all
+ * of them (Each entity is bounded by a sphere around its position that bounds the model in any rotation)
+ */
+public class EntitySpatialIndex {
+
+    /**
+     * The spatial index of the entities
+     */
+    private final ISpatialIndex<Entity> index;
+
+    /**
+     * Handles of the entities in the index
+     */
+    private final Map<Entity, Integer> handles;
+
+    /**
+     * The entities of the world indexed at once
+     */
+    private Entity[] indexedEntities;
+
+    /**
+     * Constructor of the entity spatial index
+     *
+     * @param type     Structure of the index
+     * @param cellSize Size of the smallest cells of the index
+     * @param centerX  X of the center of the region where most of the entities are
+     * @param centerY  Y of the center of the region where most of the entities are
+     * @param centerZ  Z of the center of the region where most of the entities are
+     * @param halfSize Half of the size of the region where most of the entities are
+     */
+    public EntitySpatialIndex(SpatialIndexTypeEnum type, float cellSize, float centerX, float centerY, float centerZ,
+                              float halfSize) {
+        this.index = GenericSpatialIndex.create(type, cellSize, centerX, centerY, centerZ, halfSize);
+        this.handles = new IdentityHashMap<>();
+    }
+
+    /**
+     * @param entity The entity
+     * @return The radius of the sphere around the position of the entity that bounds its model
+     * (Zero while the model is not loaded)
+     */
+    private static float radiusOf(Entity entity) {
+        BoundingVolume bounds = entity.getGenericEntity().getBounds();
+        return (bounds == null) ? 0.0f : Math.abs(entity.getScale()) * bounds.getOriginRadius();
+    }
+
+    /**
+     * Indexes the entities of the world when they are not the ones already indexed
+     *
+     * @param entities The entities of the world
+     */
+    public void setEntities(Entity[] entities) {
+        if (entities == indexedEntities) {
+            return;
+        }
+        clear();
+        if (entities != null) {
+            for (Entity entity : entities) {
+                insert(entity);
+            }
+        }
+        indexedEntities = entities;
+    }
+
+    /**
+     * Puts one entity in the index
+     *
+     * @param entity The entity to put
+     */
+    public void insert(Entity entity) {
+        if (handles.containsKey(entity)) {
+            move(entity);
+            return;
+        }
+        Vector3f position = entity.getPosition();
+        handles.put(entity, index.insert(entity, position.x, position.y, position.z, radiusOf(entity)));
+    }
+
+    /**
+     * Updates the index after the entity moved, changed of scale or got its model loaded
+     *
+     * @param entity The entity that changed
+     */
+    public void move(Entity entity) {
+        Integer handle = handles.get(entity);
+        if (handle == null) {
+            return;
+        }
+        Vector3f position = entity.getPosition();
+        index.move(handle, position.x, position.y, position.z, radiusOf(entity));
+    }
+
+    /**
+     * Removes one entity of the index
+     *
+     * @param entity The entity to remove
+     */
+    public void remove(Entity entity) {
+        Integer handle = handles.remove(entity);
+        if (handle != null) {
+            index.remove(handle);
+        }
+    }
+
+    /**
+     * Removes every entity of the index
+     */
+    public void clear() {
+        index.clear();
+        handles.clear();
+        indexedEntities = null;
+    }
+
+    /**
+     * @param handle Handle of the entity returned by a query
+     * @return The entity
+     */
+    public Entity get(int handle) {
+        return index.get(handle);
+    }
+
+    /**
+     * @return The number of entities in the index
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Finds the entities that may be inside of a sphere
+     *
+     * @param x       X of the center of the sphere
+     * @param y       Y of the center of the sphere
+     * @param z       Z of the center of the sphere
+     * @param radius  Radius of the sphere
+     * @param results Where the handles of the entities found are written
+     * @return The number of handles written in results
+     */
+    public int queryRadius(float x, float y, float z, float radius, int[] results) {
+        return index.queryRadius(x, y, z, radius, results);
+    }
+
+    /**
+     * Finds the entities that may be inside of a box aligned with the axes
+     *
+     * @param minX    Minimum of x of the box
+     * @param minY    Minimum of y of the box
+     * @param minZ    Minimum of z of the box
+     * @param maxX    Maximum of x of the box
+     * @param maxY    Maximum of y of the box
+     * @param maxZ    Maximum of z of the box
+     * @param results Where the handles of the entities found are written
+     * @return The number of handles written in results
+     */
+    public int queryBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] results) {
+        return index.queryBox(minX, minY, minZ, maxX, maxY, maxZ, results);
+    }
+
+    /**
+     * Finds the entities that may be inside of a frustum
+     *
+     * @param frustum The frustum extracted from the camera
+     * @param results Where the handles of the entities found are written
+     * @return The number of handles written in results
+     */
+    public int queryFrustum(Frustum frustum, int[] results) {
+        return index.queryFrustum(frustum, results);
+    }
+}
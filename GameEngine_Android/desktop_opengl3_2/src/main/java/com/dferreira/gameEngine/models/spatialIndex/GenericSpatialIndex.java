@@ -0,0 +1,460 @@
+package com.dferreira.gameEngine.models.spatialIndex;
+
+import com.dferreira.commons.Frustum;
+
+import java.util.Arrays;
+
+/**
+ * Contains elements that are commons to the different spatial indexes
+ * (The items are kept in arrays by handle and chained in lists, one by cell of the structure, so moving or
+ * removing one item is constant time. Not safe to use from several threads)
+ *
+ * @param <T> Type of the items indexed
+ */
+public abstract class GenericSpatialIndex<T> implements ISpatialIndex<T> {
+
+    /**
+     * Number of items that the index has space for when created
+     */
+    private final static int INITIAL_CAPACITY = 64;
+
+    /**
+     * Marks the end of a list
+     */
+    final static int NONE = -1;
+
+    /**
+     * Kinds of query
+     */
+    private final static int QUERY_RADIUS = 0;
+    private final static int QUERY_BOX = 1;
+    private final static int QUERY_FRUSTUM = 2;
+
+    /**
+     * Items by handle (null when the handle is free)
+     */
+    private Object[] items;
+
+    /**
+     * Spheres of the items by handle
+     */
+    float[] itemX;
+    float[] itemY;
+    float[] itemZ;
+    float[] itemRadius;
+
+    /**
+     * List where each item is (The free handles are chained in the next)
+     */
+    int[] itemList;
+    private int[] next;
+    private int[] previous;
+
+    /**
+     * First handle of the chain of free handles
+     */
+    private int firstFree;
+
+    /**
+     * Number of handles ever used
+     */
+    private int used;
+
+    /**
+     * Number of items in the index
+     */
+    private int size;
+
+    /**
+     * Query running (The parameters are kept in fields so the structures only walk the candidates)
+     */
+    private int queryKind;
+    private float queryX, queryY, queryZ, queryRadius;
+    private Frustum queryFrustum;
+
+    /**
+     * Box that bounds the region of the query running
+     */
+    float queryMinX, queryMinY, queryMinZ;
+    float queryMaxX, queryMaxY, queryMaxZ;
+
+    /**
+     * Scratch box that bounds the frustum queried
+     */
+    private final float[] frustumBounds;
+
+    /**
+     * Constructor of the spatial index
+     */
+    GenericSpatialIndex() {
+        this.items = new Object[INITIAL_CAPACITY];
+        this.itemX = new float[INITIAL_CAPACITY];
+        this.itemY = new float[INITIAL_CAPACITY];
+        this.itemZ = new float[INITIAL_CAPACITY];
+        this.itemRadius = new float[INITIAL_CAPACITY];
+        this.itemList = new int[INITIAL_CAPACITY];
+        this.next = new int[INITIAL_CAPACITY];
+        this.previous = new int[INITIAL_CAPACITY];
+        this.frustumBounds = new float[6];
+        this.firstFree = NONE;
+    }
+
+    /**
+     * Creates one spatial index
+     *
+     * @param type     Structure of the index
+     * @param cellSize Size of the smallest cells (Items smaller than half of it are the cheapest to find)
+     * @param centerX  X of the center of the region where most of the items are (Only used by the octree)
+     * @param centerY  Y of the center of the region where most of the items are (Only used by the octree)
+     * @param centerZ  Z of the center of the region where most of the items are (Only used by the octree)
+     * @param halfSize Half of the size of the region where most of the items are (Only used by the octree)
+     * @param <T>      Type of the items indexed
+     * @return The spatial index
+     */
+    public static <T> GenericSpatialIndex<T> create(SpatialIndexTypeEnum type, float cellSize, float centerX,
+                                                    float centerY, float centerZ, float halfSize) {
+        switch (type) {
+            case looseOctree:
+                return new LooseOctree<>(centerX, centerY, centerZ, halfSize, cellSize);
+            case looseGrid:
+            default:
+                return new LooseGrid<>(cellSize);
+        }
+    }
+
+    /**
+     * Puts one item in the list of the structure where it belongs
+     *
+     * @param handle Handle of the item
+     */
+    abstract void link(int handle);
+
+    /**
+     * Removes one item of the list where it is
+     *
+     * @param handle Handle of the item
+     */
+    abstract void unlink(int handle);
+
+    /**
+     * @param handle Handle of the item that changed of sphere
+     * @return True if the item still belongs to the list where it is
+     */
+    abstract boolean staysInList(int handle);
+
+    /**
+     * Forgets every list of the structure
+     */
+    abstract void clearLists();
+
+    /**
+     * Walks the lists that may have items in the region of the query running and collects the ones inside
+     *
+     * @param results Where the handles found are written
+     * @return The number of handles written in results
+     */
+    abstract int query(int[] results);
+
+    /**
+     * Makes sure that the arrays have space for one more handle
+     */
+    private void ensureCapacity() {
+        if (used < items.length) {
+            return;
+        }
+        int capacity = items.length * 2;
+        items = Arrays.copyOf(items, capacity);
+        itemX = Arrays.copyOf(itemX, capacity);
+        itemY = Arrays.copyOf(itemY, capacity);
+        itemZ = Arrays.copyOf(itemZ, capacity);
+        itemRadius = Arrays.copyOf(itemRadius, capacity);
+        itemList = Arrays.copyOf(itemList, capacity);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+    }
+
+    /**
+     * Puts one item in the index (Reuses the handles of the items removed)
+     */
+    @Override
+    public int insert(T item, float x, float y, float z, float radius) {
+        int handle;
+        if (firstFree != NONE) {
+            handle = firstFree;
+            firstFree = next[handle];
+        } else {
+            ensureCapacity();
+            handle = used++;
+        }
+        items[handle] = item;
+        itemX[handle] = x;
+        itemY[handle] = y;
+        itemZ[handle] = z;
+        itemRadius[handle] = radius;
+        link(handle);
+        size++;
+        return handle;
+    }
+
+    /**
+     * Updates the sphere of one item (Only changes of list when it does not belong to the one where it is)
+     */
+    @Override
+    public void move(int handle, float x, float y, float z, float radius) {
+        itemX[handle] = x;
+        itemY[handle] = y;
+        itemZ[handle] = z;
+        itemRadius[handle] = radius;
+        if (!staysInList(handle)) {
+            unlink(handle);
+            link(handle);
+        }
+    }
+
+    /**
+     * Removes one item of the index
+     */
+    @Override
+    public void remove(int handle) {
+        if (items[handle] == null) {
+            return;
+        }
+        unlink(handle);
+        items[handle] = null;
+        next[handle] = firstFree;
+        firstFree = handle;
+        size--;
+    }
+
+    /**
+     * Removes every item of the index
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(items, 0, used, null);
+        clearLists();
+        firstFree = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    /**
+     * @return The item indexed with the handle
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(int handle) {
+        return (T) items[handle];
+    }
+
+    /**
+     * @return The number of items in the index
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of handles ever used (The handles of the items are below it)
+     */
+    int getUsed() {
+        return used;
+    }
+
+    /**
+     * @param handle Handle to check
+     * @return True if the handle has one item
+     */
+    boolean isUsed(int handle) {
+        return items[handle] != null;
+    }
+
+    /**
+     * Puts one item in the front of a list
+     *
+     * @param heads  First handles of the lists
+     * @param list   Index of the list
+     * @param handle Handle of the item
+     */
+    void pushFront(int[] heads, int list, int handle) {
+        int head = heads[list];
+        next[handle] = head;
+        previous[handle] = NONE;
+        if (head != NONE) {
+            previous[head] = handle;
+        }
+        heads[list] = handle;
+        itemList[handle] = list;
+    }
+
+    /**
+     * Removes one item of the list where it is
+     *
+     * @param heads  First handles of the lists
+     * @param handle Handle of the item
+     */
+    void removeFrom(int[] heads, int handle) {
+        int before = previous[handle];
+        int after = next[handle];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            heads[itemList[handle]] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+
+    /**
+     * @param handle Handle of an item in a list
+     * @return The handle of the next item of the list
+     */
+    int nextOf(int handle) {
+        return next[handle];
+    }
+
+    /**
+     * Finds the items whose sphere intersects a sphere
+     */
+    @Override
+    public int queryRadius(float x, float y, float z, float radius, int[] results) {
+        queryKind = QUERY_RADIUS;
+        queryX = x;
+        queryY = y;
+        queryZ = z;
+        queryRadius = radius;
+        setQueryBounds(x - radius, y - radius, z - radius, x + radius, y + radius, z + radius);
+        return query(results);
+    }
+
+    /**
+     * Finds the items whose sphere intersects a box aligned with the axes
+     */
+    @Override
+    public int queryBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] results) {
+        queryKind = QUERY_BOX;
+        setQueryBounds(minX, minY, minZ, maxX, maxY, maxZ);
+        return query(results);
+    }
+
+    /**
+     * Finds the items whose sphere may be inside of a frustum
+     * (Only the cells in the box that bounds the frustum are walked)
+     */
+    @Override
+    public int queryFrustum(Frustum frustum, int[] results) {
+        queryKind = QUERY_FRUSTUM;
+        queryFrustum = frustum;
+        if (frustum.computeBounds(frustumBounds)) {
+            setQueryBounds(frustumBounds[0], frustumBounds[1], frustumBounds[2], frustumBounds[3],
+                    frustumBounds[4], frustumBounds[5]);
+        } else {
+            setQueryBounds(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY,
+                    Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        }
+        int count = query(results);
+        queryFrustum = null;
+        return count;
+    }
+
+    /**
+     * Sets the box that bounds the region of the query running
+     *
+     * @param minX Minimum of x of the box
+     * @param minY Minimum of y of the box
+     * @param minZ Minimum of z of the box
+     * @param maxX Maximum of x of the box
+     * @param maxY Maximum of y of the box
+     * @param maxZ Maximum of z of the box
+     */
+    private void setQueryBounds(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        queryMinX = minX;
+        queryMinY = minY;
+        queryMinZ = minZ;
+        queryMaxX = maxX;
+        queryMaxY = maxY;
+        queryMaxZ = maxZ;
+    }
+
+    /**
+     * Tests a region of the structure against the query running
+     *
+     * @param minX Minimum of x of the region
+     * @param minY Minimum of y of the region
+     * @param minZ Minimum of z of the region
+     * @param maxX Maximum of x of the region
+     * @param maxY Maximum of y of the region
+     * @param maxZ Maximum of z of the region
+     * @return False if no item inside of the region can be found by the query
+     */
+    boolean regionIntersectsQuery(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        switch (queryKind) {
+            case QUERY_RADIUS:
+                return distanceToBoxSquared(queryX, queryY, queryZ, minX, minY, minZ, maxX, maxY, maxZ)
+                        <= queryRadius * queryRadius;
+            case QUERY_BOX:
+                return (minX <= queryMaxX) && (maxX >= queryMinX) && (minY <= queryMaxY) && (maxY >= queryMinY)
+                        && (minZ <= queryMaxZ) && (maxZ >= queryMinZ);
+            default:
+                return queryFrustum.intersectsBox(minX, minY, minZ, maxX, maxY, maxZ);
+        }
+    }
+
+    /**
+     * @param handle Handle of the item
+     * @return True if the sphere of the item is found by the query running
+     */
+    boolean itemIntersectsQuery(int handle) {
+        float x = itemX[handle], y = itemY[handle], z = itemZ[handle], radius = itemRadius[handle];
+        switch (queryKind) {
+            case QUERY_RADIUS:
+                float dx = x - queryX, dy = y - queryY, dz = z - queryZ;
+                float reach = radius + queryRadius;
+                return dx * dx + dy * dy + dz * dz <= reach * reach;
+            case QUERY_BOX:
+                return distanceToBoxSquared(x, y, z, queryMinX, queryMinY, queryMinZ, queryMaxX, queryMaxY, queryMaxZ)
+                        <= radius * radius;
+            default:
+                return queryFrustum.intersectsSphere(x, y, z, radius);
+        }
+    }
+
+    /**
+     * Collects the items of one list found by the query running
+     *
+     * @param head    First handle of the list
+     * @param results Where the handles found are written
+     * @param count   Number of handles already written
+     * @return The number of handles written after the list
+     */
+    int collect(int head, int[] results, int count) {
+        for (int handle = head; (handle != NONE) && (count < results.length); handle = next[handle]) {
+            if (itemIntersectsQuery(handle)) {
+                results[count++] = handle;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param x    X of the point
+     * @param y    Y of the point
+     * @param z    Z of the point
+     * @param minX Minimum of x of the box
+     * @param minY Minimum of y of the box
+     * @param minZ Minimum of z of the box
+     * @param maxX Maximum of x of the box
+     * @param maxY Maximum of y of the box
+     * @param maxZ Maximum of z of the box
+     * @return The square of the distance of the point to the box (Zero inside of the box)
+     */
+    private static float distanceToBoxSquared(float x, float y, float z, float minX, float minY, float minZ,
+                                              float maxX, float maxY, float maxZ) {
+        float dx = Math.max(Math.max(minX - x, x - maxX), 0.0f);
+        float dy = Math.max(Math.max(minY - y, y - maxY), 0.0f);
+        float dz = Math.max(Math.max(minZ - z, z - maxZ), 0.0f);
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
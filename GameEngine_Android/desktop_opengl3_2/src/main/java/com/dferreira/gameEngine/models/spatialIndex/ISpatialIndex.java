@@ -0,0 +1,94 @@
+package com.dferreira.gameEngine.models.spatialIndex;
+
+import com.dferreira.commons.Frustum;
+
+/**
+ * Index of items bounded by spheres by their position in the world
+ * (The items are referred by the handle got when inserted, the queries write the handles found in arrays
+ * given by the caller so they do not allocate)
+ *
+ * @param <T> Type of the items indexed
+ */
+public interface ISpatialIndex<T> {
+
+    /**
+     * Puts one item in the index
+     *
+     * @param item   The item to index (Not null)
+     * @param x      X of the center of the sphere that bounds the item
+     * @param y      Y of the center of the sphere that bounds the item
+     * @param z      Z of the center of the sphere that bounds the item
+     * @param radius Radius of the sphere that bounds the item
+     * @return The handle of the item in the index
+     */
+    int insert(T item, float x, float y, float z, float radius);
+
+    /**
+     * Updates the sphere of one item
+     *
+     * @param handle Handle of the item
+     * @param x      X of the new center of the sphere
+     * @param y      Y of the new center of the sphere
+     * @param z      Z of the new center of the sphere
+     * @param radius New radius of the sphere
+     */
+    void move(int handle, float x, float y, float z, float radius);
+
+    /**
+     * Removes one item of the index (The handle can be given to another item after)
+     *
+     * @param handle Handle of the item
+     */
+    void remove(int handle);
+
+    /**
+     * Removes every item of the index
+     */
+    void clear();
+
+    /**
+     * @param handle Handle of the item
+     * @return The item indexed with the handle
+     */
+    T get(int handle);
+
+    /**
+     * @return The number of items in the index
+     */
+    int size();
+
+    /**
+     * Finds the items whose sphere intersects a sphere
+     *
+     * @param x       X of the center of the sphere
+     * @param y       Y of the center of the sphere
+     * @param z       Z of the center of the sphere
+     * @param radius  Radius of the sphere
+     * @param results Where the handles found are written (The items that do not fit are not reported)
+     * @return The number of handles written in results
+     */
+    int queryRadius(float x, float y, float z, float radius, int[] results);
+
+    /**
+     * Finds the items whose sphere intersects a box aligned with the axes
+     *
+     * @param minX    Minimum of x of the box
+     * @param minY    Minimum of y of the box
+     * @param minZ    Minimum of z of the box
+     * @param maxX    Maximum of x of the box
+     * @param maxY    Maximum of y of the box
+     * @param maxZ    Maximum of z of the box
+     * @param results Where the handles found are written (The items that do not fit are not reported)
+     * @return The number of handles written in results
+     */
+    int queryBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ, int[] results);
+
+    /**
+     * Finds the items whose sphere may be inside of a frustum
+     *
+     * @param frustum The frustum extracted from the camera
+     * @param results Where the handles found are written (The items that do not fit are not reported)
+     * @return The number of handles written in results
+     */
+    int queryFrustum(Frustum frustum, int[] results);
+}
@@ -0,0 +1,202 @@
+package com.dferreira.gameEngine.models.spatialIndex;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index that puts each item in the cell of a uniform grid where its center is
+ * (The cells are loose, they bound the items up to half of a cell outside of them, the items bigger than that
+ * are kept in one list that every query walks. The cells are hashed by coordinates so the grid has no bounds)
+ *
+ * @param <T> Type of the items indexed
+ */
+class LooseGrid<T> extends GenericSpatialIndex<T> {
+
+    /**
+     * Number of buckets of the cells when created
+     */
+    private final static int INITIAL_BUCKETS = 64;
+
+    /**
+     * Primes used to hash the coordinates of the cells
+     */
+    private final static int HASH_X = 73856093;
+    private final static int HASH_Y = 19349663;
+    private final static int HASH_Z = 83492791;
+
+    /**
+     * Size of the side of the cells
+     */
+    private final float cellSize;
+
+    /**
+     * Inverse of the size of the cells (To find the cells with multiplications)
+     */
+    private final float inverseCellSize;
+
+    /**
+     * How much the cells bound outside of them (Largest radius of the items put in the cells)
+     */
+    private final float looseMargin;
+
+    /**
+     * First handles of the lists of the buckets of cells (The last one is the list of the items too big)
+     */
+    private int[] heads;
+
+    /**
+     * Number of buckets of cells (Power of two)
+     */
+    private int bucketsCount;
+
+    /**
+     * Cells where items were put since the grid was cleared
+     */
+    private int minCellX, minCellY, minCellZ;
+    private int maxCellX, maxCellY, maxCellZ;
+
+    /**
+     * Constructor of the loose grid
+     *
+     * @param cellSize Size of the side of the cells
+     */
+    LooseGrid(float cellSize) {
+        super();
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1.0f / cellSize;
+        this.looseMargin = cellSize * 0.5f;
+        this.bucketsCount = INITIAL_BUCKETS;
+        this.heads = new int[INITIAL_BUCKETS + 1];
+        clearLists();
+    }
+
+    /**
+     * @param position Position in one axis
+     * @return The coordinate of the cell in the axis
+     */
+    private int cellOf(float position) {
+        return (int) Math.floor(position * inverseCellSize);
+    }
+
+    /**
+     * @param cellX X of the cell
+     * @param cellY Y of the cell
+     * @param cellZ Z of the cell
+     * @return The bucket of the cell
+     */
+    private int bucketOf(int cellX, int cellY, int cellZ) {
+        return ((cellX * HASH_X) ^ (cellY * HASH_Y) ^ (cellZ * HASH_Z)) & (bucketsCount - 1);
+    }
+
+    /**
+     * @param handle Handle of the item
+     * @return The list where the item belongs
+     */
+    private int listOf(int handle) {
+        if (itemRadius[handle] > looseMargin) {
+            return bucketsCount;
+        }
+        return bucketOf(cellOf(itemX[handle]), cellOf(itemY[handle]), cellOf(itemZ[handle]));
+    }
+
+    /**
+     * Puts one item in the bucket of its cell or in the list of the items too big
+     */
+    @Override
+    void link(int handle) {
+        if (size() >= bucketsCount) {
+            // Keeps about one item by bucket
+            rehash(bucketsCount * 2, handle);
+        }
+        int list = listOf(handle);
+        if (list != bucketsCount) {
+            int cellX = cellOf(itemX[handle]), cellY = cellOf(itemY[handle]), cellZ = cellOf(itemZ[handle]);
+            minCellX = Math.min(minCellX, cellX);
+            minCellY = Math.min(minCellY, cellY);
+            minCellZ = Math.min(minCellZ, cellZ);
+            maxCellX = Math.max(maxCellX, cellX);
+            maxCellY = Math.max(maxCellY, cellY);
+            maxCellZ = Math.max(maxCellZ, cellZ);
+        }
+        pushFront(heads, list, handle);
+    }
+
+    /**
+     * Removes one item of its bucket
+     */
+    @Override
+    void unlink(int handle) {
+        removeFrom(heads, handle);
+    }
+
+    /**
+     * @return True if the item stays in the same bucket
+     */
+    @Override
+    boolean staysInList(int handle) {
+        return listOf(handle) == itemList[handle];
+    }
+
+    /**
+     * Empties every bucket
+     */
+    @Override
+    void clearLists() {
+        Arrays.fill(heads, NONE);
+        minCellX = minCellY = minCellZ = Integer.MAX_VALUE;
+        maxCellX = maxCellY = maxCellZ = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Changes the number of buckets and puts the items in the new ones
+     *
+     * @param newBucketsCount New number of buckets (Power of two)
+     * @param linking         Handle of the item being linked (Left out)
+     */
+    private void rehash(int newBucketsCount, int linking) {
+        bucketsCount = newBucketsCount;
+        heads = new int[newBucketsCount + 1];
+        Arrays.fill(heads, NONE);
+        for (int handle = 0; handle < getUsed(); handle++) {
+            if ((handle != linking) && isUsed(handle)) {
+                pushFront(heads, listOf(handle), handle);
+            }
+        }
+    }
+
+    /**
+     * Walks the list of the items too big and the cells in the region of the query
+     */
+    @Override
+    int query(int[] results) {
+        int count = collect(heads[bucketsCount], results, 0);
+
+        int startX = Math.max(cellOf(queryMinX - looseMargin), minCellX);
+        int startY = Math.max(cellOf(queryMinY - looseMargin), minCellY);
+        int startZ = Math.max(cellOf(queryMinZ - looseMargin), minCellZ);
+        int endX = Math.min(cellOf(queryMaxX + looseMargin), maxCellX);
+        int endY = Math.min(cellOf(queryMaxY + looseMargin), maxCellY);
+        int endZ = Math.min(cellOf(queryMaxZ + looseMargin), maxCellZ);
+        for (int cellZ = startZ; cellZ <= endZ; cellZ++) {
+            for (int cellY = startY; cellY <= endY; cellY++) {
+                for (int cellX = startX; (cellX <= endX) && (count < results.length); cellX++) {
+                    int head = heads[bucketOf(cellX, cellY, cellZ)];
+                    if ((head == NONE) || (!regionIntersectsQuery(cellX * cellSize - looseMargin,
+                            cellY * cellSize - looseMargin, cellZ * cellSize - looseMargin,
+                            (cellX + 1) * cellSize + looseMargin, (cellY + 1) * cellSize + looseMargin,
+                            (cellZ + 1) * cellSize + looseMargin))) {
+                        continue;
+                    }
+                    // The bucket may have items of other cells with the same hash
+                    for (int handle = head; (handle != NONE) && (count < results.length);
+                         handle = nextOf(handle)) {
+                        if ((cellOf(itemX[handle]) == cellX) && (cellOf(itemY[handle]) == cellY)
+                                && (cellOf(itemZ[handle]) == cellZ) && itemIntersectsQuery(handle)) {
+                            results[count++] = handle;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,261 @@
+package com.dferreira.gameEngine.models.spatialIndex;
+
+import java.util.Arrays;
+
+/**
+ * Spatial index that puts each item in the deepest node of an octree that bounds it
+ * (The nodes are loose, they bound the items up to the size of the node outside of them. The nodes are only
+ * created where the items are and the items outside of the bounds of the octree are kept in the root)
+ *
+ * @param <T> Type of the items indexed
+ */
+class LooseOctree<T> extends GenericSpatialIndex<T> {
+
+    /**
+     * Number of children of each node
+     */
+    private final static int CHILDREN_COUNT = 8;
+
+    /**
+     * Deepest level that the octree can have
+     */
+    private final static int MAX_DEPTH = 16;
+
+    /**
+     * Number of nodes that the octree has space for when created
+     */
+    private final static int INITIAL_NODES = 64;
+
+    /**
+     * The root node
+     */
+    private final static int ROOT = 0;
+
+    /**
+     * Deepest level of the nodes of this octree
+     */
+    private final int maxDepth;
+
+    /**
+     * Lists of the items in the nodes
+     */
+    private int[] nodeHead;
+
+    /**
+     * Number of items in each node and its children
+     */
+    private int[] nodeCount;
+
+    /**
+     * Parent and first of the children of each node (The children are consecutive)
+     */
+    private int[] nodeParent;
+    private int[] nodeFirstChild;
+
+    /**
+     * Level of each node (The root is zero)
+     */
+    private int[] nodeDepth;
+
+    /**
+     * Center and half of the size of each node
+     */
+    private float[] nodeX;
+    private float[] nodeY;
+    private float[] nodeZ;
+    private float[] nodeHalf;
+
+    /**
+     * Number of nodes created
+     */
+    private int nodesCount;
+
+    /**
+     * Scratch stack of the nodes to visit in the queries
+     */
+    private final int[] stack;
+
+    /**
+     * Constructor of the loose octree
+     *
+     * @param centerX  X of the center of the octree
+     * @param centerY  Y of the center of the octree
+     * @param centerZ  Z of the center of the octree
+     * @param halfSize Half of the size of the octree
+     * @param cellSize Size of the smallest nodes
+     */
+    LooseOctree(float centerX, float centerY, float centerZ, float halfSize, float cellSize) {
+        super();
+        int depth = 0;
+        while ((depth < MAX_DEPTH) && ((2.0f * halfSize) / (1 << (depth + 1)) >= cellSize)) {
+            depth++;
+        }
+        this.maxDepth = depth;
+        this.stack = new int[(CHILDREN_COUNT - 1) * maxDepth + CHILDREN_COUNT];
+
+        this.nodeHead = new int[INITIAL_NODES];
+        this.nodeCount = new int[INITIAL_NODES];
+        this.nodeParent = new int[INITIAL_NODES];
+        this.nodeFirstChild = new int[INITIAL_NODES];
+        this.nodeDepth = new int[INITIAL_NODES];
+        this.nodeX = new float[INITIAL_NODES];
+        this.nodeY = new float[INITIAL_NODES];
+        this.nodeZ = new float[INITIAL_NODES];
+        this.nodeHalf = new float[INITIAL_NODES];
+        this.nodeX[ROOT] = centerX;
+        this.nodeY[ROOT] = centerY;
+        this.nodeZ[ROOT] = centerZ;
+        this.nodeHalf[ROOT] = halfSize;
+        clearLists();
+    }
+
+    /**
+     * Makes sure that the arrays of the nodes have space for the children of one node
+     */
+    private void ensureNodesCapacity() {
+        if (nodesCount + CHILDREN_COUNT <= nodeHead.length) {
+            return;
+        }
+        int capacity = nodeHead.length * 2;
+        nodeHead = Arrays.copyOf(nodeHead, capacity);
+        nodeCount = Arrays.copyOf(nodeCount, capacity);
+        nodeParent = Arrays.copyOf(nodeParent, capacity);
+        nodeFirstChild = Arrays.copyOf(nodeFirstChild, capacity);
+        nodeDepth = Arrays.copyOf(nodeDepth, capacity);
+        nodeX = Arrays.copyOf(nodeX, capacity);
+        nodeY = Arrays.copyOf(nodeY, capacity);
+        nodeZ = Arrays.copyOf(nodeZ, capacity);
+        nodeHalf = Arrays.copyOf(nodeHalf, capacity);
+    }
+
+    /**
+     * Creates the children of one node
+     *
+     * @param node The node to split
+     */
+    private void split(int node) {
+        ensureNodesCapacity();
+        int first = nodesCount;
+        float half = nodeHalf[node] * 0.5f;
+        for (int octant = 0; octant < CHILDREN_COUNT; octant++) {
+            int child = first + octant;
+            nodeHead[child] = NONE;
+            nodeCount[child] = 0;
+            nodeParent[child] = node;
+            nodeFirstChild[child] = NONE;
+            nodeDepth[child] = nodeDepth[node] + 1;
+            nodeX[child] = nodeX[node] + (((octant & 1) != 0) ? half : -half);
+            nodeY[child] = nodeY[node] + (((octant & 2) != 0) ? half : -half);
+            nodeZ[child] = nodeZ[node] + (((octant & 4) != 0) ? half : -half);
+            nodeHalf[child] = half;
+        }
+        nodeFirstChild[node] = first;
+        nodesCount += CHILDREN_COUNT;
+    }
+
+    /**
+     * Finds the deepest node that bounds one item (Creates the nodes missing)
+     *
+     * @param handle Handle of the item
+     * @return The node where the item belongs
+     */
+    private int nodeOf(int handle) {
+        float x = itemX[handle], y = itemY[handle], z = itemZ[handle], radius = itemRadius[handle];
+        float rootHalf = nodeHalf[ROOT];
+        if ((Math.abs(x - nodeX[ROOT]) > rootHalf) || (Math.abs(y - nodeY[ROOT]) > rootHalf)
+                || (Math.abs(z - nodeZ[ROOT]) > rootHalf) || (radius > rootHalf)) {
+            return ROOT;
+        }
+        int node = ROOT;
+        while ((nodeDepth[node] < maxDepth) && (radius <= nodeHalf[node] * 0.5f)) {
+            if (nodeFirstChild[node] == NONE) {
+                split(node);
+            }
+            int octant = ((x >= nodeX[node]) ? 1 : 0) | ((y >= nodeY[node]) ? 2 : 0) | ((z >= nodeZ[node]) ? 4 : 0);
+            node = nodeFirstChild[node] + octant;
+        }
+        return node;
+    }
+
+    /**
+     * Adds to the number of items of one node and of its parents
+     *
+     * @param node  The node
+     * @param delta Number to add
+     */
+    private void addToCounts(int node, int delta) {
+        for (int n = node; n != NONE; n = nodeParent[n]) {
+            nodeCount[n] += delta;
+        }
+    }
+
+    /**
+     * Puts one item in the deepest node that bounds it
+     */
+    @Override
+    void link(int handle) {
+        int node = nodeOf(handle);
+        pushFront(nodeHead, node, handle);
+        addToCounts(node, 1);
+    }
+
+    /**
+     * Removes one item of its node
+     */
+    @Override
+    void unlink(int handle) {
+        removeFrom(nodeHead, handle);
+        addToCounts(itemList[handle], -1);
+    }
+
+    /**
+     * @return True if the item stays in the same node
+     */
+    @Override
+    boolean staysInList(int handle) {
+        return nodeOf(handle) == itemList[handle];
+    }
+
+    /**
+     * Removes every node except the root
+     */
+    @Override
+    void clearLists() {
+        nodesCount = 1;
+        nodeHead[ROOT] = NONE;
+        nodeCount[ROOT] = 0;
+        nodeParent[ROOT] = NONE;
+        nodeFirstChild[ROOT] = NONE;
+        nodeDepth[ROOT] = 0;
+    }
+
+    /**
+     * Walks the nodes with items whose loose bounds are in the region of the query
+     * (The root is always walked because it has the items outside of the octree)
+     */
+    @Override
+    int query(int[] results) {
+        int count = 0;
+        int top = 0;
+        stack[top++] = ROOT;
+        while ((top > 0) && (count < results.length)) {
+            int node = stack[--top];
+            if (node != ROOT) {
+                float x = nodeX[node], y = nodeY[node], z = nodeZ[node], loose = 2.0f * nodeHalf[node];
+                if (!regionIntersectsQuery(x - loose, y - loose, z - loose, x + loose, y + loose, z + loose)) {
+                    continue;
+                }
+            }
+            count = collect(nodeHead[node], results, count);
+            int first = nodeFirstChild[node];
+            if (first != NONE) {
+                for (int child = first; child < first + CHILDREN_COUNT; child++) {
+                    if (nodeCount[child] > 0) {
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
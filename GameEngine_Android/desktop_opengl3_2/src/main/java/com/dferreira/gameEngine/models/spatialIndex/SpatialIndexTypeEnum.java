@@ -0,0 +1,15 @@
+package com.dferreira.gameEngine.models.spatialIndex;
+
+/**
+ * Structures that can index the items of the world
+ */
+public enum SpatialIndexTypeEnum {
+    /**
+     * Uniform grid of cells hashed by coordinates, unbounded (Good for worlds that are mostly flat)
+     */
+    looseGrid,
+    /**
+     * Octree that grows the nodes on demand inside of bounds (Good for items of very different sizes)
+     */
+    looseOctree
+}
@@ -0,0 +1,176 @@
+package com.dferreira.gameEngine.renderEngine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes the assets in worker threads and uploads them to the render API a few per frame
+ * (The uploads of one frame stop when the budget of time or of bytes of the frame is spent)
+ */
+public class AssetStreamer {
+
+    private final static Logger logger = LogManager.getLogger(AssetStreamer.class);
+
+    /**
+     * Number of nanoseconds in one millisecond
+     */
+    private final static long NANOS_IN_MILLIS = 1000000L;
+
+    /**
+     * Workers that decode the assets
+     */
+    private final ExecutorService workers;
+
+    /**
+     * Assets decoded waiting to be uploaded (in the order that they were decoded)
+     */
+    private final Queue<IAssetUpload> uploads;
+
+    /**
+     * Number of decodes submitted that did not finish yet
+     */
+    private final AtomicInteger pendingDecodes;
+
+    /**
+     * Maximum time spent uploading in one frame
+     */
+    private final long budgetNanos;
+
+    /**
+     * Maximum number of bytes uploaded in one frame
+     */
+    private final long budgetBytes;
+
+    /**
+     * Number of bytes uploaded since the start
+     */
+    private long uploadedBytes;
+
+    /**
+     * Number of assets uploaded since the start
+     */
+    private int uploadedCount;
+
+    /**
+     * Constructor of the asset streamer
+     *
+     * @param numberOfWorkers Number of threads that decode the assets
+     * @param budgetMillis    Maximum time spent uploading in one frame
+     * @param budgetBytes     Maximum number of bytes uploaded in one frame
+     */
+    public AssetStreamer(int numberOfWorkers, long budgetMillis, long budgetBytes) {
+        this.workers = Executors.newFixedThreadPool(numberOfWorkers, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "asset-worker-" + count.incrementAndGet());
+                // The workers should not keep the game alive
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.uploads = new ConcurrentLinkedQueue<>();
+        this.pendingDecodes = new AtomicInteger();
+        this.budgetNanos = budgetMillis * NANOS_IN_MILLIS;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Submits a decode to the workers
+     * (The decode should put the assets decoded in the streamer with enqueue)
+     *
+     * @param decode The work of decoding the assets
+     */
+    public void decode(final Runnable decode) {
+        pendingDecodes.incrementAndGet();
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    decode.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    pendingDecodes.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Puts one asset decoded in the queue of the uploads (Can be called from any thread)
+     *
+     * @param upload The asset to upload
+     */
+    public void enqueue(IAssetUpload upload) {
+        uploads.add(upload);
+    }
+
+    /**
+     * Uploads the assets decoded until the budget of the frame is spent
+     * (Should be called once by frame in the thread of the render API,
+     * at least one asset is uploaded if there is one waiting)
+     */
+    public void uploadPending() {
+        long start = System.nanoTime();
+        long bytes = 0;
+        int count = 0;
+        IAssetUpload upload;
+        while ((upload = uploads.peek()) != null) {
+            if ((count > 0) && ((System.nanoTime() - start >= budgetNanos)
+                    || (bytes + upload.getBytes() > budgetBytes))) {
+                break;
+            }
+            uploads.poll();
+            upload.upload();
+            bytes += upload.getBytes();
+            count++;
+        }
+        if (count > 0) {
+            uploadedBytes += bytes;
+            uploadedCount += count;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Uploaded " + count + " assets (" + bytes + " bytes) in "
+                        + ((System.nanoTime() - start) / NANOS_IN_MILLIS) + " ms, total " + uploadedCount + " assets ("
+                        + uploadedBytes + " bytes)");
+            }
+        }
+    }
+
+    /**
+     * @return True if all the assets submitted were decoded and uploaded
+     */
+    public boolean isIdle() {
+        return (pendingDecodes.get() == 0) && uploads.isEmpty();
+    }
+
+    /**
+     * @return the number of bytes uploaded since the start
+     */
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    /**
+     * @return the number of assets uploaded since the start
+     */
+    public int getUploadedCount() {
+        return uploadedCount;
+    }
+
+    /**
+     * Stops the workers (The assets not uploaded yet are discarded)
+     */
+    public void dispose() {
+        workers.shutdownNow();
+        uploads.clear();
+    }
+}
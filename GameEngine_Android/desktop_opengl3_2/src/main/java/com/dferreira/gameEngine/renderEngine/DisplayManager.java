@@ -40,6 +40,13 @@ public class DisplayManager {
         }
     }
 
+    /**
+     * @return The height of the window in pixels
+     */
+    public static int getHeight() {
+        return HEIGHT;
+    }
+
     /**
      * Say to have one update rate of 120 FPS
      */
@@ -3,6 +3,7 @@ package com.dferreira.gameEngine.renderEngine;
 
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.models.Light;
@@ -15,8 +16,9 @@ import com.dferreira.gameEngine.models.complexEntities.Material;
 import com.dferreira.gameEngine.models.complexEntities.MaterialGroup;
 import com.dferreira.gameEngine.models.complexEntities.RawModelMaterial;
 import com.dferreira.gameEngine.shaders.entities.EntityShaderManager;
+import com.dferreira.gameEngine.shaders.entities.TEntityAttribute;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +33,63 @@ public class EntityRender extends GenericRender {
      */
     private final EntityShaderManager eShader;
 
+    /**
+     * Pass of the entities in the keys of the render queue
+     */
+    private final static int ENTITIES_PASS = 0;
+
+    /**
+     * Identifier of the shader of the entities in the keys of the render queue
+     */
+    private final static int ENTITY_SHADER = 0;
+
+    /**
+     * Distance covered by the depth of the keys (The far plane of the projection)
+     */
+    private final static float SORT_DISTANCE = 1000.0f;
+
+    /**
+     * Minimum number of consecutive draws of the same part that are drawn instanced
+     */
+    private final static int MIN_INSTANCES = 2;
+
+    /**
+     * Number of floats of one transformation matrix
+     */
+    private final static int MATRIX_SIZE = 16;
+
+    /**
+     * Queue where the draws are sorted by state and depth
+     */
+    private final RenderQueue queue;
+
+    /**
+     * Parts of the entities submitted in this frame (Indexed by the items of the queue)
+     */
+    private final List<RawModelMaterial> drawParts;
+
+    /**
+     * Entities submitted in this frame (Indexed by the items of the queue)
+     */
+    private final List<Entity> drawEntities;
+
+    /**
+     * If the draws of the same part are drawn instanced in this frame
+     * (The translucent parts with alpha tested materials are also grouped by state and only sorted from the back
+     * to the front inside each group, the blended ones keep the strict order from the back to the front)
+     */
+    private boolean instancing;
+
+    /**
+     * Matrix where the transformation of each entity is computed
+     */
+    private final GLTransformation transformation;
+
+    /**
+     * Transformations of the instances packed to be drawn in one instanced draw (Reused by the frames)
+     */
+    private float[] instanceTransformations;
+
     /**
      * Initializer of the entity render
      *
@@ -41,6 +100,11 @@ public class EntityRender extends GenericRender {
     public EntityRender(EntityShaderManager sManager, GLTransformation projectionMatrix, IFrameRenderAPI frameRenderAPI) {
         super(frameRenderAPI);
         this.eShader = sManager;
+        this.queue = new RenderQueue();
+        this.drawParts = new ArrayList<>();
+        this.drawEntities = new ArrayList<>();
+        this.transformation = new GLTransformation();
+        this.instanceTransformations = new float[0];
 
         sManager.start();
         sManager.loadProjectionMatrix(projectionMatrix);
@@ -52,10 +116,10 @@ public class EntityRender extends GenericRender {
      *
      * @param entity Entity for which is to create the transformation matrix
      * @return The transformation matrix that put the entity in its right
-     * position
+     * position (Shared by the calls, valid until the next one)
      */
     private GLTransformation getTransformationMatrix(Entity entity) {
-        GLTransformation matrix = new GLTransformation();
+        GLTransformation matrix = this.transformation;
         matrix.loadIdentity();
         matrix.translate(entity.getPosition().x, entity.getPosition().y, entity.getPosition().z);
         //Rotate the entity
@@ -73,77 +137,172 @@ public class EntityRender extends GenericRender {
     /**
      * Render the entities in the scene
      *
-     * @param skyColor   Color of the sky
-     * @param lights     The lights of the scene
-     * @param viewMatrix View matrix to render the scene
-     * @param entities   List of entities of the scene
-     * @param player     The player of the scene
+     * @param skyColor       Color of the sky
+     * @param lights         The lights of the scene
+     * @param viewMatrix     View matrix to render the scene
+     * @param cameraPosition Position of the camera (Used to sort the draws by depth)
+     * @param entities       List of entities of the scene
+     * @param player         The player of the scene
      */
-    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix,
+    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix, Vector3f cameraPosition,
                        Map<GenericEntity, List<Entity>> entities, Player player) {
         eShader.start();
         eShader.loadSkyColor(skyColor);
         eShader.loadLights(lights);
         eShader.loadViewMatrix(viewMatrix);
 
-        this.render(entities);
-        this.renderPlayer(player);
+        this.instancing = this.frameRenderAPI.supportsInstancing();
+        this.queue.clear();
+        this.drawParts.clear();
+        this.drawEntities.clear();
+        this.submit(entities, cameraPosition);
+        this.submitPlayer(player, cameraPosition);
+        this.queue.sort();
+        this.renderQueue();
         eShader.stop();
     }
 
     /**
-     * Render one hashMap of entities where each key is a group of similar
-     * entities to be render
+     * Submits one draw of a part of an entity to the render queue
      *
-     * @param entities HashMap of entities to render
+     * @param part   Part of the entity (Model and material)
+     * @param entity The entity to draw
+     * @param depth  Depth quantized of the entity
      */
-    private void render(Map<GenericEntity, List<Entity>> entities) {
+    private void submit(RawModelMaterial part, Entity entity, int depth) {
+        Material material = part.getMaterial();
+        int item = drawParts.size();
+        drawParts.add(part);
+        drawEntities.add(entity);
+        boolean groupByState = instancing && material.isAlphaTested();
+        long key = RenderQueue.makeKey(ENTITIES_PASS, material.hasTransparency(), groupByState, ENTITY_SHADER,
+                queue.getSortId(material.getDiffuse().getTexture()), queue.getSortId(material), depth);
+        queue.add(key, item);
+    }
+
+    /**
+     * Submits every part of one entity to the render queue
+     *
+     * @param genericEntity  Description of the model of the entity
+     * @param entity         The entity to draw
+     * @param cameraPosition Position of the camera
+     */
+    private void submit(GenericEntity genericEntity, Entity entity, Vector3f cameraPosition) {
+        Vector3f position = entity.getPosition();
+        float dx = position.x - cameraPosition.x;
+        float dy = position.y - cameraPosition.y;
+        float dz = position.z - cameraPosition.z;
+        int depth = RenderQueue.quantizeDepth((float) Math.sqrt(dx * dx + dy * dy + dz * dz), SORT_DISTANCE);
+
+        for (MaterialGroup materialGroup : genericEntity.getGroupsOfMaterials().values()) {
+            for (RawModelMaterial rawModelMaterial : materialGroup.getMaterials()) {
+                submit(rawModelMaterial, entity, depth);
+            }
+        }
+    }
+
+    /**
+     * Submits one hashMap of entities where each key is a group of similar
+     * entities to the render queue
+     *
+     * @param entities       HashMap of entities to render
+     * @param cameraPosition Position of the camera
+     */
+    private void submit(Map<GenericEntity, List<Entity>> entities, Vector3f cameraPosition) {
         if (!Utils.isEmpty(entities)) {
-            for (GenericEntity genericEntity : entities.keySet()) {
-                HashMap<String, MaterialGroup> groupsOfMaterials = genericEntity.getGroupsOfMaterials();
-                for (String groupName : groupsOfMaterials.keySet()) {
-                    MaterialGroup materialGroup = groupsOfMaterials.get(groupName);
-                    for (RawModelMaterial rawModelMaterial : materialGroup.getMaterials()) {
-                        IRawModel model = rawModelMaterial.getRawModel();
-                        Material material = rawModelMaterial.getMaterial();
-                        prepareMaterial(material);
-                        prepareModel(model);
-                        List<Entity> batch = entities.get(genericEntity);
-                        for (Entity entity : batch) {
-                            loadEntityTransformation(entity);
-                            render(model);
-                        }
-                        unPrepareModel(model);
-                        unPrepareMaterial(material);
-                    }
+            for (Map.Entry<GenericEntity, List<Entity>> batch : entities.entrySet()) {
+                for (Entity entity : batch.getValue()) {
+                    submit(batch.getKey(), entity, cameraPosition);
                 }
             }
         }
     }
 
     /**
-     * Render one player_mtl of the scene
+     * Submits the player_mtl of the scene to the render queue
      *
-     * @param player the player_mtl that is to render in the scene
+     * @param player         the player_mtl that is to render in the scene
+     * @param cameraPosition Position of the camera
      */
-    private void renderPlayer(Player player) {
+    private void submitPlayer(Player player, Vector3f cameraPosition) {
         GenericEntity genericEntity = player.getGenericEntity();
-        HashMap<String, MaterialGroup> groupsOfMaterials = genericEntity.getGroupsOfMaterials();
-        for (String groupName : groupsOfMaterials.keySet()) {
-            MaterialGroup materialGroup = groupsOfMaterials.get(groupName);
-            for (RawModelMaterial rawModelMaterial : materialGroup.getMaterials()) {
-                IRawModel model = rawModelMaterial.getRawModel();
-                Material material = rawModelMaterial.getMaterial();
+        if (!genericEntity.isResident()) {
+            // The model of the player is still loading
+            return;
+        }
+        submit(genericEntity, player, cameraPosition);
+    }
+
+    /**
+     * Renders the draws of the queue in the order sorted
+     * (The material and the model are only prepared when they change from the previous draw, the consecutive
+     * draws of the same part are drawn in one instanced draw if the render API supports it)
+     */
+    private void renderQueue() {
+        Material preparedMaterial = null;
+        IRawModel preparedModel = null;
+        int first = 0;
+        while (first < queue.size()) {
+            RawModelMaterial part = drawParts.get(queue.getItem(first));
+            int end = first + 1;
+            while ((end < queue.size()) && (drawParts.get(queue.getItem(end)) == part)) {
+                end++;
+            }
+
+            Material material = part.getMaterial();
+            IRawModel model = part.getRawModel();
+            if (material != preparedMaterial) {
                 prepareMaterial(material);
+                preparedMaterial = material;
+            }
+            if (model != preparedModel) {
+                if (preparedModel != null) {
+                    unPrepareModel(preparedModel);
+                }
                 prepareModel(model);
-                loadEntityTransformation(player);
-                render(model);
-                unPrepareModel(model);
-                unPrepareMaterial(material);
+                preparedModel = model;
             }
+            if (instancing && (end - first >= MIN_INSTANCES)) {
+                renderInstanced(model, first, end);
+            } else {
+                eShader.loadInstanced(false);
+                for (int i = first; i < end; i++) {
+                    loadEntityTransformation(drawEntities.get(queue.getItem(i)));
+                    render(model);
+                }
+            }
+            first = end;
+        }
+        if (preparedModel != null) {
+            unPrepareModel(preparedModel);
+        }
+        if (preparedMaterial != null) {
+            unPrepareMaterial(preparedMaterial);
         }
     }
 
+    /**
+     * Packs the transformations of a run of draws of the same part and draws them in one instanced draw
+     *
+     * @param model Raw model of the part
+     * @param first Position in the queue of the first draw
+     * @param end   Position in the queue after the last draw
+     */
+    private void renderInstanced(IRawModel model, int first, int end) {
+        int instancesCount = end - first;
+        if (instanceTransformations.length < instancesCount * MATRIX_SIZE) {
+            int capacity = Math.max(instancesCount, instanceTransformations.length / MATRIX_SIZE * 2);
+            instanceTransformations = new float[capacity * MATRIX_SIZE];
+        }
+        for (int i = first; i < end; i++) {
+            GLTransformation matrix = getTransformationMatrix(drawEntities.get(queue.getItem(i)));
+            System.arraycopy(matrix.get(), 0, instanceTransformations, (i - first) * MATRIX_SIZE, MATRIX_SIZE);
+        }
+        eShader.loadInstanced(true);
+        this.frameRenderAPI.drawTrianglesIndexesInstanced(model, TEntityAttribute.instanceTransformation,
+                instanceTransformations, instancesCount);
+    }
+
     /**
      * Bind the model to render the entity with openGL
      *
@@ -151,6 +310,7 @@ public class EntityRender extends GenericRender {
      */
     private void prepareModel(IRawModel model) {
         frameRenderAPI.prepareModel(model);
+        eShader.loadQuantization(model.getQuantization());
     }
 
     /**
@@ -159,7 +319,7 @@ public class EntityRender extends GenericRender {
      * @param component The component to be prepared
      */
     private void prepareLightingComponent(LightingComponent component) {
-        if (component.getTextureWeight() > 0.0f) {
+        if ((component.getTextureWeight() > 0.0f) && (component.getTexture() != null)) {
             this.frameRenderAPI.activeAndBindTexture(component.getTexture());
         }
 
@@ -180,6 +340,8 @@ public class EntityRender extends GenericRender {
         //Enable the culling to not force the render of polygons that are not going to be visible
         if (!material.hasTransparency()) {
             this.frameRenderAPI.enableCulling();
+        } else {
+            this.frameRenderAPI.disableCulling();
         }
 
 
@@ -238,6 +400,9 @@ public class EntityRender extends GenericRender {
      */
     @Override
     public void dispose() {
+        this.queue.clear();
+        this.drawParts.clear();
+        this.drawEntities.clear();
         this.eShader.dispose();
     }
 }
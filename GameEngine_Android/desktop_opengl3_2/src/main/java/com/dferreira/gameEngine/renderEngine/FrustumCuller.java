@@ -0,0 +1,293 @@
+package com.dferreira.gameEngine.renderEngine;
+
+import com.dferreira.commons.Frustum;
+import com.dferreira.commons.shapes.BoundingVolume;
+import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.TerrainShape;
+import com.dferreira.gameEngine.models.complexEntities.Entity;
+import com.dferreira.gameEngine.models.complexEntities.GenericEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes the entities and the terrains that are outside of the frustum of the camera before they reach the renders
+ * (The bounds of the models are put in the world by entity, tested first as spheres in batch and then the ones
+ * that pass as boxes)
+ */
+class FrustumCuller {
+
+    /**
+     * Number of entities that the arrays have space for when created
+     */
+    private final static int INITIAL_CAPACITY = 256;
+
+    /**
+     * Entities with bounds of the frame (Same order of the spheres)
+     */
+    private Entity[] candidates;
+
+    /**
+     * Spheres of the entities in the world (Kept by component for the batch test)
+     */
+    private float[] sphereX;
+    private float[] sphereY;
+    private float[] sphereZ;
+    private float[] sphereRadius;
+
+    /**
+     * Indexes of the spheres that may be inside of the frustum
+     */
+    private int[] visibleSpheres;
+
+    /**
+     * Counts of the last frame culled
+     */
+    private int visibleEntities;
+    private int culledEntities;
+    private int visibleTerrains;
+    private int culledTerrains;
+
+    /**
+     * Counts of the frame culled before the last one (Packed in one number)
+     */
+    private long previousCounts;
+
+    /**
+     * Constructor of the frustum culler
+     */
+    FrustumCuller() {
+        this.candidates = new Entity[INITIAL_CAPACITY];
+        this.sphereX = new float[INITIAL_CAPACITY];
+        this.sphereY = new float[INITIAL_CAPACITY];
+        this.sphereZ = new float[INITIAL_CAPACITY];
+        this.sphereRadius = new float[INITIAL_CAPACITY];
+        this.visibleSpheres = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Makes sure that the arrays have space for a number of entities
+     *
+     * @param count Number of entities
+     */
+    private void ensureCapacity(int count) {
+        if (candidates.length >= count) {
+            return;
+        }
+        int capacity = Math.max(count, candidates.length * 2);
+        candidates = new Entity[capacity];
+        sphereX = new float[capacity];
+        sphereY = new float[capacity];
+        sphereZ = new float[capacity];
+        sphereRadius = new float[capacity];
+        visibleSpheres = new int[capacity];
+    }
+
+    /**
+     * @param entity Entity to check
+     * @return True if the entity is only rotated around the vertical axis
+     */
+    private static boolean isUpright(Entity entity) {
+        return (entity.getRotX() == 0.0f) && (entity.getRotZ() == 0.0f);
+    }
+
+    /**
+     * Puts the bounding sphere of one entity in the world
+     * (Upright entities get a sphere around the vertical axis that does not change with the rotation around it,
+     * the others a sphere around the origin that bounds any rotation)
+     *
+     * @param index  Index where the sphere is written
+     * @param entity Entity of the sphere
+     * @param bounds Bounds of the model of the entity
+     */
+    private void putSphere(int index, Entity entity, BoundingVolume bounds) {
+        float scale = Math.abs(entity.getScale());
+        float x = entity.getPosition().x, y = entity.getPosition().y, z = entity.getPosition().z;
+        if (isUpright(entity)) {
+            float centerX = bounds.getCenterX(), centerZ = bounds.getCenterZ();
+            float halfHeight = (bounds.getMaxY() - bounds.getMinY()) * 0.5f;
+            float verticalAxisRadius = bounds.getVerticalAxisRadius();
+            float radius = Math.min(bounds.getRadius() + (float) Math.sqrt(centerX * centerX + centerZ * centerZ),
+                    (float) Math.sqrt(verticalAxisRadius * verticalAxisRadius + halfHeight * halfHeight));
+            sphereX[index] = x;
+            sphereY[index] = y + entity.getScale() * bounds.getCenterY();
+            sphereZ[index] = z;
+            sphereRadius[index] = scale * radius;
+        } else {
+            sphereX[index] = x;
+            sphereY[index] = y;
+            sphereZ[index] = z;
+            sphereRadius[index] = scale * bounds.getOriginRadius();
+        }
+    }
+
+    /**
+     * Tests the box of an upright entity in the world against the frustum
+     * (The box around the vertical axis bounds every rotation around it)
+     *
+     * @param frustum Frustum of the camera
+     * @param entity  Entity to test
+     * @param bounds  Bounds of the model of the entity
+     * @return False if the box is outside of the frustum
+     */
+    private static boolean intersectsBox(Frustum frustum, Entity entity, BoundingVolume bounds) {
+        if (!isUpright(entity)) {
+            return true;
+        }
+        float scale = entity.getScale();
+        float horizontal = Math.abs(scale) * bounds.getVerticalAxisRadius();
+        float bottom = scale * bounds.getMinY(), top = scale * bounds.getMaxY();
+        float x = entity.getPosition().x, y = entity.getPosition().y, z = entity.getPosition().z;
+        return frustum.intersectsBox(x - horizontal, y + Math.min(bottom, top), z - horizontal,
+                x + horizontal, y + Math.max(bottom, top), z + horizontal);
+    }
+
+    /**
+     * Adds one entity to the batch of its model
+     *
+     * @param entity   Entity to add
+     * @param entities Entities to render grouped by model
+     */
+    private static void addEntity(Entity entity, Map<GenericEntity, List<Entity>> entities) {
+        GenericEntity entityModel = entity.getGenericEntity();
+        List<Entity> batch = entities.get(entityModel);
+        if (batch == null) {
+            batch = new ArrayList<>();
+            entities.put(entityModel, batch);
+        }
+        batch.add(entity);
+    }
+
+    /**
+     * Puts the resident entities that may be seen by the camera in their batches
+     *
+     * @param frustum   Frustum of the camera
+     * @param lEntities Entities of the world
+     * @param entities  Where the entities to render are put grouped by model (Cleared before)
+     */
+    void cullEntities(Frustum frustum, Entity[] lEntities, Map<GenericEntity, List<Entity>> entities) {
+        previousCounts = packCounts();
+        entities.clear();
+        visibleEntities = 0;
+        culledEntities = 0;
+        if (lEntities == null) {
+            return;
+        }
+        ensureCapacity(lEntities.length);
+
+        int count = 0;
+        for (Entity entity : lEntities) {
+            GenericEntity entityModel = entity.getGenericEntity();
+            if (!entityModel.isResident()) {
+                // The model of the entity is still loading
+                continue;
+            }
+            BoundingVolume bounds = entityModel.getBounds();
+            if (bounds == null) {
+                // Without bounds the entity is always rendered
+                addEntity(entity, entities);
+                visibleEntities++;
+                continue;
+            }
+            putSphere(count, entity, bounds);
+            candidates[count] = entity;
+            count++;
+        }
+
+        int visibleCount = frustum.cullSpheres(sphereX, sphereY, sphereZ, sphereRadius, count, visibleSpheres);
+        for (int i = 0; i < visibleCount; i++) {
+            Entity entity = candidates[visibleSpheres[i]];
+            if (intersectsBox(frustum, entity, entity.getGenericEntity().getBounds())) {
+                addEntity(entity, entities);
+                visibleEntities++;
+            } else {
+                culledEntities++;
+            }
+        }
+        culledEntities += count - visibleCount;
+
+        // Does not keep the entities of the frame alive
+        for (int i = 0; i < count; i++) {
+            candidates[i] = null;
+        }
+    }
+
+    /**
+     * Puts the terrains that may be seen by the camera in a list
+     *
+     * @param frustum  Frustum of the camera
+     * @param terrains Terrains of the world
+     * @param visible  Where the terrains to render are put (Cleared before)
+     */
+    void cullTerrains(Frustum frustum, List<Terrain> terrains, List<Terrain> visible) {
+        visible.clear();
+        visibleTerrains = 0;
+        culledTerrains = 0;
+        if (terrains == null) {
+            return;
+        }
+        for (Terrain terrain : terrains) {
+            if (frustum.intersectsBox(terrain.getX(), terrain.getY() + terrain.getMinHeight(), terrain.getZ(),
+                    terrain.getX() + TerrainShape.SIZE, terrain.getY() + terrain.getMaxHeight(),
+                    terrain.getZ() + TerrainShape.SIZE)) {
+                visible.add(terrain);
+                visibleTerrains++;
+            } else {
+                culledTerrains++;
+            }
+        }
+    }
+
+    /**
+     * @return the counts of the last frame culled packed in one number
+     */
+    private long packCounts() {
+        return ((long) visibleEntities << 48) | ((long) (culledEntities & 0xFFFF) << 32)
+                | ((long) (visibleTerrains & 0xFFFF) << 16) | (culledTerrains & 0xFFFF);
+    }
+
+    /**
+     * @return True if the counts of the last frame culled are different of the ones of the frame before
+     */
+    boolean haveCountsChanged() {
+        return packCounts() != previousCounts;
+    }
+
+    /**
+     * @return the number of entities rendered in the last frame culled
+     */
+    int getVisibleEntities() {
+        return visibleEntities;
+    }
+
+    /**
+     * @return the number of entities culled in the last frame
+     */
+    int getCulledEntities() {
+        return culledEntities;
+    }
+
+    /**
+     * @return the number of terrains rendered in the last frame culled
+     */
+    int getVisibleTerrains() {
+        return visibleTerrains;
+    }
+
+    /**
+     * @return the number of terrains culled in the last frame
+     */
+    int getCulledTerrains() {
+        return culledTerrains;
+    }
+
+    /**
+     * @return Textual description of the counts of the last frame culled
+     */
+    @Override
+    public String toString() {
+        return "entities " + visibleEntities + " visible / " + culledEntities + " culled, terrains "
+                + visibleTerrains + " visible / " + culledTerrains + " culled";
+    }
+}
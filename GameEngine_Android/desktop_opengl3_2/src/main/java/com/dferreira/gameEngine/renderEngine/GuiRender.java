@@ -101,6 +101,7 @@ public class GuiRender extends GenericRender {
      */
     private void prepareInstance(GuiTexture gui) {
         this.frameRenderAPI.activeAndBindTexture(gui.getTexture());
+        gShader.loadTextureRegion(gui.getTextureOffset(), gui.getTextureScale());
         // Load the transformation matrix
         gShader.loadTransformationMatrix(getTransformationMatrix(gui));
     }
@@ -0,0 +1,17 @@
+package com.dferreira.gameEngine.renderEngine;
+
+/**
+ * One asset already decoded by the workers that is waiting to be uploaded to the render API
+ */
+public interface IAssetUpload {
+
+    /**
+     * @return Approximate number of bytes that the upload is going to send to the render API
+     */
+    long getBytes();
+
+    /**
+     * Uploads the asset (Called in the thread of the render API)
+     */
+    void upload();
+}
@@ -1,6 +1,7 @@
 package com.dferreira.gameEngine.renderEngine;
 
 import com.dferreira.commons.ColorRGBA;
+import com.dferreira.commons.Frustum;
 import com.dferreira.commons.GLTransformation;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRenderAPIAccess;
@@ -8,6 +9,7 @@ import com.dferreira.commons.generic_render.IShaderManagerAPI;
 import com.dferreira.commons.models.Light;
 import com.dferreira.gameEngine.models.Camera;
 import com.dferreira.gameEngine.models.GuiTexture;
+import com.dferreira.gameEngine.models.ITerrainHeights;
 import com.dferreira.gameEngine.models.Player;
 import com.dferreira.gameEngine.models.SkyBox;
 import com.dferreira.gameEngine.models.Terrain;
@@ -18,6 +20,8 @@ import com.dferreira.gameEngine.shaders.entities.EntityShaderManager;
 import com.dferreira.gameEngine.shaders.guis.GuiShaderManager;
 import com.dferreira.gameEngine.shaders.skyBox.SkyBoxShaderManager;
 import com.dferreira.gameEngine.shaders.terrains.TerrainShaderManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -30,6 +34,8 @@ import java.util.Map;
  */
 public class MasterRender {
 
+    private final static Logger logger = LogManager.getLogger(MasterRender.class);
+
     private static final float FOV = 45.0f;
     private static final float CAMERA_RATE = 16.0f / 9.0f;
     private static final float NEAR_PLANE = 0.1f;
@@ -46,6 +52,21 @@ public class MasterRender {
      */
     private final IRenderAPIAccess renderAPI;
 
+    /**
+     * The projection matrix of the camera
+     */
+    private final GLTransformation projectionMatrix;
+
+    /**
+     * Volume of the world seen by the camera in the frame
+     */
+    private final Frustum frustum;
+
+    /**
+     * Removes the entities and terrains outside of the frustum
+     */
+    private final FrustumCuller culler;
+
     /**
      * Reference to the render of the entities
      */
@@ -71,16 +92,31 @@ public class MasterRender {
      */
     private ThirdPersonCamera camera;
 
+    /**
+     * Entities of the world to process in the frame
+     */
+    private Entity[] worldEntities;
+
     /**
      * Entities of the world that are going to be rendered
      */
     private Map<GenericEntity, List<Entity>> entities;
 
     /**
-     * List of terrains of the world that are going to be render
+     * List of terrains of the world
      */
     private List<Terrain> terrains;
 
+    /**
+     * List of terrains of the world that are going to be render
+     */
+    private List<Terrain> visibleTerrains;
+
+    /**
+     * Gives the height of the terrain where the player and the camera are
+     */
+    private ITerrainHeights terrainHeights;
+
     /**
      * The player that is going to be show in the scene
      */
@@ -116,7 +152,9 @@ public class MasterRender {
     public MasterRender(IRenderAPIAccess renderAPI) {
 
         // Initializes the projection matrix
-        GLTransformation projectionMatrix = createProjectionMatrix();
+        this.projectionMatrix = createProjectionMatrix();
+        this.frustum = new Frustum();
+        this.culler = new FrustumCuller();
 
         // Set the render API access
         this.renderAPI = renderAPI;
@@ -133,7 +171,8 @@ public class MasterRender {
 
         // Initializes the terrain render
         TerrainShaderManager tShader = new TerrainShaderManager(shaderManagerAPI);
-        this.terrainRender = new TerrainRender(tShader, projectionMatrix, frameRenderAPI);
+        this.terrainRender = new TerrainRender(tShader, projectionMatrix, DisplayManager.getHeight(),
+                frameRenderAPI);
 
         // Initializes the sky box render
         SkyBoxShaderManager sbManager = new SkyBoxShaderManager(shaderManagerAPI);
@@ -144,6 +183,7 @@ public class MasterRender {
 
         // Initializes the terrains to render
         this.terrains = new ArrayList<Terrain>();
+        this.visibleTerrains = new ArrayList<Terrain>();
 
         // Initializes the GUIs to render
         this.guis = new ArrayList<GuiTexture>();
@@ -167,34 +207,13 @@ public class MasterRender {
     }
 
     /**
-     * Put one entity in the list of entities to render
-     *
-     * @param entity the entity to add to the render
-     */
-    private void processEntity(Entity entity) {
-        GenericEntity entityModel = entity.getGenericEntity();
-        List<Entity> batch = entities.get(entityModel);
-        if (batch == null) {
-            batch = new ArrayList<Entity>();
-            entities.put(entityModel, batch);
-        }
-        batch.add(entity);
-    }
-
-    /**
-     * Put the entities to process in the hash map dedicated to process entities
-     * by group
+     * Keeps the entities to process in the next frame
+     * (They are grouped by model after the camera is updated, only the ones seen by the camera)
      *
      * @param lEntities list of entities to get render in the next frame
      */
     public void processEntities(Entity[] lEntities) {
-        this.entities.clear();
-        if ((lEntities != null) && (lEntities.length > 0)) {
-            for (int i = 0; i < lEntities.length; i++) {
-                Entity entity = lEntities[i];
-                processEntity(entity);
-            }
-        }
+        this.worldEntities = lEntities;
     }
 
     /**
@@ -221,6 +240,26 @@ public class MasterRender {
         }
     }
 
+    /**
+     * Set what gives the heights of the terrain where the player walks
+     * (Without it the first terrain processed is used)
+     *
+     * @param terrainHeights Gives the height of the terrain in each position of the world
+     */
+    public void processTerrainHeights(ITerrainHeights terrainHeights) {
+        this.terrainHeights = terrainHeights;
+    }
+
+    /**
+     * @return what gives the heights of the terrain where the player walks or null if there is no terrain
+     */
+    private ITerrainHeights getTerrainHeights() {
+        if (this.terrainHeights != null) {
+            return this.terrainHeights;
+        }
+        return this.terrains.isEmpty() ? null : this.terrains.get(0);
+    }
+
     /**
      * Put a GUI in the list of GUIs to render
      *
@@ -293,8 +332,9 @@ public class MasterRender {
     private GLTransformation updateCamera() {
 
         // Update the camera taking in account the position of the player
-        if (player != null) {
-            camera.update(player, this.terrains.get(0));
+        ITerrainHeights terrain = getTerrainHeights();
+        if ((player != null) && (terrain != null)) {
+            camera.update(player, terrain);
         }
 
         // Matrix update
@@ -306,11 +346,77 @@ public class MasterRender {
      * Call the method to update the player position
      */
     private void updatePlayer() {
-        if (this.player != null) {
-            this.player.move(this.timeToRender, this.terrains.get(0));
+        ITerrainHeights terrain = getTerrainHeights();
+        if ((this.player != null) && (terrain != null)) {
+            this.player.move(this.timeToRender, terrain);
         }
     }
 
+    /**
+     * Removes the entities and the terrains that the camera does not see
+     * (The player is always rendered)
+     *
+     * @param viewMatrix The view matrix of the frame
+     */
+    private void cull(GLTransformation viewMatrix) {
+        frustum.extract(projectionMatrix, viewMatrix);
+        culler.cullEntities(frustum, worldEntities, entities);
+        culler.cullTerrains(frustum, terrains, visibleTerrains);
+        // Only logged when the counts change to not flood the log every frame
+        if (logger.isDebugEnabled() && culler.haveCountsChanged()) {
+            logger.debug("Frustum culling: " + culler);
+        }
+    }
+
+    /**
+     * @return the number of entities rendered in the last frame
+     */
+    public int getVisibleEntitiesCount() {
+        return culler.getVisibleEntities();
+    }
+
+    /**
+     * @return the number of entities culled in the last frame
+     */
+    public int getCulledEntitiesCount() {
+        return culler.getCulledEntities();
+    }
+
+    /**
+     * @return the number of terrains rendered in the last frame
+     */
+    public int getVisibleTerrainsCount() {
+        return culler.getVisibleTerrains();
+    }
+
+    /**
+     * @return the number of terrains culled in the last frame
+     */
+    public int getCulledTerrainsCount() {
+        return culler.getCulledTerrains();
+    }
+
+    /**
+     * @return the number of triangles of the terrains rendered in the last frame
+     */
+    public int getTerrainTrianglesCount() {
+        return terrainRender.getTrianglesCount();
+    }
+
+    /**
+     * @return the number of chunks of the terrains rendered in the last frame
+     */
+    public int getVisibleTerrainChunksCount() {
+        return terrainRender.getVisibleChunksCount();
+    }
+
+    /**
+     * @return the number of chunks of the terrains culled in the last frame
+     */
+    public int getCulledTerrainChunksCount() {
+        return terrainRender.getCulledChunksCount();
+    }
+
     /**
      * Render the entire scene (Called by each frame)
      *
@@ -320,9 +426,10 @@ public class MasterRender {
         this.prepare();
         this.updatePlayer();
         GLTransformation viewMatrix = this.updateCamera();
+        this.cull(viewMatrix);
         ColorRGBA skyColor = new ColorRGBA(SKY_R, SKY_G, SKY_B, SKY_A);
-        this.entityRender.render(skyColor, lights, viewMatrix, entities, player);
-        this.terrainRender.render(skyColor, lights, viewMatrix, terrains);
+        this.entityRender.render(skyColor, lights, viewMatrix, camera.getPosition(), entities, player);
+        this.terrainRender.render(skyColor, lights, viewMatrix, camera.getPosition(), frustum, visibleTerrains);
         this.skyBoxRender.render(viewMatrix, skyBox);
         this.guiRender.render(this.guis);
     }
@@ -355,9 +462,13 @@ public class MasterRender {
         this.skyBoxRender.dispose();
         this.entities.clear();
         this.terrains.clear();
+        this.visibleTerrains.clear();
         this.guis.clear();
+        this.worldEntities = null;
         this.entities = null;
         this.terrains = null;
+        this.visibleTerrains = null;
+        this.terrainHeights = null;
         this.guis = null;
         this.skyBox = null;
     }
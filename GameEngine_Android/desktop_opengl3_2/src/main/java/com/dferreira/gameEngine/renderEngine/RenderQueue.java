@@ -0,0 +1,299 @@
+package com.dferreira.gameEngine.renderEngine;
+
+import java.util.Arrays;
+import java.util.WeakHashMap;
+
+/**
+ * Queue of draws sorted by a key of 64 bits
+ * (The key packs the state of the draw so the draws that share state end up together,
+ * the opaque draws are sorted from the front to the back and the translucent from the back to the front)
+ * <p>
+ * Layout of the key from the most significant bit:
+ * opaque: pass (4), translucent = 0 (1), shader (7), texture (16), material (16), depth (20)
+ * translucent (Blended): pass (4), translucent = 1 (1), inverted depth (20), shader (7), texture (16),
+ * material (16)
+ * translucent alpha tested: pass (4), translucent = 1 (1), shader (7), texture (16), material (16),
+ * inverted depth (20)
+ */
+class RenderQueue {
+
+    /**
+     * Number of bits of each field of the key
+     */
+    private final static int PASS_BITS = 4;
+    private final static int SHADER_BITS = 7;
+    private final static int TEXTURE_BITS = 16;
+    private final static int MATERIAL_BITS = 16;
+    private final static int DEPTH_BITS = 20;
+
+    /**
+     * Position of the fields shared by the two layouts
+     */
+    private final static int PASS_SHIFT = 60;
+    private final static int TRANSLUCENT_SHIFT = 59;
+
+    /**
+     * Position of the fields in the opaque layout
+     */
+    private final static int OPAQUE_SHADER_SHIFT = 52;
+    private final static int OPAQUE_TEXTURE_SHIFT = 36;
+    private final static int OPAQUE_MATERIAL_SHIFT = 20;
+    private final static int OPAQUE_DEPTH_SHIFT = 0;
+
+    /**
+     * Position of the fields in the translucent layout
+     */
+    private final static int TRANSLUCENT_DEPTH_SHIFT = 39;
+    private final static int TRANSLUCENT_SHADER_SHIFT = 32;
+    private final static int TRANSLUCENT_TEXTURE_SHIFT = 16;
+    private final static int TRANSLUCENT_MATERIAL_SHIFT = 0;
+
+    /**
+     * Largest depth that can be put in the key
+     */
+    private final static int MAX_DEPTH = (1 << DEPTH_BITS) - 1;
+
+    /**
+     * Number of bits sorted in each pass of the radix sort
+     */
+    private final static int RADIX_BITS = 8;
+    private final static int RADIX_SIZE = 1 << RADIX_BITS;
+    private final static int RADIX_MASK = RADIX_SIZE - 1;
+    private final static int RADIX_PASSES = Long.SIZE / RADIX_BITS;
+
+    /**
+     * Number of draws that the queue has space for when created
+     */
+    private final static int INITIAL_CAPACITY = 256;
+
+    /**
+     * Sort identifiers given to the textures and the materials
+     * (Weak so the ones unloaded do not stay in memory)
+     */
+    private final WeakHashMap<Object, Integer> sortIds;
+
+    /**
+     * Sort identifier given to the next texture or material
+     * (Only grows, so the identifiers of the objects collected are never given again to other objects)
+     */
+    private int nextSortId;
+
+    /**
+     * Keys of the draws
+     */
+    private long[] keys;
+
+    /**
+     * Items of the draws (Indexes of the draws in the renderer that submitted them)
+     */
+    private int[] items;
+
+    /**
+     * Scratch arrays used by the radix sort
+     */
+    private long[] scratchKeys;
+    private int[] scratchItems;
+
+    /**
+     * Histograms of the digits of every pass of the radix sort
+     */
+    private final int[] histograms;
+
+    /**
+     * Number of draws in the queue
+     */
+    private int size;
+
+    /**
+     * Constructor of the render queue
+     */
+    RenderQueue() {
+        this.sortIds = new WeakHashMap<>();
+        this.nextSortId = 1;
+        this.keys = new long[INITIAL_CAPACITY];
+        this.items = new int[INITIAL_CAPACITY];
+        this.scratchKeys = new long[INITIAL_CAPACITY];
+        this.scratchItems = new int[INITIAL_CAPACITY];
+        this.histograms = new int[RADIX_PASSES * RADIX_SIZE];
+        this.size = 0;
+    }
+
+    /**
+     * Gives a small identifier to one texture or material to be put in the keys
+     * (The identifiers wrap when they do not fit in the key, which only makes the sort less effective)
+     *
+     * @param object The texture or material (Null gets zero)
+     * @return The identifier of the object
+     */
+    int getSortId(Object object) {
+        if (object == null) {
+            return 0;
+        }
+        Integer sortId = sortIds.get(object);
+        if (sortId == null) {
+            sortId = nextSortId++;
+            sortIds.put(object, sortId);
+        }
+        return sortId;
+    }
+
+    /**
+     * @param depth    Distance of the draw to the camera
+     * @param maxDepth Distance that corresponds to the largest depth of the key
+     * @return The depth quantized to be put in the key
+     */
+    static int quantizeDepth(float depth, float maxDepth) {
+        if (!(depth > 0.0f)) {
+            return 0;
+        }
+        if (depth >= maxDepth) {
+            return MAX_DEPTH;
+        }
+        return (int) (depth / maxDepth * MAX_DEPTH);
+    }
+
+    /**
+     * @param value Value of the field
+     * @param bits  Number of bits of the field
+     * @param shift Position of the field in the key
+     * @return The field ready to be put in the key
+     */
+    private static long field(int value, int bits, int shift) {
+        return ((long) value & ((1L << bits) - 1)) << shift;
+    }
+
+    /**
+     * Packs the state of one draw in a key
+     *
+     * @param pass         Pass of the draw (The draws of a lower pass are done first)
+     * @param translucent  If the draw has transparency (Done after the opaque draws of the same pass)
+     * @param alphaTested  If the transparency of the draw is alpha tested (The translucent draw is grouped with
+     *                     the ones of the same state and only sorted from the back to the front inside the group,
+     *                     so they can be batched. The blended draws are always sorted from the back to the front)
+     * @param shader       Identifier of the shader
+     * @param texture      Sort identifier of the texture
+     * @param material     Sort identifier of the material
+     * @param depth        Depth quantized of the draw
+     * @return The key of the draw
+     */
+    static long makeKey(int pass, boolean translucent, boolean alphaTested, int shader, int texture, int material,
+                        int depth) {
+        long key = field(pass, PASS_BITS, PASS_SHIFT);
+        if (translucent && alphaTested) {
+            key |= 1L << TRANSLUCENT_SHIFT;
+            key |= field(shader, SHADER_BITS, OPAQUE_SHADER_SHIFT);
+            key |= field(texture, TEXTURE_BITS, OPAQUE_TEXTURE_SHIFT);
+            key |= field(material, MATERIAL_BITS, OPAQUE_MATERIAL_SHIFT);
+            key |= field(MAX_DEPTH - depth, DEPTH_BITS, OPAQUE_DEPTH_SHIFT);
+        } else if (translucent) {
+            key |= 1L << TRANSLUCENT_SHIFT;
+            key |= field(MAX_DEPTH - depth, DEPTH_BITS, TRANSLUCENT_DEPTH_SHIFT);
+            key |= field(shader, SHADER_BITS, TRANSLUCENT_SHADER_SHIFT);
+            key |= field(texture, TEXTURE_BITS, TRANSLUCENT_TEXTURE_SHIFT);
+            key |= field(material, MATERIAL_BITS, TRANSLUCENT_MATERIAL_SHIFT);
+        } else {
+            key |= field(shader, SHADER_BITS, OPAQUE_SHADER_SHIFT);
+            key |= field(texture, TEXTURE_BITS, OPAQUE_TEXTURE_SHIFT);
+            key |= field(material, MATERIAL_BITS, OPAQUE_MATERIAL_SHIFT);
+            key |= field(depth, DEPTH_BITS, OPAQUE_DEPTH_SHIFT);
+        }
+        return key;
+    }
+
+    /**
+     * Removes the draws of the previous frame (Keeps the arrays)
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Submits one draw
+     *
+     * @param key  Key of the draw
+     * @param item Index of the draw in the renderer that submitted it
+     */
+    void add(long key, int item) {
+        if (size == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            items = Arrays.copyOf(items, capacity);
+            scratchKeys = new long[capacity];
+            scratchItems = new int[capacity];
+        }
+        keys[size] = key;
+        items[size] = item;
+        size++;
+    }
+
+    /**
+     * Sorts the draws by key with a least significant digit radix sort
+     * (Stable so the draws with the same key keep the order of submission, the passes where every key has the
+     * same digit are skipped)
+     */
+    void sort() {
+        if (size < 2) {
+            return;
+        }
+        Arrays.fill(histograms, 0);
+        for (int i = 0; i < size; i++) {
+            long key = keys[i];
+            for (int pass = 0; pass < RADIX_PASSES; pass++) {
+                histograms[pass * RADIX_SIZE + (int) ((key >>> (pass * RADIX_BITS)) & RADIX_MASK)]++;
+            }
+        }
+
+        for (int pass = 0; pass < RADIX_PASSES; pass++) {
+            int shift = pass * RADIX_BITS;
+            int offset = pass * RADIX_SIZE;
+            if (histograms[offset + (int) ((keys[0] >>> shift) & RADIX_MASK)] == size) {
+                continue;
+            }
+
+            // Turns the counts in the starts of each digit
+            int start = 0;
+            for (int digit = 0; digit < RADIX_SIZE; digit++) {
+                int count = histograms[offset + digit];
+                histograms[offset + digit] = start;
+                start += count;
+            }
+
+            for (int i = 0; i < size; i++) {
+                long key = keys[i];
+                int destination = histograms[offset + (int) ((key >>> shift) & RADIX_MASK)]++;
+                scratchKeys[destination] = key;
+                scratchItems[destination] = items[i];
+            }
+
+            long[] sortedKeys = scratchKeys;
+            scratchKeys = keys;
+            keys = sortedKeys;
+            int[] sortedItems = scratchItems;
+            scratchItems = items;
+            items = sortedItems;
+        }
+    }
+
+    /**
+     * @return the number of draws in the queue
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index Position of the draw in the queue
+     * @return The key of the draw
+     */
+    long getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param index Position of the draw in the queue
+     * @return The index of the draw in the renderer that submitted it
+     */
+    int getItem(int index) {
+        return items[index];
+    }
+}
@@ -1,15 +1,21 @@
 package com.dferreira.gameEngine.renderEngine;
 
 import com.dferreira.commons.ColorRGBA;
+import com.dferreira.commons.Frustum;
 import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IFrameRenderAPI;
 import com.dferreira.commons.generic_render.IRawModel;
 import com.dferreira.commons.models.Light;
 import com.dferreira.commons.utils.Utils;
+import com.dferreira.gameEngine.models.GeoMipmapIndices;
 import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.TerrainLod;
+import com.dferreira.gameEngine.models.TerrainShape;
 import com.dferreira.gameEngine.shaders.terrains.TerrainShaderManager;
 import com.dferreira.gameEngine.textures.TerrainTexturesPack;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -17,22 +23,63 @@ import java.util.List;
  */
 @SuppressWarnings("WeakerAccess")
 public class TerrainRender extends GenericRender {
+
+    /**
+     * Largest error in pixels of the levels of detail of the terrain
+     */
+    private static final float MAX_PIXELS_ERROR = 2.0f;
+
+    /**
+     * Index of the scale of the y-axle in the projection matrix
+     */
+    private static final int PROJECTION_SCALE_Y = 5;
+
     /**
      * Reference to the shader manager
      */
     private final TerrainShaderManager tShader;
 
+    /**
+     * Pixels of the screen by unit of the world at the distance of one unit
+     */
+    private final float lodScale;
+
+    /**
+     * Number of triangles of the terrains rendered in the last frame
+     */
+    private int trianglesCount;
+
+    /**
+     * Number of chunks of the terrains rendered and culled in the last frame
+     */
+    private int visibleChunksCount;
+    private int culledChunksCount;
+
+    /**
+     * Terrains next to the left, right, top and bottom edges of each terrain rendered in the frame
+     * (Grows with the number of terrains and is reused between frames)
+     */
+    private TerrainLod[] neighbors;
+
+    /**
+     * If the render API can draw the chunks of the terrains (Ranges of indexes relative to a base vertex)
+     */
+    private boolean drawRangeSupported;
 
     /**
      * Constructor of the terrain render
      *
      * @param sManager         Shader manager
      * @param projectionMatrix The projection matrix of the render
+     * @param viewportHeight   Height of the screen in pixels
      * @param frameRenderAPI   Reference to the API responsible for render the frame
      */
-    public TerrainRender(TerrainShaderManager sManager, GLTransformation projectionMatrix, IFrameRenderAPI frameRenderAPI) {
+    public TerrainRender(TerrainShaderManager sManager, GLTransformation projectionMatrix, int viewportHeight,
+                         IFrameRenderAPI frameRenderAPI) {
         super(frameRenderAPI);
         this.tShader = sManager;
+        this.lodScale = projectionMatrix.get()[PROJECTION_SCALE_Y] * viewportHeight / 2.0f;
+        this.neighbors = new TerrainLod[0];
 
         sManager.start();
         sManager.loadProjectionMatrix(projectionMatrix);
@@ -63,38 +110,127 @@ public class TerrainRender extends GenericRender {
     /**
      * Render the terrains in the scene
      *
-     * @param skyColor   Color of the sky
-     * @param lights     The lights of the scene
-     * @param viewMatrix View matrix to render the scene
-     * @param terrains   List of terrains of the scene
+     * @param skyColor       Color of the sky
+     * @param lights         The lights of the scene
+     * @param viewMatrix     View matrix to render the scene
+     * @param cameraPosition Position of the camera (Chooses the levels of detail of the terrains)
+     * @param frustum        Volume of the world seen by the camera
+     * @param terrains       List of terrains of the scene
      */
-    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix, List<Terrain> terrains) {
+    public void render(ColorRGBA skyColor, Light[] lights, GLTransformation viewMatrix, Vector3f cameraPosition,
+                       Frustum frustum, List<Terrain> terrains) {
         tShader.start();
         tShader.loadSkyColor(skyColor);
         tShader.loadLights(lights);
         tShader.loadViewMatrix(viewMatrix);
 
-        this.render(terrains);
+        this.trianglesCount = 0;
+        this.visibleChunksCount = 0;
+        this.culledChunksCount = 0;
+        this.drawRangeSupported = this.frameRenderAPI.supportsDrawRange();
+        if (this.drawRangeSupported) {
+            this.selectLevelsOfDetail(cameraPosition, terrains);
+        }
+        this.render(frustum, terrains);
         tShader.stop();
     }
 
+    /**
+     * Finds the terrain next to one edge of a terrain
+     *
+     * @param terrain  The terrain
+     * @param offsetX  Distance in the x-axle of the neighbor in sizes of terrain (-1, 0 or 1)
+     * @param offsetZ  Distance in the z-axle of the neighbor in sizes of terrain (-1, 0 or 1)
+     * @param terrains List of terrains to render
+     * @return The levels of detail of the terrain next to the edge or null if there is none
+     */
+    private static TerrainLod neighborOf(Terrain terrain, int offsetX, int offsetZ, List<Terrain> terrains) {
+        float halfSize = TerrainShape.SIZE / 2.0f;
+        float x = terrain.getX() + offsetX * TerrainShape.SIZE;
+        float z = terrain.getZ() + offsetZ * TerrainShape.SIZE;
+        for (int i = 0; i < terrains.size(); i++) {
+            Terrain other = terrains.get(i);
+            if ((Math.abs(other.getX() - x) < halfSize) && (Math.abs(other.getZ() - z) < halfSize)) {
+                return other.getLod();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Chooses the levels of detail of the chunks of all the terrains
+     * (The chunks along the edges shared by two terrains are refined like the chunks inside one terrain so the
+     * stitches also close the seams between the terrains)
+     *
+     * @param cameraPosition Position of the camera
+     * @param terrains       List of terrains to render
+     */
+    private void selectLevelsOfDetail(Vector3f cameraPosition, List<Terrain> terrains) {
+        if (Utils.isEmpty(terrains)) {
+            return;
+        }
+        int terrainsCount = terrains.size();
+        if (neighbors.length < terrainsCount * 4) {
+            neighbors = new TerrainLod[terrainsCount * 4];
+        }
+        for (int i = 0; i < terrainsCount; i++) {
+            Terrain terrain = terrains.get(i);
+            TerrainLod lod = terrain.getLod();
+            if (lod == null) {
+                continue;
+            }
+            lod.selectLevels(cameraPosition.x - terrain.getX(), cameraPosition.y - terrain.getY(),
+                    cameraPosition.z - terrain.getZ(), lodScale, MAX_PIXELS_ERROR);
+            neighbors[i * 4] = neighborOf(terrain, -1, 0, terrains);
+            neighbors[i * 4 + 1] = neighborOf(terrain, 1, 0, terrains);
+            neighbors[i * 4 + 2] = neighborOf(terrain, 0, -1, terrains);
+            neighbors[i * 4 + 3] = neighborOf(terrain, 0, 1, terrains);
+        }
+
+        // The levels only go down so this ends
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < terrainsCount; i++) {
+                TerrainLod lod = terrains.get(i).getLod();
+                if (lod == null) {
+                    continue;
+                }
+                changed |= lod.limitNeighborLevels();
+                changed |= lod.limitEdgeLevels(neighbors[i * 4], GeoMipmapIndices.LEFT_EDGE);
+                changed |= lod.limitEdgeLevels(neighbors[i * 4 + 1], GeoMipmapIndices.RIGHT_EDGE);
+                changed |= lod.limitEdgeLevels(neighbors[i * 4 + 2], GeoMipmapIndices.TOP_EDGE);
+                changed |= lod.limitEdgeLevels(neighbors[i * 4 + 3], GeoMipmapIndices.BOTTOM_EDGE);
+            }
+        }
+
+        for (int i = 0; i < terrainsCount; i++) {
+            TerrainLod lod = terrains.get(i).getLod();
+            if (lod != null) {
+                lod.updateStitchMasks(neighbors[i * 4], neighbors[i * 4 + 1], neighbors[i * 4 + 2],
+                        neighbors[i * 4 + 3]);
+            }
+        }
+        Arrays.fill(neighbors, 0, terrainsCount * 4, null);
+    }
+
     /**
      * Render one list of terrains
      *
+     * @param frustum  Volume of the world seen by the camera
      * @param terrains List of Terrains to render
      */
-    private void render(List<Terrain> terrains) {
+    private void render(Frustum frustum, List<Terrain> terrains) {
         if (!Utils.isEmpty(terrains)) {
             for (Terrain terrain : terrains) {
                 prepareTerrain(terrain);
                 prepareInstance(terrain);
-                render(terrain);
+                render(terrain, frustum);
                 unbindTexturedModel(terrain);
             }
         }
     }
 
-
     /**
      * Bind the several textures of the terrain
      */
@@ -138,12 +274,56 @@ public class TerrainRender extends GenericRender {
 
     /**
      * Call the render of the triangles to the terrain itself
+     * (Each chunk seen by the camera is drawn in the level of detail chosen from the position of the camera.
+     * Without the draws of ranges of indexes the terrains are loaded without levels of detail and drawn whole)
      *
      * @param terrain A reference to the terrain to get render
+     * @param frustum Volume of the world seen by the camera
      */
-    private void render(Terrain terrain) {
+    private void render(Terrain terrain, Frustum frustum) {
         IRawModel model = terrain.getModel();
-        this.frameRenderAPI.drawTrianglesIndexes(model);
+        TerrainLod lod = terrain.getLod();
+        if ((lod == null) || (!drawRangeSupported)) {
+            this.frameRenderAPI.drawTrianglesIndexes(model);
+            return;
+        }
+        float x = terrain.getX(), y = terrain.getY(), z = terrain.getZ();
+
+        float chunkSize = lod.getChunkSize();
+        for (int chunk = 0; chunk < lod.getChunksCount(); chunk++) {
+            float minX = x + lod.getChunkMinX(chunk), minZ = z + lod.getChunkMinZ(chunk);
+            if (!frustum.intersectsBox(minX, y + lod.getChunkMinHeight(chunk), minZ, minX + chunkSize,
+                    y + lod.getChunkMaxHeight(chunk), minZ + chunkSize)) {
+                culledChunksCount++;
+                continue;
+            }
+            int indicesCount = lod.getIndicesCount(chunk);
+            this.frameRenderAPI.drawTrianglesIndexesRange(model, lod.getFirstIndex(chunk), indicesCount,
+                    lod.getBaseVertex(chunk));
+            trianglesCount += indicesCount / 3;
+            visibleChunksCount++;
+        }
+    }
+
+    /**
+     * @return the number of triangles of the terrains rendered in the last frame
+     */
+    public int getTrianglesCount() {
+        return trianglesCount;
+    }
+
+    /**
+     * @return the number of chunks of the terrains rendered in the last frame
+     */
+    public int getVisibleChunksCount() {
+        return visibleChunksCount;
+    }
+
+    /**
+     * @return the number of chunks of the terrains culled in the last frame
+     */
+    public int getCulledChunksCount() {
+        return culledChunksCount;
     }
 
     /**
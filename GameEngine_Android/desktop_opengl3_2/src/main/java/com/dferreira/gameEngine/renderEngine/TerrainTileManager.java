@@ -0,0 +1,502 @@
+package com.dferreira.gameEngine.renderEngine;
+
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.generic_render.ILoaderRenderAPI;
+import com.dferreira.commons.generic_render.RenderAttributeEnum;
+import com.dferreira.commons.models.TextureData;
+import com.dferreira.gameEngine.models.ITerrainHeights;
+import com.dferreira.gameEngine.models.Terrain;
+import com.dferreira.gameEngine.models.TerrainShape;
+import com.dferreira.gameEngine.textures.TerrainTexturesPack;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashMap;
+
+/**
+ * Keeps the tiles of terrain around the player resident
+ * (The shapes of the tiles are generated by the workers of the streamer and uploaded within its budget of the
+ * frame. The tiles that the player leaves stay resident until there are too many, then the least recently used
+ * are deleted)
+ */
+public class TerrainTileManager implements ITerrainHeights {
+
+    private final static Logger logger = LogManager.getLogger(TerrainTileManager.class);
+
+    /**
+     * Number of bytes of each component of the shapes
+     * (Used to estimate the bytes of each upload)
+     */
+    private static final int COMPONENT_BYTES = 4;
+
+    /**
+     * One tile of terrain resident or being loaded
+     */
+    private static class TerrainTile {
+
+        /**
+         * Index of the tile in the x-axle and in the z-axle
+         */
+        private final int tileX;
+        private final int tileZ;
+
+        /**
+         * The terrain of the tile (null while it is being loaded)
+         */
+        private Terrain terrain;
+
+        /**
+         * Indicates that the tile was evicted before being loaded (The load is discarded)
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * Last frame in which the tile was around the player
+         */
+        private int lastUsedFrame;
+
+        /**
+         * @param tileX Index of the tile in the x-axle
+         * @param tileZ Index of the tile in the z-axle
+         */
+        private TerrainTile(int tileX, int tileZ) {
+            this.tileX = tileX;
+            this.tileZ = tileZ;
+        }
+    }
+
+    /**
+     * Loader that uploads the tiles to the render API
+     */
+    private final ILoaderRenderAPI loaderAPI;
+
+    /**
+     * Streamer that generates the tiles in background and uploads them
+     */
+    private final AssetStreamer streamer;
+
+    /**
+     * Height map repeated over the world
+     */
+    private final TextureData heightMap;
+
+    /**
+     * Textures shared by all the tiles
+     */
+    private final TerrainTexturesPack texturesPack;
+
+    /**
+     * Attributes of the shader of the terrains
+     */
+    private final HashMap<RenderAttributeEnum, IEnum> attributes;
+
+    /**
+     * If the tiles are drawn in chunks with levels of detail (Needs the draws of ranges of indexes)
+     */
+    private final boolean levelsOfDetail;
+
+    /**
+     * Position of the tile with index zero (In sizes of tiles like the positions of the terrains)
+     */
+    private final Vector3f origin;
+
+    /**
+     * Number of tiles resident in each direction around the tile of the player
+     */
+    private final int radius;
+
+    /**
+     * Maximum number of tiles resident or being loaded
+     */
+    private final int maxTiles;
+
+    /**
+     * Tiles by their indices modulo the number of slots in each side
+     * (The tiles around the player never share a slot, so a lookup is one access)
+     */
+    private final TerrainTile[] slots;
+
+    /**
+     * Number of slots in each side (A power of two)
+     */
+    private final int slotsBySide;
+
+    /**
+     * Mask that gives the index of a tile modulo the number of slots in each side
+     */
+    private final int slotsMask;
+
+    /**
+     * Number of tiles resident or being loaded
+     */
+    private int tilesCount;
+
+    /**
+     * Number of the frame of the last update
+     */
+    private int frame;
+
+    /**
+     * The terrains of the tiles resident (Rebuilt when a tile is loaded or evicted)
+     */
+    private Terrain[] terrains;
+    private boolean terrainsChanged;
+
+    /**
+     * Number of tiles loaded and evicted since the start
+     */
+    private int loadedCount;
+    private int evictedCount;
+
+    /**
+     * Constructor of the manager of the tiles of terrain
+     *
+     * @param loaderAPI      Loader that uploads the tiles to the render API
+     * @param streamer       Streamer that generates the tiles in background and uploads them
+     * @param heightMap      Height map repeated over the world (Released with the manager)
+     * @param texturesPack   Textures shared by all the tiles
+     * @param attributes     Attributes of the shader of the terrains
+     * @param levelsOfDetail If the tiles are drawn in chunks with levels of detail (Needs the draws of ranges of
+     *                       indexes, the tiles are drawn whole in the full detail without it)
+     * @param origin         Position of the tile with index zero (In sizes of tiles)
+     * @param radius         Number of tiles resident in each direction around the tile of the player
+     * @param maxTiles       Maximum number of tiles resident (At least the ones around the player)
+     */
+    public TerrainTileManager(ILoaderRenderAPI loaderAPI, AssetStreamer streamer, TextureData heightMap,
+                              TerrainTexturesPack texturesPack, HashMap<RenderAttributeEnum, IEnum> attributes,
+                              boolean levelsOfDetail, Vector3f origin, int radius, int maxTiles) {
+        this.loaderAPI = loaderAPI;
+        this.streamer = streamer;
+        this.heightMap = heightMap;
+        this.texturesPack = texturesPack;
+        this.attributes = attributes;
+        this.levelsOfDetail = levelsOfDetail;
+        this.origin = origin;
+        this.radius = radius;
+        int side = 2 * radius + 1;
+        this.maxTiles = Math.max(maxTiles, side * side);
+        // At least one more than the side so the tiles left behind are not evicted by the ones ahead right away
+        this.slotsBySide = Integer.highestOneBit(side) << 1;
+        this.slotsMask = slotsBySide - 1;
+        this.slots = new TerrainTile[slotsBySide * slotsBySide];
+        this.terrains = new Terrain[0];
+    }
+
+    /**
+     * @param position Position in the world
+     * @param origin   Position of the tile with index zero in the world
+     * @return The index of the tile with the position
+     */
+    private static int tileOf(float position, float origin) {
+        return (int) Math.floor((position - origin) / TerrainShape.SIZE);
+    }
+
+    /**
+     * @param tileX Index of the tile in the x-axle
+     * @param tileZ Index of the tile in the z-axle
+     * @return The slot of the tile
+     */
+    private int slotOf(int tileX, int tileZ) {
+        return (tileX & slotsMask) + (tileZ & slotsMask) * slotsBySide;
+    }
+
+    /**
+     * @param tileX Index of the tile in the x-axle
+     * @param tileZ Index of the tile in the z-axle
+     * @return The tile resident or being loaded (null if there is none)
+     */
+    private TerrainTile getTile(int tileX, int tileZ) {
+        TerrainTile tile = slots[slotOf(tileX, tileZ)];
+        return ((tile != null) && (tile.tileX == tileX) && (tile.tileZ == tileZ)) ? tile : null;
+    }
+
+    /**
+     * Creates the terrain of one tile (Called in the thread of the render API)
+     *
+     * @param shape The shape of the tile
+     * @param tile  The tile
+     * @return The terrain of the tile
+     */
+    private Terrain createTerrain(TerrainShape shape, TerrainTile tile) {
+        Vector3f position = new Vector3f(origin.x + tile.tileX, origin.y, origin.z + tile.tileZ);
+        Terrain terrain = new Terrain(loaderAPI.loadToRawModel(shape, attributes), shape.getHeights(), shape.getLod(),
+                position);
+        terrain.setTexturePack(texturesPack);
+        loadedCount++;
+        terrainsChanged = true;
+        return terrain;
+    }
+
+    /**
+     * Puts one tile in its slot (Evicts the tile that was there)
+     *
+     * @param tileX Index of the tile in the x-axle
+     * @param tileZ Index of the tile in the z-axle
+     * @return The tile (Not loaded yet)
+     */
+    private TerrainTile addTile(int tileX, int tileZ) {
+        int slot = slotOf(tileX, tileZ);
+        if (slots[slot] != null) {
+            evict(slot);
+        }
+        TerrainTile tile = new TerrainTile(tileX, tileZ);
+        tile.lastUsedFrame = frame;
+        slots[slot] = tile;
+        tilesCount++;
+        return tile;
+    }
+
+    /**
+     * Loads one tile in the thread of the render API right away
+     * (For the tiles that are needed before the first frame)
+     *
+     * @param tileX Index of the tile in the x-axle
+     * @param tileZ Index of the tile in the z-axle
+     */
+    public void loadTileNow(int tileX, int tileZ) {
+        TerrainTile tile = getTile(tileX, tileZ);
+        if ((tile != null) && (tile.terrain != null)) {
+            return;
+        }
+        // A load in background of the same tile is discarded
+        tile = addTile(tileX, tileZ);
+        tile.terrain = createTerrain(new TerrainShape(heightMap, tileX, tileZ, levelsOfDetail), tile);
+    }
+
+    /**
+     * Requests one tile to the workers of the streamer
+     *
+     * @param tileX Index of the tile in the x-axle
+     * @param tileZ Index of the tile in the z-axle
+     */
+    private void requestTile(int tileX, int tileZ) {
+        final TerrainTile tile = addTile(tileX, tileZ);
+        streamer.decode(new Runnable() {
+            @Override
+            public void run() {
+                if (tile.cancelled) {
+                    return;
+                }
+                final TerrainShape shape = new TerrainShape(heightMap, tile.tileX, tile.tileZ, levelsOfDetail);
+                final long bytes = (long) (shape.getVertices().length + shape.getTextureCoords().length
+                        + shape.getNormals().length + shape.getIndices().length) * COMPONENT_BYTES;
+                streamer.enqueue(new IAssetUpload() {
+                    @Override
+                    public long getBytes() {
+                        return bytes;
+                    }
+
+                    @Override
+                    public void upload() {
+                        if (!tile.cancelled) {
+                            tile.terrain = createTerrain(shape, tile);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Removes the tile of one slot and deletes its model
+     *
+     * @param slot The slot of the tile
+     */
+    private void evict(int slot) {
+        TerrainTile tile = slots[slot];
+        slots[slot] = null;
+        tilesCount--;
+        tile.cancelled = true;
+        if (tile.terrain != null) {
+            loaderAPI.deleteRawModel(tile.terrain.getModel());
+            tile.terrain = null;
+            evictedCount++;
+            terrainsChanged = true;
+        }
+    }
+
+    /**
+     * Evicts the tiles least recently used until there are not too many
+     * (The tiles around the player are never evicted)
+     */
+    private void evictLeastRecentlyUsed() {
+        while (tilesCount > maxTiles) {
+            int oldest = -1;
+            for (int slot = 0; slot < slots.length; slot++) {
+                TerrainTile tile = slots[slot];
+                if ((tile != null) && (tile.lastUsedFrame != frame)
+                        && ((oldest < 0) || (tile.lastUsedFrame < slots[oldest].lastUsedFrame))) {
+                    oldest = slot;
+                }
+            }
+            if (oldest < 0) {
+                return;
+            }
+            evict(oldest);
+        }
+    }
+
+    /**
+     * Requests the tiles around the player that are missing and evicts the ones far away
+     * (Should be called once by frame in the thread of the render API)
+     *
+     * @param worldX The x-component of the position of the player
+     * @param worldZ The z-component of the position of the player
+     */
+    public void update(float worldX, float worldZ) {
+        frame++;
+        int centerX = tileOf(worldX, origin.x * TerrainShape.SIZE);
+        int centerZ = tileOf(worldZ, origin.z * TerrainShape.SIZE);
+        // From the tile of the player outwards so the nearest tiles are requested first
+        for (int ring = 0; ring <= radius; ring++) {
+            for (int tileZ = centerZ - ring; tileZ <= centerZ + ring; tileZ++) {
+                for (int tileX = centerX - ring; tileX <= centerX + ring; tileX++) {
+                    if (Math.max(Math.abs(tileX - centerX), Math.abs(tileZ - centerZ)) != ring) {
+                        continue;
+                    }
+                    TerrainTile tile = getTile(tileX, tileZ);
+                    if (tile == null) {
+                        requestTile(tileX, tileZ);
+                    } else {
+                        tile.lastUsedFrame = frame;
+                    }
+                }
+            }
+        }
+        evictLeastRecentlyUsed();
+    }
+
+    /**
+     * @return The number of tiles resident
+     */
+    private int countResident() {
+        int count = 0;
+        for (TerrainTile tile : slots) {
+            if ((tile != null) && (tile.terrain != null)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The terrains of the tiles resident
+     */
+    public Terrain[] getTerrains() {
+        if (terrainsChanged) {
+            Terrain[] resident = new Terrain[countResident()];
+            int count = 0;
+            for (TerrainTile tile : slots) {
+                if ((tile != null) && (tile.terrain != null)) {
+                    resident[count++] = tile.terrain;
+                }
+            }
+            terrains = resident;
+            terrainsChanged = false;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Terrain tiles: " + this);
+            }
+        }
+        return terrains;
+    }
+
+    /**
+     * The height of the terrain in a certain position of the world
+     * (The tile is found from the position without searching)
+     *
+     * @param worldX The x-component of the location to compute the height of the terrain
+     * @param worldZ The z-component of the location to compute the height of the terrain
+     * @return The height of the terrain in the specified position of the world (Zero if the tile is not resident)
+     */
+    @Override
+    public float getHeightOfTerrain(float worldX, float worldZ) {
+        TerrainTile tile = getTile(tileOf(worldX, origin.x * TerrainShape.SIZE),
+                tileOf(worldZ, origin.z * TerrainShape.SIZE));
+        return ((tile == null) || (tile.terrain == null)) ? 0.0f : tile.terrain.getHeightOfTerrain(worldX, worldZ);
+    }
+
+    /**
+     * The heights and the normals of the terrain in a range of positions of the world
+     * (The positions next to each other in the same tile are sampled together)
+     *
+     * @param worldX     The x-components of the locations
+     * @param worldZ     The z-components of the locations
+     * @param start      First location to sample
+     * @param end        Location after the last one to sample
+     * @param outHeights Where the heights are written (By location, zero if the tile is not resident)
+     * @param outNormals Where the normals are written (Three components by location, null to skip them)
+     */
+    @Override
+    public void getHeightsOfTerrain(float[] worldX, float[] worldZ, int start, int end, float[] outHeights,
+                                    float[] outNormals) {
+        float originX = origin.x * TerrainShape.SIZE, originZ = origin.z * TerrainShape.SIZE;
+        int i = start;
+        while (i < end) {
+            int tileX = tileOf(worldX[i], originX), tileZ = tileOf(worldZ[i], originZ);
+            int next = i + 1;
+            while ((next < end) && (tileOf(worldX[next], originX) == tileX)
+                    && (tileOf(worldZ[next], originZ) == tileZ)) {
+                next++;
+            }
+            TerrainTile tile = getTile(tileX, tileZ);
+            if ((tile != null) && (tile.terrain != null)) {
+                tile.terrain.getHeightsOfTerrain(worldX, worldZ, i, next, outHeights, outNormals);
+            } else {
+                for (int j = i; j < next; j++) {
+                    outHeights[j] = 0.0f;
+                    if (outNormals != null) {
+                        outNormals[j * 3] = 0.0f;
+                        outNormals[j * 3 + 1] = 1.0f;
+                        outNormals[j * 3 + 2] = 0.0f;
+                    }
+                }
+            }
+            i = next;
+        }
+    }
+
+    /**
+     * @return the number of tiles resident or being loaded
+     */
+    public int getTilesCount() {
+        return tilesCount;
+    }
+
+    /**
+     * @return the number of tiles loaded since the start
+     */
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    /**
+     * @return the number of tiles evicted since the start
+     */
+    public int getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * Evicts all the tiles and releases the height map
+     */
+    public void dispose() {
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slots[slot] != null) {
+                evict(slot);
+            }
+        }
+        terrains = new Terrain[0];
+        heightMap.release();
+    }
+
+    /**
+     * @return The numbers of tiles of the manager
+     */
+    @Override
+    public String toString() {
+        int resident = countResident();
+        return resident + " resident, " + (tilesCount - resident) + " loading, "
+                + loadedCount + " loaded and " + evictedCount + " evicted since the start";
+    }
+}
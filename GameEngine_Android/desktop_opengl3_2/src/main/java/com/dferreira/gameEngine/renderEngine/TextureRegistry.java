@@ -0,0 +1,404 @@
+package com.dferreira.gameEngine.renderEngine;
+
+import com.dferreira.commons.atlas.TextureAtlas;
+import com.dferreira.commons.compression.CompressedTextureCache;
+import com.dferreira.commons.compression.CompressedTextureData;
+import com.dferreira.commons.compression.CompressedTextureFormatEnum;
+import com.dferreira.commons.compression.TextureCompressor;
+import com.dferreira.commons.generic_render.ILoaderRenderAPI;
+import com.dferreira.commons.generic_render.ITexture;
+import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.models.TextureData;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Registry of the textures loaded in the render API
+ * (The textures are shared by path and by content, each handle acquired should be released once)
+ */
+public class TextureRegistry {
+
+    private final static Logger logger = LogManager.getLogger(TextureRegistry.class);
+
+    /**
+     * Algorithm used to hash the content of the textures
+     */
+    private final static String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * One texture loaded in the render API
+     */
+    private static class TextureEntry {
+        /**
+         * The texture loaded
+         */
+        private final ITexture texture;
+        /**
+         * Key of the content of the texture
+         */
+        private final String contentKey;
+        /**
+         * Keys of the paths that point to the texture
+         */
+        private final List<String> pathKeys;
+        /**
+         * Number of bytes of the texture
+         */
+        private final long bytes;
+        /**
+         * Number of handles not released yet
+         */
+        private int references;
+
+        /**
+         * @param texture    The texture loaded
+         * @param contentKey Key of the content of the texture
+         * @param bytes      Number of bytes of the texture
+         */
+        private TextureEntry(ITexture texture, String contentKey, long bytes) {
+            this.texture = texture;
+            this.contentKey = contentKey;
+            this.pathKeys = new ArrayList<>();
+            this.bytes = bytes;
+            this.references = 0;
+        }
+    }
+
+    /**
+     * Loader to load the textures in the render API
+     */
+    private final ILoaderRenderAPI loaderAPI;
+
+    /**
+     * Provider that decodes the textures
+     */
+    private final IResourceProvider resourceProvider;
+
+    /**
+     * Cache of the textures compressed (null if the textures are not compressed)
+     */
+    private final CompressedTextureCache compressionCache;
+
+    /**
+     * Format used to compress the opaque textures (null if the render API does not support any)
+     */
+    private final CompressedTextureFormatEnum opaqueFormat;
+
+    /**
+     * Format used to compress the textures with transparency (null if the render API does not support any)
+     */
+    private final CompressedTextureFormatEnum transparentFormat;
+
+    /**
+     * Textures by resolved path
+     */
+    private final HashMap<String, TextureEntry> byPath;
+
+    /**
+     * Textures by hash of the content
+     */
+    private final HashMap<String, TextureEntry> byContent;
+
+    /**
+     * Key of the path of the atlas by key of the path of each texture packed in it
+     */
+    private final HashMap<String, String> atlasAliases;
+
+    /**
+     * Textures by handle
+     */
+    private final IdentityHashMap<ITexture, TextureEntry> byTexture;
+
+    /**
+     * Number of bytes uploaded to the render API
+     */
+    private long uploadedBytes;
+
+    /**
+     * Number of bytes that were not uploaded because the texture was already loaded
+     */
+    private long deduplicatedBytes;
+
+    /**
+     * Constructor of the texture registry
+     *
+     * (Has to be called in the thread of the render API because checks the formats supported)
+     *
+     * @param loaderAPI        Loader to load the textures in the render API
+     * @param resourceProvider Provider that decodes the textures
+     * @param compressionCache Cache of the textures compressed (null to not compress the textures)
+     */
+    public TextureRegistry(ILoaderRenderAPI loaderAPI, IResourceProvider resourceProvider,
+                           CompressedTextureCache compressionCache) {
+        this.loaderAPI = loaderAPI;
+        this.resourceProvider = resourceProvider;
+        this.compressionCache = compressionCache;
+        this.opaqueFormat = (compressionCache == null) ? null
+                : getSupportedFormat(loaderAPI, CompressedTextureFormatEnum.BC1, CompressedTextureFormatEnum.ETC2_RGB8);
+        this.transparentFormat = (compressionCache == null) ? null
+                : getSupportedFormat(loaderAPI, CompressedTextureFormatEnum.BC3, CompressedTextureFormatEnum.ETC2_RGBA8);
+        this.byPath = new HashMap<>();
+        this.byContent = new HashMap<>();
+        this.atlasAliases = new HashMap<>();
+        this.byTexture = new IdentityHashMap<>();
+    }
+
+    /**
+     * @param loaderAPI Loader to load the textures in the render API
+     * @param formats   Formats by order of preference
+     * @return The first format that the render API supports (null if supports none)
+     */
+    private static CompressedTextureFormatEnum getSupportedFormat(ILoaderRenderAPI loaderAPI,
+                                                                  CompressedTextureFormatEnum... formats) {
+        for (CompressedTextureFormatEnum format : formats) {
+            if (loaderAPI.isCompressedFormatSupported(format)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param fileName Name of the file of the texture
+     * @param repeat   Indicate that should repeat the texture
+     * @return The key of the path (The same file with a different wrap is a different texture)
+     */
+    private static String getPathKey(String fileName, boolean repeat) {
+        String resolved = new File(fileName).toURI().normalize().getPath();
+        return resolved + (repeat ? "#repeat" : "#clamp");
+    }
+
+    /**
+     * @param textureData The texture decoded
+     * @param repeat      Indicate that should repeat the texture
+     * @return The key of the content of the texture (null if was not possible to hash)
+     */
+    private static String getContentKey(TextureData textureData, boolean repeat) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            ByteBuffer pixels = textureData.getBuffer().duplicate();
+            pixels.rewind();
+            digest.update(pixels);
+            return textureData.getWidth() + "x" + textureData.getHeight() + (repeat ? "#repeat:" : "#clamp:")
+                    + new BigInteger(1, digest.digest()).toString(16);
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param fileName Name of the file of the texture
+     * @param repeat   Indicate that should repeat the texture
+     * @return True if the file is already loaded (Does not need to be decoded)
+     */
+    public synchronized boolean isRegistered(String fileName, boolean repeat) {
+        return byPath.containsKey(resolve(getPathKey(fileName, repeat)));
+    }
+
+    /**
+     * @param pathKey Key of the path of a texture
+     * @return The key of the path of the atlas where the texture was packed (The same key if it was not)
+     */
+    private String resolve(String pathKey) {
+        String atlasKey = atlasAliases.get(pathKey);
+        return (atlasKey == null) ? pathKey : atlasKey;
+    }
+
+    /**
+     * Registers the textures packed in an atlas
+     * (After this the textures are acquired as the atlas, the atlas itself is loaded with acquire.
+     * The shapes that use the textures have their coordinates remapped, so the textures are never loaded alone)
+     *
+     * @param atlasName Name of the atlas
+     * @param atlas     The atlas with the textures packed
+     */
+    public synchronized void registerAtlas(String atlasName, TextureAtlas atlas) {
+        String atlasKey = getPathKey(atlasName, false);
+        for (String fileName : atlas.getRegions().keySet()) {
+            atlasAliases.put(getPathKey(fileName, false), atlasKey);
+        }
+        logger.info("Atlas " + atlasName + " " + atlas);
+    }
+
+    /**
+     * Decodes a texture without loading it in the render API (Can be called from any thread)
+     * (Compresses the texture in blocks when the compression is enabled)
+     *
+     * @param fileName Name of the file of the texture
+     * @return The texture decoded
+     */
+    public TextureData decode(String fileName) {
+        return compress(fileName, resourceProvider.getTexture(fileName));
+    }
+
+    /**
+     * Compresses a texture decoded in blocks if the compression is enabled (Can be called from any thread)
+     *
+     * @param fileName    Name of the texture (Used in the log)
+     * @param textureData The texture decoded
+     * @return The same texture with the compressed texels set
+     */
+    public TextureData compress(String fileName, TextureData textureData) {
+        if ((textureData == null) || (compressionCache == null)) {
+            return textureData;
+        }
+        CompressedTextureFormatEnum format = TextureCompressor.hasTransparency(textureData) ? transparentFormat
+                : opaqueFormat;
+        if (format != null) {
+            CompressedTextureData compressed = TextureCompressor.compress(textureData, format, compressionCache);
+            textureData.setCompressed(compressed);
+            if (compressed != null) {
+                logger.info("Texture " + fileName + " compressed in " + format + " PSNR=" + compressed.getPsnr() + "dB");
+            }
+        }
+        return textureData;
+    }
+
+    /**
+     * Acquires a handle to the texture of a file (Decodes and loads the texture only if needed)
+     *
+     * @param fileName Name of the file of the texture
+     * @param repeat   Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The texture (null if was not possible to load)
+     */
+    public ITexture acquire(String fileName, boolean repeat) {
+        return acquire(fileName, null, repeat);
+    }
+
+    /**
+     * Acquires a handle to the texture of a file
+     *
+     * @param fileName    Name of the file of the texture
+     * @param textureData The texture already decoded (null to decode it if needed). The registry releases its
+     *                    buffers after the upload, so it can not be used after
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The texture (null if was not possible to load)
+     */
+    public synchronized ITexture acquire(String fileName, TextureData textureData, boolean repeat) {
+        ITexture texture = pAcquire(fileName, textureData, repeat);
+        if (textureData != null) {
+            textureData.release();
+        }
+        return texture;
+    }
+
+    /**
+     * Acquires a handle to the texture of a file without releasing the texture decoded
+     *
+     * @param fileName    Name of the file of the texture
+     * @param textureData The texture already decoded (null to decode it if needed)
+     * @param repeat      Indicate that should repeat the texture if the polygon surpass the size of texture
+     * @return The texture (null if was not possible to load)
+     */
+    private ITexture pAcquire(String fileName, TextureData textureData, boolean repeat) {
+        String pathKey = getPathKey(fileName, repeat);
+        if (atlasAliases.containsKey(pathKey)) {
+            pathKey = atlasAliases.get(pathKey);
+            if (!byPath.containsKey(pathKey)) {
+                System.err.println("The atlas of the texture " + fileName + " is not loaded");
+                return null;
+            }
+        }
+        TextureEntry entry = byPath.get(pathKey);
+        if (entry == null) {
+            if (textureData == null) {
+                TextureData decoded = decode(fileName);
+                if (decoded == null) {
+                    return null;
+                }
+                ITexture texture = pAcquire(fileName, decoded, repeat);
+                decoded.release();
+                return texture;
+            }
+            String contentKey = getContentKey(textureData, repeat);
+            entry = (contentKey == null) ? null : byContent.get(contentKey);
+            if (entry == null) {
+                long bytes = textureData.getSizeInBytes();
+                ITexture texture = loaderAPI.loadTexture(textureData, repeat);
+                if (texture == null) {
+                    return null;
+                }
+                entry = new TextureEntry(texture, contentKey, bytes);
+                uploadedBytes += bytes;
+                byTexture.put(texture, entry);
+                if (contentKey != null) {
+                    byContent.put(contentKey, entry);
+                }
+            } else {
+                // Other file with the same content
+                deduplicatedBytes += entry.bytes;
+            }
+            entry.pathKeys.add(pathKey);
+            byPath.put(pathKey, entry);
+        } else {
+            deduplicatedBytes += entry.bytes;
+        }
+        entry.references++;
+        return entry.texture;
+    }
+
+    /**
+     * Releases one handle to a texture (The texture is deleted when the last handle is released)
+     *
+     * @param texture The texture acquired before
+     */
+    public synchronized void release(ITexture texture) {
+        TextureEntry entry = (texture == null) ? null : byTexture.get(texture);
+        if (entry == null) {
+            return;
+        }
+        entry.references--;
+        if (entry.references <= 0) {
+            byTexture.remove(texture);
+            if (entry.contentKey != null) {
+                byContent.remove(entry.contentKey);
+            }
+            for (String pathKey : entry.pathKeys) {
+                byPath.remove(pathKey);
+            }
+            loaderAPI.deleteTexture(texture);
+        }
+    }
+
+    /**
+     * @return the number of textures loaded in the render API
+     */
+    public synchronized int getTexturesCount() {
+        return byTexture.size();
+    }
+
+    /**
+     * @return the number of bytes uploaded to the render API
+     */
+    public synchronized long getUploadedBytes() {
+        return uploadedBytes;
+    }
+
+    /**
+     * @return the number of bytes that were not uploaded because the texture was already loaded
+     */
+    public synchronized long getDeduplicatedBytes() {
+        return deduplicatedBytes;
+    }
+
+    /**
+     * @return Textual description of the statistics of the registry
+     */
+    @Override
+    public synchronized String toString() {
+        return "textures=" + byTexture.size() + " uploaded bytes=" + uploadedBytes
+                + " deduplicated bytes=" + deduplicatedBytes;
+    }
+}
@@ -4,12 +4,17 @@ import com.dferreira.commons.ColorRGB;
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.Vector2f;
 import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IShaderManagerAPI;
 import com.dferreira.commons.generic_render.ShaderProgram;
 import com.dferreira.commons.generic_resources.TextEnum;
 import com.dferreira.commons.utils.Utils;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -18,6 +23,13 @@ import java.util.List;
  */
 public abstract class ShaderManager {
 
+    private final static Logger logger = LogManager.getLogger(ShaderManager.class);
+
+    /**
+     * Maximum number of components of one uniform variable (A matrix of 4x4)
+     */
+    private final static int MAX_UNIFORM_COMPONENTS = 16;
+
     /**
      * Directory where the shader are in the project
      */
@@ -32,6 +44,31 @@ public abstract class ShaderManager {
      */
     private ShaderProgram shaderProgram;
 
+    /**
+     * Last value loaded in each uniform location of the program (The bits of the components)
+     */
+    private int[] shadowValues;
+
+    /**
+     * Flags that indicate which uniform locations of the program were already loaded
+     */
+    private boolean[] shadowLoaded;
+
+    /**
+     * Components of the value being loaded
+     */
+    private final int[] components;
+
+    /**
+     * Number of uniform values loaded in the program
+     */
+    private long uploadsIssued;
+
+    /**
+     * Number of uniform values not loaded because the location already had the same value
+     */
+    private long uploadsSkipped;
+
     /**
      * Constructor of the program shader manager
      *
@@ -42,6 +79,9 @@ public abstract class ShaderManager {
     protected ShaderManager(TextEnum vertexFile, TextEnum fragmentFile, IShaderManagerAPI shaderManagerAPI) {
 
         this.shaderManagerAPI = shaderManagerAPI;
+        this.shadowValues = new int[0];
+        this.shadowLoaded = new boolean[0];
+        this.components = new int[MAX_UNIFORM_COMPONENTS];
         this.shaderProgram = shaderManagerAPI.loadProgram(vertexFile, fragmentFile);
 
         if (this.shaderProgram == null) {
@@ -101,6 +141,40 @@ public abstract class ShaderManager {
         return location;
     }
 
+    /**
+     * Compares the components of the value being loaded with the last value loaded in the location
+     * (The uniforms keep their values in the program so loading the same value again is redundant)
+     *
+     * @param location        location of the shader variable in the script
+     * @param componentsCount Number of components of the value being loaded
+     * @return True if the value should be loaded (The shadow copy is updated)
+     */
+    private boolean needsUpload(int location, int componentsCount) {
+        if (location < 0) {
+            // Not a location of the program, the load is ignored by the render
+            uploadsIssued++;
+            return true;
+        }
+        if (location >= shadowLoaded.length) {
+            int size = Math.max(location + 1, shadowLoaded.length * 2);
+            shadowLoaded = Arrays.copyOf(shadowLoaded, size);
+            shadowValues = Arrays.copyOf(shadowValues, size * MAX_UNIFORM_COMPONENTS);
+        }
+        int offset = location * MAX_UNIFORM_COMPONENTS;
+        boolean same = shadowLoaded[location];
+        for (int i = 0; (same) && (i < componentsCount); i++) {
+            same = (shadowValues[offset + i] == components[i]);
+        }
+        if (same) {
+            uploadsSkipped++;
+            return false;
+        }
+        System.arraycopy(components, 0, shadowValues, offset, componentsCount);
+        shadowLoaded[location] = true;
+        uploadsIssued++;
+        return true;
+    }
+
     /**
      * Load a integer value to be used in the shader script
      *
@@ -108,7 +182,10 @@ public abstract class ShaderManager {
      * @param value    The value to load
      */
     protected void loadInt(int location, int value) {
-        this.shaderManagerAPI.loadInt(location, value);
+        components[0] = value;
+        if (needsUpload(location, 1)) {
+            this.shaderManagerAPI.loadInt(location, value);
+        }
     }
 
     /**
@@ -118,7 +195,10 @@ public abstract class ShaderManager {
      * @param value    value to load
      */
     protected void loadFloat(int location, float value) {
-        this.shaderManagerAPI.loadFloat(location, value);
+        components[0] = Float.floatToRawIntBits(value);
+        if (needsUpload(location, 1)) {
+            this.shaderManagerAPI.loadFloat(location, value);
+        }
     }
 
 
@@ -129,7 +209,26 @@ public abstract class ShaderManager {
      * @param vector   The vector to load
      */
     protected void loadVector(int location, Vector3f vector) {
-        this.shaderManagerAPI.loadVector(location, vector);
+        components[0] = Float.floatToRawIntBits(vector.x);
+        components[1] = Float.floatToRawIntBits(vector.y);
+        components[2] = Float.floatToRawIntBits(vector.z);
+        if (needsUpload(location, 3)) {
+            this.shaderManagerAPI.loadVector(location, vector);
+        }
+    }
+
+    /**
+     * Load a 2D vector to be used in the shader script
+     *
+     * @param location location of the shader variable in the script
+     * @param vector   The vector to load
+     */
+    protected void loadVector(int location, Vector2f vector) {
+        components[0] = Float.floatToRawIntBits(vector.x);
+        components[1] = Float.floatToRawIntBits(vector.y);
+        if (needsUpload(location, 2)) {
+            this.shaderManagerAPI.loadVector(location, vector);
+        }
     }
 
     /**
@@ -139,7 +238,12 @@ public abstract class ShaderManager {
      * @param color    The color to load
      */
     protected void loadColorRGB(int location, ColorRGB color) {
-        this.shaderManagerAPI.loadColorRGB(location, color);
+        components[0] = Float.floatToRawIntBits(color.r);
+        components[1] = Float.floatToRawIntBits(color.g);
+        components[2] = Float.floatToRawIntBits(color.b);
+        if (needsUpload(location, 3)) {
+            this.shaderManagerAPI.loadColorRGB(location, color);
+        }
     }
 
     /**
@@ -149,7 +253,13 @@ public abstract class ShaderManager {
      * @param color    The color to load
      */
     protected void loadColorRGBA(int location, ColorRGBA color) {
-        this.shaderManagerAPI.loadColorRGBA(location, color);
+        components[0] = Float.floatToRawIntBits(color.r);
+        components[1] = Float.floatToRawIntBits(color.g);
+        components[2] = Float.floatToRawIntBits(color.b);
+        components[3] = Float.floatToRawIntBits(color.a);
+        if (needsUpload(location, 4)) {
+            this.shaderManagerAPI.loadColorRGBA(location, color);
+        }
     }
 
     /**
@@ -159,7 +269,10 @@ public abstract class ShaderManager {
      * @param value    value to load
      */
     protected void loadBoolean(int location, boolean value) {
-        this.shaderManagerAPI.loadBoolean(location, value);
+        components[0] = (value) ? 1 : 0;
+        if (needsUpload(location, 1)) {
+            this.shaderManagerAPI.loadBoolean(location, value);
+        }
     }
 
     /**
@@ -169,7 +282,27 @@ public abstract class ShaderManager {
      * @param matrix   Matrix to load
      */
     protected void loadMatrix(int location, GLTransformation matrix) {
-        this.shaderManagerAPI.loadMatrix(location, matrix);
+        float[] values = matrix.get();
+        for (int i = 0; i < MAX_UNIFORM_COMPONENTS; i++) {
+            components[i] = Float.floatToRawIntBits(values[i]);
+        }
+        if (needsUpload(location, MAX_UNIFORM_COMPONENTS)) {
+            this.shaderManagerAPI.loadMatrix(location, matrix);
+        }
+    }
+
+    /**
+     * @return the number of uniform values loaded in the program
+     */
+    public long getUploadsIssued() {
+        return uploadsIssued;
+    }
+
+    /**
+     * @return the number of uniform values not loaded because the location already had the same value
+     */
+    public long getUploadsSkipped() {
+        return uploadsSkipped;
     }
 
     /**
@@ -190,6 +323,9 @@ public abstract class ShaderManager {
      * A bit of memory management
      */
     public void dispose() {
+        logger.info(getClass().getSimpleName() + " uniform uploads issued=" + uploadsIssued
+                + " skipped=" + uploadsSkipped);
         this.shaderManagerAPI.deleteProgram(shaderProgram);
+        Arrays.fill(shadowLoaded, false);
     }
 }
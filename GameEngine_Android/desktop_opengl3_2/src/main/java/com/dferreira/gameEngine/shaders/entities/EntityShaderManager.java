@@ -3,9 +3,12 @@ package com.dferreira.gameEngine.shaders.entities;
 import com.dferreira.commons.ColorRGBA;
 import com.dferreira.commons.GLTransformation;
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.Vector3f;
 import com.dferreira.commons.generic_render.IShaderManagerAPI;
 import com.dferreira.commons.generic_resources.TextEnum;
 import com.dferreira.commons.models.Light;
+import com.dferreira.commons.shapes.VertexQuantization;
 import com.dferreira.gameEngine.shaders.ShaderManager;
 
 import java.util.ArrayList;
@@ -28,6 +31,14 @@ public class EntityShaderManager extends ShaderManager {
      */
     //private static final String FRAGMENT_FILE = COMMON_PATH + "entities/entity_fragment_shader.glsl";
 
+    /**
+     * Offset and scale used when the vertices of the entity are not quantized
+     */
+    private static final Vector3f NO_POSITION_OFFSET = new Vector3f(0.0f, 0.0f, 0.0f);
+    private static final Vector3f NO_POSITION_SCALE = new Vector3f(1.0f, 1.0f, 1.0f);
+    private static final Vector2f NO_TEXTURE_OFFSET = new Vector2f(0.0f, 0.0f);
+    private static final Vector2f NO_TEXTURE_SCALE = new Vector2f(1.0f, 1.0f);
+
     /**
      * All the uniform locations in the shader programs
      */
@@ -132,6 +143,15 @@ public class EntityShaderManager extends ShaderManager {
         super.loadMatrix(uniforms[TEntityUniform.transformationMatrix.getValue()], matrix);
     }
 
+    /**
+     * Set in the shader if the transformation comes from the instance attribute or from the transformation matrix
+     *
+     * @param instanced Flag that indicates if the draws are instanced
+     */
+    public void loadInstanced(boolean instanced) {
+        super.loadBoolean(uniforms[TEntityUniform.instanced.getValue()], instanced);
+    }
+
     /**
      * Load the texture weight of the material
      *
@@ -150,4 +170,24 @@ public class EntityShaderManager extends ShaderManager {
         super.loadColorRGBA(uniforms[TEntityUniform.diffuseColor.getValue()], diffuseColor);
     }
 
+    /**
+     * Load how to convert the vertices of the entity to the original values
+     *
+     * @param quantization The quantization of the vertices (null if they are floats)
+     */
+    public void loadQuantization(VertexQuantization quantization) {
+        if (quantization == null) {
+            super.loadVector(uniforms[TEntityUniform.positionOffset.getValue()], NO_POSITION_OFFSET);
+            super.loadVector(uniforms[TEntityUniform.positionScale.getValue()], NO_POSITION_SCALE);
+            super.loadVector(uniforms[TEntityUniform.textureOffset.getValue()], NO_TEXTURE_OFFSET);
+            super.loadVector(uniforms[TEntityUniform.textureScale.getValue()], NO_TEXTURE_SCALE);
+        } else {
+            super.loadVector(uniforms[TEntityUniform.positionOffset.getValue()], quantization.getPositionOffset());
+            super.loadVector(uniforms[TEntityUniform.positionScale.getValue()], quantization.getPositionScale());
+            super.loadVector(uniforms[TEntityUniform.textureOffset.getValue()], quantization.getTextureOffset());
+            super.loadVector(uniforms[TEntityUniform.textureScale.getValue()], quantization.getTextureScale());
+        }
+        super.loadBoolean(uniforms[TEntityUniform.octahedralNormals.getValue()], quantization != null);
+    }
+
 }
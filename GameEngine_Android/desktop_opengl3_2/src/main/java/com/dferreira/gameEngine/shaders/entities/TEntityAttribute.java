@@ -34,6 +34,12 @@ public enum TEntityAttribute implements IEnum {
      */
     lightColor,
 
+    /**
+     * First position where the transformation of each instance is going to be bind in the program shader
+     * (The matrix takes four positions, one by column)
+     */
+    instanceTransformation,
+
     /**
      * Number of entity attributes
      */
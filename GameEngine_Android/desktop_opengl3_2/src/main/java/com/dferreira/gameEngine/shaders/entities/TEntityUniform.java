@@ -63,6 +63,37 @@ public enum TEntityUniform implements IEnum {
      */
     diffuseColor,
 
+    /**
+     * Offset of the quantized positions of the entity
+     */
+    positionOffset,
+
+    /**
+     * Scale of the quantized positions of the entity
+     */
+    positionScale,
+
+    /**
+     * Offset of the quantized texture coordinates of the entity
+     */
+    textureOffset,
+
+    /**
+     * Scale of the quantized texture coordinates of the entity
+     */
+    textureScale,
+
+    /**
+     * Location of the variable that indicates that the normals are encoded in
+     * octahedral format
+     */
+    octahedralNormals,
+
+    /**
+     * Location of the variable that indicates that the transformation comes from the instance attribute
+     */
+    instanced,
+
     /**
      * Meta-data used maintain the existing locations
      */
@@ -2,6 +2,7 @@ package com.dferreira.gameEngine.shaders.guis;
 
 import com.dferreira.commons.GLTransformation;
 import com.dferreira.commons.IEnum;
+import com.dferreira.commons.Vector2f;
 import com.dferreira.commons.generic_render.IShaderManagerAPI;
 import com.dferreira.commons.generic_resources.TextEnum;
 import com.dferreira.gameEngine.shaders.ShaderManager;
@@ -72,4 +73,15 @@ public class GuiShaderManager extends ShaderManager {
         super.loadMatrix(uniforms[TGuiUniform.transformationMatrix.getValue()], matrix);
     }
 
+    /**
+     * Load the region of the texture in the atlas
+     *
+     * @param offset Offset of the region
+     * @param scale  Scale of the region
+     */
+    public void loadTextureRegion(Vector2f offset, Vector2f scale) {
+        super.loadVector(uniforms[TGuiUniform.textureOffset.getValue()], offset);
+        super.loadVector(uniforms[TGuiUniform.textureScale.getValue()], scale);
+    }
+
 }
@@ -12,6 +12,16 @@ public enum TGuiUniform implements IEnum {
      */
     transformationMatrix,
 
+    /**
+     * Offset of the region of the texture in the atlas
+     */
+    textureOffset,
+
+    /**
+     * Scale of the region of the texture in the atlas
+     */
+    textureScale,
+
     /**
      * Meta-data used maintain the existing locations
      */
@@ -1,6 +1,7 @@
 package com.dferreira.gameEngine.views;
 
 import com.dferreira.commons.IPlaformSet;
+import com.dferreira.commons.compression.CompressedTextureCache;
 import com.dferreira.commons.generic_player.IAudioDescription;
 import com.dferreira.commons.generic_player.IAudioLoader;
 import com.dferreira.commons.generic_player.IAudioSource;
@@ -9,6 +10,7 @@ import com.dferreira.commons.generic_render.ILoaderRenderAPI;
 import com.dferreira.commons.generic_render.IRenderAPIAccess;
 import com.dferreira.commons.generic_resources.AudioEnum;
 import com.dferreira.commons.generic_resources.IResourceProvider;
+import com.dferreira.commons.memory.DirectBufferPool;
 import com.dferreira.commons.models.Light;
 import com.dferreira.gameEngine.audioEngine.MasterPlayer;
 import com.dferreira.gameEngine.modelGenerators.WorldAudioGenerator;
@@ -21,12 +23,18 @@ import com.dferreira.gameEngine.modelGenerators.WorldTerrainsGenerator;
 import com.dferreira.gameEngine.models.GuiTexture;
 import com.dferreira.gameEngine.models.Player;
 import com.dferreira.gameEngine.models.SkyBox;
-import com.dferreira.gameEngine.models.Terrain;
 import com.dferreira.gameEngine.models.complexEntities.Entity;
+import com.dferreira.gameEngine.renderEngine.AssetStreamer;
 import com.dferreira.gameEngine.renderEngine.DisplayManager;
 import com.dferreira.gameEngine.renderEngine.Loader;
 import com.dferreira.gameEngine.renderEngine.MasterRender;
+import com.dferreira.gameEngine.renderEngine.TerrainTileManager;
+import com.dferreira.gameEngine.renderEngine.TextureRegistry;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 
@@ -35,10 +43,28 @@ import java.util.List;
  */
 public class GameEngineRenderer {
 
+    private final static Logger logger = LogManager.getLogger(GameEngineRenderer.class);
+
     /**
      * Number of audio sources available
      */
     private static final int POOL_SOURCES_SIZE = 32;
+    /**
+     * Maximum time spent uploading assets in each frame
+     */
+    private static final long UPLOAD_BUDGET_MILLIS = 4;
+    /**
+     * Maximum number of bytes of assets uploaded in each frame
+     */
+    private static final long UPLOAD_BUDGET_BYTES = 8 * 1024 * 1024;
+    /**
+     * Indicates if the textures of the models are compressed in blocks when the render API supports it
+     */
+    private static final boolean COMPRESS_TEXTURES = true;
+    /**
+     * Folder (inside the temporary folder) where the compressed textures are kept between runs
+     */
+    private static final String TEXTURE_CACHE_FOLDER = "gameEngine-textures";
     /**
      * Load the resources of the game
      */
@@ -71,9 +97,9 @@ public class GameEngineRenderer {
     private Entity[] entities;
 
     /**
-     * Array of terrains to render
+     * Tiles of terrain resident around the player
      */
-    private Terrain[] terrains;
+    private TerrainTileManager terrainTiles;
 
     /**
      * Array of GUIs to render
@@ -105,6 +131,16 @@ public class GameEngineRenderer {
      */
     private MasterPlayer masterPlayer;
 
+    /**
+     * Decodes the models and sounds in background and uploads them a few by frame
+     */
+    private AssetStreamer assetStreamer;
+
+    /**
+     * Shares the textures of the models between the materials that use them
+     */
+    private TextureRegistry textureRegistry;
+
     /**
      * Constructor of the game engine render
      *
@@ -129,17 +165,19 @@ public class GameEngineRenderer {
 
         ILoaderRenderAPI loaderAPI = renderAPIAccess.getLoaderRenderAPI();
         this.renderer = new MasterRender(renderAPIAccess);
+        int numberOfWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        this.assetStreamer = new AssetStreamer(numberOfWorkers, UPLOAD_BUDGET_MILLIS, UPLOAD_BUDGET_BYTES);
+        CompressedTextureCache compressionCache = COMPRESS_TEXTURES ? new CompressedTextureCache(
+                new File(System.getProperty("java.io.tmpdir"), TEXTURE_CACHE_FOLDER)) : null;
+        this.textureRegistry = new TextureRegistry(loaderAPI, this.resourceProvider, compressionCache);
 
-		/* Prepares the terrains that is going to render */
-        Terrain terrain = WorldTerrainsGenerator.getTerrain(loaderAPI);
-        WorldTerrainsGenerator.loadTextures(loaderAPI, terrain);
-
-        this.terrains = new Terrain[1];
-        this.terrains[0] = terrain;
+		/* Prepares the terrains that is going to render (The tiles around the player are streamed) */
+        this.terrainTiles = WorldTerrainsGenerator.getTerrainTiles(loaderAPI, this.assetStreamer,
+                renderAPIAccess.getFrameRenderAPI().supportsDrawRange());
 
-		/* Prepares the entities that is going to be render */
-        this.entities = WorldEntitiesGenerator.getEntities(loader, loaderAPI, this.resourceProvider, terrain);
-        WorldEntitiesGenerator.loadTextures(loaderAPI, this.entities);
+		/* Prepares the entities that is going to be render (Their models are streamed) */
+        this.entities = WorldEntitiesGenerator.getEntities(loader, loaderAPI, this.resourceProvider, terrainTiles,
+                this.assetStreamer, this.textureRegistry);
 
 		/* Load the light that is going to render */
         this.lights = WorldLightsGenerator.getLights();
@@ -154,11 +192,11 @@ public class GameEngineRenderer {
 
 		/* Prepares the player that is going to be used in the scene */
 		/* Prepares the player_mtl that is going to be used in the scene */
-        this.player = WorldPlayersGenerator.getPlayer(loader, loaderAPI, resourceProvider);
-        WorldPlayersGenerator.loadTextures(loaderAPI, this.player);
+        this.player = WorldPlayersGenerator.getPlayer(loader, loaderAPI, resourceProvider, this.assetStreamer,
+                this.textureRegistry);
 
-		/* Prepares the sounds to be used by the engine */
-        this.audioLibrary = WorldAudioGenerator.getBuffers(this.audioLoader, resourceProvider);
+		/* Prepares the sounds to be used by the engine (They are streamed) */
+        this.audioLibrary = WorldAudioGenerator.getBuffers(this.audioLoader, resourceProvider, this.assetStreamer);
 
 		/* Sounds player */
         List<IAudioSource> sourceLst = this.audioLoader.genAudioSources(POOL_SOURCES_SIZE);
@@ -171,7 +209,11 @@ public class GameEngineRenderer {
      */
     private void renderFrame() {
         renderer.startFrameRender();
-        renderer.processTerrains(terrains);
+        if (player != null) {
+            terrainTiles.update(player.getPosition().x, player.getPosition().z);
+        }
+        renderer.processTerrains(terrainTiles.getTerrains());
+        renderer.processTerrainHeights(terrainTiles);
         renderer.processEntities(entities);
         renderer.processSkyBox(skyBox);
         renderer.processPlayer(player);
@@ -195,6 +237,7 @@ public class GameEngineRenderer {
      * Draw the entities of the scene
      */
     public void onDrawFrame() {
+        this.assetStreamer.uploadPending();
         this.renderFrame();
         this.playAudio();
     }
@@ -203,6 +246,13 @@ public class GameEngineRenderer {
      * Called when is to release resources used
      */
     public void dispose() {
+        this.assetStreamer.dispose();
+        this.terrainTiles.dispose();
+        logger.info("Texture registry: " + this.textureRegistry);
+        WorldEntitiesGenerator.releaseTextures(this.textureRegistry, this.entities);
+        WorldPlayersGenerator.releaseTextures(this.textureRegistry, this.player);
+        // The buffers released stay in the pool to be reused by the next scene
+        logger.info("Direct buffer pool: " + DirectBufferPool.getInstance());
         this.masterPlayer.dispose();
     }
 }
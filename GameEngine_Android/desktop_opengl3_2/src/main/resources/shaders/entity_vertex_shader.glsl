@@ -9,6 +9,9 @@ in vec2 textureCoords;
 /*Variable with normals of the entity*/
 in vec3 normal;
 
+/*Transformation of the instance when the entity is drawn instanced*/
+in mat4 instanceTransformation;
+
 /*Outputs because we are sending them to the fragment shader*/
 /*The coordinates of the texture as output*/
 out vec2 pass_textureCoords;
@@ -27,6 +30,9 @@ out float visibility;
 
 uniform mat4 transformationMatrix;
 
+/*If the transformation comes from the instance attribute instead of the uniform*/
+uniform float instanced;
+
 uniform mat4 viewMatrix;
 
 uniform mat4 projectionMatrix;
@@ -37,25 +43,47 @@ uniform vec3 lightPosition;
 /*If the entity should have the normals pointing up*/
 uniform float normalsPointingUp;
 
+/*Offset and scale of the quantized positions (identity when the positions are floats)*/
+uniform vec3 positionOffset;
+uniform vec3 positionScale;
+
+/*Offset and scale of the quantized texture coordinates (identity when they are floats)*/
+uniform vec2 textureOffset;
+uniform vec2 textureScale;
+
+/*If the normals of the entity are encoded in octahedral format*/
+uniform float octahedralNormals;
+
 /*Density of fog*/
 const float fog_density = 0.007;
 
 /*Gradient of fog*/
 const float fog_gradient = 1.5;
 
+/*Decodes one normal encoded in octahedral format*/
+vec3 decodeOctahedral(vec2 encoded) {
+	vec3 n = vec3(encoded, 1.0 - abs(encoded.x) - abs(encoded.y));
+	if (n.z < 0.0) {
+		n.xy = (1.0 - abs(n.yx)) * vec2(n.x >= 0.0 ? 1.0 : -1.0, n.y >= 0.0 ? 1.0 : -1.0);
+	}
+	return normalize(n);
+}
+
 void main(void) {
-	vec4 worldPosition = transformationMatrix * vec4(position, 1.0);
+	mat4 transformation = (instanced == 1.0) ? instanceTransformation : transformationMatrix;
+	vec4 worldPosition = transformation * vec4(positionOffset + positionScale * position, 1.0);
 	
 	/*Position of the element relative to the camera*/
 	vec4 positionRelativeToCam = viewMatrix * worldPosition;
 	gl_Position = projectionMatrix * positionRelativeToCam;
 	
 	/*Compute the texture coordinate taking in account the atlas textures*/
-	pass_textureCoords = textureCoords;
+	pass_textureCoords = textureOffset + textureScale * textureCoords;
 	
-	vec3 actualNormal = (normalsPointingUp == 1.0) ? vec3(0.0, 1.0, 0.0) : normal;
+	vec3 decodedNormal = (octahedralNormals == 1.0) ? decodeOctahedral(normal.xy) : normal;
+	vec3 actualNormal = (normalsPointingUp == 1.0) ? vec3(0.0, 1.0, 0.0) : decodedNormal;
 	
-	surfaceNormal = (transformationMatrix * vec4(actualNormal, 0.0)).xyz;
+	surfaceNormal = (transformation * vec4(actualNormal, 0.0)).xyz;
 	toLightVector = lightPosition - worldPosition.xyz;
 	
 	/*used for the specular light, first get the position of the camera. second subtract the position of the vertex */
@@ -8,10 +8,14 @@ out vec2 textureCoords;
 
 uniform mat4 transformationMatrix;
 
+/*Region of the texture in the atlas*/
+uniform vec2 textureOffset;
+uniform vec2 textureScale;
+
 
 void main(void) {
 	gl_Position = transformationMatrix * vec4(position, 0.0, 1.0);
 		
 	/*Compute the texture coordinates*/
-	textureCoords = vec2((position.x+1.0)/2.0, 1 - (position.y+1.0)/2.0);
+	textureCoords = textureOffset + vec2((position.x+1.0)/2.0, 1 - (position.y+1.0)/2.0) * textureScale;
 }
\ No newline at end of file
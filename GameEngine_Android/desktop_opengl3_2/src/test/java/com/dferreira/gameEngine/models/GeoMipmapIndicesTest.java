@@ -0,0 +1,195 @@
+package com.dferreira.gameEngine.models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the indices of the chunks of terrain in each level of detail and their stitches
+ */
+public class GeoMipmapIndicesTest {
+
+    /**
+     * Number of quads in each side of the chunks of the tests (As the chunks of the terrain)
+     */
+    private static final int CHUNK_QUADS = 32;
+
+    /**
+     * Edges of the chunks
+     */
+    private static final int[] EDGES = {GeoMipmapIndices.LEFT_EDGE, GeoMipmapIndices.RIGHT_EDGE,
+            GeoMipmapIndices.TOP_EDGE, GeoMipmapIndices.BOTTOM_EDGE};
+
+    /**
+     * The indices of the chunks of the tests
+     */
+    private final GeoMipmapIndices chunkIndices = new GeoMipmapIndices(CHUNK_QUADS);
+
+    /**
+     * @param edge An edge of the chunk
+     * @return The edge of the chunk next to it that touches the same line
+     */
+    static int opposite(int edge) {
+        switch (edge) {
+            case GeoMipmapIndices.LEFT_EDGE:
+                return GeoMipmapIndices.RIGHT_EDGE;
+            case GeoMipmapIndices.RIGHT_EDGE:
+                return GeoMipmapIndices.LEFT_EDGE;
+            case GeoMipmapIndices.TOP_EDGE:
+                return GeoMipmapIndices.BOTTOM_EDGE;
+            default:
+                return GeoMipmapIndices.TOP_EDGE;
+        }
+    }
+
+    /**
+     * @param chunkIndices The indices of the chunks
+     * @param vertex       Index of a vertex in the chunk
+     * @param edge         An edge of the chunk
+     * @return The position of the vertex along the edge or -1 if the vertex is not in the edge
+     */
+    private static int positionInEdge(GeoMipmapIndices chunkIndices, int vertex, int edge) {
+        int vertices = chunkIndices.getChunkQuads() + 1;
+        int row = vertex / vertices, column = vertex % vertices;
+        switch (edge) {
+            case GeoMipmapIndices.LEFT_EDGE:
+                return (column == 0) ? row : -1;
+            case GeoMipmapIndices.RIGHT_EDGE:
+                return (column == vertices - 1) ? row : -1;
+            case GeoMipmapIndices.TOP_EDGE:
+                return (row == 0) ? column : -1;
+            default:
+                return (row == vertices - 1) ? column : -1;
+        }
+    }
+
+    /**
+     * The sides of the triangles that lie on one edge of a variant
+     * (Two chunks next to each other have no cracks when their sides in the shared edge are the same)
+     *
+     * @param chunkIndices The indices of the chunks
+     * @param level        Level of detail of the chunk
+     * @param mask         Stitch mask of the chunk
+     * @param edge         Edge of the chunk
+     * @return The sides sorted, each one as the start and the end positions along the edge
+     */
+    static List<String> edgeSides(GeoMipmapIndices chunkIndices, int level, int mask, int edge) {
+        int[] indices = chunkIndices.getIndices();
+        int first = chunkIndices.getFirstIndex(level, mask);
+        int count = chunkIndices.getIndicesCount(level, mask);
+        List<String> sides = new ArrayList<>();
+        for (int i = first; i < first + count; i += 3) {
+            for (int corner = 0; corner < 3; corner++) {
+                int start = positionInEdge(chunkIndices, indices[i + corner], edge);
+                int end = positionInEdge(chunkIndices, indices[i + (corner + 1) % 3], edge);
+                if ((start >= 0) && (end >= 0)) {
+                    sides.add(Math.min(start, end) + "-" + Math.max(start, end));
+                }
+            }
+        }
+        Collections.sort(sides);
+        return sides;
+    }
+
+    /**
+     * The number of levels goes down to the chunk as two triangles and the chunks that are not a power of two
+     * are refused
+     */
+    @Test
+    public void countsTheLevels() {
+        assertEquals(6, chunkIndices.getLevelsCount());
+        assertEquals(33 * 33, chunkIndices.getChunkVerticesCount());
+        assertEquals(1, new GeoMipmapIndices(1).getLevelsCount());
+        for (int chunkQuads : new int[]{0, -4, 24}) {
+            try {
+                new GeoMipmapIndices(chunkQuads);
+                throw new AssertionError("Accepted chunks of " + chunkQuads + " quads");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Each level without stitches has two triangles by quad of the level and a quarter of the ones of the finer
+     * level
+     */
+    @Test
+    public void countsTheIndicesOfEachLevel() {
+        int[] expected = {6144, 1536, 384, 96, 24, 6};
+        int[] counts = new int[chunkIndices.getLevelsCount()];
+        for (int level = 0; level < counts.length; level++) {
+            counts[level] = chunkIndices.getIndicesCount(level, 0);
+        }
+        assertArrayEquals(expected, counts);
+
+        // Each stitched edge drops one triangle for each two quads of the edge
+        for (int level = 0; level < counts.length - 1; level++) {
+            int edgeQuads = CHUNK_QUADS >> level;
+            for (int mask = 0; mask < GeoMipmapIndices.MASKS_COUNT; mask++) {
+                int stitchedEdges = Integer.bitCount(mask);
+                assertEquals(expected[level] - stitchedEdges * (edgeQuads / 2) * 3,
+                        chunkIndices.getIndicesCount(level, mask));
+            }
+        }
+
+        // The last level has nothing coarser to stitch to
+        int last = counts.length - 1;
+        for (int mask = 0; mask < GeoMipmapIndices.MASKS_COUNT; mask++) {
+            assertEquals(chunkIndices.getFirstIndex(last, 0), chunkIndices.getFirstIndex(last, mask));
+            assertEquals(6, chunkIndices.getIndicesCount(last, mask));
+        }
+    }
+
+    /**
+     * Every variant covers the chunk once, with every triangle facing the same side as the full terrain
+     */
+    @Test
+    public void variantsCoverTheChunk() {
+        int vertices = CHUNK_QUADS + 1;
+        int[] indices = chunkIndices.getIndices();
+        for (int level = 0; level < chunkIndices.getLevelsCount(); level++) {
+            for (int mask = 0; mask < GeoMipmapIndices.MASKS_COUNT; mask++) {
+                int first = chunkIndices.getFirstIndex(level, mask);
+                int count = chunkIndices.getIndicesCount(level, mask);
+                long doubleArea = 0;
+                for (int i = first; i < first + count; i += 3) {
+                    int a = indices[i], b = indices[i + 1], c = indices[i + 2];
+                    assertTrue((a >= 0) && (b >= 0) && (c >= 0));
+                    assertTrue((a < vertices * vertices) && (b < vertices * vertices) && (c < vertices * vertices));
+                    long cross = (long) (b % vertices - a % vertices) * (c / vertices - a / vertices)
+                            - (long) (c % vertices - a % vertices) * (b / vertices - a / vertices);
+                    assertTrue("Triangle flipped in level " + level + " mask " + mask, cross < 0);
+                    doubleArea -= cross;
+                }
+                assertEquals(2L * CHUNK_QUADS * CHUNK_QUADS, doubleArea);
+            }
+        }
+    }
+
+    /**
+     * A stitched edge has the same sides as the edge of the chunk one level coarser next to it
+     */
+    @Test
+    public void stitchedEdgesMatchTheCoarserLevel() {
+        for (int level = 0; level < chunkIndices.getLevelsCount() - 1; level++) {
+            for (int edge : EDGES) {
+                List<String> stitched = edgeSides(chunkIndices, level, edge, edge);
+                List<String> coarser = edgeSides(chunkIndices, level + 1, 0, opposite(edge));
+                assertEquals("Level " + level + " edge " + edge, coarser, stitched);
+
+                // The edges that are not stitched keep the sides of the level
+                List<String> unstitched = edgeSides(chunkIndices, level, 0, edge);
+                assertEquals(unstitched, edgeSides(chunkIndices, level, GeoMipmapIndices.MASKS_COUNT - 1 - edge,
+                        edge));
+                assertEquals(CHUNK_QUADS >> level, unstitched.size());
+            }
+        }
+    }
+}
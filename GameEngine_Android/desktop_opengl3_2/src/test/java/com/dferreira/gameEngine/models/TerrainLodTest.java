@@ -0,0 +1,222 @@
+package com.dferreira.gameEngine.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the levels of detail chosen for the chunks of the terrains and that their edges have no cracks
+ */
+public class TerrainLodTest {
+
+    /**
+     * Number of vertices in each side of the terrains of the tests (As the terrains of the game)
+     */
+    private static final int VERTEX_COUNT = 129;
+
+    /**
+     * Size of the side of the terrains of the tests
+     */
+    private static final float SIZE = 512.0f;
+
+    /**
+     * Number of quads in each side of the chunks
+     */
+    private static final int CHUNK_QUADS = 32;
+
+    /**
+     * Pixels of the screen by unit of the world at the distance of one unit and the largest error in pixels
+     */
+    private static final float LOD_SCALE = 500.0f;
+    private static final float MAX_PIXELS_ERROR = 2.0f;
+
+    /**
+     * The indices of the chunks, shared by the terrains
+     */
+    private static final GeoMipmapIndices CHUNK_INDICES = new GeoMipmapIndices(CHUNK_QUADS);
+
+    /**
+     * Creates a terrain with the same roughness everywhere (Every chunk has the same errors)
+     *
+     * @return The levels of detail of the terrain
+     */
+    private static TerrainLod createRoughTerrain() {
+        float[] heights = new float[VERTEX_COUNT * VERTEX_COUNT];
+        for (int z = 0; z < VERTEX_COUNT; z++) {
+            for (int x = 0; x < VERTEX_COUNT; x++) {
+                heights[z * VERTEX_COUNT + x] = (float) (Math.sin(x * Math.PI / 4.0) + Math.cos(z * Math.PI / 8.0));
+            }
+        }
+        return new TerrainLod(new HeightField(heights, VERTEX_COUNT, SIZE), CHUNK_INDICES);
+    }
+
+    /**
+     * Checks that two chunks next to each other have at most one level of difference and the same edge
+     *
+     * @param lod           Levels of detail of the terrain of the chunk
+     * @param chunk         Index of the chunk
+     * @param edge          Edge of the chunk
+     * @param neighbor      Levels of detail of the terrain of the other chunk
+     * @param neighborChunk Index of the other chunk
+     */
+    private static void assertNoCrack(TerrainLod lod, int chunk, int edge, TerrainLod neighbor, int neighborChunk) {
+        int level = lod.getLevel(chunk), neighborLevel = neighbor.getLevel(neighborChunk);
+        assertTrue("Levels " + level + " and " + neighborLevel + " next to each other",
+                Math.abs(level - neighborLevel) <= 1);
+        assertEquals("Stitch of the chunk " + chunk, neighborLevel == level + 1,
+                (lod.getStitchMask(chunk) & edge) != 0);
+        assertEquals("Crack between the chunks " + chunk + " and " + neighborChunk,
+                GeoMipmapIndicesTest.edgeSides(CHUNK_INDICES, neighborLevel, neighbor.getStitchMask(neighborChunk),
+                        GeoMipmapIndicesTest.opposite(edge)),
+                GeoMipmapIndicesTest.edgeSides(CHUNK_INDICES, level, lod.getStitchMask(chunk), edge));
+    }
+
+    /**
+     * Checks that no chunk of the terrain has cracks with the chunks next to it in the same terrain
+     *
+     * @param lod Levels of detail of the terrain
+     */
+    private static void assertNoCracks(TerrainLod lod) {
+        int side = lod.getChunksBySide();
+        for (int chunk = 0; chunk < lod.getChunksCount(); chunk++) {
+            if (chunk % side < side - 1) {
+                assertNoCrack(lod, chunk, GeoMipmapIndices.RIGHT_EDGE, lod, chunk + 1);
+                assertNoCrack(lod, chunk + 1, GeoMipmapIndices.LEFT_EDGE, lod, chunk);
+            }
+            if (chunk / side < side - 1) {
+                assertNoCrack(lod, chunk, GeoMipmapIndices.BOTTOM_EDGE, lod, chunk + side);
+                assertNoCrack(lod, chunk + side, GeoMipmapIndices.TOP_EDGE, lod, chunk);
+            }
+        }
+    }
+
+    /**
+     * A flat terrain has no error so every chunk is two triangles, even under the camera
+     */
+    @Test
+    public void flatTerrainUsesTheCoarsestLevel() {
+        TerrainLod lod = new TerrainLod(new HeightField(new float[VERTEX_COUNT * VERTEX_COUNT], VERTEX_COUNT, SIZE),
+                CHUNK_INDICES);
+        lod.select(10.0f, 0.0f, 10.0f, LOD_SCALE, MAX_PIXELS_ERROR);
+
+        assertEquals(16, lod.getChunksCount());
+        for (int chunk = 0; chunk < lod.getChunksCount(); chunk++) {
+            assertEquals(CHUNK_INDICES.getLevelsCount() - 1, lod.getLevel(chunk));
+            assertEquals(0, lod.getStitchMask(chunk));
+        }
+        assertEquals(16 * 2, lod.getTrianglesCount());
+    }
+
+    /**
+     * The chunk under the camera is in the full detail, the levels only get coarser with the distance and the
+     * level chosen is the coarsest one with its error in the screen below the limit
+     */
+    @Test
+    public void choosesTheLevelsFromTheDistance() {
+        TerrainLod lod = createRoughTerrain();
+        lod.selectLevels(1.0f, 3.0f, 1.0f, LOD_SCALE, MAX_PIXELS_ERROR);
+
+        assertEquals(0, lod.getLevel(0));
+        int side = lod.getChunksBySide();
+        for (int i = 1; i < side; i++) {
+            // Along the row and the diagonal from the camera
+            assertTrue(lod.getLevel(i) >= lod.getLevel(i - 1));
+            assertTrue(lod.getLevel(i * (side + 1)) >= lod.getLevel((i - 1) * (side + 1)));
+        }
+        int lastChunk = lod.getChunksCount() - 1;
+        assertTrue(lod.getLevel(lastChunk) > 0);
+
+        // The error of the level chosen fits in the screen and the error of the next one does not
+        float minX = lod.getChunkMinX(lastChunk), minZ = lod.getChunkMinZ(lastChunk);
+        float dx = minX - 1.0f, dz = minZ - 1.0f;
+        float dy = Math.max(0.0f, 3.0f - lod.getChunkMaxHeight(lastChunk));
+        float distance = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        int level = lod.getLevel(lastChunk);
+        assertTrue(lod.getGeometricError(lastChunk, level) * LOD_SCALE <= MAX_PIXELS_ERROR * distance);
+        if (level + 1 < CHUNK_INDICES.getLevelsCount()) {
+            assertTrue(lod.getGeometricError(lastChunk, level + 1) * LOD_SCALE > MAX_PIXELS_ERROR * distance);
+        }
+
+        // Far enough every chunk is two triangles
+        lod.select(1.0e7f, 3.0f, 1.0e7f, LOD_SCALE, MAX_PIXELS_ERROR);
+        assertEquals(lod.getChunksCount() * 2, lod.getTrianglesCount());
+    }
+
+    /**
+     * The errors of a chunk never go down in the coarser levels
+     */
+    @Test
+    public void errorsGrowWithTheLevel() {
+        TerrainLod lod = createRoughTerrain();
+        for (int chunk = 0; chunk < lod.getChunksCount(); chunk++) {
+            assertEquals(0.0f, lod.getGeometricError(chunk, 0), 1.0e-6f);
+            for (int level = 1; level < CHUNK_INDICES.getLevelsCount(); level++) {
+                assertTrue(lod.getGeometricError(chunk, level) >= lod.getGeometricError(chunk, level - 1));
+            }
+        }
+    }
+
+    /**
+     * The chunks next to each other differ at most one level and the finer one is stitched so there are no cracks
+     */
+    @Test
+    public void chunksOfDifferentLevelsHaveNoCracks() {
+        TerrainLod lod = createRoughTerrain();
+        float[][] cameras = {{1.0f, 3.0f, 1.0f}, {256.0f, 2.0f, 256.0f}, {500.0f, 40.0f, 20.0f},
+                {-300.0f, 10.0f, 700.0f}};
+        boolean stitched = false;
+        for (float[] camera : cameras) {
+            lod.select(camera[0], camera[1], camera[2], LOD_SCALE, MAX_PIXELS_ERROR);
+            assertNoCracks(lod);
+            int triangles = 0;
+            for (int chunk = 0; chunk < lod.getChunksCount(); chunk++) {
+                stitched |= lod.getStitchMask(chunk) != 0;
+                triangles += lod.getIndicesCount(chunk) / 3;
+                assertEquals(CHUNK_INDICES.getFirstIndex(lod.getLevel(chunk), lod.getStitchMask(chunk)),
+                        lod.getFirstIndex(chunk));
+            }
+            assertEquals(triangles, lod.getTrianglesCount());
+        }
+        assertTrue("No chunk was stitched", stitched);
+    }
+
+    /**
+     * The chunks along the edge shared by two terrains are limited and stitched like the chunks inside one terrain
+     */
+    @Test
+    public void terrainsNextToEachOtherHaveNoCracks() {
+        TerrainLod left = createRoughTerrain();
+        TerrainLod right = createRoughTerrain();
+        // The camera is in the left terrain near the shared edge (The right terrain starts at x = SIZE)
+        float cameraX = SIZE - 10.0f, cameraY = 3.0f, cameraZ = 100.0f;
+        left.selectLevels(cameraX, cameraY, cameraZ, LOD_SCALE, MAX_PIXELS_ERROR);
+        right.selectLevels(cameraX - SIZE, cameraY, cameraZ, LOD_SCALE, MAX_PIXELS_ERROR);
+        boolean changed = true;
+        while (changed) {
+            changed = left.limitNeighborLevels();
+            changed |= left.limitEdgeLevels(right, GeoMipmapIndices.RIGHT_EDGE);
+            changed |= right.limitNeighborLevels();
+            changed |= right.limitEdgeLevels(left, GeoMipmapIndices.LEFT_EDGE);
+        }
+        left.updateStitchMasks(null, right, null, null);
+        right.updateStitchMasks(left, null, null, null);
+
+        assertNoCracks(left);
+        assertNoCracks(right);
+        int side = left.getChunksBySide();
+        for (int row = 0; row < side; row++) {
+            int leftChunk = row * side + side - 1, rightChunk = row * side;
+            assertNoCrack(left, leftChunk, GeoMipmapIndices.RIGHT_EDGE, right, rightChunk);
+            assertNoCrack(right, rightChunk, GeoMipmapIndices.LEFT_EDGE, left, leftChunk);
+        }
+    }
+
+    /**
+     * The terrains that can not be split in whole chunks are refused
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesTerrainsWithoutWholeChunks() {
+        new TerrainLod(new HeightField(new float[100 * 100], 100, SIZE), CHUNK_INDICES);
+    }
+}
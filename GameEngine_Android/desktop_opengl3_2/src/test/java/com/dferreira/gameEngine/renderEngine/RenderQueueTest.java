@@ -0,0 +1,107 @@
+package com.dferreira.gameEngine.renderEngine;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the order of the draws sorted by the render queue
+ */
+public class RenderQueueTest {
+
+    /**
+     * Pass of the draws of the tests
+     */
+    private static final int PASS = 1;
+
+    /**
+     * Distance that corresponds to the largest depth of the key
+     */
+    private static final float MAX_DEPTH = 1000.0f;
+
+    /**
+     * Submits the draws and sorts them
+     *
+     * @param alphaTested If the translucent draws are alpha tested
+     * @param textures    Sort identifier of the texture of each draw
+     * @param distances   Distance to the camera of each draw
+     * @return The queue sorted
+     */
+    private static RenderQueue sortTranslucent(boolean alphaTested, int[] textures, float[] distances) {
+        RenderQueue queue = new RenderQueue();
+        for (int i = 0; i < textures.length; i++) {
+            int depth = RenderQueue.quantizeDepth(distances[i], MAX_DEPTH);
+            queue.add(RenderQueue.makeKey(PASS, true, alphaTested, 1, textures[i], 1, depth), i);
+        }
+        queue.sort();
+        return queue;
+    }
+
+    /**
+     * The blended draws are drawn from the back to the front even when they change of texture
+     */
+    @Test
+    public void blendedDrawsKeepTheDepthOrder() {
+        RenderQueue queue = sortTranslucent(false, new int[]{1, 2, 1, 2}, new float[]{10.0f, 40.0f, 30.0f, 20.0f});
+
+        int[] expected = {1, 2, 3, 0};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], queue.getItem(i));
+        }
+    }
+
+    /**
+     * The alpha tested draws are grouped by texture and drawn from the back to the front inside each group
+     */
+    @Test
+    public void alphaTestedDrawsAreGroupedByState() {
+        RenderQueue queue = sortTranslucent(true, new int[]{1, 2, 1, 2}, new float[]{10.0f, 40.0f, 30.0f, 20.0f});
+
+        int[] expected = {2, 0, 1, 3};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], queue.getItem(i));
+        }
+    }
+
+    /**
+     * The opaque draws come before the translucent ones of the same pass and are sorted from the front to the back
+     */
+    @Test
+    public void opaqueDrawsComeFirst() {
+        RenderQueue queue = new RenderQueue();
+        queue.add(RenderQueue.makeKey(PASS, true, false, 1, 1, 1, 10), 0);
+        queue.add(RenderQueue.makeKey(PASS, false, false, 1, 1, 1, 30), 1);
+        queue.add(RenderQueue.makeKey(PASS, false, false, 1, 1, 1, 20), 2);
+        queue.add(RenderQueue.makeKey(PASS - 1, true, false, 1, 1, 1, 10), 3);
+        queue.sort();
+
+        int[] expected = {3, 2, 1, 0};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], queue.getItem(i));
+        }
+    }
+
+    /**
+     * The sort identifiers are never given again, even after the objects that had them are collected
+     */
+    @Test
+    public void sortIdsAreNotReused() {
+        RenderQueue queue = new RenderQueue();
+        Object kept = new Object();
+        int keptId = queue.getSortId(kept);
+        Set<Integer> ids = new HashSet<>();
+        ids.add(keptId);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ids.add(queue.getSortId(new Object())));
+            if (i % 100 == 0) {
+                System.gc();
+            }
+        }
+        assertEquals(keptId, queue.getSortId(kept));
+        assertEquals(0, queue.getSortId(null));
+    }
+}
@@ -0,0 +1,178 @@
+package com.dferreira.gameEngine.shaders;
+
+import com.dferreira.commons.ColorRGBA;
+import com.dferreira.commons.GLTransformation;
+import com.dferreira.commons.IEnum;
+import com.dferreira.commons.Vector2f;
+import com.dferreira.commons.Vector3f;
+import com.dferreira.commons.generic_render.RecordingShaderManagerAPI;
+import com.dferreira.commons.generic_resources.TextEnum;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the shadow copies of the uniforms skip only the values that the program already has
+ */
+public class ShaderManagerTest {
+
+    /**
+     * Records the values that reach the render API
+     */
+    private RecordingShaderManagerAPI api;
+
+    /**
+     * Shader manager without attributes or uniforms of its own
+     */
+    private ShaderManager shaderManager;
+
+    /**
+     * Creates the shader manager over the recording API
+     */
+    @Before
+    public void setUp() {
+        api = new RecordingShaderManagerAPI();
+        shaderManager = new ShaderManager(TextEnum.entity_vertex_shader, TextEnum.entity_fragment_shader, api) {
+            /**
+             * @return No attributes to bind
+             */
+            @Override
+            protected List<IEnum> getAttributes() {
+                return null;
+            }
+
+            /**
+             * No uniforms to locate
+             */
+            @Override
+            protected void getAllUniformLocations() {
+            }
+        };
+    }
+
+    /**
+     * Checks the loads issued to the render API and the ones skipped
+     *
+     * @param issued  Number of loads that should reach the render API
+     * @param skipped Number of loads that should be skipped
+     */
+    private void assertUploads(long issued, long skipped) {
+        assertEquals(issued, api.getUploads());
+        assertEquals(issued, shaderManager.getUploadsIssued());
+        assertEquals(skipped, shaderManager.getUploadsSkipped());
+    }
+
+    /**
+     * Loading the same value again in a location skips the call
+     */
+    @Test
+    public void skipsTheSameValue() {
+        shaderManager.loadFloat(0, 1.5f);
+        shaderManager.loadFloat(0, 1.5f);
+        shaderManager.loadInt(1, 3);
+        shaderManager.loadInt(1, 3);
+        shaderManager.loadBoolean(2, true);
+        shaderManager.loadBoolean(2, true);
+        assertUploads(3, 3);
+
+        shaderManager.loadFloat(0, 2.5f);
+        shaderManager.loadInt(1, 4);
+        shaderManager.loadBoolean(2, false);
+        assertUploads(6, 3);
+    }
+
+    /**
+     * Every location keeps its own value
+     */
+    @Test
+    public void keepsOneValueByLocation() {
+        shaderManager.loadFloat(0, 1.0f);
+        shaderManager.loadFloat(1, 1.0f);
+        shaderManager.loadFloat(0, 1.0f);
+        shaderManager.loadFloat(1, 1.0f);
+        // A location far from the ones loaded grows the shadow copies
+        shaderManager.loadFloat(40, 1.0f);
+        shaderManager.loadFloat(40, 1.0f);
+        assertUploads(3, 3);
+    }
+
+    /**
+     * A change in any component of the vectors, colors and matrices loads the value
+     */
+    @Test
+    public void comparesEveryComponent() {
+        Vector3f vector = new Vector3f(1.0f, 2.0f, 3.0f);
+        shaderManager.loadVector(0, vector);
+        shaderManager.loadVector(0, vector);
+        vector.z = 4.0f;
+        shaderManager.loadVector(0, vector);
+        assertUploads(2, 1);
+
+        shaderManager.loadVector(1, new Vector2f(1.0f, 2.0f));
+        shaderManager.loadVector(1, new Vector2f(1.0f, 2.0f));
+        shaderManager.loadVector(1, new Vector2f(1.0f, 3.0f));
+        assertUploads(4, 2);
+
+        ColorRGBA color = new ColorRGBA(0.1f, 0.2f, 0.3f, 1.0f);
+        shaderManager.loadColorRGBA(2, color);
+        shaderManager.loadColorRGBA(2, color);
+        color.a = 0.5f;
+        shaderManager.loadColorRGBA(2, color);
+        assertUploads(6, 3);
+
+        GLTransformation matrix = new GLTransformation();
+        matrix.loadIdentity();
+        shaderManager.loadMatrix(3, matrix);
+        shaderManager.loadMatrix(3, matrix);
+        matrix.translate(0.0f, 0.0f, 1.0f);
+        shaderManager.loadMatrix(3, matrix);
+        assertUploads(8, 4);
+    }
+
+    /**
+     * The values are compared by their bits (The zeros of different signs are different values)
+     */
+    @Test
+    public void comparesTheBitsOfTheFloats() {
+        shaderManager.loadFloat(0, 0.0f);
+        shaderManager.loadFloat(0, -0.0f);
+        shaderManager.loadFloat(0, Float.NaN);
+        shaderManager.loadFloat(0, Float.NaN);
+        assertUploads(3, 1);
+    }
+
+    /**
+     * The locations that are not of the program are always passed to the render API
+     */
+    @Test
+    public void neverSkipsMissingLocations() {
+        shaderManager.loadFloat(-1, 1.0f);
+        shaderManager.loadFloat(-1, 1.0f);
+        assertUploads(2, 0);
+    }
+
+    /**
+     * The first value of a location is always loaded, even when it is the default of the shadow copy
+     */
+    @Test
+    public void loadsTheFirstValue() {
+        shaderManager.loadInt(0, 0);
+        shaderManager.loadBoolean(1, false);
+        assertUploads(2, 0);
+    }
+
+    /**
+     * A program disposed forgets the values loaded
+     */
+    @Test
+    public void forgetsTheValuesWhenDisposed() {
+        shaderManager.loadFloat(0, 1.0f);
+        shaderManager.dispose();
+        shaderManager.loadFloat(0, 1.0f);
+        assertUploads(2, 0);
+    }
+}